@@ -0,0 +1,83 @@
+// AllPairsBenchmark.java
+// Checks streamed all-pairs Dijkstra rows against Floyd-Warshall on a small
+// synthetic map (same closeness centrality for every node), then times station
+// placement and coverage on a large map, where CityMap streams rows instead of
+// building the O(n^2) Floyd-Warshall matrix.
+// Usage: java -Xmx4g AllPairsBenchmark [large nodes] [stations] [small nodes] [seed]
+
+import algorithms.AllPairsDistances;
+import algorithms.FloydWarshall;
+import models.CompactGraph;
+import java.util.*;
+
+public class AllPairsBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int largeNodes = BenchmarkSupport.intArg(args, 0, 20_000);
+        int stationCount = BenchmarkSupport.intArg(args, 1, 20);
+        int smallNodes = BenchmarkSupport.intArg(args, 2, 1_500);
+        long seed = BenchmarkSupport.longArg(args, 3, 42);
+
+        BenchmarkSupport.printBanner("ALL-PAIRS DIJKSTRA");
+        System.out.println("Processors: " + Runtime.getRuntime().availableProcessors());
+
+        // Correctness: closeness centrality from streamed rows vs the Floyd-Warshall matrix
+        CompactGraph small = BenchmarkSupport.syntheticCity(smallNodes, seed).getCompactGraph();
+        int n = small.getNodeCount();
+        long t0 = System.nanoTime();
+        FloydWarshall floyd = new FloydWarshall(small, false);
+        double floydMillis = (System.nanoTime() - t0) / 1e6;
+
+        double[] streamed = new double[n];
+        t0 = System.nanoTime();
+        AllPairsDistances.forEachRow(small, (source, row) -> streamed[source] = closeness(row, source));
+        double streamMillis = (System.nanoTime() - t0) / 1e6;
+
+        double maxDifference = 0;
+        double[] row = new double[n];
+        for (int source = 0; source < n; source++) {
+            for (int v = 0; v < n; v++) {
+                double d = floyd.getShortestDistance(small.nodeId(source), small.nodeId(v));
+                row[v] = d == Double.POSITIVE_INFINITY ? Double.MAX_VALUE : d;
+            }
+            double expected = closeness(row, source);
+            maxDifference = Math.max(maxDifference, Math.abs(expected - streamed[source]) / Math.max(1.0, expected));
+        }
+        System.out.printf("%nSmall map: %d nodes%n", n);
+        System.out.printf("  Floyd-Warshall:        %10.1f ms%n", floydMillis);
+        System.out.printf("  Streamed Dijkstra rows: %9.1f ms%n", streamMillis);
+        System.out.printf("  Max closeness difference: %.2e%n", maxDifference);
+
+        // Scale: station placement and coverage on a map past the Floyd-Warshall limit
+        CityMap large = BenchmarkSupport.syntheticCity(largeNodes, seed);
+        System.out.printf("%nLarge map: %d nodes (Floyd-Warshall matrix would need %.1f GB)%n",
+            large.getTotalNodes(), 8.0 * large.getTotalNodes() * large.getTotalNodes() / (1L << 30));
+        t0 = System.nanoTime();
+        List<Integer> stations = large.findOptimalPoliceStationLocations(stationCount);
+        double placementSeconds = (System.nanoTime() - t0) / 1e9;
+
+        t0 = System.nanoTime();
+        Map<String, Double> coverage = large.calculateStationCoverageStats(stations);
+        double coverageMillis = (System.nanoTime() - t0) / 1e6;
+
+        System.out.printf("  Station placement: %.1f s (%.2f ms per source row)%n",
+            placementSeconds, placementSeconds * 1e3 / large.getTotalNodes());
+        System.out.printf("  Coverage stats:    %.1f ms %s%n", coverageMillis, coverage);
+
+        System.out.println(maxDifference <= 1e-9 && stations.size() == stationCount
+            ? "\nPASS: streamed rows match Floyd-Warshall"
+            : "\nFAIL: closeness differs by " + maxDifference + " or stations missing");
+    }
+
+    private static double closeness(double[] row, int source) {
+        double total = 0;
+        int reachable = 0;
+        for (int v = 0; v < row.length; v++) {
+            if (v != source && row[v] < Double.MAX_VALUE) {
+                total += row[v];
+                reachable++;
+            }
+        }
+        return reachable > 0 ? total / reachable : Double.MAX_VALUE;
+    }
+}
@@ -0,0 +1,148 @@
+// AlternativeRoutesBenchmark.java
+// K alternative routes between random node pairs on a synthetic city:
+//   - plateau (two shortest-path trees), penalty (repeated searches) and Yen's
+//     k shortest loopless paths, against the cost of K independent Dijkstra searches
+//   - routes found, their stretch over the shortest and their largest overlap
+//   - every route checked: loopless, distinct, within the overlap limit, costed
+//     correctly, the first one optimal; Yen without a limit in cost order
+//   - PathfindingService.calculateAlternativePaths returns no duplicate of the primary
+// Usage: java -Xmx4g AlternativeRoutesBenchmark [nodes] [pairs] [k] [overlap limit] [seed]
+
+import algorithms.AlternativeRoutes;
+import algorithms.Dijkstra;
+import models.CompactGraph;
+import java.util.*;
+
+public class AlternativeRoutesBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 50_000);
+        int pairCount = BenchmarkSupport.intArg(args, 1, 50);
+        int k = BenchmarkSupport.intArg(args, 2, 3);
+        double overlapLimit = BenchmarkSupport.doubleArg(args, 3, AlternativeRoutes.DEFAULT_MAX_OVERLAP);
+        long seed = BenchmarkSupport.longArg(args, 4, 42);
+
+        BenchmarkSupport.printBanner("ALTERNATIVE ROUTES");
+
+        CityMap cityMap = BenchmarkSupport.syntheticCity(nodeCount, seed);
+        CompactGraph graph = cityMap.getCompactGraph();
+        int n = graph.getNodeCount();
+        Random random = new Random(seed + 1);
+        int[][] pairs = new int[pairCount][];
+        double[] optimal = new double[pairCount];
+        for (int i = 0; i < pairCount; i++) {
+            int s, t;
+            do {
+                s = random.nextInt(n);
+                t = random.nextInt(n);
+                optimal[i] = Dijkstra.shortestDistance(graph, s, t);
+            } while (s == t || optimal[i] == Double.MAX_VALUE);
+            pairs[i] = new int[] {s, t};
+        }
+        System.out.printf("Nodes: %d, pairs: %d, k: %d, overlap limit: %.2f%n%n", n, pairCount, k, overlapLimit);
+
+        // Warm-up
+        for (int i = 0; i < Math.min(pairCount, 5); i++) {
+            AlternativeRoutes.plateaus(graph, pairs[i][0], pairs[i][1], k, overlapLimit);
+            AlternativeRoutes.penalty(graph, pairs[i][0], pairs[i][1], k, overlapLimit, AlternativeRoutes.DEFAULT_PENALTY);
+            AlternativeRoutes.yen(graph, pairs[i][0], pairs[i][1], k, overlapLimit);
+        }
+
+        long t0 = System.nanoTime();
+        for (int[] pair : pairs) {
+            for (int r = 0; r < k; r++) Dijkstra.findShortestPath(graph, pair[0], pair[1]);
+        }
+        double baselineMillis = (System.nanoTime() - t0) / 1e6 / pairCount;
+
+        System.out.printf("%-28s %10s %8s %10s %10s %10s%n", "", "ms/pair", "routes", "stretch", "overlap", "settled");
+        System.out.printf("%-28s %10.2f%n", k + " x Dijkstra (same route)", baselineMillis);
+        int errors = 0;
+        for (String method : new String[] {"plateau", "penalty", "yen"}) {
+            AlternativeRoutes.Result[] results = new AlternativeRoutes.Result[pairCount];
+            t0 = System.nanoTime();
+            for (int i = 0; i < pairCount; i++) {
+                results[i] = run(method, graph, pairs[i][0], pairs[i][1], k, overlapLimit);
+            }
+            double millis = (System.nanoTime() - t0) / 1e6 / pairCount;
+
+            long routes = 0, settled = 0;
+            double stretch = 0, overlap = 0;
+            int alternatives = 0;
+            for (int i = 0; i < pairCount; i++) {
+                errors += check(graph, results[i], pairs[i], optimal[i], overlapLimit, false);
+                routes += results[i].size();
+                settled += results[i].getNodesSettled();
+                for (int r = 1; r < results[i].size(); r++) {
+                    stretch += results[i].get(r).getCost() / optimal[i] - 1;
+                    overlap += results[i].get(r).getOverlap();
+                    alternatives++;
+                }
+            }
+            System.out.printf("%-28s %10.2f %8.2f %9.1f%% %9.1f%% %10d%n", method, millis,
+                (double) routes / pairCount, 100 * stretch / Math.max(1, alternatives),
+                100 * overlap / Math.max(1, alternatives), settled / pairCount);
+        }
+
+        // Yen without an overlap limit is plain k shortest loopless paths: costs in order
+        for (int i = 0; i < Math.min(pairCount, 10); i++) {
+            errors += check(graph, AlternativeRoutes.yen(graph, pairs[i][0], pairs[i][1], k, 1.0),
+                            pairs[i], optimal[i], 1.0, true);
+        }
+
+        // Service level: no alternative repeats the primary or an earlier alternative
+        PathfindingService service = new PathfindingService(cityMap);
+        service.setAlternativeOverlapLimit(overlapLimit);
+        int duplicates = 0;
+        for (PathfindingService.AlternativeMethod method : PathfindingService.AlternativeMethod.values()) {
+            service.setAlternativeMethod(method);
+            for (int i = 0; i < Math.min(pairCount, 10); i++) {
+                List<PathfindingService.PathResult> found = service.calculateAlternativePaths(
+                    graph.nodeId(pairs[i][0]), graph.nodeId(pairs[i][1]), k);
+                Set<List<Integer>> distinct = new HashSet<>();
+                for (PathfindingService.PathResult result : found) {
+                    if (!distinct.add(result.getPath())) duplicates++;
+                }
+            }
+        }
+        System.out.printf("%nService duplicates: %d; route check errors: %d%n", duplicates, errors);
+
+        boolean pass = errors == 0 && duplicates == 0;
+        System.out.println(pass ? "\nPASS: routes loopless, distinct, within the overlap limit, shortest first"
+                                : "\nFAIL");
+    }
+
+    private static AlternativeRoutes.Result run(String method, CompactGraph graph, int s, int t, int k,
+                                                double overlapLimit) {
+        switch (method) {
+            case "plateau":
+                return AlternativeRoutes.plateaus(graph, s, t, k, overlapLimit);
+            case "penalty":
+                return AlternativeRoutes.penalty(graph, s, t, k, overlapLimit, AlternativeRoutes.DEFAULT_PENALTY);
+            default:
+                return AlternativeRoutes.yen(graph, s, t, k, overlapLimit);
+        }
+    }
+
+    private static int check(CompactGraph graph, AlternativeRoutes.Result result, int[] pair, double optimal,
+                             double overlapLimit, boolean ordered) {
+        int errors = 0;
+        if (result.size() == 0 || !BenchmarkSupport.sameDistance(optimal, result.get(0).getCost())) errors++;
+        Set<List<Integer>> distinct = new HashSet<>();
+        double previous = 0;
+        for (int r = 0; r < result.size(); r++) {
+            AlternativeRoutes.Route route = result.get(r);
+            int[] path = route.getPath();
+            List<Integer> nodes = new ArrayList<>();
+            for (int v : path) nodes.add(v);
+            if (path[0] != pair[0] || path[path.length - 1] != pair[1]) errors++;
+            if (new HashSet<>(nodes).size() != path.length || !distinct.add(nodes)) errors++;
+            if (!BenchmarkSupport.sameDistance(AlternativeRoutes.pathCost(graph, path), route.getCost())) errors++;
+            for (int q = 0; q < r; q++) {
+                if (AlternativeRoutes.overlap(graph, path, result.get(q).getPath()) > overlapLimit + 1e-9) errors++;
+            }
+            if (ordered && route.getCost() < previous - 1e-9) errors++;
+            previous = route.getCost();
+        }
+        return errors;
+    }
+}
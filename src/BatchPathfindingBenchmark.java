@@ -0,0 +1,147 @@
+// BatchPathfindingBenchmark.java
+// PathfindingService under concurrent callers and batch queries:
+//   - several threads issue cached and uncached route queries while another
+//     applies traffic updates; request and hit counters must add up exactly
+//   - a dispatch-style batch (a few sources, many targets each): one
+//     calculateShortestPath per pair vs calculatePathsBatch (one search per
+//     distinct source) on a single thread and on the common ForkJoinPool
+//   - every batch distance checked against a fresh Dijkstra
+// Usage: java -Xmx4g BatchPathfindingBenchmark [nodes] [sources] [targets per source] [threads] [seed]
+
+import algorithms.Dijkstra;
+import models.CompactGraph;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BatchPathfindingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 50_000);
+        int sourceCount = BenchmarkSupport.intArg(args, 1, 20);
+        int targetsPerSource = BenchmarkSupport.intArg(args, 2, 200);
+        int threadCount = BenchmarkSupport.intArg(args, 3, 4);
+        long seed = BenchmarkSupport.longArg(args, 4, 42);
+
+        BenchmarkSupport.printBanner("BATCH PATHFINDING");
+
+        CityMap cityMap = BenchmarkSupport.syntheticCity(nodeCount, seed);
+        CompactGraph graph = cityMap.getCompactGraph();
+        int n = graph.getNodeCount();
+        Random random = new Random(seed + 1);
+        System.out.printf("Nodes: %d, processors: %d%n%n", n, Runtime.getRuntime().availableProcessors());
+
+        // Concurrent callers and traffic updates: counters must not lose increments
+        PathfindingService shared = new PathfindingService(cityMap);
+        shared.setRoutingEngine(PathfindingService.RoutingEngine.BIDIRECTIONAL);
+        int[][] popular = new int[40][2];
+        for (int[] route : popular) {
+            route[0] = graph.nodeId(random.nextInt(n));
+            route[1] = graph.nodeId(random.nextInt(n));
+        }
+        int queriesPerThread = 300;
+        AtomicLong issued = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        ExecutorService callers = Executors.newFixedThreadPool(threadCount + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> running = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            long threadSeed = seed + 10 + t;
+            running.add(callers.submit(() -> {
+                Random local = new Random(threadSeed);
+                start.await();
+                for (int q = 0; q < queriesPerThread; q++) {
+                    int[] route = popular[local.nextInt(popular.length)];
+                    PathfindingService.PathResult result = q % 4 == 0
+                        ? shared.calculatePoliceNavigationPath(route[0], route[1])
+                        : shared.calculateShortestPath(route[0], route[1]);
+                    issued.incrementAndGet();
+                    if (result == null) failures.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        running.add(callers.submit(() -> {
+            Random local = new Random(seed + 5);
+            start.await();
+            for (int u = 0; u < 30; u++) {
+                Map<Integer, Double> update = new HashMap<>();
+                for (int i = 0; i < 20; i++) {
+                    update.put(graph.nodeId(local.nextInt(n)), 0.8 + 1.7 * local.nextDouble());
+                }
+                shared.updateTrafficConditions(update);
+                Thread.sleep(20);
+            }
+            return null;
+        }));
+        start.countDown();
+        for (Future<?> future : running) future.get();
+        callers.shutdown();
+        PathfindingService.PathfindingStats concurrentStats = shared.getPerformanceStats();
+        boolean countersExact = concurrentStats.totalRequests == issued.get() && failures.get() == 0;
+        System.out.printf("Concurrent callers: %d threads, %d queries, counted %d requests (%d hits, %d invalidated)%n%n",
+            threadCount, issued.get(), concurrentStats.totalRequests, concurrentStats.cacheHits,
+            concurrentStats.routesInvalidated);
+        BenchmarkSupport.resetTraffic(cityMap);
+
+        // Dispatch-style batch: few sources, many targets each
+        int[] starts = new int[sourceCount * targetsPerSource];
+        int[] ends = new int[starts.length];
+        for (int s = 0; s < sourceCount; s++) {
+            int source = graph.nodeId(random.nextInt(n));
+            for (int t = 0; t < targetsPerSource; t++) {
+                starts[s * targetsPerSource + t] = source;
+                ends[s * targetsPerSource + t] = graph.nodeId(random.nextInt(n));
+            }
+        }
+
+        new PathfindingService(cityMap).calculatePathsBatch(starts, ends);   // warm-up
+        PathfindingService perPair = new PathfindingService(cityMap);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < starts.length; i++) {
+            perPair.calculateShortestPath(starts[i], ends[i]);
+        }
+        double perPairMillis = (System.nanoTime() - t0) / 1e6;
+
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        PathfindingService serialBatch = new PathfindingService(cityMap);
+        serialBatch.setBatchExecutor(single);
+        t0 = System.nanoTime();
+        PathfindingService.BatchResult serialResult = serialBatch.calculatePathsBatch(starts, ends);
+        double serialMillis = (System.nanoTime() - t0) / 1e6;
+        single.shutdown();
+
+        PathfindingService parallelBatch = new PathfindingService(cityMap);
+        t0 = System.nanoTime();
+        PathfindingService.BatchResult parallelResult = parallelBatch.calculatePathsBatch(starts, ends);
+        double parallelMillis = (System.nanoTime() - t0) / 1e6;
+        t0 = System.nanoTime();
+        parallelBatch.calculatePathsBatch(starts, ends);
+        double cachedMillis = (System.nanoTime() - t0) / 1e6;
+
+        int mismatches = 0;
+        for (int i = 0; i < starts.length; i++) {
+            double exact = Dijkstra.shortestDistance(graph, graph.indexOf(starts[i]), graph.indexOf(ends[i]));
+            PathfindingService.PathResult result = parallelResult.get(starts[i], ends[i]);
+            if (exact == Double.MAX_VALUE || starts[i] == ends[i]) {
+                if (result.isValidPath()) mismatches++;
+            } else if (!BenchmarkSupport.sameDistance(exact, result.getDistance())
+                       || !BenchmarkSupport.sameDistance(exact, serialResult.get(starts[i], ends[i]).getDistance())) {
+                mismatches++;
+            }
+        }
+
+        System.out.printf("%d pairs from %d sources%n", starts.length, sourceCount);
+        System.out.printf("%-44s %10s%n", "", "ms");
+        System.out.printf("%-44s %10.1f%n", "calculateShortestPath per pair", perPairMillis);
+        System.out.printf("%-44s %10.1f%n", "calculatePathsBatch, single-thread executor", serialMillis);
+        System.out.printf("%-44s %10.1f%n", "calculatePathsBatch, common ForkJoinPool", parallelMillis);
+        System.out.printf("%-44s %10.1f%n", "calculatePathsBatch repeated (warm cache)", cachedMillis);
+        System.out.printf("Mismatches against Dijkstra: %d of %d; cache hit rate after repeat %.1f%%%n",
+            mismatches, starts.length, parallelBatch.getPerformanceStats().cacheHitRate * 100);
+
+        boolean pass = countersExact && mismatches == 0;
+        System.out.println(pass ? "\nPASS: counters exact under concurrency, batch results match Dijkstra"
+                                : "\nFAIL: counters exact " + countersExact + ", mismatches " + mismatches);
+    }
+}
@@ -0,0 +1,72 @@
+// BenchmarkSupport.java
+// Fixtures and checks shared by the benchmark harnesses in this directory:
+// positional arguments with defaults, the banner, the synthetic city, resetting
+// traffic between runs and the distance tolerance every correctness check uses.
+
+import models.CompactGraph;
+import services.SyntheticCityGenerator;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    static long longArg(String[] args, int index, long defaultValue) {
+        return args.length > index ? Long.parseLong(args[index]) : defaultValue;
+    }
+
+    static double doubleArg(String[] args, int index, double defaultValue) {
+        return args.length > index ? Double.parseDouble(args[index]) : defaultValue;
+    }
+
+    static void printBanner(String title) {
+        System.out.println("=== " + title + " BENCHMARK ===");
+    }
+
+    /**
+     * Synthetic city of about nodeCount intersections (see SyntheticCityGenerator),
+     * generated into a temporary CSV that is deleted once it has been loaded
+     */
+    static CityMap syntheticCity(int nodeCount, long seed) throws IOException {
+        Path csv = Files.createTempFile("synthetic_city", ".csv");
+        try {
+            new SyntheticCityGenerator(nodeCount, seed).generate(csv.toString());
+            return new CityMap(csv.toString(), CityMap.LoadMode.MAPPED_PARALLEL);
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    /**
+     * Set every traffic multiplier back to 1.0
+     */
+    static void resetTraffic(CityMap cityMap) {
+        CompactGraph graph = cityMap.getCompactGraph();
+        Map<Integer, Double> normal = new HashMap<>();
+        for (int v = 0; v < graph.getNodeCount(); v++) {
+            normal.put(graph.nodeId(v), 1.0);
+        }
+        cityMap.updateTrafficConditions(normal);
+    }
+
+    /**
+     * Equal within a relative 1e-9; an unreachable distance (Double.MAX_VALUE or
+     * infinity) only matches itself
+     */
+    static boolean sameDistance(double expected, double actual) {
+        if (expected == actual) return true;
+        if (unreachable(expected) || unreachable(actual)) return false;
+        return Math.abs(expected - actual) <= 1e-9 * Math.max(1.0, expected);
+    }
+
+    private static boolean unreachable(double distance) {
+        return distance == Double.MAX_VALUE || Double.isInfinite(distance);
+    }
+}
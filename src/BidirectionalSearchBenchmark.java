@@ -0,0 +1,113 @@
+// BidirectionalSearchBenchmark.java
+// Compares nodes settled by unidirectional and bidirectional Dijkstra and A* on
+// a synthetic map, checks every bidirectional distance against Dijkstra, and
+// runs the map-based bidirectional search on a sample of the same queries.
+// The A* rows use admissible heuristics (scaled Euclidean and ALT), since the
+// consistent-potential stopping rule is only exact for those.
+// Usage: java -Xmx4g BidirectionalSearchBenchmark [nodes] [queries] [seed]
+
+import algorithms.AStar;
+import algorithms.Dijkstra;
+import algorithms.LandmarkHeuristic;
+import models.CityMapNode;
+import models.CompactGraph;
+import java.util.*;
+
+public class BidirectionalSearchBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 200_000);
+        int queryCount = BenchmarkSupport.intArg(args, 1, 100);
+        long seed = BenchmarkSupport.longArg(args, 2, 42);
+
+        BenchmarkSupport.printBanner("BIDIRECTIONAL SEARCH");
+
+        CityMap cityMap = BenchmarkSupport.syntheticCity(nodeCount, seed);
+        CompactGraph graph = cityMap.getCompactGraph();
+        LandmarkHeuristic landmarks = LandmarkHeuristic.build(graph);
+        System.out.printf("Nodes: %d, edges: %d%n%n", graph.getNodeCount(), graph.getEdgeCount());
+
+        double ratio = landmarks.getWeightPerDistance();
+        AStar.IndexHeuristic scaledEuclidean = (g, from, goal) -> g.euclideanDistance(from, goal) * ratio;
+
+        Random random = new Random(seed + 1);
+        int[] sources = new int[queryCount];
+        int[] targets = new int[queryCount];
+        double[] exact = new double[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            sources[q] = random.nextInt(graph.getNodeCount());
+            targets[q] = random.nextInt(graph.getNodeCount());
+            exact[q] = Dijkstra.findShortestPaths(graph, sources[q]).getDistance(targets[q]);
+        }
+
+        System.out.printf("%-22s %14s %14s %12s %10s%n", "", "uni nodes", "bidi nodes", "bidi us", "exact");
+        for (int round = 0; round < 2; round++) {
+            boolean report = round == 1;
+            run("Dijkstra", graph, sources, targets, exact, q -> AStar.ZERO_INDEX_HEURISTIC, report);
+            run("A*, Euclidean x ratio", graph, sources, targets, exact, q -> scaledEuclidean, report);
+            run("A*, ALT", graph, sources, targets, exact,
+                q -> landmarks.forQuery(sources[q], targets[q]), report);
+        }
+
+        // Map-based version on a sample (HashMap searches are much slower)
+        Map<Integer, CityMapNode> nodes = cityMap.getAllNodes();
+        int sampled = Math.min(queryCount, 10);
+        int mapExact = 0;
+        for (int q = 0; q < sampled; q++) {
+            AStar.AStarResult result = AStar.findPathBidirectional(nodes, graph.nodeId(sources[q]),
+                graph.nodeId(targets[q]), AStar.ZERO_HEURISTIC);
+            if (BenchmarkSupport.sameDistance(exact[q], result.getTotalDistance())
+                && validPath(graph, result, exact[q])) mapExact++;
+        }
+        System.out.printf("%nMap-based bidirectional Dijkstra: %d/%d exact%n", mapExact, sampled);
+    }
+
+    private interface HeuristicForQuery {
+        AStar.IndexHeuristic get(int query);
+    }
+
+    private static void run(String name, CompactGraph graph, int[] sources, int[] targets, double[] exact,
+                            HeuristicForQuery heuristics, boolean report) {
+        long uniExplored = 0;
+        long bidiExplored = 0;
+        long bidiNanos = 0;
+        int exactCount = 0;
+        for (int q = 0; q < sources.length; q++) {
+            AStar.IndexHeuristic heuristic = heuristics.get(q);
+            uniExplored += AStar.findPath(graph, sources[q], targets[q], heuristic).getNodesExplored();
+
+            long t0 = System.nanoTime();
+            AStar.AStarResult result = AStar.findPathBidirectional(graph, sources[q], targets[q], heuristic);
+            bidiNanos += System.nanoTime() - t0;
+            bidiExplored += result.getNodesExplored();
+            if (BenchmarkSupport.sameDistance(exact[q], result.getTotalDistance())
+                && validPath(graph, result, exact[q])) exactCount++;
+        }
+        if (report) {
+            System.out.printf("%-22s %14d %14d %12.1f %6d/%d   (%.2fx fewer)%n", name,
+                uniExplored / sources.length, bidiExplored / sources.length, bidiNanos / 1e3 / sources.length,
+                exactCount, sources.length, (double) uniExplored / Math.max(1, bidiExplored));
+        }
+    }
+
+    /**
+     * The path's edge weights sum to the expected distance
+     */
+    private static boolean validPath(CompactGraph graph, AStar.AStarResult result, double expected) {
+        if (!result.isPathFound()) return expected == Double.MAX_VALUE;
+
+        List<Integer> path = result.getPath();
+        double total = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            int from = graph.indexOf(path.get(i));
+            int edge = graph.findEdge(from, graph.indexOf(path.get(i + 1)));
+            if (edge < 0) return false;
+            double best = Double.MAX_VALUE;
+            for (int e = graph.edgeStart(from); e < graph.edgeEnd(from); e++) {
+                if (graph.target(e) == graph.target(edge)) best = Math.min(best, graph.dynamicWeight(from, e));
+            }
+            total += best;
+        }
+        return BenchmarkSupport.sameDistance(expected, total);
+    }
+}
@@ -0,0 +1,146 @@
+// CacheInvalidationBenchmark.java
+// Replays the same skewed route workload under a live traffic feed (a batch of
+// multiplier changes every few queries) with each CacheInvalidation mode, and
+// reports hit rate, time per query, and how many answers were stale (cached cost
+// differs from the route's current cost) or slower than a fresh exact search.
+// Each mode then replays the workload from several threads against the feed, drops
+// every indexed route, and checks the invalidation index is left empty.
+// Usage: java -Xmx4g CacheInvalidationBenchmark [nodes] [queries] [routes] [queries per update] [nodes per update] [seed]
+
+import algorithms.Dijkstra;
+import models.CompactGraph;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class CacheInvalidationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 50_000);
+        int queryCount = BenchmarkSupport.intArg(args, 1, 5_000);
+        int routeCount = BenchmarkSupport.intArg(args, 2, 300);
+        int queriesPerUpdate = BenchmarkSupport.intArg(args, 3, 20);
+        int nodesPerUpdate = BenchmarkSupport.intArg(args, 4, 20);
+        long seed = BenchmarkSupport.longArg(args, 5, 42);
+
+        BenchmarkSupport.printBanner("PATH CACHE INVALIDATION");
+
+        CityMap cityMap = BenchmarkSupport.syntheticCity(nodeCount, seed);
+        CompactGraph graph = cityMap.getCompactGraph();
+        int n = graph.getNodeCount();
+
+        // Popular routes, requested with a 1/rank skew
+        Random random = new Random(seed + 1);
+        int[][] routes = new int[routeCount][2];
+        double[] cumulative = new double[routeCount];
+        double total = 0;
+        for (int r = 0; r < routeCount; r++) {
+            routes[r][0] = graph.nodeId(random.nextInt(n));
+            routes[r][1] = graph.nodeId(random.nextInt(n));
+            total += 1.0 / (r + 1);
+            cumulative[r] = total;
+        }
+        int[] workload = new int[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            int r = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            workload[q] = r >= 0 ? r : -r - 1;
+        }
+        List<Map<Integer, Double>> feed = new ArrayList<>();
+        for (int q = 0; q < queryCount; q += queriesPerUpdate) {
+            Map<Integer, Double> update = new HashMap<>();
+            for (int i = 0; i < nodesPerUpdate; i++) {
+                update.put(graph.nodeId(random.nextInt(n)), 0.8 + 1.7 * random.nextDouble());
+            }
+            feed.add(update);
+        }
+        System.out.printf("Nodes: %d, queries: %d over %d routes, %d multipliers changed every %d queries%n%n",
+            n, queryCount, routeCount, nodesPerUpdate, queriesPerUpdate);
+
+        System.out.printf("%-16s %9s %10s %12s %9s %8s %11s %11s%n",
+            "", "hit rate", "ms/query", "invalidated", "recosted", "stale", "suboptimal", "index left");
+        boolean pass = true;
+        for (PathfindingService.CacheInvalidation mode : PathfindingService.CacheInvalidation.values()) {
+            BenchmarkSupport.resetTraffic(cityMap);
+            PathfindingService service = new PathfindingService(cityMap);
+            service.setRoutingEngine(PathfindingService.RoutingEngine.BIDIRECTIONAL);
+            service.setCacheInvalidation(mode);
+
+            int stale = 0;
+            int suboptimal = 0;
+            long elapsed = 0;
+            for (int q = 0; q < queryCount; q++) {
+                if (q % queriesPerUpdate == 0) {
+                    long t0 = System.nanoTime();
+                    service.updateTrafficConditions(feed.get(q / queriesPerUpdate));
+                    elapsed += System.nanoTime() - t0;
+                }
+                int[] route = routes[workload[q]];
+                long t0 = System.nanoTime();
+                PathfindingService.PathResult result = service.calculateShortestPath(route[0], route[1]);
+                elapsed += System.nanoTime() - t0;
+
+                if (!result.isValidPath()) continue;
+                if (!BenchmarkSupport.sameDistance(result.getDistance(), currentCost(graph, result.getPath()))) stale++;
+                double exact = Dijkstra.shortestDistance(graph, graph.indexOf(route[0]), graph.indexOf(route[1]));
+                if (!BenchmarkSupport.sameDistance(result.getDistance(), exact)) suboptimal++;
+            }
+
+            PathfindingService.PathfindingStats stats = service.getPerformanceStats();
+            int indexLeft = indexLeftAfterConcurrentRun(service, routes, workload, feed, queriesPerUpdate);
+            System.out.printf("%-16s %8.1f%% %10.3f %12d %9d %8d %11d %11d%n", mode, stats.cacheHitRate * 100,
+                elapsed / 1e6 / queryCount, stats.routesInvalidated, stats.routesRecosted, stale, suboptimal,
+                indexLeft);
+            pass &= stale == 0 && indexLeft == 0;
+        }
+        BenchmarkSupport.resetTraffic(cityMap);
+
+        System.out.println(pass ? "\nPASS: every cached answer matches its route's current cost, no index entry outlives its route"
+                                : "\nFAIL: stale costs were returned or the invalidation index leaked");
+    }
+
+    /**
+     * Replay the workload from several threads while the feed is applied, so updates
+     * cancel loads in flight, then drop every indexed route; returns the keys still indexed
+     */
+    private static int indexLeftAfterConcurrentRun(PathfindingService service, int[][] routes, int[] workload,
+                                                   List<Map<Integer, Double>> feed, int queriesPerUpdate)
+            throws Exception {
+        int threadCount = 4;
+        ExecutorService callers = Executors.newFixedThreadPool(threadCount + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> running = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t;
+            running.add(callers.submit(() -> {
+                start.await();
+                for (int q = offset; q < workload.length; q += threadCount) {
+                    int[] route = routes[workload[q]];
+                    service.calculateShortestPath(route[0], route[1]);
+                }
+                return null;
+            }));
+        }
+        running.add(callers.submit(() -> {
+            start.await();
+            for (Map<Integer, Double> update : feed) {
+                service.updateTrafficConditions(update);
+                Thread.sleep(queriesPerUpdate / threadCount);
+            }
+            return null;
+        }));
+        start.countDown();
+        for (Future<?> future : running) future.get();
+        callers.shutdown();
+
+        service.invalidateIndexedRoutes();
+        return service.getIndexedRouteCount();
+    }
+
+    private static double currentCost(CompactGraph graph, List<Integer> path) {
+        double cost = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            int from = graph.indexOf(path.get(i));
+            cost += graph.dynamicWeight(from, graph.findEdge(from, graph.indexOf(path.get(i + 1))));
+        }
+        return cost;
+    }
+}
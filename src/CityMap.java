@@ -4,10 +4,20 @@
 // Enhanced to support pathfinding algorithms and police station placement
 
 import models.CityMapNode;
+import models.CompactGraph;
+import models.RoadTypes;
+import algorithms.AllPairsDistances;
 import algorithms.FloydWarshall;
-import models.Graph;
+import algorithms.Isochrones;
+import algorithms.SpatialGridIndex;
+import algorithms.UnionFind;
+import services.MappedMapLoader;
+import services.MapSnapshot;
+import database.CityMapDAO;
 import java.util.*;
 import java.io.*;
+import java.nio.file.Path;
+import java.sql.SQLException;
 
 public class CityMap {
     
@@ -16,20 +26,103 @@ public class CityMap {
     private int totalEdges;
     private String mapFilename;
     
-    // Graph statistics
-    private double avgDegree;
+    // Report from the last MAPPED_PARALLEL load (null for standard loads)
+    private MappedMapLoader.LoadReport lastLoadReport;
+    
+    // Primitive CSR view used by the routing algorithms, built once the map is loaded.
+    // Dense indices follow a Hilbert curve for cache locality; node IDs are unchanged.
+    private final CompactGraph compactGraph;
+    
+    // Grid index for coordinate lookups (built once the map is loaded)
+    private SpatialGridIndex spatialIndex;
+    
+    // Above this many nodes, station placement streams one Dijkstra row per source
+    // instead of materializing a Floyd-Warshall matrix (O(n^2) memory, O(n^3) time)
+    private static final int FLOYD_WARSHALL_NODE_LIMIT = 2_000;
+    
+    // Graph statistics, maintained incrementally as nodes and edges are added
     private int maxDegree;
-    private double networkDensity;
+    private UnionFind connectivity;
+    
+    /**
+     * How the CSV map file is read
+     */
+    public enum LoadMode {
+        STANDARD,        // BufferedReader + String.split, one row at a time
+        MAPPED_PARALLEL, // memory-mapped, chunked, parsed from bytes in parallel
+        SNAPSHOT         // open <file>.snap if it is current, else parse and rebuild it
+    }
     
     public CityMap(String mapFile) {
+        this(mapFile, LoadMode.STANDARD);
+    }
+    
+    public CityMap(String mapFile, LoadMode loadMode) {
         this.mapFilename = mapFile;
         this.nodes = new HashMap<>();
         this.totalNodes = 0;
         this.totalEdges = 0;
+        this.connectivity = new UnionFind();
         
         System.out.println("CityMap: Attempting to load map file: " + mapFile);
-        loadCityMapFromFile(mapFile);
-        calculateGraphStatistics();
+        if (loadMode == LoadMode.SNAPSHOT) {
+            loadWithSnapshot(mapFile);
+        } else {
+            if (loadMode == LoadMode.MAPPED_PARALLEL) {
+                loadCityMapMapped(mapFile);
+            } else {
+                loadCityMapFromFile(mapFile);
+            }
+            printGraphStatistics();
+        }
+        this.compactGraph = CompactGraph.fromNodes(nodes, CompactGraph.NodeOrder.HILBERT);
+        buildSpatialIndex();
+    }
+    
+    /**
+     * Load the map from the CityMap table, adding rows to the graph as the
+     * DAO streams them (each row is one directed edge)
+     */
+    public CityMap(CityMapDAO dao) throws SQLException {
+        this.mapFilename = "database";
+        this.nodes = new HashMap<>();
+        this.totalNodes = 0;
+        this.totalEdges = 0;
+        this.connectivity = new UnionFind();
+        
+        long startTime = System.nanoTime();
+        long rows = dao.streamEdges(this::addDatabaseRow);
+        System.out.printf("Loaded city map from database: %d rows, %d nodes, %d edges in %.1f ms%n",
+            rows, totalNodes, totalEdges, (System.nanoTime() - startTime) / 1_000_000.0);
+        printGraphStatistics();
+        
+        this.compactGraph = CompactGraph.fromNodes(nodes, CompactGraph.NodeOrder.HILBERT);
+        buildSpatialIndex();
+    }
+    
+    /**
+     * Write every directed edge to the CityMap table in batches
+     * @return number of rows inserted
+     */
+    public long saveToDatabase(CityMapDAO dao) throws SQLException {
+        return dao.insertEdges(nodes);
+    }
+    
+    /**
+     * Build the spatial grid index over all node coordinates
+     */
+    private void buildSpatialIndex() {
+        int[] ids = new int[nodes.size()];
+        double[] xs = new double[ids.length];
+        double[] ys = new double[ids.length];
+        int i = 0;
+        for (CityMapNode node : nodes.values()) {
+            ids[i] = node.getNodeId();
+            xs[i] = node.getX();
+            ys[i] = node.getY();
+            i++;
+        }
+        spatialIndex = new SpatialGridIndex(ids, xs, ys);
     }
     
     /**
@@ -57,17 +150,7 @@ public class CityMap {
                         double weight = Double.parseDouble(parts[6].trim());
                         String roadType = parts.length > 7 ? parts[7].trim() : "street";
                         
-                        // Create or get nodes
-                        CityMapNode node1 = nodes.computeIfAbsent(nodeId1, 
-                            id -> new CityMapNode(id, x1, y1));
-                        CityMapNode node2 = nodes.computeIfAbsent(nodeId2, 
-                            id -> new CityMapNode(id, x2, y2));
-                        
-                        // Add bidirectional edges (assuming undirected graph)
-                        node1.addEdge(nodeId2, weight, roadType);
-                        node2.addEdge(nodeId1, weight, roadType);
-                        
-                        totalEdges += 2; // Count both directions
+                        addRoadRow(nodeId1, x1, y1, nodeId2, x2, y2, weight, roadType);
                         
                     } catch (NumberFormatException e) {
                         System.err.println("Invalid number format in line: " + line);
@@ -84,6 +167,174 @@ public class CityMap {
         }
     }
     
+    /**
+     * Load city map with the memory-mapped parallel loader.
+     * Rows are merged in file order, so the result matches loadCityMapFromFile.
+     */
+    private void loadCityMapMapped(String filename) {
+        try {
+            lastLoadReport = MappedMapLoader.load(filename, this::addRoadRow);
+            
+            totalNodes = nodes.size();
+            System.out.println("Loaded city map: " + totalNodes + " nodes, " + totalEdges + " edges");
+            System.out.println("Mapped loader: " + lastLoadReport);
+            
+        } catch (IOException e) {
+            System.err.println("Error loading city map from " + filename + ": " + e.getMessage());
+            createDefaultMap();
+        }
+    }
+    
+    /**
+     * Open the binary snapshot next to the CSV if it matches the CSV's hash;
+     * otherwise parse the CSV and write a fresh snapshot for the next start.
+     */
+    private void loadWithSnapshot(String filename) {
+        Path snapshotFile = MapSnapshot.snapshotPathFor(filename);
+        long sourceHash;
+        try {
+            sourceHash = MapSnapshot.hashSource(Path.of(filename));
+        } catch (IOException e) {
+            // No readable CSV: fall back to the regular loader (and its default map)
+            loadCityMapFromFile(filename);
+            printGraphStatistics();
+            return;
+        }
+        
+        try {
+            long startTime = System.nanoTime();
+            MapSnapshot snapshot = MapSnapshot.read(snapshotFile, sourceHash);
+            if (snapshot != null) {
+                applySnapshot(snapshot);
+                System.out.printf("Loaded city map snapshot: %d nodes, %d edges in %.1f ms%n",
+                    totalNodes, totalEdges, (System.nanoTime() - startTime) / 1_000_000.0);
+                return;
+            }
+            System.out.println("Snapshot " + snapshotFile + " missing or stale, rebuilding from CSV");
+        } catch (IOException e) {
+            System.err.println("Error reading snapshot " + snapshotFile + ": " + e.getMessage());
+        }
+        
+        loadCityMapMapped(filename);
+        printGraphStatistics();
+        try {
+            writeSnapshot(snapshotFile, sourceHash);
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot " + snapshotFile + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Rebuild nodes and edges from a snapshot; statistics follow from the edges
+     */
+    private void applySnapshot(MapSnapshot snapshot) {
+        int nodeCount = snapshot.getNodeCount();
+        for (int i = 0; i < nodeCount; i++) {
+            putNode(snapshot.nodeId(i), snapshot.x(i), snapshot.y(i));
+        }
+        
+        // Connectivity and degree counters are rebuilt from the adjacency as edges are added
+        for (int i = 0; i < nodeCount; i++) {
+            CityMapNode node = nodes.get(snapshot.nodeId(i));
+            for (int e = snapshot.edgeStart(i); e < snapshot.edgeEnd(i); e++) {
+                connect(node, snapshot.target(e), snapshot.weight(e), snapshot.attributes(e));
+            }
+        }
+    }
+    
+    /**
+     * Write the current map as a binary snapshot
+     */
+    public void writeSnapshot(Path snapshotFile, long sourceHash) throws IOException {
+        int[] nodeIds = nodes.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int nodeCount = nodeIds.length;
+        double[] xs = new double[nodeCount];
+        double[] ys = new double[nodeCount];
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i < nodeCount; i++) {
+            CityMapNode node = nodes.get(nodeIds[i]);
+            xs[i] = node.getX();
+            ys[i] = node.getY();
+            offsets[i + 1] = offsets[i] + node.getAdjacentEdges().size();
+        }
+        
+        int[] targets = new int[offsets[nodeCount]];
+        double[] weights = new double[targets.length];
+        int[] attributes = new int[targets.length];
+        int e = 0;
+        for (int nodeId : nodeIds) {
+            for (CityMapNode.Edge edge : nodes.get(nodeId).getAdjacentEdges()) {
+                targets[e] = edge.getDestinationNode();
+                weights[e] = edge.getBaseWeight();
+                attributes[e] = edge.getAttributes();
+                e++;
+            }
+        }
+        
+        // Attributes keep registry codes; the table lets a later run map them back by name
+        String[] roadTypeTable = new String[RoadTypes.count()];
+        for (int code = 0; code < roadTypeTable.length; code++) {
+            roadTypeTable[code] = RoadTypes.nameOf(code);
+        }
+        
+        MapSnapshot snapshot = new MapSnapshot(nodeIds, xs, ys, offsets, targets, weights, attributes, roadTypeTable);
+        snapshot.write(snapshotFile, sourceHash);
+    }
+    
+    /**
+     * Add one CSV row: create or get both nodes and connect them in both directions.
+     * Rows with road type "oneway" only connect node1 -> node2.
+     */
+    private void addRoadRow(int nodeId1, double x1, double y1, int nodeId2, double x2, double y2,
+                         double weight, String roadType) {
+        // Create or get nodes
+        CityMapNode node1 = nodes.get(nodeId1);
+        if (node1 == null) node1 = putNode(nodeId1, x1, y1);
+        CityMapNode node2 = nodes.get(nodeId2);
+        if (node2 == null) node2 = putNode(nodeId2, x2, y2);
+        
+        int attributes = RoadTypes.defaultAttributes(roadType);
+        connect(node1, nodeId2, weight, attributes);
+        
+        // Add the reverse edge unless the road is one-way
+        if (RoadTypes.roadTypeCode(attributes) != RoadTypes.ONEWAY) {
+            connect(node2, nodeId1, weight, attributes);
+        }
+    }
+    
+    /**
+     * Add one database row: a directed edge from nodeId (self-loops are skipped)
+     */
+    private void addDatabaseRow(int nodeId, double x, double y, int connectedTo,
+                                double travelTime, String roadType) {
+        if (connectedTo == nodeId) return;
+        
+        CityMapNode node = nodes.get(nodeId);
+        if (node == null) node = putNode(nodeId, x, y);
+        connect(node, connectedTo, travelTime, RoadTypes.defaultAttributes(roadType));
+    }
+    
+    /**
+     * Register a new node and update the node count and connectivity
+     */
+    private CityMapNode putNode(int nodeId, double x, double y) {
+        CityMapNode node = new CityMapNode(nodeId, x, y);
+        nodes.put(nodeId, node);
+        connectivity.add(nodeId);
+        totalNodes = nodes.size();
+        return node;
+    }
+    
+    /**
+     * Add a directed edge and update the edge count, max degree and connectivity
+     */
+    private void connect(CityMapNode from, int toNodeId, double weight, int attributes) {
+        from.addEdge(toNodeId, weight, attributes);
+        totalEdges++;
+        maxDegree = Math.max(maxDegree, from.getAdjacentEdges().size());
+        connectivity.union(from.getNodeId(), toNodeId);
+    }
+    
     /**
      * Create a simple default map for testing when file loading fails
      */
@@ -94,7 +345,7 @@ public class CityMap {
         for (int i = 0; i < 3; i++) {
             for (int j = 0; j < 3; j++) {
                 int nodeId = i * 3 + j;
-                nodes.put(nodeId, new CityMapNode(nodeId, i * 10.0, j * 10.0));
+                putNode(nodeId, i * 10.0, j * 10.0);
             }
         }
         
@@ -107,15 +358,13 @@ public class CityMap {
                 // Right neighbor
                 if (j < 2) {
                     int rightNeighbor = i * 3 + (j + 1);
-                    node.addEdge(rightNeighbor, 10.0, "street");
-                    totalEdges++;
+                    connect(node, rightNeighbor, 10.0, RoadTypes.defaultAttributes("street"));
                 }
                 
                 // Bottom neighbor
                 if (i < 2) {
                     int bottomNeighbor = (i + 1) * 3 + j;
-                    node.addEdge(bottomNeighbor, 10.0, "street");
-                    totalEdges++;
+                    connect(node, bottomNeighbor, 10.0, RoadTypes.defaultAttributes("street"));
                 }
             }
         }
@@ -125,25 +374,13 @@ public class CityMap {
     }
     
     /**
-     * Calculate graph statistics for analysis
+     * Print graph statistics for analysis (all values are running counters)
      */
-    private void calculateGraphStatistics() {
+    private void printGraphStatistics() {
         if (nodes.isEmpty()) return;
         
-        int totalDegree = 0;
-        maxDegree = 0;
-        
-        for (CityMapNode node : nodes.values()) {
-            int degree = node.getAdjacentEdges().size();
-            totalDegree += degree;
-            maxDegree = Math.max(maxDegree, degree);
-        }
-        
-        avgDegree = (double) totalDegree / totalNodes;
-        networkDensity = (double) totalEdges / (totalNodes * (totalNodes - 1));
-        
-        System.out.printf("Graph Statistics: Avg Degree=%.2f, Max Degree=%d, Density=%.4f%n", 
-            avgDegree, maxDegree, networkDensity);
+        System.out.printf("Graph Statistics: Avg Degree=%.2f, Max Degree=%d, Density=%.4f, Components=%d%n", 
+            getAvgDegree(), maxDegree, getNetworkDensity(), getComponentCount());
     }
     
     /**
@@ -162,42 +399,39 @@ public class CityMap {
     }
     
     /**
-     * Get edge weight between two nodes
+     * Get edge weight between two nodes (indexed lookup on the compact graph)
      */
     public double getEdgeWeight(int fromNode, int toNode) {
-        CityMapNode node = nodes.get(fromNode);
-        if (node == null) return Double.MAX_VALUE;
+        CompactGraph graph = getCompactGraph();
+        int from = graph.indexOf(fromNode);
+        if (from < 0) return Double.MAX_VALUE;
         
-        for (CityMapNode.Edge edge : node.getAdjacentEdges()) {
-            if (edge.getDestinationNode() == toNode) {
-                return edge.getDynamicWeight(node.getTrafficMultiplier());
-            }
-        }
+        int to = graph.indexOf(toNode);
+        int edge = to >= 0 ? graph.findEdge(from, to) : -1;
         
-        return Double.MAX_VALUE; // No direct edge
+        return edge >= 0 ? graph.dynamicWeight(from, edge) : Double.MAX_VALUE; // No direct edge
     }
     
     /**
      * Get base edge weight (without traffic multiplier)
      */
     public double getBaseEdgeWeight(int fromNode, int toNode) {
-        CityMapNode node = nodes.get(fromNode);
-        if (node == null) return Double.MAX_VALUE;
+        CompactGraph graph = getCompactGraph();
+        int from = graph.indexOf(fromNode);
+        int to = graph.indexOf(toNode);
+        int edge = (from >= 0 && to >= 0) ? graph.findEdge(from, to) : -1;
         
-        for (CityMapNode.Edge edge : node.getAdjacentEdges()) {
-            if (edge.getDestinationNode() == toNode) {
-                return edge.getBaseWeight();
-            }
-        }
-        
-        return Double.MAX_VALUE;
+        return edge >= 0 ? graph.baseWeight(edge) : Double.MAX_VALUE;
     }
     
     /**
      * Check if two nodes are connected
      */
     public boolean areConnected(int nodeId1, int nodeId2) {
-        return getEdgeWeight(nodeId1, nodeId2) != Double.MAX_VALUE;
+        CompactGraph graph = getCompactGraph();
+        int from = graph.indexOf(nodeId1);
+        int to = graph.indexOf(nodeId2);
+        return from >= 0 && to >= 0 && graph.findEdge(from, to) >= 0;
     }
     
     /**
@@ -214,6 +448,13 @@ public class CityMap {
         return nodes.get(nodeId);
     }
     
+    /**
+     * Get the compressed sparse row view of the map for primitive-index searches
+     */
+    public CompactGraph getCompactGraph() {
+        return compactGraph;
+    }
+    
     /**
      * Get all node IDs
      */
@@ -229,28 +470,32 @@ public class CityMap {
             CityMapNode node = nodes.get(entry.getKey());
             if (node != null) {
                 node.setTrafficMultiplier(entry.getValue());
+                
+                CompactGraph graph = getCompactGraph();
+                int index = graph.indexOf(entry.getKey());
+                if (index >= 0) {
+                    graph.setTrafficMultiplier(index, entry.getValue());
+                }
             }
         }
     }
     
     /**
-     * Find closest node to given coordinates
+     * Find closest node to given coordinates (grid index lookup)
      */
     public int findClosestNode(double x, double y) {
-        if (nodes.isEmpty()) return -1;
-        
-        int closestNode = -1;
-        double minDistance = Double.MAX_VALUE;
-        
-        for (CityMapNode node : nodes.values()) {
-            double distance = Math.sqrt(Math.pow(node.getX() - x, 2) + Math.pow(node.getY() - y, 2));
-            if (distance < minDistance) {
-                minDistance = distance;
-                closestNode = node.getNodeId();
-            }
+        return spatialIndex.nearest(x, y);
+    }
+    
+    /**
+     * Find the k closest nodes to given coordinates, nearest first
+     */
+    public List<Integer> findClosestNodes(double x, double y, int k) {
+        List<Integer> closest = new ArrayList<>();
+        for (int nodeId : spatialIndex.kNearest(x, y, k)) {
+            closest.add(nodeId);
         }
-        
-        return closestNode;
+        return closest;
     }
     
     /**
@@ -258,14 +503,9 @@ public class CityMap {
      */
     public List<Integer> getNodesInRadius(double centerX, double centerY, double radius) {
         List<Integer> nodesInRadius = new ArrayList<>();
-        
-        for (CityMapNode node : nodes.values()) {
-            double distance = Math.sqrt(Math.pow(node.getX() - centerX, 2) + Math.pow(node.getY() - centerY, 2));
-            if (distance <= radius) {
-                nodesInRadius.add(node.getNodeId());
-            }
+        for (int nodeId : spatialIndex.withinRadius(centerX, centerY, radius)) {
+            nodesInRadius.add(nodeId);
         }
-        
         return nodesInRadius;
     }
     
@@ -304,73 +544,51 @@ public class CityMap {
     // Getters for statistics
     public int getTotalNodes() { return totalNodes; }
     public int getTotalEdges() { return totalEdges; }
-    public double getAvgDegree() { return avgDegree; }
+    public double getAvgDegree() { return totalNodes == 0 ? 0 : (double) totalEdges / totalNodes; }
     public int getMaxDegree() { return maxDegree; }
-    public double getNetworkDensity() { return networkDensity; }
+    public double getNetworkDensity() {
+        return totalNodes < 2 ? 0 : totalEdges / ((double) totalNodes * (totalNodes - 1));
+    }
+    public int getComponentCount() { return connectivity.getComponentCount(); }
+    public int getLargestComponentSize() { return connectivity.getLargestComponentSize(); }
     public String getMapFilename() { return mapFilename; }
+    public MappedMapLoader.LoadReport getLastLoadReport() { return lastLoadReport; }
     
     /**
-     * Validate graph connectivity
+     * Validate graph connectivity (edge direction ignored), O(1) from the union-find
      */
     public boolean isConnected() {
-        if (nodes.isEmpty()) return true;
-        
-        Set<Integer> visited = new HashSet<>();
-        Queue<Integer> queue = new LinkedList<>();
-        
-        // Start BFS from any node
-        int startNode = nodes.keySet().iterator().next();
-        queue.offer(startNode);
-        visited.add(startNode);
-        
-        while (!queue.isEmpty()) {
-            int current = queue.poll();
-            
-            for (int neighbor : getNeighbors(current)) {
-                if (!visited.contains(neighbor)) {
-                    visited.add(neighbor);
-                    queue.offer(neighbor);
-                }
-            }
-        }
-        
-        return visited.size() == totalNodes;
+        return connectivity.getComponentCount() <= 1;
     }
     
     /**
      * Find optimal police station locations using Floyd-Warshall algorithm
-     * Stations are placed to minimize maximum distance to any location
+     * Stations are placed to minimize maximum distance to any location.
+     * Placement is long-term planning, so it uses the base road weights and
+     * ignores current traffic; no stations for numStations <= 0.
      */
     public List<Integer> findOptimalPoliceStationLocations(int numStations) {
-        // Convert CityMap to Graph format for Floyd-Warshall
-        Graph graph = convertToGraph();
-        
-        // Run Floyd-Warshall to get all-pairs shortest paths
-        FloydWarshall floyd = new FloydWarshall(graph);
-        
-        // Find optimal station placement using Floyd-Warshall results
-        return findOptimalStationsUsingFloyd(floyd, numStations);
+        return findOptimalPoliceStationLocations(numStations,
+                                                 getCompactGraph().getNodeCount() <= FLOYD_WARSHALL_NODE_LIMIT);
     }
     
     /**
-     * Convert CityMap to Graph format for Floyd-Warshall algorithm
+     * Placement through Floyd-Warshall, or through streamed all-pairs Dijkstra
+     * (the two give the same stations)
      */
-    private Graph convertToGraph() {
-        Graph graph = new Graph();
-        
-        for (Map.Entry<Integer, CityMapNode> entry : nodes.entrySet()) {
-            int nodeId = entry.getKey();
-            CityMapNode node = entry.getValue();
-            
-            // Add all edges from this node
-            for (CityMapNode.Edge edge : node.getAdjacentEdges()) {
-                int neighbor = edge.getDestinationNode();
-                double weight = edge.getBaseWeight();
-                graph.addEdge(nodeId, neighbor, weight);
-            }
+    List<Integer> findOptimalPoliceStationLocations(int numStations, boolean useFloydWarshall) {
+        if (numStations <= 0) {
+            return new ArrayList<>();
+        }
+        if (!useFloydWarshall) {
+            return findOptimalStationsUsingDijkstra(numStations);
         }
         
-        return graph;
+        // Run Floyd-Warshall on the CSR graph to get all-pairs shortest paths
+        FloydWarshall floyd = new FloydWarshall(getCompactGraph(), false);
+        
+        // Find optimal station placement using Floyd-Warshall results
+        return findOptimalStationsUsingFloyd(floyd, numStations);
     }
     
     /**
@@ -400,8 +618,11 @@ public class CityMap {
             centralityScores.put(node, centrality);
         }
         
-        // Sort nodes by centrality (lower scores = more central = better locations)
-        allNodes.sort((a, b) -> Double.compare(centralityScores.get(a), centralityScores.get(b)));
+        // Sort nodes by centrality (lower scores = more central = better locations; ties by node ID)
+        allNodes.sort((a, b) -> {
+            int byCentrality = Double.compare(centralityScores.get(a), centralityScores.get(b));
+            return byCentrality != 0 ? byCentrality : Integer.compare(a, b);
+        });
         
         // Use p-median approach for multiple stations
         List<Integer> optimalStations = new ArrayList<>();
@@ -424,6 +645,73 @@ public class CityMap {
         return optimalStations;
     }
     
+    /**
+     * Same placement as findOptimalStationsUsingFloyd for large maps: closeness
+     * centrality is accumulated from streamed all-pairs Dijkstra rows, and each
+     * greedy step runs one reverse search from the newest station. Rows use the
+     * base weights, like the Floyd-Warshall path.
+     */
+    private List<Integer> findOptimalStationsUsingDijkstra(int numStations) {
+        CompactGraph graph = getCompactGraph();
+        int n = graph.getNodeCount();
+        
+        // Calculate centrality scores for each node, one row at a time
+        double[] centrality = new double[n];
+        AllPairsDistances.forEachRow(graph, false, (source, row) -> {
+            double totalDistance = 0;
+            int reachableNodes = 0;
+            for (int v = 0; v < n; v++) {
+                if (v != source && row[v] < Double.MAX_VALUE) {
+                    totalDistance += row[v];
+                    reachableNodes++;
+                }
+            }
+            centrality[source] = reachableNodes > 0 ? totalDistance / reachableNodes : Double.MAX_VALUE;
+        });
+        
+        // Most central first (ties by node ID so the result doesn't depend on thread timing)
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> centrality[a] != centrality[b]
+            ? Double.compare(centrality[a], centrality[b])
+            : Integer.compare(graph.nodeId(a), graph.nodeId(b)));
+        
+        // Greedy: each new station maximizes the minimum distance to the existing ones
+        List<Integer> optimalStations = new ArrayList<>();
+        boolean[] isStation = new boolean[n];
+        double[] minDistanceToStations = new double[n];
+        Arrays.fill(minDistanceToStations, Double.POSITIVE_INFINITY);
+        int station = n > 0 ? order[0] : -1;
+        
+        while (station >= 0 && optimalStations.size() < numStations) {
+            optimalStations.add(graph.nodeId(station));
+            isStation[station] = true;
+            AllPairsDistances.forEachRow(graph, new int[] {station}, true, false, (root, row) -> {
+                for (int v = 0; v < n; v++) {
+                    minDistanceToStations[v] = Math.min(minDistanceToStations[v], row[v]);
+                }
+            });
+            
+            station = -1;
+            double bestMinDistance = -1;
+            for (int candidate : order) {
+                if (!isStation[candidate] && minDistanceToStations[candidate] > bestMinDistance) {
+                    bestMinDistance = minDistanceToStations[candidate];
+                    station = candidate;
+                }
+            }
+        }
+        
+        System.out.println("All-pairs Dijkstra optimal station placement:");
+        for (int i = 0; i < optimalStations.size(); i++) {
+            int stationId = optimalStations.get(i);
+            System.out.printf("  Station %d: Location %d (centrality: %.2f)%n", i + 1, stationId,
+                              centrality[graph.indexOf(stationId)]);
+        }
+        
+        return optimalStations;
+    }
+    
     /**
      * Greedy algorithm to find multiple station locations using Floyd-Warshall distances
      */
@@ -467,41 +755,51 @@ public class CityMap {
     
     /**
      * Calculate coverage statistics for given station locations
+     * (one multi-source search over incoming roads gives every location's nearest station)
      */
     public Map<String, Double> calculateStationCoverageStats(List<Integer> stationLocations) {
-        Graph graph = convertToGraph();
-        FloydWarshall floyd = new FloydWarshall(graph);
-        
-        Map<String, Double> stats = new HashMap<>();
-        List<Integer> allNodes = new ArrayList<>(nodes.keySet());
-        List<Double> minDistances = new ArrayList<>();
+        Isochrones.Result coverage = calculateStationCoverage(stationLocations, Double.MAX_VALUE);
         
-        // For each location, find distance to nearest station
-        for (Integer location : allNodes) {
-            double minDistance = Double.POSITIVE_INFINITY;
-            
-            for (Integer station : stationLocations) {
-                double distance = floyd.getShortestDistance(location, station);
-                minDistance = Math.min(minDistance, distance);
-            }
-            
-            if (minDistance < Double.POSITIVE_INFINITY) {
-                minDistances.add(minDistance);
+        DoubleSummaryStatistics distances = new DoubleSummaryStatistics();
+        for (int v = 0; v < getCompactGraph().getNodeCount(); v++) {
+            if (coverage.isCovered(v)) {
+                distances.accept(coverage.distance(v));
             }
         }
         
-        if (!minDistances.isEmpty()) {
-            stats.put("avgResponseDistance", minDistances.stream().mapToDouble(d -> d).average().orElse(0));
-            stats.put("maxResponseDistance", minDistances.stream().mapToDouble(d -> d).max().orElse(0));
-            stats.put("minResponseDistance", minDistances.stream().mapToDouble(d -> d).min().orElse(0));
+        Map<String, Double> stats = new HashMap<>();
+        if (distances.getCount() > 0) {
+            stats.put("avgResponseDistance", distances.getAverage());
+            stats.put("maxResponseDistance", distances.getMax());
+            stats.put("minResponseDistance", distances.getMin());
         }
         
         return stats;
     }
     
+    /**
+     * Nearest station and response distance for every location within maxDistance
+     * (current traffic); coverageHistogram() of the result gives the response time bands
+     */
+    public Isochrones.Result calculateStationCoverage(List<Integer> stationLocations, double maxDistance) {
+        CompactGraph graph = getCompactGraph();
+        int[] stations = stationLocations.stream().mapToInt(graph::indexOf).filter(i -> i >= 0).toArray();
+        return Isochrones.nearest(graph, stations, maxDistance, true);
+    }
+    
+    /**
+     * Locations each source (station or unit position) can reach within maxDistance under
+     * current traffic, one bounded search per source in parallel
+     */
+    public Isochrones.Result calculateIsochrones(List<Integer> sourceLocations, double maxDistance) {
+        CompactGraph graph = getCompactGraph();
+        int[] sources = sourceLocations.stream().mapToInt(graph::indexOf).filter(i -> i >= 0).toArray();
+        return Isochrones.compute(graph, sources, maxDistance, false);
+    }
+    
     @Override
     public String toString() {
         return String.format("CityMap{nodes=%d, edges=%d, avgDegree=%.2f, connected=%s}", 
-            totalNodes, totalEdges, avgDegree, isConnected());
+            totalNodes, totalEdges, getAvgDegree(), isConnected());
     }
 }
@@ -0,0 +1,105 @@
+// ContractionHierarchyBenchmark.java
+// Builds a contraction hierarchy for a synthetic map and compares point-to-point
+// query times against CSR Dijkstra and A*. Every CH distance is checked against
+// Dijkstra, and every unpacked path is checked to be a real path of that length.
+// Usage: java -Xmx4g ContractionHierarchyBenchmark [nodes] [queries] [seed]
+
+import algorithms.AStar;
+import algorithms.ContractionHierarchy;
+import algorithms.Dijkstra;
+import models.CompactGraph;
+import java.util.*;
+
+public class ContractionHierarchyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 200_000);
+        int queryCount = BenchmarkSupport.intArg(args, 1, 1_000);
+        long seed = BenchmarkSupport.longArg(args, 2, 42);
+
+        BenchmarkSupport.printBanner("CONTRACTION HIERARCHY");
+
+        CompactGraph graph = BenchmarkSupport.syntheticCity(nodeCount, seed).getCompactGraph();
+
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        System.out.printf("Nodes: %d, edges: %d, shortcuts: %d, preprocessing: %.1f s%n%n",
+            graph.getNodeCount(), graph.getEdgeCount(), hierarchy.getShortcutCount(),
+            hierarchy.getPreprocessingNanos() / 1e9);
+
+        Random random = new Random(seed + 1);
+        int[] sources = new int[queryCount];
+        int[] targets = new int[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            sources[q] = random.nextInt(graph.getNodeCount());
+            targets[q] = random.nextInt(graph.getNodeCount());
+        }
+
+        // Correctness: CH vs Dijkstra on a subset (full Dijkstra is slow on big maps)
+        int checked = Math.min(queryCount, 100);
+        int failures = 0;
+        long dijkstraNanos = 0;
+        for (int q = 0; q < checked; q++) {
+            long t0 = System.nanoTime();
+            Dijkstra.CompactResult expected = Dijkstra.findShortestPaths(graph, sources[q]);
+            dijkstraNanos += System.nanoTime() - t0;
+
+            ContractionHierarchy.Result result = hierarchy.findPath(sources[q], targets[q]);
+            if (!BenchmarkSupport.sameDistance(expected.getDistance(targets[q]), result.getDistance())
+                    || !validPath(graph, result, sources[q], targets[q])) {
+                failures++;
+            }
+        }
+
+        // Timing (first round warms up the JIT)
+        double aStarMicros = 0;
+        double hierarchyMicros = 0;
+        long aStarExplored = 0;
+        long hierarchySettled = 0;
+        for (int round = 0; round < 2; round++) {
+            aStarExplored = 0;
+            long t0 = System.nanoTime();
+            for (int q = 0; q < checked; q++) {
+                aStarExplored += AStar.findPath(graph, sources[q], targets[q], AStar.EUCLIDEAN_INDEX_HEURISTIC)
+                                      .getNodesExplored();
+            }
+            aStarMicros = (System.nanoTime() - t0) / 1e3 / checked;
+
+            hierarchySettled = 0;
+            t0 = System.nanoTime();
+            for (int q = 0; q < queryCount; q++) {
+                hierarchySettled += hierarchy.findPath(sources[q], targets[q]).getNodesSettled();
+            }
+            hierarchyMicros = (System.nanoTime() - t0) / 1e3 / queryCount;
+        }
+
+        System.out.printf("%-22s %14s %14s%n", "", "us/query", "nodes/query");
+        System.out.printf("%-22s %14.1f %14s%n", "Dijkstra (one-to-all)", dijkstraNanos / 1e3 / checked, "-");
+        System.out.printf("%-22s %14.1f %14d%n", "A*", aStarMicros, aStarExplored / checked);
+        System.out.printf("%-22s %14.1f %14d%n", "CH", hierarchyMicros, hierarchySettled / queryCount);
+        System.out.printf("CH speedup over A*: %.0fx%n", aStarMicros / hierarchyMicros);
+        System.out.println(failures == 0 ? "\nPASS: " + checked + " queries match Dijkstra"
+                                         : "\nFAIL: " + failures + " of " + checked + " queries differ");
+    }
+
+    /**
+     * The unpacked path starts and ends at the query nodes and its edge weights sum to the distance
+     */
+    private static boolean validPath(CompactGraph graph, ContractionHierarchy.Result result, int source, int target) {
+        if (!result.isPathFound()) return result.getDistance() == Double.MAX_VALUE;
+
+        List<Integer> path = result.getPath();
+        if (graph.indexOf(path.get(0)) != source || graph.indexOf(path.get(path.size() - 1)) != target) return false;
+
+        double total = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            int from = graph.indexOf(path.get(i));
+            double best = Double.MAX_VALUE;
+            for (int e = graph.edgeStart(from); e < graph.edgeEnd(from); e++) {
+                if (graph.nodeId(graph.target(e)) == path.get(i + 1)) best = Math.min(best, graph.dynamicWeight(from, e));
+            }
+            if (best == Double.MAX_VALUE) return false;
+            total += best;
+        }
+        return BenchmarkSupport.sameDistance(total, result.getDistance());
+    }
+}
@@ -0,0 +1,133 @@
+// DatabaseBulkTest.java
+// Round-trips a synthetic map through CityMapDAO's batched insert and streamed
+// load on an embedded in-memory database, and checks bulk neighbor fetches.
+// Needs an embedded JDBC driver on the classpath (H2 by default, or pass a URL):
+//   java -cp .:h2.jar DatabaseBulkTest [nodes] [jdbcUrl]
+
+import database.CityMapDAO;
+import models.CityMapNode;
+import services.SyntheticCityGenerator;
+import java.nio.file.*;
+import java.sql.*;
+import java.util.*;
+
+public class DatabaseBulkTest {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        String url = args.length > 1 ? args[1] : "jdbc:h2:mem:citymap;DB_CLOSE_DELAY=-1";
+
+        System.out.println("=== CITYMAP DAO BULK TEST ===");
+
+        Connection connection;
+        try {
+            connection = DriverManager.getConnection(url);
+        } catch (SQLException e) {
+            System.out.println("SKIPPED: no embedded database driver for " + url + " (" + e.getMessage() + ")");
+            return;
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE CityMap (node_id INT, x_coord DOUBLE, y_coord DOUBLE, "
+                       + "connected_to INT, travel_time DOUBLE, road_type VARCHAR(16))");
+            stmt.execute("CREATE INDEX idx_citymap_node ON CityMap (node_id)");
+        }
+
+        Path csv = Files.createTempFile("synthetic_city", ".csv");
+        int failures = 0;
+        try {
+            new SyntheticCityGenerator(nodeCount, 42).generate(csv.toString());
+            CityMap source = new CityMap(csv.toString());
+            CityMapDAO dao = new CityMapDAO(connection);
+
+            // Batched insert
+            long t0 = System.nanoTime();
+            long inserted = source.saveToDatabase(dao);
+            long batchedNanos = System.nanoTime() - t0;
+            System.out.printf("Batched insert: %d rows in %.1f ms%n", inserted, batchedNanos / 1e6);
+            failures += check("row count", inserted == source.getTotalEdges());
+
+            // Per-edge insert for comparison (separate table, first 5000 rows)
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE TABLE CityMapSlow AS SELECT * FROM CityMap WHERE 1 = 0");
+            }
+            long slowRows = Math.min(5_000, inserted);
+            t0 = System.nanoTime();
+            try (PreparedStatement copy = connection.prepareStatement("SELECT * FROM CityMap LIMIT " + slowRows);
+                 ResultSet rs = copy.executeQuery()) {
+                while (rs.next()) {
+                    try (PreparedStatement pstmt = connection.prepareStatement(
+                            "INSERT INTO CityMapSlow VALUES (?, ?, ?, ?, ?, ?)")) {
+                        for (int c = 1; c <= 6; c++) pstmt.setObject(c, rs.getObject(c));
+                        pstmt.executeUpdate();
+                    }
+                }
+            }
+            System.out.printf("Per-edge insert: %.1f us/row (batched: %.1f us/row)%n",
+                (System.nanoTime() - t0) / 1e3 / slowRows, batchedNanos / 1e3 / inserted);
+
+            // Streamed load
+            dao.setFetchSize(2_000);
+            t0 = System.nanoTime();
+            CityMap loaded = new CityMap(dao);
+            System.out.printf("Streamed load: %.1f ms%n", (System.nanoTime() - t0) / 1e6);
+            failures += check("node count", loaded.getTotalNodes() == source.getTotalNodes());
+            failures += check("edge count", loaded.getTotalEdges() == source.getTotalEdges());
+            failures += check("components", loaded.getComponentCount() == source.getComponentCount());
+
+            Map<Integer, CityMapNode> legacy = dao.loadNodesFromDatabase();
+            failures += check("loadNodesFromDatabase", legacy.size() == source.getTotalNodes());
+
+            // Bulk neighbors vs one query per node
+            List<Integer> sample = new ArrayList<>(legacy.keySet()).subList(0, Math.min(2_000, legacy.size()));
+            t0 = System.nanoTime();
+            Map<Integer, List<CityMapNode>> bulk = dao.getNeighborsBulk(sample);
+            long bulkNanos = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            boolean same = true;
+            for (int nodeId : sample) {
+                List<CityMapNode> single = dao.getNeighbors(nodeId);
+                same &= neighborIds(single).equals(neighborIds(bulk.get(nodeId)));
+            }
+            long singleNanos = System.nanoTime() - t0;
+            System.out.printf("Neighbors for %d nodes: per-node %.1f ms, bulk %.1f ms%n",
+                sample.size(), singleNanos / 1e6, bulkNanos / 1e6);
+            failures += check("bulk neighbors match", same);
+
+            Map<Integer, List<Integer>> allNeighbors = dao.getAllNeighborIds();
+            failures += check("all neighbor ids", allNeighbors.size() == legacy.size());
+
+            // A rolled-back batch must leave the table unchanged
+            try (CityMapDAO.EdgeBatchWriter writer = dao.openEdgeBatch()) {
+                writer.add(-1, 0, 0, -2, 1.0, "street");
+                writer.flush();
+            }
+            failures += check("uncommitted batch rolled back", countRows(connection) == inserted);
+        } finally {
+            Files.deleteIfExists(csv);
+            connection.close();
+        }
+
+        System.out.println(failures == 0 ? "\nALL CHECKS PASSED" : "\n" + failures + " CHECK(S) FAILED");
+    }
+
+    private static Set<Integer> neighborIds(List<CityMapNode> neighbors) {
+        Set<Integer> ids = new TreeSet<>();
+        for (CityMapNode node : neighbors) ids.add(node.getNodeId());
+        return ids;
+    }
+
+    private static long countRows(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM CityMap")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static int check(String name, boolean ok) {
+        System.out.println((ok ? "  PASS " : "  FAIL ") + name);
+        return ok ? 0 : 1;
+    }
+}
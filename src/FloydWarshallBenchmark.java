@@ -0,0 +1,135 @@
+// FloydWarshallBenchmark.java
+// Compares the tiled Floyd-Warshall against the previous triple loop over
+// double[][] (copied here) on a synthetic map, checks that both give the same
+// distances, that lazily built paths add up to them, and times the n^2
+// getShortestDistance scan that station placement performs.
+// Usage: java -Xmx4g FloydWarshallBenchmark [nodes] [seed]
+
+import algorithms.FloydWarshall;
+import models.CompactGraph;
+import java.util.*;
+
+public class FloydWarshallBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 2_000);
+        long seed = BenchmarkSupport.longArg(args, 1, 42);
+
+        BenchmarkSupport.printBanner("FLOYD-WARSHALL");
+
+        CompactGraph graph = BenchmarkSupport.syntheticCity(nodeCount, seed).getCompactGraph();
+        int n = graph.getNodeCount();
+        System.out.printf("Nodes: %d, processors: %d%n%n", n, Runtime.getRuntime().availableProcessors());
+
+        long t0 = System.nanoTime();
+        double[][] naive = naiveFloydWarshall(graph);
+        double naiveMillis = (System.nanoTime() - t0) / 1e6;
+
+        t0 = System.nanoTime();
+        FloydWarshall tiled = new FloydWarshall(graph, false);
+        double tiledMillis = (System.nanoTime() - t0) / 1e6;
+
+        double maxDifference = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double expected = naive[i][j];
+                double actual = tiled.getShortestDistance(graph.nodeId(i), graph.nodeId(j));
+                if (expected == Double.POSITIVE_INFINITY || actual == Double.POSITIVE_INFINITY) {
+                    if (expected != actual) maxDifference = Double.POSITIVE_INFINITY;
+                } else {
+                    maxDifference = Math.max(maxDifference, Math.abs(expected - actual) / Math.max(1.0, expected));
+                }
+            }
+        }
+
+        // Paths come from the lazily built successor matrix
+        Random random = new Random(seed + 1);
+        int badPaths = 0;
+        t0 = System.nanoTime();
+        for (int q = 0; q < 100; q++) {
+            int from = graph.nodeId(random.nextInt(n));
+            int to = graph.nodeId(random.nextInt(n));
+            List<Integer> path = tiled.getShortestPath(from, to);
+            double distance = tiled.getShortestDistance(from, to);
+            if (!BenchmarkSupport.sameDistance(distance, pathWeight(graph, path))) badPaths++;
+        }
+        double pathMillis = (System.nanoTime() - t0) / 1e6;
+
+        // The n^2 scan station placement does, through the old HashMap mapping vs the index table
+        Map<Integer, Integer> mapping = tiled.getNodeMapping();
+        double[][] matrix = tiled.getAllDistances();
+        double mapSum = 0;
+        double tableSum = 0;
+        double mapMillis = 0;
+        double tableMillis = 0;
+        for (int round = 0; round < 2; round++) {
+            mapSum = 0;
+            t0 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    mapSum += matrix[mapping.get(graph.nodeId(i))][mapping.get(graph.nodeId(j))];
+                }
+            }
+            mapMillis = (System.nanoTime() - t0) / 1e6;
+
+            tableSum = 0;
+            t0 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    tableSum += tiled.getShortestDistance(graph.nodeId(i), graph.nodeId(j));
+                }
+            }
+            tableMillis = (System.nanoTime() - t0) / 1e6;
+        }
+
+        System.out.printf("%-36s %10s%n", "", "ms");
+        System.out.printf("%-36s %10.1f%n", "Triple loop, double[][]", naiveMillis);
+        System.out.printf("%-36s %10.1f   (%.1fx)%n", "Tiled, flat double[]", tiledMillis, naiveMillis / tiledMillis);
+        System.out.printf("%-36s %10.1f%n", "First 100 paths (builds successors)", pathMillis);
+        System.out.printf("%-36s %10.1f%n", "n^2 lookups via HashMap", mapMillis);
+        System.out.printf("%-36s %10.1f   (%.1fx)%n", "n^2 lookups via index table", tableMillis, mapMillis / tableMillis);
+
+        boolean pass = maxDifference <= 1e-9 && badPaths == 0 && mapSum == tableSum;
+        System.out.println(pass ? "\nPASS: distances match the triple loop and paths add up"
+                                : "\nFAIL: max relative difference " + maxDifference + ", bad paths " + badPaths);
+    }
+
+    /**
+     * The previous implementation: k-i-j triple loop over a double[][] matrix
+     */
+    private static double[][] naiveFloydWarshall(CompactGraph graph) {
+        int n = graph.getNodeCount();
+        double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(d[i], Double.POSITIVE_INFINITY);
+            d[i][i] = 0;
+            for (int e = graph.edgeStart(i); e < graph.edgeEnd(i); e++) {
+                int j = graph.target(e);
+                if (i != j) d[i][j] = Math.min(d[i][j], graph.baseWeight(e));
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (d[i][k] + d[k][j] < d[i][j]) d[i][j] = d[i][k] + d[k][j];
+                }
+            }
+        }
+        return d;
+    }
+
+    private static double pathWeight(CompactGraph graph, List<Integer> path) {
+        if (path.isEmpty()) return Double.POSITIVE_INFINITY;
+        double total = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            int from = graph.indexOf(path.get(i));
+            int to = graph.indexOf(path.get(i + 1));
+            double best = Double.POSITIVE_INFINITY;
+            for (int e = graph.edgeStart(from); e < graph.edgeEnd(from); e++) {
+                if (graph.target(e) == to) best = Math.min(best, graph.baseWeight(e));
+            }
+            total += best;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,158 @@
+// HubLabelBenchmark.java
+// Hub labeling distance oracle on a synthetic city:
+//   - preprocessing time, label sizes and index memory
+//   - exactness against Dijkstra on random pairs
+//   - microseconds per distance query: labels vs contraction hierarchy vs Dijkstra
+//   - filling a station x crime cost matrix (what Hungarian dispatch needs) from
+//     labels vs one reverse Dijkstra per crime
+//   - write/read round trip of the index file, and rejection after a traffic change
+// Usage: java -Xmx4g HubLabelBenchmark [nodes] [queries] [stations] [crimes] [seed]
+
+import algorithms.ContractionHierarchy;
+import algorithms.Dijkstra;
+import algorithms.HubLabels;
+import models.CompactGraph;
+import java.nio.file.*;
+import java.util.*;
+
+public class HubLabelBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 20_000);
+        int queryCount = BenchmarkSupport.intArg(args, 1, 1_000);
+        int stationCount = BenchmarkSupport.intArg(args, 2, 50);
+        int crimeCount = BenchmarkSupport.intArg(args, 3, 200);
+        long seed = BenchmarkSupport.longArg(args, 4, 42);
+
+        BenchmarkSupport.printBanner("HUB LABEL");
+
+        CityMap cityMap = BenchmarkSupport.syntheticCity(nodeCount, seed);
+        CompactGraph graph = cityMap.getCompactGraph();
+        int n = graph.getNodeCount();
+
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        HubLabels labels = HubLabels.build(graph, hierarchy);
+        int maxLabel = 0;
+        for (int v = 0; v < n; v++) {
+            maxLabel = Math.max(maxLabel, Math.max(labels.outLabelSize(v), labels.inLabelSize(v)));
+        }
+        System.out.printf("Nodes: %d, edges: %d%n", n, graph.getEdgeCount());
+        System.out.printf("Preprocessing: hierarchy %.1f s + labels %.1f s%n",
+            hierarchy.getPreprocessingNanos() / 1e9, labels.getPreprocessingNanos() / 1e9);
+        System.out.printf("Labels: %.1f entries/node on average, largest %d, %.1f MB%n%n",
+            labels.getAverageLabelSize(), maxLabel, labels.getMemoryBytes() / 1e6);
+
+        // Exactness and query time on random pairs
+        Random random = new Random(seed + 1);
+        int[] sources = new int[queryCount];
+        int[] targets = new int[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            sources[q] = random.nextInt(n);
+            targets[q] = random.nextInt(n);
+        }
+        double[] exact = new double[queryCount];
+        long t0 = System.nanoTime();
+        for (int q = 0; q < queryCount; q++) {
+            exact[q] = Dijkstra.shortestDistance(graph, sources[q], targets[q]);
+        }
+        double dijkstraMicros = (System.nanoTime() - t0) / 1e3 / queryCount;
+
+        int mismatches = 0;
+        for (int q = 0; q < queryCount; q++) {
+            if (!BenchmarkSupport.sameDistance(exact[q], labels.distance(sources[q], targets[q]))
+                || !BenchmarkSupport.sameDistance(exact[q], hierarchy.distance(sources[q], targets[q]))) {
+                mismatches++;
+            }
+        }
+
+        double checksum = 0;
+        int repeats = Math.max(1, 1_000_000 / queryCount);
+        for (int round = 0; round < 2; round++) {
+            t0 = System.nanoTime();
+            for (int r = 0; r < repeats; r++) {
+                for (int q = 0; q < queryCount; q++) {
+                    checksum += labels.distance(sources[q], targets[q]);
+                }
+            }
+        }
+        double labelMicros = (System.nanoTime() - t0) / 1e3 / ((long) repeats * queryCount);
+        t0 = System.nanoTime();
+        for (int q = 0; q < queryCount; q++) {
+            checksum += hierarchy.distance(sources[q], targets[q]);
+        }
+        double hierarchyMicros = (System.nanoTime() - t0) / 1e3 / queryCount;
+
+        System.out.printf("%-24s %12s %10s%n", "", "us/query", "speedup");
+        System.out.printf("%-24s %12.2f %9.0fx%n", "Dijkstra", dijkstraMicros, 1.0);
+        System.out.printf("%-24s %12.2f %9.0fx%n", "Contraction hierarchy", hierarchyMicros, dijkstraMicros / hierarchyMicros);
+        System.out.printf("%-24s %12.3f %9.0fx%n", "Hub labels", labelMicros, dijkstraMicros / labelMicros);
+        System.out.printf("Mismatches against Dijkstra: %d of %d (checksum %.0f)%n%n", mismatches, queryCount, checksum);
+
+        // Station x crime cost matrix: labels vs one reverse search per crime
+        int[] stations = new int[stationCount];
+        int[] crimes = new int[crimeCount];
+        for (int i = 0; i < stationCount; i++) stations[i] = random.nextInt(n);
+        for (int j = 0; j < crimeCount; j++) crimes[j] = random.nextInt(n);
+        double[][] fromLabels = new double[stationCount][crimeCount];
+        double[][] fromSearch = new double[stationCount][crimeCount];
+        t0 = System.nanoTime();
+        for (int i = 0; i < stationCount; i++) {
+            for (int j = 0; j < crimeCount; j++) {
+                fromLabels[i][j] = labels.distance(stations[i], crimes[j]);
+            }
+        }
+        double labelMatrixMillis = (System.nanoTime() - t0) / 1e6;
+        t0 = System.nanoTime();
+        for (int j = 0; j < crimeCount; j++) {
+            Dijkstra.TargetResult result = Dijkstra.findNearestSources(graph, crimes[j], stations, stationCount, null);
+            for (int r = 0; r < result.size(); r++) {
+                for (int i = 0; i < stationCount; i++) {
+                    if (stations[i] == result.getTarget(r)) fromSearch[i][j] = result.getDistance(r);
+                }
+            }
+        }
+        double searchMatrixMillis = (System.nanoTime() - t0) / 1e6;
+        int matrixMismatches = 0;
+        for (int i = 0; i < stationCount; i++) {
+            for (int j = 0; j < crimeCount; j++) {
+                if (fromLabels[i][j] != Double.MAX_VALUE
+                    && !BenchmarkSupport.sameDistance(fromSearch[i][j], fromLabels[i][j])) matrixMismatches++;
+            }
+        }
+        System.out.printf("%d x %d cost matrix: labels %.2f ms, reverse Dijkstra per crime %.2f ms (%d mismatches)%n",
+            stationCount, crimeCount, labelMatrixMillis, searchMatrixMillis, matrixMismatches);
+
+        // Index file round trip
+        Path file = Files.createTempFile("hub_labels", ".hl");
+        boolean roundTrip;
+        boolean staleRejected;
+        long fileBytes;
+        double readMillis;
+        try {
+            labels.write(file);
+            fileBytes = Files.size(file);
+            t0 = System.nanoTime();
+            HubLabels loaded = HubLabels.read(file, graph);
+            readMillis = (System.nanoTime() - t0) / 1e6;
+            roundTrip = loaded != null;
+            for (int q = 0; roundTrip && q < queryCount; q++) {
+                roundTrip = loaded.distance(sources[q], targets[q]) == labels.distance(sources[q], targets[q]);
+            }
+
+            Map<Integer, Double> jam = new HashMap<>();
+            jam.put(graph.nodeId(0), 3.0);
+            cityMap.updateTrafficConditions(jam);
+            staleRejected = HubLabels.read(file, graph) == null;
+            jam.put(graph.nodeId(0), 1.0);
+            cityMap.updateTrafficConditions(jam);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        System.out.printf("Index file: %.1f MB, read in %.1f ms, round trip %s, stale after traffic change: %s%n",
+            fileBytes / 1e6, readMillis, roundTrip ? "exact" : "DIFFERS", staleRejected ? "rejected" : "ACCEPTED");
+
+        boolean pass = mismatches == 0 && matrixMismatches == 0 && roundTrip && staleRejected;
+        System.out.println(pass ? "\nPASS: labels match Dijkstra, index file round-trips and detects stale traffic"
+                                : "\nFAIL");
+    }
+}
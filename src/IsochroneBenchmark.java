@@ -0,0 +1,130 @@
+// IsochroneBenchmark.java
+// Station reachability on a synthetic city under the current traffic:
+//   - coverage (nearest station per node): one multi-source search vs one full
+//     reverse Dijkstra per station (the previous calculateStationCoverageStats path)
+//   - isochrones within a radius: bounded per-station searches, serial and in
+//     parallel, vs full searches cut at the radius afterwards
+//   - exactness of every isochrone and nearest-station label, and a coverage histogram
+// Usage: java -Xmx4g IsochroneBenchmark [nodes] [stations] [radius] [seed]
+
+import algorithms.AllPairsDistances;
+import algorithms.Dijkstra;
+import algorithms.Isochrones;
+import models.CompactGraph;
+import java.util.*;
+
+public class IsochroneBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 50_000);
+        int stationCount = BenchmarkSupport.intArg(args, 1, 50);
+        double radius = BenchmarkSupport.doubleArg(args, 2, 300);
+        long seed = BenchmarkSupport.longArg(args, 3, 42);
+
+        BenchmarkSupport.printBanner("ISOCHRONE");
+
+        CityMap cityMap = BenchmarkSupport.syntheticCity(nodeCount, seed);
+        CompactGraph graph = cityMap.getCompactGraph();
+        int n = graph.getNodeCount();
+
+        // Rush-hour traffic on a tenth of the nodes
+        Random random = new Random(seed + 1);
+        Map<Integer, Double> traffic = new HashMap<>();
+        for (int i = 0; i < n / 10; i++) {
+            traffic.put(graph.nodeId(random.nextInt(n)), 1.0 + 2.0 * random.nextDouble());
+        }
+        cityMap.updateTrafficConditions(traffic);
+
+        int[] stations = new int[stationCount];
+        for (int i = 0; i < stationCount; i++) stations[i] = random.nextInt(n);
+        System.out.printf("Nodes: %d, stations: %d, radius: %.0f, processors: %d%n%n",
+            n, stationCount, radius, Runtime.getRuntime().availableProcessors());
+
+        // Coverage: previous path (one full reverse search per station) vs one multi-source search
+        double[] fullMin = new double[n];
+        double[][] fullRows = new double[stationCount][];
+        Arrays.fill(fullMin, Double.MAX_VALUE);
+        long t0 = System.nanoTime();
+        AllPairsDistances.forEachRow(graph, stations, true, (root, row) -> {
+            synchronized (fullMin) {
+                for (int v = 0; v < n; v++) fullMin[v] = Math.min(fullMin[v], row[v]);
+            }
+        });
+        double fullMillis = (System.nanoTime() - t0) / 1e6;
+        t0 = System.nanoTime();
+        Isochrones.Result coverage = Isochrones.nearest(graph, stations, Double.MAX_VALUE, true);
+        double nearestMillis = (System.nanoTime() - t0) / 1e6;
+        int coverageMismatches = 0;
+        for (int v = 0; v < n; v++) {
+            if (!BenchmarkSupport.sameDistance(fullMin[v], coverage.distance(v))) coverageMismatches++;
+        }
+        System.out.printf("%-40s %10s%n", "Coverage (nearest station per node)", "ms");
+        System.out.printf("%-40s %10.1f%n", "Full reverse Dijkstra per station", fullMillis);
+        System.out.printf("%-40s %10.1f%n", "Isochrones.nearest (multi-source)", nearestMillis);
+        System.out.printf("Mismatches: %d of %d nodes%n%n", coverageMismatches, n);
+
+        // Isochrones within the radius (forward: where each station can get to)
+        for (int i = 0; i < stationCount; i++) {
+            fullRows[i] = new double[n];
+        }
+        t0 = System.nanoTime();
+        for (int i = 0; i < stationCount; i++) {
+            Dijkstra.fillDistances(graph, stations[i], false, fullRows[i]);
+        }
+        double fullForwardMillis = (System.nanoTime() - t0) / 1e6;
+        for (int round = 0; round < 3; round++) Isochrones.compute(graph, stations, radius, false);   // warm-up
+        t0 = System.nanoTime();
+        Isochrones.Result serial = Isochrones.compute(graph, stations, radius, false, 1);
+        double serialMillis = (System.nanoTime() - t0) / 1e6;
+        t0 = System.nanoTime();
+        Isochrones.Result parallel = Isochrones.compute(graph, stations, radius, false);
+        double parallelMillis = (System.nanoTime() - t0) / 1e6;
+
+        int isochroneMismatches = 0;
+        long reachedTotal = 0;
+        for (int i = 0; i < stationCount; i++) {
+            int[] reached = parallel.isochrone(i);
+            reachedTotal += reached.length;
+            int expected = 0;
+            for (int v = 0; v < n; v++) {
+                if (fullRows[i][v] <= radius) expected++;
+            }
+            if (reached.length != expected || !Arrays.equals(reached, serial.isochrone(i))) isochroneMismatches++;
+            for (int v : reached) {
+                if (fullRows[i][v] > radius) isochroneMismatches++;
+            }
+        }
+        Isochrones.Result forwardNearest = Isochrones.nearest(graph, stations, radius, false);
+        int labelMismatches = 0;
+        for (int v = 0; v < n; v++) {
+            if (parallel.nearestSource(v) != serial.nearestSource(v)
+                || !BenchmarkSupport.sameDistance(parallel.distance(v), forwardNearest.distance(v))) {
+                labelMismatches++;
+            }
+        }
+        System.out.printf("%-40s %10s%n", "Isochrones within radius, all stations", "ms");
+        System.out.printf("%-40s %10.1f%n", "Full Dijkstra per station", fullForwardMillis);
+        System.out.printf("%-40s %10.1f%n", "Bounded searches, 1 thread", serialMillis);
+        System.out.printf("%-40s %10.1f%n", "Bounded searches, all processors", parallelMillis);
+        System.out.printf("Average isochrone: %.0f nodes (%.1f%% of the map); %d isochrone and %d label mismatches%n%n",
+            (double) reachedTotal / stationCount, 100.0 * reachedTotal / stationCount / n,
+            isochroneMismatches, labelMismatches);
+
+        // Response time bands from the coverage pass
+        double bandWidth = radius / 3;
+        int[] histogram = coverage.coverageHistogram(bandWidth);
+        System.out.println("Nodes by distance to nearest station:");
+        for (int b = 0; b < Math.min(histogram.length, 12); b++) {
+            System.out.printf("  %6.0f - %-6.0f %7d%n", b * bandWidth, (b + 1) * bandWidth, histogram[b]);
+        }
+        if (histogram.length > 12) {
+            int rest = 0;
+            for (int b = 12; b < histogram.length; b++) rest += histogram[b];
+            System.out.printf("  %6.0f+        %7d%n", 12 * bandWidth, rest);
+        }
+
+        boolean pass = coverageMismatches == 0 && isochroneMismatches == 0 && labelMismatches == 0;
+        System.out.println(pass ? "\nPASS: coverage, isochrones and nearest-station labels match full searches"
+                                : "\nFAIL");
+    }
+}
@@ -0,0 +1,105 @@
+// LandmarkBenchmark.java
+// Compares A* search space with the Euclidean heuristics and with ALT landmarks
+// on a synthetic map, and checks ALT distances against Dijkstra. Highways make
+// the plain Euclidean heuristic inadmissible here, so the admissible baseline
+// scales it by the cheapest weight per unit length.
+// Usage: java -Xmx4g LandmarkBenchmark [nodes] [queries] [landmarks] [seed]
+
+import algorithms.AStar;
+import algorithms.Dijkstra;
+import algorithms.LandmarkHeuristic;
+import models.CompactGraph;
+import java.util.*;
+
+public class LandmarkBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 200_000);
+        int queryCount = BenchmarkSupport.intArg(args, 1, 100);
+        int landmarkCount = BenchmarkSupport.intArg(args, 2, LandmarkHeuristic.DEFAULT_LANDMARKS);
+        long seed = BenchmarkSupport.longArg(args, 3, 42);
+
+        BenchmarkSupport.printBanner("ALT LANDMARK");
+
+        CityMap cityMap = BenchmarkSupport.syntheticCity(nodeCount, seed);
+        CompactGraph graph = cityMap.getCompactGraph();
+
+        LandmarkHeuristic landmarks = LandmarkHeuristic.build(graph, landmarkCount);
+        System.out.printf("Nodes: %d, landmarks: %d, preprocessing: %.1f ms, memory: %.1f MB%n%n",
+            graph.getNodeCount(), landmarks.getLandmarkCount(), landmarks.getPreprocessingNanos() / 1e6,
+            landmarks.getLandmarkCount() * 2.0 * graph.getNodeCount() * 8 / (1 << 20));
+
+        double ratio = landmarks.getWeightPerDistance();
+        AStar.IndexHeuristic scaledEuclidean = (g, from, goal) -> g.euclideanDistance(from, goal) * ratio;
+
+        Random random = new Random(seed + 1);
+        int[] sources = new int[queryCount];
+        int[] targets = new int[queryCount];
+        double[] exact = new double[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            sources[q] = random.nextInt(graph.getNodeCount());
+            targets[q] = random.nextInt(graph.getNodeCount());
+            exact[q] = Dijkstra.findShortestPaths(graph, sources[q]).getDistance(targets[q]);
+        }
+
+        System.out.printf("%-26s %12s %12s %10s%n", "", "nodes/query", "us/query", "exact");
+        Map<String, Long> explored = new LinkedHashMap<>();
+        for (int round = 0; round < 2; round++) {
+            explored.clear();
+            boolean report = round == 1;
+            explored.put("Euclidean (inadmissible)",
+                run("Euclidean (inadmissible)", graph, sources, targets, exact, q -> AStar.EUCLIDEAN_INDEX_HEURISTIC, report));
+            explored.put("Euclidean x min ratio",
+                run("Euclidean x min ratio", graph, sources, targets, exact, q -> scaledEuclidean, report));
+            explored.put("ALT, all landmarks",
+                run("ALT, all landmarks", graph, sources, targets, exact, q -> landmarks, report));
+            explored.put("ALT, 4 active",
+                run("ALT, 4 active", graph, sources, targets, exact,
+                    q -> landmarks.forQuery(sources[q], targets[q]), report));
+        }
+
+        long baseline = explored.get("Euclidean x min ratio");
+        long alt = explored.get("ALT, 4 active");
+        System.out.printf("%nALT explores %.1fx fewer nodes than the admissible Euclidean heuristic%n",
+            (double) baseline / Math.max(1, alt));
+
+        // Reduction as reported by PathfindingService
+        PathfindingService service = new PathfindingService(cityMap);
+        service.setRoutingEngine(PathfindingService.RoutingEngine.LANDMARKS);
+        service.setMeasureSearchSpaceReduction(true);
+        double reduction = 0;
+        int measured = 0;
+        for (int q = 0; q < Math.min(queryCount, 20); q++) {
+            PathfindingService.PathResult result = service.calculateShortestPath(
+                graph.nodeId(sources[q]), graph.nodeId(targets[q]));
+            if (!Double.isNaN(result.getSearchSpaceReduction())) {
+                reduction += result.getSearchSpaceReduction();
+                measured++;
+            }
+        }
+        System.out.printf("PathResult.getSearchSpaceReduction() vs the standard (inexact) heuristic: %+.0f%% (avg of %d)%n",
+            100 * reduction / Math.max(1, measured), measured);
+    }
+
+    private interface HeuristicForQuery {
+        AStar.IndexHeuristic get(int query);
+    }
+
+    private static long run(String name, CompactGraph graph, int[] sources, int[] targets, double[] exact,
+                            HeuristicForQuery heuristics, boolean report) {
+        long explored = 0;
+        int exactCount = 0;
+        long start = System.nanoTime();
+        for (int q = 0; q < sources.length; q++) {
+            AStar.AStarResult result = AStar.findPath(graph, sources[q], targets[q], heuristics.get(q));
+            explored += result.getNodesExplored();
+            if (BenchmarkSupport.sameDistance(exact[q], result.getTotalDistance())) exactCount++;
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / sources.length;
+        if (report) {
+            System.out.printf("%-26s %12d %12.1f %6d/%d%n", name, explored / sources.length, micros,
+                exactCount, sources.length);
+        }
+        return explored;
+    }
+}
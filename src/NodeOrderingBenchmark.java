@@ -0,0 +1,131 @@
+// NodeOrderingBenchmark.java
+// Measures Dijkstra/A* throughput on a large synthetic map with the CSR dense
+// indices in ID order vs Hilbert-curve order. Node IDs are scrambled first to
+// mimic an import with arbitrary IDs, and results are checked to be identical.
+// Usage: java -Xmx4g NodeOrderingBenchmark [nodes] [queries] [seed]
+
+import algorithms.AStar;
+import algorithms.Dijkstra;
+import models.CityMapNode;
+import models.CompactGraph;
+import java.util.*;
+
+public class NodeOrderingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 300_000);
+        int queryCount = BenchmarkSupport.intArg(args, 1, 200);
+        long seed = BenchmarkSupport.longArg(args, 2, 42);
+
+        BenchmarkSupport.printBanner("NODE ORDERING");
+
+        Map<Integer, CityMapNode> scrambled =
+            scrambleIds(BenchmarkSupport.syntheticCity(nodeCount, seed).getAllNodes(), new Random(seed));
+
+        long t0 = System.nanoTime();
+        CompactGraph idOrder = CompactGraph.fromNodes(scrambled, CompactGraph.NodeOrder.ID);
+        long t1 = System.nanoTime();
+        CompactGraph hilbertOrder = CompactGraph.fromNodes(scrambled, CompactGraph.NodeOrder.HILBERT);
+        long t2 = System.nanoTime();
+        System.out.printf("Nodes: %d, edges: %d, build: ID order %.1f ms, Hilbert order %.1f ms%n",
+            hilbertOrder.getNodeCount(), hilbertOrder.getEdgeCount(), (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+        System.out.printf("Mean |index gap| per edge: ID order %.0f, Hilbert order %.0f%n%n",
+            meanIndexGap(idOrder), meanIndexGap(hilbertOrder));
+
+        // Same external node pairs for both orders
+        Random random = new Random(seed + 1);
+        List<Integer> ids = new ArrayList<>(scrambled.keySet());
+        int[] sources = new int[queryCount];
+        int[] targets = new int[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            sources[q] = ids.get(random.nextInt(ids.size()));
+            targets[q] = ids.get(random.nextInt(ids.size()));
+        }
+
+        int dijkstraQueries = Math.max(1, queryCount / 10);
+        int mismatches = 0;
+        double[] idRates = new double[2];
+        double[] hilbertRates = new double[2];
+
+        // Two rounds; the first warms up the JIT and is not reported
+        for (int round = 0; round < 2; round++) {
+            double[] idDistances = new double[queryCount];
+            double[] hilbertDistances = new double[queryCount];
+            idRates = run(idOrder, sources, targets, dijkstraQueries, idDistances);
+            hilbertRates = run(hilbertOrder, sources, targets, dijkstraQueries, hilbertDistances);
+            if (round == 1) {
+                mismatches = 0;
+                for (int q = 0; q < queryCount; q++) {
+                    if (idDistances[q] != hilbertDistances[q]) mismatches++;
+                }
+            }
+        }
+
+        System.out.printf("%-22s %14s %14s %9s%n", "", "ID order", "Hilbert order", "speedup");
+        System.out.printf("%-22s %14.0f %14.0f %8.2fx%n", "Dijkstra nodes/sec", idRates[0], hilbertRates[0],
+            hilbertRates[0] / idRates[0]);
+        System.out.printf("%-22s %14.0f %14.0f %8.2fx%n", "A* nodes/sec", idRates[1], hilbertRates[1],
+            hilbertRates[1] / idRates[1]);
+        System.out.println(mismatches == 0 ? "\nPASS: identical distances" : "\nFAIL: " + mismatches + " distance mismatches");
+    }
+
+    /**
+     * Runs full Dijkstra from the first dijkstraQueries sources, then A* for every pair
+     * @return {Dijkstra settled nodes/sec, A* explored nodes/sec}
+     */
+    private static double[] run(CompactGraph graph, int[] sources, int[] targets,
+                                int dijkstraQueries, double[] distances) {
+        long settled = 0;
+        long start = System.nanoTime();
+        for (int q = 0; q < dijkstraQueries; q++) {
+            Dijkstra.CompactResult result = Dijkstra.findShortestPaths(graph, graph.indexOf(sources[q]));
+            for (int i = 0; i < graph.getNodeCount(); i++) {
+                if (result.getDistance(i) < Double.MAX_VALUE) settled++;
+            }
+        }
+        double dijkstraRate = settled / ((System.nanoTime() - start) / 1e9);
+
+        long explored = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < sources.length; q++) {
+            AStar.AStarResult result = AStar.findPath(graph, graph.indexOf(sources[q]), graph.indexOf(targets[q]),
+                                                      AStar.EUCLIDEAN_INDEX_HEURISTIC);
+            explored += result.getNodesExplored();
+            distances[q] = result.getTotalDistance();
+        }
+        double aStarRate = explored / ((System.nanoTime() - start) / 1e9);
+
+        return new double[] { dijkstraRate, aStarRate };
+    }
+
+    /**
+     * Copy of the map with node IDs replaced by a random permutation
+     */
+    private static Map<Integer, CityMapNode> scrambleIds(Map<Integer, CityMapNode> nodes, Random random) {
+        List<Integer> newIds = new ArrayList<>(nodes.keySet());
+        Collections.shuffle(newIds, random);
+        Map<Integer, Integer> mapping = new HashMap<>();
+        int k = 0;
+        for (int id : nodes.keySet()) mapping.put(id, newIds.get(k++));
+
+        Map<Integer, CityMapNode> scrambled = new HashMap<>();
+        for (CityMapNode node : nodes.values()) {
+            CityMapNode copy = new CityMapNode(mapping.get(node.getNodeId()), node.getX(), node.getY());
+            for (CityMapNode.Edge edge : node.getAdjacentEdges()) {
+                copy.addEdge(mapping.get(edge.getDestinationNode()), edge.getBaseWeight(), edge.getAttributes());
+            }
+            scrambled.put(copy.getNodeId(), copy);
+        }
+        return scrambled;
+    }
+
+    private static double meanIndexGap(CompactGraph graph) {
+        double total = 0;
+        for (int i = 0; i < graph.getNodeCount(); i++) {
+            for (int e = graph.edgeStart(i); e < graph.edgeEnd(i); e++) {
+                total += Math.abs(graph.target(e) - i);
+            }
+        }
+        return total / Math.max(1, graph.getEdgeCount());
+    }
+}
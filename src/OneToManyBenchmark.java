@@ -0,0 +1,110 @@
+// OneToManyBenchmark.java
+// Nearest-station lookup per crime: one calculateShortestPath call per station
+// (the previous dispatch code) against a single one-to-many search that stops
+// once the k nearest stations accepted by a filter are settled. Distances are
+// checked against full Dijkstra in both directions.
+// Usage: java -Xmx4g OneToManyBenchmark [nodes] [stations] [crimes] [k] [seed]
+
+import algorithms.Dijkstra;
+import models.CompactGraph;
+import java.util.*;
+
+public class OneToManyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 200_000);
+        int stationCount = BenchmarkSupport.intArg(args, 1, 20);
+        int crimeCount = BenchmarkSupport.intArg(args, 2, 50);
+        int k = BenchmarkSupport.intArg(args, 3, 3);
+        long seed = BenchmarkSupport.longArg(args, 4, 42);
+
+        BenchmarkSupport.printBanner("ONE-TO-MANY");
+
+        CityMap cityMap = BenchmarkSupport.syntheticCity(nodeCount, seed);
+        CompactGraph graph = cityMap.getCompactGraph();
+
+        Random random = new Random(seed + 1);
+        List<Integer> stations = new ArrayList<>();
+        while (stations.size() < stationCount) {
+            int station = graph.nodeId(random.nextInt(graph.getNodeCount()));
+            if (!stations.contains(station)) stations.add(station);
+        }
+        // Roughly half the stations have a suitable unit free
+        Set<Integer> staffed = new HashSet<>();
+        for (int station : stations) {
+            if (random.nextBoolean()) staffed.add(station);
+        }
+        int[] crimes = new int[crimeCount];
+        for (int c = 0; c < crimeCount; c++) {
+            crimes[c] = graph.nodeId(random.nextInt(graph.getNodeCount()));
+        }
+        System.out.printf("Nodes: %d, stations: %d (%d staffed), crimes: %d, k: %d%n%n",
+            graph.getNodeCount(), stationCount, staffed.size(), crimeCount, k);
+
+        // Correctness against full Dijkstra, forward (crime -> station) and reverse (station -> crime)
+        PathfindingService service = new PathfindingService(cityMap);
+        int failures = 0;
+        for (int c = 0; c < Math.min(crimeCount, 10); c++) {
+            int crimeIndex = graph.indexOf(crimes[c]);
+            Dijkstra.CompactResult fromCrime = Dijkstra.findShortestPaths(graph, crimeIndex);
+            List<Double> expected = new ArrayList<>();
+            for (int station : stations) {
+                double d = fromCrime.getDistance(graph.indexOf(station));
+                if (staffed.contains(station) && d < Double.MAX_VALUE) expected.add(d);
+            }
+            Collections.sort(expected);
+            List<PathfindingService.NodeDistance> nearest =
+                service.findNearestTargets(crimes[c], stations, k, staffed::contains);
+            failures += compare(expected, nearest, k);
+
+            List<Double> expectedReverse = new ArrayList<>();
+            for (int station : stations) {
+                double d = Dijkstra.findShortestPaths(graph, graph.indexOf(station)).getDistance(crimeIndex);
+                if (d < Double.MAX_VALUE) expectedReverse.add(d);
+            }
+            Collections.sort(expectedReverse);
+            failures += compare(expectedReverse, service.findNearestSources(crimes[c], stations, 1, null), 1);
+        }
+
+        // Timing (a fresh service per round so the path cache never answers)
+        double perStationMillis = 0;
+        double oneToManyMillis = 0;
+        for (int round = 0; round < 2; round++) {
+            PathfindingService perStation = new PathfindingService(cityMap);
+            perStation.setRoutingEngine(PathfindingService.RoutingEngine.BIDIRECTIONAL);
+            long t0 = System.nanoTime();
+            for (int crime : crimes) {
+                List<double[]> found = new ArrayList<>();
+                for (int station : stations) {
+                    PathfindingService.PathResult result = perStation.calculateShortestPath(crime, station);
+                    if (result.isValidPath() && staffed.contains(station)) {
+                        found.add(new double[] {station, result.getDistance()});
+                    }
+                }
+                found.sort(Comparator.comparingDouble(f -> f[1]));
+            }
+            perStationMillis = (System.nanoTime() - t0) / 1e6 / crimeCount;
+
+            t0 = System.nanoTime();
+            for (int crime : crimes) {
+                service.findNearestTargets(crime, stations, k, staffed::contains);
+            }
+            oneToManyMillis = (System.nanoTime() - t0) / 1e6 / crimeCount;
+        }
+
+        System.out.printf("%-40s %12s%n", "", "ms/crime");
+        System.out.printf("%-40s %12.2f%n", stationCount + " x calculateShortestPath (exact)", perStationMillis);
+        System.out.printf("%-40s %12.2f%n", "findNearestTargets, k=" + k, oneToManyMillis);
+        System.out.printf("Speedup: %.1fx%n", perStationMillis / oneToManyMillis);
+        System.out.println(failures == 0 ? "\nPASS: nearest stations match Dijkstra"
+                                         : "\nFAIL: " + failures + " lookups differ");
+    }
+
+    private static int compare(List<Double> expected, List<PathfindingService.NodeDistance> actual, int k) {
+        if (actual.size() != Math.min(k, expected.size())) return 1;
+        for (int i = 0; i < actual.size(); i++) {
+            if (!BenchmarkSupport.sameDistance(expected.get(i), actual.get(i).getDistance())) return 1;
+        }
+        return 0;
+    }
+}
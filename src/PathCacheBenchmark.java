@@ -0,0 +1,202 @@
+// PathCacheBenchmark.java
+// Compares PathCache (segmented, packed long keys, W-TinyLFU) with the previous
+// synchronized LRUCache keyed by "start->end:STRATEGY" strings: hit rate at equal
+// capacity on a skewed workload interrupted by scans of one-off routes, hit
+// throughput and bytes allocated per lookup from 1 and several threads, and
+// single-flight loading (concurrent misses on one key run the loader once).
+// Usage: java PathCacheBenchmark [capacity] [distinct routes] [lookups] [threads] [seed]
+
+import services.PathCache;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PathCacheBenchmark {
+
+    private interface Cache {
+        boolean lookup(int start, int end);   // true on a hit; a miss inserts
+    }
+
+    public static void main(String[] args) throws Exception {
+        int capacity = BenchmarkSupport.intArg(args, 0, 1_000);
+        int routeCount = BenchmarkSupport.intArg(args, 1, 20_000);
+        int lookupCount = BenchmarkSupport.intArg(args, 2, 2_000_000);
+        int threadCount = BenchmarkSupport.intArg(args, 3, 4);
+        long seed = BenchmarkSupport.longArg(args, 4, 42);
+
+        BenchmarkSupport.printBanner("PATH CACHE");
+        System.out.printf("Capacity: %d routes, %d distinct routes, %d lookups, processors: %d%n%n",
+            capacity, routeCount, lookupCount, Runtime.getRuntime().availableProcessors());
+
+        // Zipf-like popularity, with every tenth block of lookups a scan of one-off routes
+        Random random = new Random(seed);
+        double[] cumulative = new double[routeCount];
+        double total = 0;
+        for (int r = 0; r < routeCount; r++) {
+            total += 1.0 / Math.pow(r + 1, 0.9);
+            cumulative[r] = total;
+        }
+        int[] workload = new int[lookupCount];
+        int oneOff = routeCount;
+        for (int i = 0; i < lookupCount; i++) {
+            if ((i / 5_000) % 10 == 9) {
+                workload[i] = oneOff++;
+            } else {
+                int r = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                workload[i] = r >= 0 ? r : -r - 1;
+            }
+        }
+
+        // Hit rate at equal capacity (unit weights)
+        PathfindingService.LRUCache<String, Integer> lru = new PathfindingService.LRUCache<>(capacity);
+        PathCache<Integer> tinyLfu = new PathCache<>(capacity, 16, value -> 1, null);
+        Cache oldCache = (start, end) -> {
+            String key = start + "->" + end + ":FASTEST_PATH";
+            if (lru.get(key) != null) return true;
+            lru.put(key, end);
+            return false;
+        };
+        Cache newCache = (start, end) -> {
+            long key = ((long) start << 35) | ((long) end << 6);
+            if (tinyLfu.getIfPresent(key) != null) return true;
+            tinyLfu.put(key, end);
+            return false;
+        };
+        System.out.printf("%-36s %9s%n", "", "hit rate");
+        System.out.printf("%-36s %8.1f%%%n", "LRUCache, String keys", 100.0 * hits(oldCache, workload) / lookupCount);
+        System.out.printf("%-36s %8.1f%%%n", "PathCache, long keys, W-TinyLFU", 100.0 * hits(newCache, workload) / lookupCount);
+
+        // Hit throughput: a warm cache holding exactly the looked-up routes
+        int warm = Math.min(capacity / 2, 500);
+        PathfindingService.LRUCache<String, Integer> warmLru = new PathfindingService.LRUCache<>(capacity);
+        PathCache<Integer> warmCache = new PathCache<>(capacity, 16, value -> 1, null);
+        for (int r = 0; r < warm; r++) {
+            warmLru.put(r + "->" + (r + 1) + ":FASTEST_PATH", r);
+            warmCache.put(((long) r << 35) | ((long) (r + 1) << 6), r);
+        }
+        Cache oldHits = (start, end) -> warmLru.get(start + "->" + end + ":FASTEST_PATH") != null;
+        Cache newHits = (start, end) -> warmCache.getIfPresent(((long) start << 35) | ((long) end << 6)) != null;
+
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        System.out.printf("%n%-36s %14s %16s %16s%n", "", "bytes/lookup", "lookups/s (1)", "lookups/s (" + threadCount + ")");
+        for (int round = 0; round < 3; round++) {
+            boolean report = round == 2;
+            for (Object[] entry : new Object[][] {{"LRUCache, String keys", oldHits}, {"PathCache, long keys", newHits}}) {
+                Cache cache = (Cache) entry[1];
+                long threadId = Thread.currentThread().getId();
+                long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+                long t0 = System.nanoTime();
+                int found = 0;
+                for (int i = 0; i < lookupCount; i++) {
+                    int r = i % warm;
+                    if (cache.lookup(r, r + 1)) found++;
+                }
+                double single = lookupCount / ((System.nanoTime() - t0) / 1e9);
+                double bytes = (double) (threads.getThreadAllocatedBytes(threadId) - bytesBefore) / lookupCount;
+                double parallel = parallelThroughput(cache, warm, lookupCount, threadCount);
+                if (report) {
+                    System.out.printf("%-36s %14.1f %16.0f %16.0f%s%n", entry[0], bytes, single, parallel,
+                        found == lookupCount ? "" : "  (missed " + (lookupCount - found) + ")");
+                }
+            }
+        }
+
+        // Single flight: every thread misses on the same key at once
+        PathCache<Integer> flight = new PathCache<>(capacity, 16, value -> 1, null);
+        AtomicInteger loaderCalls = new AtomicInteger();
+        int callers = Math.max(8, threadCount);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < callers; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return flight.get(42L, key -> {
+                    loaderCalls.incrementAndGet();
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 7;
+                });
+            }));
+        }
+        start.countDown();
+        boolean sameValue = true;
+        for (Future<Integer> result : results) {
+            sameValue &= result.get() == 7;
+        }
+        pool.shutdown();
+        System.out.printf("%nSingle flight: %d concurrent misses, %d loader call(s), %d shared%n",
+            callers, loaderCalls.get(), flight.sharedLoadCount());
+
+        // Table and weight bookkeeping against a reference map under random puts and invalidations
+        PathCache<Integer> checked = new PathCache<>(5_000, 4, value -> value % 7 + 1, null);
+        Map<Long, Integer> latest = new HashMap<>();
+        int wrongValues = 0;
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(20_000);
+            int op = random.nextInt(10);
+            if (op < 6) {
+                int value = random.nextInt(1_000);
+                checked.put(key, value);
+                latest.put(key, value);
+            } else if (op < 8) {
+                checked.invalidate(key);
+                latest.remove(key);
+            } else {
+                Integer value = checked.getIfPresent(key);
+                if (value != null && !value.equals(latest.get(key))) wrongValues++;
+            }
+        }
+        long weight = 0;
+        int present = 0;
+        for (Map.Entry<Long, Integer> entry : latest.entrySet()) {
+            Integer value = checked.getIfPresent(entry.getKey());
+            if (value == null) continue;
+            if (!value.equals(entry.getValue())) wrongValues++;
+            weight += value % 7 + 1;
+            present++;
+        }
+        boolean consistent = wrongValues == 0 && present == checked.size() && weight == checked.weight()
+            && weight <= 5_000;
+        System.out.printf("Consistency: %d entries, weight %d of 5000, %d wrong values%n",
+            present, weight, wrongValues);
+
+        boolean pass = loaderCalls.get() == 1 && sameValue && consistent;
+        System.out.println(pass ? "\nPASS: one load per concurrent miss, bookkeeping consistent"
+                                : "\nFAIL: loader ran " + loaderCalls.get() + " times or bookkeeping is off");
+    }
+
+    private static int hits(Cache cache, int[] workload) {
+        int hits = 0;
+        for (int route : workload) {
+            if (cache.lookup(route, route + 1)) hits++;
+        }
+        return hits;
+    }
+
+    private static double parallelThroughput(Cache cache, int warm, int lookupCount, int threadCount)
+            throws InterruptedException {
+        Thread[] workers = new Thread[threadCount];
+        int perThread = lookupCount / threadCount;
+        long t0 = System.nanoTime();
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t * 97;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    int r = (i + offset) % warm;
+                    cache.lookup(r, r + 1);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (double) perThread * threadCount / ((System.nanoTime() - t0) / 1e9);
+    }
+}
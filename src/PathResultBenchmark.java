@@ -0,0 +1,202 @@
+// PathResultBenchmark.java
+// Route storage in PathResult on a synthetic city:
+//   - retained heap for a set of cached routes: the previous boxed ArrayList<Integer>
+//     vs NodePath as a plain int[] vs delta/varint-compressed (measured after GC)
+//   - bytes allocated per read: a getPath() copy (previous) vs the List view,
+//     nodeAt() and nodes() on both forms
+//   - bytes the service's path cache holds for the same routes, with and
+//     without setCompressCachedPaths
+//   - every path form decoded back and compared node by node
+// Usage: java -Xmx4g PathResultBenchmark [nodes] [routes] [seed]
+
+import algorithms.Dijkstra;
+import models.CompactGraph;
+import models.NodePath;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+public class PathResultBenchmark {
+    private static final int COPIES = 50;
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 50_000);
+        int routeCount = BenchmarkSupport.intArg(args, 1, 1000);
+        long seed = BenchmarkSupport.longArg(args, 2, 42);
+
+        BenchmarkSupport.printBanner("PATH RESULT");
+
+        CityMap cityMap = BenchmarkSupport.syntheticCity(nodeCount, seed);
+        CompactGraph graph = cityMap.getCompactGraph();
+        int n = graph.getNodeCount();
+        Random random = new Random(seed + 1);
+
+        int[][] routes = new int[routeCount][];
+        long totalNodes = 0;
+        for (int i = 0; i < routeCount; i++) {
+            int[] path;
+            do {
+                path = Dijkstra.findShortestPath(graph, random.nextInt(n), random.nextInt(n))
+                    .stream().mapToInt(Integer::intValue).toArray();
+            } while (path.length < 2);
+            routes[i] = path;
+            totalNodes += path.length;
+        }
+        System.out.printf("Nodes: %d, routes: %d, average route: %.0f nodes%n%n", n, routeCount,
+            (double) totalNodes / routeCount);
+
+        // Retained heap per representation (each route held COPIES times so GC noise averages out)
+        long boxed = retained(() -> {
+            List<List<Integer>> held = new ArrayList<>(routeCount * COPIES);
+            for (int copy = 0; copy < COPIES; copy++) {
+                for (int[] route : routes) {
+                    List<Integer> list = new ArrayList<>();
+                    for (int nodeId : route) list.add(nodeId);
+                    held.add(list);
+                }
+            }
+            return held;
+        });
+        long plain = retained(() -> {
+            List<NodePath> held = new ArrayList<>(routeCount * COPIES);
+            for (int copy = 0; copy < COPIES; copy++) {
+                for (int[] route : routes) held.add(NodePath.of(route));
+            }
+            return held;
+        });
+        long compressed = retained(() -> {
+            List<NodePath> held = new ArrayList<>(routeCount * COPIES);
+            for (int copy = 0; copy < COPIES; copy++) {
+                for (int[] route : routes) held.add(NodePath.of(route).compress());
+            }
+            return held;
+        });
+        long heldNodes = totalNodes * COPIES;
+        System.out.printf("%-36s %12s %12s%n", "Retained heap per route", "bytes", "per node");
+        System.out.printf("%-36s %12d %12.2f%n", "ArrayList<Integer> (previous)", boxed / routeCount / COPIES,
+            (double) boxed / heldNodes);
+        System.out.printf("%-36s %12d %12.2f%n", "NodePath, int[]", plain / routeCount / COPIES,
+            (double) plain / heldNodes);
+        System.out.printf("%-36s %12d %12.2f%n%n", "NodePath, compressed", compressed / routeCount / COPIES,
+            (double) compressed / heldNodes);
+
+        // Allocation per full read of every route
+        List<List<Integer>> boxedPaths = new ArrayList<>();
+        List<PathfindingService.PathResult> plainResults = new ArrayList<>();
+        List<PathfindingService.PathResult> compressedResults = new ArrayList<>();
+        for (int[] route : routes) {
+            List<Integer> list = new ArrayList<>();
+            for (int nodeId : route) list.add(nodeId);
+            boxedPaths.add(list);
+            PathfindingService.PathResult result = new PathfindingService.PathResult(NodePath.of(route), 0, 0, "", 0);
+            plainResults.add(result);
+            compressedResults.add(result.compressed());
+        }
+        System.out.printf("%-36s %12s %12s%n", "Reading every route", "bytes/read", "ns/node");
+        measure("getPath() copy (previous)", routeCount, totalNodes, () -> {
+            long sum = 0;
+            for (List<Integer> path : boxedPaths) {
+                for (int nodeId : new ArrayList<>(path)) sum += nodeId;
+            }
+            return sum;
+        });
+        for (int form = 0; form < 2; form++) {
+            List<PathfindingService.PathResult> results = form == 0 ? plainResults : compressedResults;
+            String label = form == 0 ? "int[]" : "compressed";
+            measure("getPath() view, " + label, routeCount, totalNodes, () -> {
+                long sum = 0;
+                for (PathfindingService.PathResult result : results) {
+                    for (int nodeId : result.getPath()) sum += nodeId;
+                }
+                return sum;
+            });
+            measure("nodeAt(i), " + label, routeCount, totalNodes, () -> {
+                long sum = 0;
+                for (PathfindingService.PathResult result : results) {
+                    for (int i = 0, length = result.length(); i < length; i++) sum += result.nodeAt(i);
+                }
+                return sum;
+            });
+            measure("nodes() stream, " + label, routeCount, totalNodes, () -> {
+                long sum = 0;
+                for (PathfindingService.PathResult result : results) sum += result.nodes().asLongStream().sum();
+                return sum;
+            });
+        }
+
+        // Bytes the service cache holds for the same routes
+        System.out.printf("%n%-36s %12s %12s%n", "Service cache after all routes", "cached", "path bytes");
+        for (boolean compress : new boolean[] {false, true}) {
+            PathfindingService service = new PathfindingService(cityMap);
+            service.setRoutingEngine(PathfindingService.RoutingEngine.BIDIRECTIONAL);
+            service.setCompressCachedPaths(compress);
+            for (int[] route : routes) service.calculateShortestPath(route[0], route[route.length - 1]);
+            System.out.printf("%-36s %12d %12d%n", compress ? "setCompressCachedPaths(true)" : "plain int[]",
+                service.getPerformanceStats().cacheSize, service.getCachedPathBytes());
+        }
+
+        int mismatches = 0;
+        for (int i = 0; i < routeCount; i++) {
+            NodePath a = plainResults.get(i).getNodePath();
+            NodePath b = compressedResults.get(i).getNodePath();
+            if (!Arrays.equals(routes[i], a.toArray()) || !Arrays.equals(routes[i], b.toArray())
+                || !Arrays.equals(routes[i], b.stream().toArray()) || !a.equals(b) || a.hashCode() != b.hashCode()
+                || !boxedPaths.get(i).equals(b.asList())) {
+                mismatches++;
+                continue;
+            }
+            for (int k = 0; k < routes[i].length; k++) {
+                if (b.nodeAt(k) != routes[i][k]) {
+                    mismatches++;
+                    break;
+                }
+            }
+        }
+        System.out.printf("%nDecode mismatches: %d of %d routes%n", mismatches, routeCount);
+        System.out.println(mismatches == 0 ? "\nPASS: compressed and plain paths decode to the original routes"
+                                           : "\nFAIL");
+    }
+
+    private interface Holder {
+        Object build();
+    }
+
+    private interface Reader {
+        long read();
+    }
+
+    private static long retained(Holder holder) {
+        long before = usedAfterGc();
+        Object held = holder.build();
+        long after = usedAfterGc();
+        if (held.hashCode() == 42) System.out.print("");   // keep it reachable until measured
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void measure(String label, int reads, long nodes, Reader reader) {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long check = 0;
+        for (int round = 0; round < 20; round++) check += reader.read();   // warm-up
+        int rounds = 20;
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long t0 = System.nanoTime();
+        for (int round = 0; round < rounds; round++) check += reader.read();
+        double nanos = System.nanoTime() - t0;
+        double bytes = (double) (threads.getThreadAllocatedBytes(threadId) - bytesBefore) / rounds / reads;
+        System.out.printf("%-36s %12.1f %12.2f%s%n", label, bytes, nanos / rounds / nodes, check == 42 ? " " : "");
+    }
+}
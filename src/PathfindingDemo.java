@@ -343,8 +343,9 @@ public class PathfindingDemo {
                           initialPath.getDistance()) * 100;
         System.out.printf("Distance increase due to traffic: %.1f%%%n", increase);
         
-        // Show cache was cleared
+        // Only routes through the congested nodes were dropped
         PathfindingService.PathfindingStats stats = service.getPerformanceStats();
-        System.out.printf("Cache size after traffic update: %d%n", stats.cacheSize);
+        System.out.printf("Cache size after traffic update: %d (%d routes invalidated)%n",
+            stats.cacheSize, stats.routesInvalidated);
     }
 }
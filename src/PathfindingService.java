@@ -1,19 +1,75 @@
+import algorithms.AlternativeRoutes;
 import algorithms.Dijkstra;
 import algorithms.AStar;
+import algorithms.ContractionHierarchy;
 import algorithms.FloydWarshall;
+import algorithms.HubLabels;
+import algorithms.LandmarkHeuristic;
 import models.CityMapNode;
+import models.CompactGraph;
+import models.NodePath;
+import models.TravelTimeProfiles;
+import services.PathCache;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
+/**
+ * Route and distance queries over a CityMap, with a shared path cache
+ *
+ * Safe for concurrent callers (the simulation thread and the GUI): counters
+ * are LongAdders, the cache and its indexes are concurrent, lazily built
+ * indexes are published through volatile fields, and traffic updates are
+ * serialized. Searches use per-thread workspaces.
+ */
 public class PathfindingService {
+    private static final long MAX_CACHED_PATH_BYTES = 1_000_000;  // cache bound: NodePath bytes over all cached routes
+    private static final int CACHE_CONCURRENCY = 16;
+    private static final int POLICE_ROUTE = OptimizationStrategy.values().length;  // cache key variant
+    private static final int BATCH_ROUTE = POLICE_ROUTE + 1;                        // exact Dijkstra batch
+    private static final int TIME_DEPENDENT_ROUTE = BATCH_ROUTE + 1;                // + time bucket
+    private static final long NO_CACHE_KEY = -1L;
     
-    private CityMap cityMap;
+    public static final int TIME_BUCKET_MINUTES = 15;
+    
+    private final CityMap cityMap;
     private Map<Integer, CityMapNode> nodeMap;
-    private LRUCache<String, PathResult> pathCache;
-    private Map<String, Long> routeFrequency;
+    private CompactGraph graph;
+    private volatile RoutingEngine routingEngine;
+    private volatile ContractionHierarchy contractionHierarchy;  // built on first use, dropped on traffic updates
+    private volatile LandmarkHeuristic landmarkHeuristic;        // built on first use, base weights
+    private volatile HubLabels hubLabels;                        // built on first use, dropped on traffic updates
+    private volatile boolean useHubLabels;
+    private volatile boolean measureSearchSpaceReduction;
+    private volatile TravelTimeProfiles travelTimeProfiles;
+    private final PathCache<PathResult> pathCache;
+    private final Map<Integer, Set<Long>> cachedRoutesByNode;  // node ID -> keys of cached routes leaving it
+    private final Set<Long> staleRoutes;                        // LAZY_RECOST: re-cost on next hit
+    private volatile CacheInvalidation cacheInvalidation;
+    private final Map<Long, LongAdder> routeFrequency;
+    private volatile Executor batchExecutor;
+    private volatile boolean compressCachedPaths;
+    private volatile AlternativeMethod alternativeMethod;
+    private volatile double alternativeOverlapLimit;
+    
+    // Traffic updates run one at a time, and never while the hierarchy or hub labels
+    // are being built; the version is odd while one is in progress
+    private final Object trafficLock = new Object();
+    private volatile long trafficVersion;
     
-    private long totalPathRequests;
-    private long cacheHits;
-    private long totalComputationTime;
+    private final LongAdder totalPathRequests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder totalComputationTime = new LongAdder();
+    private final LongAdder routesInvalidated = new LongAdder();
+    private final LongAdder routesRecosted = new LongAdder();
     
     public static class LRUCache<K, V> {
         private final LinkedHashMap<K, V> cache;
@@ -52,28 +108,130 @@ public class PathfindingService {
         }
     }
     
+    /**
+     * A route and how it was found. The node IDs are held once as an immutable
+     * NodePath (plain int[] or delta-compressed), so reads never copy them.
+     */
     public static class PathResult {
-        private List<Integer> path;
-        private double distance;
-        private long computationTime;
-        private String algorithm;
-        private int nodesExplored;
+        private final NodePath path;
+        private final double distance;
+        private final long computationTime;
+        private final String algorithm;
+        private final int nodesExplored;
+        private final int baselineNodesExplored;
         
         public PathResult(List<Integer> path, double distance, long computationTime, 
                          String algorithm, int nodesExplored) {
-            this.path = new ArrayList<>(path);
+            this(path, distance, computationTime, algorithm, nodesExplored, -1);
+        }
+        
+        /**
+         * @param baselineNodesExplored Nodes the standard heuristic explored for the same query, -1 if not measured
+         */
+        public PathResult(List<Integer> path, double distance, long computationTime, 
+                         String algorithm, int nodesExplored, int baselineNodesExplored) {
+            this(NodePath.of(path), distance, computationTime, algorithm, nodesExplored, baselineNodesExplored);
+        }
+        
+        public PathResult(NodePath path, double distance, long computationTime, 
+                         String algorithm, int nodesExplored) {
+            this(path, distance, computationTime, algorithm, nodesExplored, -1);
+        }
+        
+        public PathResult(NodePath path, double distance, long computationTime, 
+                         String algorithm, int nodesExplored, int baselineNodesExplored) {
+            this.path = path;
             this.distance = distance;
             this.computationTime = computationTime;
             this.algorithm = algorithm;
             this.nodesExplored = nodesExplored;
+            this.baselineNodesExplored = baselineNodesExplored;
         }
         
-        public List<Integer> getPath() { return new ArrayList<>(path); }
+        /**
+         * Unmodifiable List view of the node IDs, kept for compatibility; nodeAt, length
+         * and nodes() read without boxing
+         */
+        public List<Integer> getPath() { return path.asList(); }
+        public NodePath getNodePath() { return path; }
+        public int length() { return path.length(); }
+        public int nodeAt(int i) { return path.nodeAt(i); }
+        public IntStream nodes() { return path.stream(); }
         public double getDistance() { return distance; }
         public long getComputationTime() { return computationTime; }
         public String getAlgorithm() { return algorithm; }
         public int getNodesExplored() { return nodesExplored; }
+        public int getBaselineNodesExplored() { return baselineNodesExplored; }
+        
+        /**
+         * Fraction of the baseline search space that was avoided (0.75 = 4x fewer nodes), NaN if not measured
+         */
+        public double getSearchSpaceReduction() {
+            if (baselineNodesExplored <= 0) return Double.NaN;
+            return 1.0 - (double) nodesExplored / baselineNodesExplored;
+        }
         public boolean isValidPath() { return !path.isEmpty(); }
+        
+        /**
+         * The same result with its path delta-compressed
+         */
+        public PathResult compressed() {
+            if (path.isCompressed()) return this;
+            return new PathResult(path.compress(), distance, computationTime, algorithm,
+                                  nodesExplored, baselineNodesExplored);
+        }
+    }
+    
+    /**
+     * Node reached by a one-to-many query, with its shortest distance
+     */
+    public static class NodeDistance {
+        private final int nodeId;
+        private final double distance;
+        
+        public NodeDistance(int nodeId, double distance) {
+            this.nodeId = nodeId;
+            this.distance = distance;
+        }
+        
+        public int getNodeId() { return nodeId; }
+        public double getDistance() { return distance; }
+    }
+    
+    /**
+     * Results of calculatePathsBatch keyed by (start, end) node ID pairs: sorted packed
+     * long keys with a parallel result array, so lookups box nothing
+     */
+    public static class BatchResult {
+        private final long[] keys;
+        private final PathResult[] results;
+        
+        BatchResult(long[] keys, PathResult[] results) {
+            this.keys = keys;
+            this.results = results;
+        }
+        
+        static long packPair(int startNode, int endNode) {
+            return ((long) startNode << 32) | (endNode & 0xFFFFFFFFL);
+        }
+        
+        /**
+         * Result for a requested pair, null if the pair was not in the batch
+         */
+        public PathResult get(int startNode, int endNode) {
+            int i = Arrays.binarySearch(keys, packPair(startNode, endNode));
+            return i >= 0 ? results[i] : null;
+        }
+        
+        public boolean contains(int startNode, int endNode) {
+            return Arrays.binarySearch(keys, packPair(startNode, endNode)) >= 0;
+        }
+        
+        // Distinct pairs in (start, end) order
+        public int size() { return keys.length; }
+        public int getStartNode(int i) { return (int) (keys[i] >> 32); }
+        public int getEndNode(int i) { return (int) keys[i]; }
+        public PathResult getResult(int i) { return results[i]; }
     }
     
     public enum OptimizationStrategy {
@@ -83,14 +241,62 @@ public class PathfindingService {
         AVOID_TRAFFIC
     }
     
+    /**
+     * STANDARD searches the graph per query (A* or Dijkstra by strategy);
+     * BIDIRECTIONAL runs exact bidirectional Dijkstra;
+     * LANDMARKS runs A* with the ALT landmark heuristic;
+     * CONTRACTION_HIERARCHIES preprocesses once and answers with a bidirectional upward search
+     */
+    public enum RoutingEngine {
+        STANDARD,
+        BIDIRECTIONAL,
+        LANDMARKS,
+        CONTRACTION_HIERARCHIES
+    }
+    
+    /**
+     * What a traffic update does to cached routes.
+     * CLEAR_ALL drops every route;
+     * AFFECTED_ROUTES drops routes that leave a node whose multiplier changed;
+     * LAZY_RECOST drops routes through slower nodes but keeps those through faster ones,
+     * re-costing them with the new weights on their next hit (a route that only got cheaper
+     * is rarely beaten). Routes that avoid every changed node keep their exact cost, though
+     * where a multiplier dropped a detour through that node may now be faster.
+     */
+    public enum CacheInvalidation {
+        CLEAR_ALL,
+        AFFECTED_ROUTES,
+        LAZY_RECOST
+    }
+    
+    /**
+     * How calculateAlternativePaths finds routes besides the shortest.
+     * PLATEAU builds one forward and one backward shortest-path tree and takes a route
+     * through each long stretch they share, topped up by YEN if too few qualify;
+     * PENALTY re-searches, raising the weight of edges on routes found so far;
+     * YEN enumerates the k shortest loopless paths (exact, one search per route node)
+     */
+    public enum AlternativeMethod {
+        PLATEAU,
+        PENALTY,
+        YEN
+    }
+    
     public PathfindingService(CityMap cityMap) {
         this.cityMap = cityMap;
         this.nodeMap = new HashMap<>();
-        this.pathCache = new LRUCache<>(1000);
-        this.routeFrequency = new HashMap<>();
-        this.totalPathRequests = 0;
-        this.cacheHits = 0;
-        this.totalComputationTime = 0;
+        this.pathCache = new PathCache<>(MAX_CACHED_PATH_BYTES, CACHE_CONCURRENCY,
+                                         result -> (int) result.path.getMemoryBytes(),
+                                         this::indexRoute, this::unindexRoute);
+        this.cachedRoutesByNode = new ConcurrentHashMap<>();
+        this.staleRoutes = ConcurrentHashMap.newKeySet();
+        this.cacheInvalidation = CacheInvalidation.AFFECTED_ROUTES;
+        this.travelTimeProfiles = TravelTimeProfiles.rushHour();
+        this.routeFrequency = new ConcurrentHashMap<>();
+        this.batchExecutor = ForkJoinPool.commonPool();
+        this.routingEngine = RoutingEngine.STANDARD;
+        this.alternativeMethod = AlternativeMethod.PLATEAU;
+        this.alternativeOverlapLimit = AlternativeRoutes.DEFAULT_MAX_OVERLAP;
         
         initializeNodeMap();
     }
@@ -103,144 +309,634 @@ public class PathfindingService {
      * Calculate shortest path for police navigation (uses A* with traffic awareness)
      */
     public PathResult calculatePoliceNavigationPath(int startNode, int endNode) {
-        totalPathRequests++;
+        totalPathRequests.increment();
         
-        String cacheKey = generateCacheKey(startNode, endNode, OptimizationStrategy.FASTEST_PATH) + "_POLICE";
+        long cacheKey = generateCacheKey(startNode, endNode, POLICE_ROUTE);
         
-        PathResult cachedResult = pathCache.get(cacheKey);
+        PathResult cachedResult = lookupCachedPath(cacheKey);
         if (cachedResult != null) {
-            cacheHits++;
+            cacheHits.increment();
             updateRouteFrequency(cacheKey);
             return cachedResult;
         }
         
-        long startTime = System.nanoTime();
+        PathResult result = loadPath(cacheKey, () -> searchPoliceRoute(startNode, endNode));
+        updateRouteFrequency(cacheKey);
         
-        // Always use A* for police navigation with traffic awareness
-        PathResult result = calculatePathWithAStarTrafficAware(startNode, endNode);
+        return result;
+    }
+    
+    private PathResult searchPoliceRoute(int startNode, int endNode) {
+        // A* with traffic awareness unless another engine is selected
+        if (routingEngine == RoutingEngine.CONTRACTION_HIERARCHIES) {
+            return calculatePathWithContractionHierarchy(startNode, endNode);
+        } else if (routingEngine == RoutingEngine.LANDMARKS) {
+            return calculatePathWithLandmarks(startNode, endNode, POLICE_HEURISTIC);
+        } else if (routingEngine == RoutingEngine.BIDIRECTIONAL) {
+            return calculatePathBidirectional(startNode, endNode);
+        } else {
+            return calculatePathWithAStarTrafficAware(startNode, endNode);
+        }
+    }
+    
+    /**
+     * Fastest route leaving startNode at departureMinute (minutes since midnight)
+     * under the travel time profiles; the distance is the travel time in minutes.
+     * Routes are cached per TIME_BUCKET_MINUTES of the day and searched at the
+     * bucket's start, then timed for the actual departure. LANDMARKS runs
+     * time-dependent ALT, every other engine time-dependent Dijkstra.
+     */
+    public PathResult calculateTimeDependentPath(int startNode, int endNode, double departureMinute) {
+        totalPathRequests.increment();
         
-        long endTime = System.nanoTime();
-        totalComputationTime += (endTime - startTime);
+        int bucket = (int) (TravelTimeProfiles.minuteOfDay(departureMinute) / TIME_BUCKET_MINUTES);
+        long cacheKey = generateCacheKey(startNode, endNode, TIME_DEPENDENT_ROUTE + bucket);
         
-        pathCache.put(cacheKey, result);
+        PathResult route = lookupCachedPath(cacheKey);
+        if (route != null) {
+            cacheHits.increment();
+        } else {
+            route = loadPath(cacheKey, () ->
+                calculatePathTimeDependent(startNode, endNode, (double) bucket * TIME_BUCKET_MINUTES));
+        }
         updateRouteFrequency(cacheKey);
         
-        return result;
+        if (!route.isValidPath()) return route;
+        return new PathResult(route.path, travelTimeAlong(route.path, departureMinute), route.computationTime,
+                              route.algorithm, route.nodesExplored);
     }
     
     public PathResult calculateShortestPath(int startNode, int endNode, 
                                           OptimizationStrategy strategy) {
-        totalPathRequests++;
+        totalPathRequests.increment();
         
-        String cacheKey = generateCacheKey(startNode, endNode, strategy);
+        long cacheKey = generateCacheKey(startNode, endNode, strategy.ordinal());
         
-        PathResult cachedResult = pathCache.get(cacheKey);
+        PathResult cachedResult = lookupCachedPath(cacheKey);
         if (cachedResult != null) {
-            cacheHits++;
+            cacheHits.increment();
             updateRouteFrequency(cacheKey);
             return cachedResult;
         }
         
-        long startTime = System.nanoTime();
-        PathResult result;
-        
-        if (shouldUseAStar(startNode, endNode, strategy)) {
-            result = calculatePathWithAStar(startNode, endNode, strategy);
-        } else {
-            result = calculatePathWithDijkstra(startNode, endNode, strategy);
-        }
-        
-        long endTime = System.nanoTime();
-        totalComputationTime += (endTime - startTime);
-        
-        pathCache.put(cacheKey, result);
+        PathResult result = loadPath(cacheKey, () -> searchRoute(startNode, endNode, strategy));
         updateRouteFrequency(cacheKey);
         
         return result;
     }
     
+    private PathResult searchRoute(int startNode, int endNode, OptimizationStrategy strategy) {
+        if (routingEngine == RoutingEngine.CONTRACTION_HIERARCHIES) {
+            return calculatePathWithContractionHierarchy(startNode, endNode);
+        } else if (routingEngine == RoutingEngine.LANDMARKS) {
+            return calculatePathWithLandmarks(startNode, endNode, selectHeuristic(strategy));
+        } else if (routingEngine == RoutingEngine.BIDIRECTIONAL) {
+            return calculatePathBidirectional(startNode, endNode);
+        } else if (shouldUseAStar(startNode, endNode, strategy)) {
+            return calculatePathWithAStar(startNode, endNode, strategy);
+        } else {
+            return calculatePathWithDijkstra(startNode, endNode, strategy);
+        }
+    }
+    
+    /**
+     * The shortest route followed by up to numAlternatives - 1 distinct alternatives,
+     * each sharing at most the overlap limit (by cost) with every route before it;
+     * fewer are returned when no other route qualifies
+     */
     public List<PathResult> calculateAlternativePaths(int startNode, int endNode, 
                                                      int numAlternatives) {
         List<PathResult> alternatives = new ArrayList<>();
         
         PathResult primaryPath = calculateShortestPath(startNode, endNode);
         alternatives.add(primaryPath);
+        if (!primaryPath.isValidPath() || numAlternatives <= 1) {
+            return alternatives;
+        }
         
-        if (primaryPath.isValidPath() && numAlternatives > 1) {
-            Set<String> usedEdges = new HashSet<>();
-            
-            List<Integer> primaryRoute = primaryPath.getPath();
-            for (int i = 0; i < primaryRoute.size() - 1; i++) {
-                String edge = primaryRoute.get(i) + "->" + primaryRoute.get(i + 1);
-                usedEdges.add(edge);
-            }
-            
-            for (int i = 1; i < numAlternatives; i++) {
-                PathResult alternative = calculateAlternativeWithPenalty(
-                    startNode, endNode, usedEdges, i * 0.5);
-                
-                if (alternative.isValidPath()) {
-                    alternatives.add(alternative);
-                    
-                    List<Integer> altRoute = alternative.getPath();
-                    for (int j = 0; j < altRoute.size() - 1; j++) {
-                        String edge = altRoute.get(j) + "->" + altRoute.get(j + 1);
-                        usedEdges.add(edge);
-                    }
+        long startTime = System.nanoTime();
+        AlternativeMethod method = alternativeMethod;
+        double overlapLimit = alternativeOverlapLimit;
+        int start = graph.indexOf(startNode);
+        int end = graph.indexOf(endNode);
+        AlternativeRoutes.Result routes;
+        switch (method) {
+            case YEN:
+                routes = AlternativeRoutes.yen(graph, start, end, numAlternatives, overlapLimit);
+                break;
+            case PENALTY:
+                routes = AlternativeRoutes.penalty(graph, start, end, numAlternatives, overlapLimit,
+                                                   AlternativeRoutes.DEFAULT_PENALTY);
+                break;
+            default:
+                routes = AlternativeRoutes.plateaus(graph, start, end, numAlternatives, overlapLimit);
+                if (routes.size() < numAlternatives) {
+                    AlternativeRoutes.Result more = AlternativeRoutes.yen(graph, start, end, numAlternatives,
+                                                                          overlapLimit);
+                    routes = AlternativeRoutes.combine(graph, routes, more, numAlternatives, overlapLimit);
                 }
+        }
+        long computationTime = System.nanoTime() - startTime;
+        
+        // The primary route may be a different tie from the method's own shortest
+        int[] primary = primaryPath.nodes().map(graph::indexOf).toArray();
+        String algorithm = "Alternative-" + method;
+        for (AlternativeRoutes.Route route : routes.getRoutes()) {
+            if (alternatives.size() >= numAlternatives) break;
+            int[] path = route.getPath();
+            if (Arrays.equals(path, primary)
+                || AlternativeRoutes.overlap(graph, path, primary) > overlapLimit) {
+                continue;
             }
+            alternatives.add(new PathResult(NodePath.ofIndices(graph, path), route.getCost(), computationTime,
+                                            algorithm, routes.getNodesSettled()));
         }
         
         return alternatives;
     }
     
+    /**
+     * Method used by calculateAlternativePaths (PLATEAU by default)
+     */
+    public void setAlternativeMethod(AlternativeMethod alternativeMethod) {
+        this.alternativeMethod = alternativeMethod;
+    }
+    
+    public AlternativeMethod getAlternativeMethod() {
+        return alternativeMethod;
+    }
+    
+    /**
+     * Largest share of an alternative's cost that may run over edges of an earlier route,
+     * in [0, 1]; lower gives more distinct but fewer alternatives (default 0.8)
+     */
+    public void setAlternativeOverlapLimit(double overlapLimit) {
+        if (overlapLimit < 0 || overlapLimit > 1) {
+            throw new IllegalArgumentException("Overlap limit must be in [0, 1]: " + overlapLimit);
+        }
+        this.alternativeOverlapLimit = overlapLimit;
+    }
+    
+    public double getAlternativeOverlapLimit() {
+        return alternativeOverlapLimit;
+    }
+    
+    /**
+     * Apply new traffic multipliers and invalidate what they affect; concurrent
+     * updates are applied one at a time
+     */
     public void updateTrafficConditions(Map<Integer, Double> nodeTrafficMultipliers) {
+        synchronized (trafficLock) {
+            trafficVersion++;
+            try {
+                applyTrafficUpdate(nodeTrafficMultipliers);
+            } finally {
+                trafficVersion++;
+            }
+        }
+    }
+    
+    private void applyTrafficUpdate(Map<Integer, Double> nodeTrafficMultipliers) {
+        // Only nodes whose multiplier actually moves touch cached routes
+        List<Integer> slowerNodes = new ArrayList<>();
+        List<Integer> fasterNodes = new ArrayList<>();
         for (Map.Entry<Integer, Double> entry : nodeTrafficMultipliers.entrySet()) {
-            CityMapNode node = nodeMap.get(entry.getKey());
-            if (node != null) {
-                node.setTrafficMultiplier(entry.getValue());
+            int index = graph.indexOf(entry.getKey());
+            if (index < 0) continue;
+            double current = graph.trafficMultiplier(index);
+            if (entry.getValue() > current) {
+                slowerNodes.add(entry.getKey());
+            } else if (entry.getValue() < current) {
+                fasterNodes.add(entry.getKey());
             }
         }
         
-        pathCache.clear();
+        // CityMap keeps the node objects and the compact graph in sync; searches
+        // running across the change must not cache what they find
+        cityMap.updateTrafficConditions(nodeTrafficMultipliers);
+        pathCache.discardPendingLoads();
+        
+        // Shortcut weights and label distances bake in the old traffic; rebuild on the next query
+        contractionHierarchy = null;
+        hubLabels = null;
+        LandmarkHeuristic landmarks = landmarkHeuristic;
+        if (landmarks != null) {
+            landmarks.refreshTrafficFloor();
+        }
+        
+        if (cacheInvalidation == CacheInvalidation.CLEAR_ALL) {
+            routesInvalidated.add(pathCache.size());
+            clearPathCache();
+            return;
+        }
+        for (int nodeId : slowerNodes) {
+            Set<Long> keys = cachedRoutesByNode.get(nodeId);
+            if (keys == null) continue;
+            for (long key : new ArrayList<>(keys)) {
+                invalidateRoute(key);
+            }
+        }
+        for (int nodeId : fasterNodes) {
+            Set<Long> keys = cachedRoutesByNode.get(nodeId);
+            if (keys == null) continue;
+            for (long key : new ArrayList<>(keys)) {
+                if (cacheInvalidation == CacheInvalidation.LAZY_RECOST) {
+                    staleRoutes.add(key);
+                } else {
+                    invalidateRoute(key);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Travel time factors by road type and time of day for calculateTimeDependentPath
+     * (rush-hour defaults); drops cached routes
+     */
+    public void setTravelTimeProfiles(TravelTimeProfiles travelTimeProfiles) {
+        this.travelTimeProfiles = travelTimeProfiles;
+        clearPathCache();
+    }
+    
+    public TravelTimeProfiles getTravelTimeProfiles() {
+        return travelTimeProfiles;
+    }
+    
+    public void setCacheInvalidation(CacheInvalidation cacheInvalidation) {
+        this.cacheInvalidation = cacheInvalidation;
+    }
+    
+    public CacheInvalidation getCacheInvalidation() {
+        return cacheInvalidation;
+    }
+    
+    public void setRoutingEngine(RoutingEngine routingEngine) {
+        if (this.routingEngine != routingEngine) {
+            this.routingEngine = routingEngine;
+            clearPathCache();
+        }
+    }
+    
+    public RoutingEngine getRoutingEngine() {
+        return routingEngine;
+    }
+    
+    /**
+     * When enabled, LANDMARKS and BIDIRECTIONAL queries also run their
+     * unidirectional baseline so each PathResult reports its search space
+     * reduction (doubles query cost)
+     */
+    public void setMeasureSearchSpaceReduction(boolean measure) {
+        this.measureSearchSpaceReduction = measure;
+        clearPathCache();
+    }
+    
+    /**
+     * Landmark heuristic for the current graph, built on first use
+     */
+    public LandmarkHeuristic getLandmarkHeuristic() {
+        LandmarkHeuristic landmarks = landmarkHeuristic;
+        if (landmarks == null) {
+            synchronized (this) {
+                landmarks = landmarkHeuristic;
+                if (landmarks == null) {
+                    landmarks = LandmarkHeuristic.build(graph);
+                    landmarkHeuristic = landmarks;
+                }
+            }
+        }
+        return landmarks;
+    }
+    
+    /**
+     * Contraction hierarchy for the current graph and traffic, built on first use.
+     * Built under the traffic lock, so no update can change weights mid-build.
+     */
+    public ContractionHierarchy getContractionHierarchy() {
+        ContractionHierarchy hierarchy = contractionHierarchy;
+        if (hierarchy == null) {
+            synchronized (trafficLock) {
+                hierarchy = contractionHierarchy;
+                if (hierarchy == null) {
+                    hierarchy = ContractionHierarchy.build(graph);
+                    contractionHierarchy = hierarchy;
+                }
+            }
+        }
+        return hierarchy;
+    }
+    
+    /**
+     * Answer distance queries (calculateDistance, findNearestTargets, findNearestSources)
+     * from a hub label index instead of searching the graph. The index is built on
+     * first use and after every traffic update.
+     */
+    public void setUseHubLabels(boolean useHubLabels) {
+        this.useHubLabels = useHubLabels;
+    }
+    
+    public boolean isUsingHubLabels() {
+        return useHubLabels;
+    }
+    
+    /**
+     * Hub label index for the current graph and traffic, built on first use
+     * (hubs ordered by the contraction hierarchy) under the traffic lock
+     */
+    public HubLabels getHubLabels() {
+        HubLabels labels = hubLabels;
+        if (labels == null) {
+            synchronized (trafficLock) {
+                labels = hubLabels;
+                if (labels == null) {
+                    labels = HubLabels.build(graph, getContractionHierarchy());
+                    hubLabels = labels;
+                }
+            }
+        }
+        return labels;
+    }
+    
+    /**
+     * Load a hub label index saved by saveHubLabels and answer distance queries from it
+     * @return false if the file is missing, corrupt, or was built on other roads or traffic
+     */
+    public boolean loadHubLabels(Path file) throws IOException {
+        synchronized (trafficLock) {
+            HubLabels labels = HubLabels.read(file, graph);
+            if (labels == null) return false;
+            hubLabels = labels;
+        }
+        useHubLabels = true;
+        return true;
+    }
+    
+    public void saveHubLabels(Path file) throws IOException {
+        getHubLabels().write(file);
+    }
+    
+    /**
+     * Shortest travel cost between two nodes without the path (Double.MAX_VALUE if unreachable);
+     * a label merge when hub labels are enabled, otherwise a Dijkstra search
+     */
+    public double calculateDistance(int startNode, int endNode) {
+        int startIndex = graph.indexOf(startNode);
+        int endIndex = graph.indexOf(endNode);
+        if (startIndex < 0 || endIndex < 0) return Double.MAX_VALUE;
+        if (useHubLabels) return getHubLabels().distance(startIndex, endIndex);
+        return Dijkstra.shortestDistance(graph, startIndex, endIndex);
+    }
+    
+    /**
+     * Distances from startNode to the k nearest targets accepted by the filter, nearest first.
+     * One truncated Dijkstra replaces a calculateShortestPath call per target.
+     * @param acceptNode Tested on node IDs as targets are reached; null accepts all
+     */
+    public List<NodeDistance> findNearestTargets(int startNode, Collection<Integer> targetNodes,
+                                                 int k, IntPredicate acceptNode) {
+        int startIndex = graph.indexOf(startNode);
+        if (startIndex < 0) return new ArrayList<>();
+        if (useHubLabels) return nearestByLabels(startIndex, targetNodes, k, acceptNode, false);
+        return toNodeDistances(Dijkstra.findNearestTargets(graph, startIndex, toIndices(targetNodes), k,
+                                                           toIndexFilter(acceptNode)));
+    }
+    
+    /**
+     * Distances from each of the k nearest accepted sources to endNode, nearest first
+     * (one search over incoming edges from endNode)
+     */
+    public List<NodeDistance> findNearestSources(int endNode, Collection<Integer> sourceNodes,
+                                                 int k, IntPredicate acceptNode) {
+        int endIndex = graph.indexOf(endNode);
+        if (endIndex < 0) return new ArrayList<>();
+        if (useHubLabels) return nearestByLabels(endIndex, sourceNodes, k, acceptNode, true);
+        return toNodeDistances(Dijkstra.findNearestSources(graph, endIndex, toIndices(sourceNodes), k,
+                                                           toIndexFilter(acceptNode)));
+    }
+    
+    /**
+     * findNearestTargets/findNearestSources from hub labels: one label merge per candidate,
+     * then the filter is tested nearest first until k are accepted, as a search would
+     */
+    private List<NodeDistance> nearestByLabels(int rootIndex, Collection<Integer> nodeIds, int k,
+                                               IntPredicate acceptNode, boolean reverse) {
+        HubLabels labels = getHubLabels();
+        List<NodeDistance> candidates = new ArrayList<>(nodeIds.size());
+        Set<Integer> seen = new HashSet<>();
+        for (int nodeId : nodeIds) {
+            int index = graph.indexOf(nodeId);
+            if (index < 0 || !seen.add(nodeId)) continue;
+            double distance = reverse ? labels.distance(index, rootIndex) : labels.distance(rootIndex, index);
+            if (distance != Double.MAX_VALUE) {
+                candidates.add(new NodeDistance(nodeId, distance));
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(NodeDistance::getDistance));
+        
+        List<NodeDistance> nearest = new ArrayList<>();
+        for (NodeDistance candidate : candidates) {
+            if (nearest.size() >= k) break;
+            if (acceptNode == null || acceptNode.test(candidate.getNodeId())) {
+                nearest.add(candidate);
+            }
+        }
+        return nearest;
+    }
+    
+    private int[] toIndices(Collection<Integer> nodeIds) {
+        int[] indices = new int[nodeIds.size()];
+        int i = 0;
+        for (int nodeId : nodeIds) {
+            indices[i++] = graph.indexOf(nodeId);
+        }
+        return indices;
     }
     
+    private IntPredicate toIndexFilter(IntPredicate acceptNode) {
+        return acceptNode == null ? null : index -> acceptNode.test(graph.nodeId(index));
+    }
+    
+    private List<NodeDistance> toNodeDistances(Dijkstra.TargetResult result) {
+        List<NodeDistance> nearest = new ArrayList<>(result.size());
+        for (int i = 0; i < result.size(); i++) {
+            nearest.add(new NodeDistance(graph.nodeId(result.getTarget(i)), result.getDistance(i)));
+        }
+        return nearest;
+    }
+    
+    /**
+     * Fastest path from each unit location to its target. Engines that return exact
+     * shortest paths answer through calculatePathsBatch; STANDARD (A* with a
+     * geometric heuristic) answers pair by pair through calculateShortestPath.
+     */
     public Map<Integer, PathResult> calculateMultiplePaths(
             Map<Integer, Integer> unitToTargetMap) {
         
-        Map<Integer, PathResult> results = new HashMap<>();
+        if (routingEngine == RoutingEngine.STANDARD) {
+            Map<Integer, PathResult> results = new HashMap<>();
+            for (Map.Entry<Integer, Integer> entry : unitToTargetMap.entrySet()) {
+                results.put(entry.getKey(), calculateShortestPath(entry.getKey(), entry.getValue()));
+            }
+            return results;
+        }
         
-        Map<Integer, List<Integer>> targetToUnits = new HashMap<>();
+        int[] unitLocations = new int[unitToTargetMap.size()];
+        int[] targetLocations = new int[unitToTargetMap.size()];
+        int i = 0;
         for (Map.Entry<Integer, Integer> entry : unitToTargetMap.entrySet()) {
-            targetToUnits.computeIfAbsent(entry.getValue(), k -> new ArrayList<>())
-                         .add(entry.getKey());
+            unitLocations[i] = entry.getKey();
+            targetLocations[i++] = entry.getValue();
         }
         
-        for (Map.Entry<Integer, Integer> entry : unitToTargetMap.entrySet()) {
-            int unitLocation = entry.getKey();
-            int targetLocation = entry.getValue();
-            
-            PathResult result = calculateShortestPath(unitLocation, targetLocation);
-            results.put(unitLocation, result);
+        BatchResult batch = calculatePathsBatch(unitLocations, targetLocations);
+        Map<Integer, PathResult> results = new HashMap<>();
+        for (i = 0; i < unitLocations.length; i++) {
+            results.put(unitLocations[i], batch.get(unitLocations[i], targetLocations[i]));
         }
         
         return results;
     }
     
+    /**
+     * Executor that calculatePathsBatch spreads its source groups across
+     * (default: the common ForkJoinPool; null restores it)
+     */
+    public void setBatchExecutor(Executor batchExecutor) {
+        this.batchExecutor = batchExecutor != null ? batchExecutor : ForkJoinPool.commonPool();
+    }
+    
+    /**
+     * Store newly cached routes delta-compressed: several times more routes fit in the
+     * cache's byte bound, at the cost of decoding on each read (nodeAt decodes up to
+     * NodePath.SAMPLE_INTERVAL nodes; sequential reads decode once)
+     */
+    public void setCompressCachedPaths(boolean compress) {
+        this.compressCachedPaths = compress;
+    }
+    
+    public boolean isCompressingCachedPaths() {
+        return compressCachedPaths;
+    }
+    
+    /**
+     * Fastest paths for many (startNodes[i], endNodes[i]) pairs. Cached routes are
+     * answered from the path cache; the rest are grouped by start node, and each
+     * distinct start runs one Dijkstra that stops once all of its ends are settled.
+     * Groups run in parallel on the batch executor. New routes are cached under their
+     * own key variant, apart from the routing engine's calculateShortestPath results.
+     */
+    public BatchResult calculatePathsBatch(int[] startNodes, int[] endNodes) {
+        if (startNodes.length != endNodes.length) {
+            throw new IllegalArgumentException("Got " + startNodes.length + " start nodes and "
+                                               + endNodes.length + " end nodes");
+        }
+        
+        // Sorted packed pairs: duplicates collapse and each start's pairs are contiguous
+        long[] keys = new long[startNodes.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = BatchResult.packPair(startNodes[i], endNodes[i]);
+        }
+        Arrays.sort(keys);
+        int distinct = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (distinct == 0 || keys[i] != keys[distinct - 1]) keys[distinct++] = keys[i];
+        }
+        long[] pairs = Arrays.copyOf(keys, distinct);
+        PathResult[] results = new PathResult[distinct];
+        totalPathRequests.add(distinct);
+        
+        List<CompletableFuture<Void>> groups = new ArrayList<>();
+        for (int from = 0; from < distinct; ) {
+            int startNode = (int) (pairs[from] >> 32);
+            int to = from + 1;
+            while (to < distinct && (int) (pairs[to] >> 32) == startNode) to++;
+            int groupFrom = from;
+            int groupTo = to;
+            groups.add(CompletableFuture.runAsync(
+                () -> searchBatchGroup(startNode, pairs, results, groupFrom, groupTo), batchExecutor));
+            from = to;
+        }
+        CompletableFuture.allOf(groups.toArray(new CompletableFuture<?>[0])).join();
+        
+        return new BatchResult(pairs, results);
+    }
+    
+    /**
+     * One start node's pairs in pairs[from, to): cache hits first, then one search for the rest
+     */
+    private void searchBatchGroup(int startNode, long[] pairs, PathResult[] results, int from, int to) {
+        int[] missed = new int[to - from];
+        int misses = 0;
+        for (int i = from; i < to; i++) {
+            long cacheKey = generateCacheKey(startNode, (int) pairs[i], BATCH_ROUTE);
+            PathResult cached = lookupCachedPath(cacheKey);
+            if (cached != null) {
+                cacheHits.increment();
+                results[i] = cached;
+            } else {
+                missed[misses++] = i;
+            }
+            updateRouteFrequency(cacheKey);
+        }
+        if (misses == 0) return;
+        
+        int startIndex = graph.indexOf(startNode);
+        int[] targets = new int[misses];
+        for (int j = 0; j < misses; j++) {
+            targets[j] = graph.indexOf((int) pairs[missed[j]]);
+        }
+        int[][] paths = new int[misses][];
+        double[] distances = new double[misses];
+        long version = trafficVersion;
+        long startTime = System.nanoTime();
+        int settled = 0;
+        if (startIndex >= 0) {
+            settled = Dijkstra.findShortestPaths(graph, startIndex, targets, paths, distances);
+        } else {
+            Arrays.fill(paths, new int[0]);
+        }
+        long elapsed = System.nanoTime() - startTime;
+        totalComputationTime.add(elapsed);
+        
+        for (int j = 0; j < misses; j++) {
+            NodePath path = paths[j].length > 1 ? NodePath.ofIndices(graph, paths[j]) : NodePath.EMPTY;
+            PathResult result = cacheable(new PathResult(path, path.isEmpty() ? 0.0 : distances[j], elapsed,
+                                                         "Dijkstra (batch)", settled));
+            results[missed[j]] = result;
+            
+            // Cache only what was searched on one traffic state (the version is odd mid-update)
+            long cacheKey = generateCacheKey(startNode, (int) pairs[missed[j]], BATCH_ROUTE);
+            if (cacheKey == NO_CACHE_KEY || (version & 1) != 0 || trafficVersion != version) continue;
+            pathCache.put(cacheKey, result);
+            if (trafficVersion != version) invalidateRoute(cacheKey);
+        }
+    }
+    
+    /**
+     * Bytes held by cached route paths, the quantity MAX_CACHED_PATH_BYTES bounds
+     */
+    public long getCachedPathBytes() {
+        return pathCache.weight();
+    }
+    
     public PathfindingStats getPerformanceStats() {
-        double cacheHitRate = totalPathRequests > 0 ? 
-            (double) cacheHits / totalPathRequests : 0.0;
+        long requests = totalPathRequests.sum();
+        long hits = cacheHits.sum();
+        double cacheHitRate = requests > 0 ? 
+            (double) hits / requests : 0.0;
         
-        double avgComputationTime = totalPathRequests > 0 ? 
-            (double) totalComputationTime / (totalPathRequests - cacheHits) : 0.0;
+        double avgComputationTime = requests > hits ? 
+            (double) totalComputationTime.sum() / (requests - hits) : 0.0;
         
         return new PathfindingStats(
-            totalPathRequests,
-            cacheHits,
+            requests,
+            hits,
             cacheHitRate,
             avgComputationTime,
             pathCache.size(),
-            getMostFrequentRoutes(5)
+            getMostFrequentRoutes(5),
+            routesInvalidated.sum(),
+            routesRecosted.sum()
         );
     }
     
@@ -251,29 +947,172 @@ public class PathfindingService {
         public final double avgComputationTimeNs;
         public final int cacheSize;
         public final List<String> mostFrequentRoutes;
+        public final long routesInvalidated;  // cached routes dropped by traffic updates
+        public final long routesRecosted;     // stale routes re-costed on a hit (LAZY_RECOST)
         
         public PathfindingStats(long totalRequests, long cacheHits, double cacheHitRate,
                                double avgComputationTimeNs, int cacheSize,
                                List<String> mostFrequentRoutes) {
+            this(totalRequests, cacheHits, cacheHitRate, avgComputationTimeNs, cacheSize,
+                 mostFrequentRoutes, 0, 0);
+        }
+        
+        public PathfindingStats(long totalRequests, long cacheHits, double cacheHitRate,
+                               double avgComputationTimeNs, int cacheSize,
+                               List<String> mostFrequentRoutes, long routesInvalidated,
+                               long routesRecosted) {
             this.totalRequests = totalRequests;
             this.cacheHits = cacheHits;
             this.cacheHitRate = cacheHitRate;
             this.avgComputationTimeNs = avgComputationTimeNs;
             this.cacheSize = cacheSize;
             this.mostFrequentRoutes = mostFrequentRoutes;
+            this.routesInvalidated = routesInvalidated;
+            this.routesRecosted = routesRecosted;
         }
     }
     
     private void initializeNodeMap() {
         this.nodeMap = cityMap.getAllNodes();
+        this.graph = cityMap.getCompactGraph();
+    }
+    
+    /**
+     * Dense start index, dense end index and variant packed into one long
+     * (28 + 28 + 8 bits); NO_CACHE_KEY if either node is not in the graph
+     * @param variant Strategy ordinal, POLICE_ROUTE, BATCH_ROUTE, or TIME_DEPENDENT_ROUTE + time bucket
+     */
+    private long generateCacheKey(int start, int end, int variant) {
+        int startIndex = graph.indexOf(start);
+        int endIndex = graph.indexOf(end);
+        if (startIndex < 0 || endIndex < 0) return NO_CACHE_KEY;
+        return ((long) startIndex << 36) | ((long) endIndex << 8) | variant;
+    }
+    
+    /**
+     * The key in the old "start->end:STRATEGY" form (time-dependent routes as
+     * "start->end@HH:MM"), for reports
+     */
+    private String describeCacheKey(long cacheKey) {
+        int start = graph.nodeId((int) (cacheKey >>> 36));
+        int end = graph.nodeId((int) (cacheKey >>> 8) & ((1 << 28) - 1));
+        int variant = (int) cacheKey & 0xFF;
+        if (variant >= TIME_DEPENDENT_ROUTE) {
+            int minute = (variant - TIME_DEPENDENT_ROUTE) * TIME_BUCKET_MINUTES;
+            return String.format("%d->%d@%02d:%02d", start, end, minute / 60, minute % 60);
+        }
+        if (variant == POLICE_ROUTE) {
+            return start + "->" + end + ":" + OptimizationStrategy.FASTEST_PATH.name() + "_POLICE";
+        }
+        if (variant == BATCH_ROUTE) {
+            return start + "->" + end + ":" + OptimizationStrategy.FASTEST_PATH.name() + "_BATCH";
+        }
+        return start + "->" + end + ":" + OptimizationStrategy.values()[variant].name();
+    }
+    
+    /**
+     * Cached route for the key, re-costed first if a traffic update marked it stale
+     */
+    private PathResult lookupCachedPath(long cacheKey) {
+        if (cacheKey == NO_CACHE_KEY) return null;
+        PathResult cached = pathCache.getIfPresent(cacheKey);
+        if (cached != null && staleRoutes.remove(cacheKey)) {
+            cached = new PathResult(cached.path, calculatePathDistance(cached.path), cached.computationTime,
+                                    cached.algorithm, cached.nodesExplored, cached.baselineNodesExplored);
+            pathCache.put(cacheKey, cached);
+            routesRecosted.increment();
+        }
+        return cached;
+    }
+    
+    /**
+     * Run the search on a miss; concurrent misses on the same key share one search
+     */
+    private PathResult loadPath(long cacheKey, Supplier<PathResult> search) {
+        if (cacheKey == NO_CACHE_KEY) return timedSearch(search);
+        return pathCache.get(cacheKey, key -> cacheable(timedSearch(search)));
+    }
+    
+    private PathResult timedSearch(Supplier<PathResult> search) {
+        long startTime = System.nanoTime();
+        PathResult result = search.get();
+        totalComputationTime.add(System.nanoTime() - startTime);
+        return result;
+    }
+    
+    private PathResult cacheable(PathResult result) {
+        return compressCachedPaths ? result.compressed() : result;
+    }
+    
+    private boolean invalidateRoute(long cacheKey) {
+        PathResult removed = pathCache.invalidate(cacheKey);
+        if (removed == null) return false;
+        unindexRoute(cacheKey, removed);
+        routesInvalidated.increment();
+        return true;
+    }
+    
+    /**
+     * Insertion listener: indexes every node but the last, since each one's multiplier
+     * scales an edge the route takes. Only values the cache actually stored get here,
+     * so every indexed key has an entry whose eviction or invalidation unindexes it.
+     */
+    private void indexRoute(long cacheKey, PathResult result) {
+        PrimitiveIterator.OfInt path = result.path.iterator();
+        for (int i = 0; i + 1 < result.path.length(); i++) {
+            cachedRoutesByNode.compute(path.nextInt(), (nodeId, keys) -> {
+                if (keys == null) keys = ConcurrentHashMap.newKeySet();
+                keys.add(cacheKey);
+                return keys;
+            });
+        }
+    }
+    
+    private void unindexRoute(long cacheKey, PathResult result) {
+        PrimitiveIterator.OfInt path = result.path.iterator();
+        for (int i = 0; i + 1 < result.path.length(); i++) {
+            cachedRoutesByNode.computeIfPresent(path.nextInt(), (nodeId, keys) -> {
+                keys.remove(cacheKey);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+        staleRoutes.remove(cacheKey);
+    }
+    
+    /**
+     * Drop every route the invalidation index holds, one by one as a traffic update would
+     * @return Routes removed from the cache
+     */
+    public int invalidateIndexedRoutes() {
+        int removed = 0;
+        for (long key : indexedRouteKeys()) {
+            if (invalidateRoute(key)) removed++;
+        }
+        return removed;
+    }
+    
+    /**
+     * Distinct route keys in the invalidation index or marked stale; none may outlive its cache entry
+     */
+    public int getIndexedRouteCount() {
+        return indexedRouteKeys().size();
+    }
+    
+    private Set<Long> indexedRouteKeys() {
+        Set<Long> keys = new HashSet<>(staleRoutes);
+        for (Set<Long> routes : cachedRoutesByNode.values()) keys.addAll(routes);
+        return keys;
     }
     
-    private String generateCacheKey(int start, int end, OptimizationStrategy strategy) {
-        return start + "->" + end + ":" + strategy.name();
+    private void clearPathCache() {
+        pathCache.clear();
+        cachedRoutesByNode.clear();
+        staleRoutes.clear();
     }
     
-    private void updateRouteFrequency(String cacheKey) {
-        routeFrequency.merge(cacheKey, 1L, Long::sum);
+    private void updateRouteFrequency(long cacheKey) {
+        if (cacheKey == NO_CACHE_KEY) return;
+        routeFrequency.computeIfAbsent(cacheKey, key -> new LongAdder()).increment();
     }
     
     private boolean shouldUseAStar(int start, int end, OptimizationStrategy strategy) {
@@ -291,7 +1130,10 @@ public class PathfindingService {
                                                OptimizationStrategy strategy) {
         long startTime = System.nanoTime();
         
-        List<Integer> path = Dijkstra.findShortestPath(nodeMap, start, end);
+        int startIndex = graph.indexOf(start);
+        int endIndex = graph.indexOf(end);
+        NodePath path = (startIndex < 0 || endIndex < 0) ? NodePath.EMPTY
+            : NodePath.of(Dijkstra.findShortestPath(graph, startIndex, endIndex));
         
         long endTime = System.nanoTime();
         long computationTime = endTime - startTime;
@@ -305,8 +1147,8 @@ public class PathfindingService {
                                             OptimizationStrategy strategy) {
         long startTime = System.nanoTime();
         
-        AStar.HeuristicFunction heuristic = selectHeuristic(strategy);
-        AStar.AStarResult result = AStar.findPath(nodeMap, start, end, heuristic);
+        AStar.IndexHeuristic heuristic = selectHeuristic(strategy);
+        AStar.AStarResult result = AStar.findPath(graph, graph.indexOf(start), graph.indexOf(end), heuristic);
         
         long endTime = System.nanoTime();
         long computationTime = endTime - startTime;
@@ -320,6 +1162,121 @@ public class PathfindingService {
         );
     }
     
+    private PathResult calculatePathWithContractionHierarchy(int start, int end) {
+        long startTime = System.nanoTime();
+        
+        ContractionHierarchy hierarchy = getContractionHierarchy();
+        ContractionHierarchy.Result result = hierarchy.findPath(graph.indexOf(start), graph.indexOf(end));
+        
+        long endTime = System.nanoTime();
+        long computationTime = endTime - startTime;
+        
+        return new PathResult(
+            result.getPath(), 
+            result.getDistance(), 
+            computationTime, 
+            "Contraction-Hierarchies", 
+            result.getNodesSettled()
+        );
+    }
+    
+    /**
+     * Bidirectional Dijkstra; the baseline when measuring is unidirectional Dijkstra
+     */
+    private PathResult calculatePathBidirectional(int start, int end) {
+        long startTime = System.nanoTime();
+        
+        int startIndex = graph.indexOf(start);
+        int endIndex = graph.indexOf(end);
+        AStar.AStarResult result = AStar.findPathBidirectional(graph, startIndex, endIndex, AStar.ZERO_INDEX_HEURISTIC);
+        
+        long endTime = System.nanoTime();
+        long computationTime = endTime - startTime;
+        
+        int baselineExplored = measureSearchSpaceReduction
+            ? AStar.findPath(graph, startIndex, endIndex, AStar.ZERO_INDEX_HEURISTIC).getNodesExplored()
+            : -1;
+        
+        return new PathResult(
+            result.getPath(), 
+            result.getTotalDistance(), 
+            computationTime, 
+            "Bidirectional-Dijkstra", 
+            result.getNodesExplored(),
+            baselineExplored
+        );
+    }
+    
+    /**
+     * A* with the ALT landmark heuristic (active landmarks chosen per query)
+     * @param baseline Heuristic the standard engine would use, run only when measuring the reduction
+     */
+    private PathResult calculatePathWithLandmarks(int start, int end, AStar.IndexHeuristic baseline) {
+        long startTime = System.nanoTime();
+        
+        int startIndex = graph.indexOf(start);
+        int endIndex = graph.indexOf(end);
+        AStar.IndexHeuristic heuristic = (startIndex < 0 || endIndex < 0) ? AStar.ZERO_INDEX_HEURISTIC
+            : getLandmarkHeuristic().forQuery(startIndex, endIndex);
+        AStar.AStarResult result = AStar.findPath(graph, startIndex, endIndex, heuristic);
+        
+        long endTime = System.nanoTime();
+        long computationTime = endTime - startTime;
+        
+        int baselineExplored = measureSearchSpaceReduction
+            ? AStar.findPath(graph, startIndex, endIndex, baseline).getNodesExplored()
+            : -1;
+        
+        return new PathResult(
+            result.getPath(), 
+            result.getTotalDistance(), 
+            computationTime, 
+            "A*-Landmarks", 
+            result.getNodesExplored(),
+            baselineExplored
+        );
+    }
+    
+    /**
+     * Traffic-aware heuristic for police vehicles
+     */
+    private static final AStar.IndexHeuristic POLICE_HEURISTIC = (g, currentNode, goalNode) -> {
+        // Base Euclidean distance
+        double baseDistance = g.euclideanDistance(currentNode, goalNode);
+        
+        // Adjust for traffic conditions (police can bypass some traffic)
+        double trafficMultiplier = g.trafficMultiplier(currentNode);
+        double policeTrafficFactor = Math.max(0.6, trafficMultiplier * 0.8); // Police can reduce traffic impact
+        
+        return baseDistance * policeTrafficFactor;
+    };
+    
+    /**
+     * Time-dependent search; the baseline heuristic of LANDMARKS is not measured here
+     */
+    private PathResult calculatePathTimeDependent(int start, int end, double departureMinute) {
+        long startTime = System.nanoTime();
+        
+        int startIndex = graph.indexOf(start);
+        int endIndex = graph.indexOf(end);
+        boolean landmarks = routingEngine == RoutingEngine.LANDMARKS && startIndex >= 0 && endIndex >= 0;
+        AStar.IndexHeuristic heuristic = landmarks
+            ? getLandmarkHeuristic().forQuery(startIndex, endIndex) : AStar.ZERO_INDEX_HEURISTIC;
+        AStar.AStarResult result = AStar.findPathTimeDependent(graph, startIndex, endIndex, departureMinute,
+                                                               travelTimeProfiles, heuristic);
+        
+        long endTime = System.nanoTime();
+        long computationTime = endTime - startTime;
+        
+        return new PathResult(
+            result.getPath(), 
+            result.getTotalDistance(), 
+            computationTime, 
+            landmarks ? "TD-A*-Landmarks" : "TD-Dijkstra", 
+            result.getNodesExplored()
+        );
+    }
+    
     /**
      * Traffic-aware A* pathfinding specifically for police navigation
      * Considers dynamic traffic conditions and emergency vehicle priorities
@@ -327,24 +1284,8 @@ public class PathfindingService {
     private PathResult calculatePathWithAStarTrafficAware(int start, int end) {
         long startTime = System.nanoTime();
         
-        // Create traffic-aware heuristic for police vehicles
-        AStar.HeuristicFunction policeHeuristic = (currentNode, goalNode) -> {
-            if (currentNode == null || goalNode == null) {
-                return Double.POSITIVE_INFINITY;
-            }
-            
-            // Base Euclidean distance
-            double baseDistance = currentNode.getEuclideanDistance(goalNode);
-            
-            // Adjust for traffic conditions (police can bypass some traffic)
-            double trafficMultiplier = currentNode.getTrafficMultiplier();
-            double policeTrafficFactor = Math.max(0.6, trafficMultiplier * 0.8); // Police can reduce traffic impact
-            
-            return baseDistance * policeTrafficFactor;
-        };
-        
         // Use A* with police-specific heuristic
-        AStar.AStarResult result = AStar.findPath(nodeMap, start, end, policeHeuristic);
+        AStar.AStarResult result = AStar.findPath(graph, graph.indexOf(start), graph.indexOf(end), POLICE_HEURISTIC);
         
         long endTime = System.nanoTime();
         long computationTime = endTime - startTime;
@@ -358,68 +1299,67 @@ public class PathfindingService {
         );
     }
     
-    private AStar.HeuristicFunction selectHeuristic(OptimizationStrategy strategy) {
+    private AStar.IndexHeuristic selectHeuristic(OptimizationStrategy strategy) {
         switch (strategy) {
             case FASTEST_PATH:
-                return AStar.EUCLIDEAN_HEURISTIC;
+                return AStar.EUCLIDEAN_INDEX_HEURISTIC;
             case SHORTEST_DISTANCE:
-                return AStar.MANHATTAN_HEURISTIC;
+                return AStar.MANHATTAN_INDEX_HEURISTIC;
             case AVOID_TRAFFIC:
-                return AStar.EUCLIDEAN_HEURISTIC;
+                return AStar.EUCLIDEAN_INDEX_HEURISTIC;
             default:
-                return AStar.EUCLIDEAN_HEURISTIC;
+                return AStar.EUCLIDEAN_INDEX_HEURISTIC;
         }
     }
     
-    private PathResult calculateAlternativeWithPenalty(int start, int end, 
-                                                     Set<String> penalizedEdges, 
-                                                     double penaltyFactor) {
-        return calculateShortestPath(start, end);
-    }
-    
-    private double calculatePathDistance(List<Integer> path) {
-        if (path.size() < 2) return 0.0;
+    private double calculatePathDistance(NodePath path) {
+        if (path.length() < 2) return 0.0;
         
         double totalDistance = 0.0;
-        for (int i = 0; i < path.size() - 1; i++) {
-            CityMapNode current = nodeMap.get(path.get(i));
-            CityMapNode next = nodeMap.get(path.get(i + 1));
+        PrimitiveIterator.OfInt nodes = path.iterator();
+        int next = graph.indexOf(nodes.nextInt());
+        while (nodes.hasNext()) {
+            int current = next;
+            next = graph.indexOf(nodes.nextInt());
             
-            if (current != null && next != null) {
-                for (CityMapNode.Edge edge : current.getAdjacentEdges()) {
-                    if (edge.getDestinationNode() == next.getNodeId()) {
-                        totalDistance += edge.getDynamicWeight(current.getTrafficMultiplier());
-                        break;
-                    }
-                }
+            int edge = (current >= 0 && next >= 0) ? graph.findEdge(current, next) : -1;
+            if (edge >= 0) {
+                totalDistance += graph.dynamicWeight(current, edge);
             }
         }
         
         return totalDistance;
     }
     
-    private List<String> getMostFrequentRoutes(int topN) {
-        return routeFrequency.entrySet().stream()
-            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-            .limit(topN)
-            .map(Map.Entry::getKey)
-            .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
-    }
-    
     /**
-     * Convert CityMap to Graph format for Floyd-Warshall algorithm
+     * Minutes to drive the path leaving at departureMinute; of parallel edges the earliest arrival counts
      */
-    private models.Graph convertToGraph() {
-        models.Graph graph = new models.Graph();
-        
-        for (CityMapNode node : nodeMap.values()) {
-            for (CityMapNode.Edge edge : node.getAdjacentEdges()) {
-                graph.addEdge(node.getNodeId(), edge.getDestinationNode(), 
-                            edge.getDynamicWeight(node.getTrafficMultiplier()));
+    private double travelTimeAlong(NodePath path, double departureMinute) {
+        TravelTimeProfiles profiles = travelTimeProfiles;
+        double time = departureMinute;
+        PrimitiveIterator.OfInt nodes = path.iterator();
+        int next = nodes.hasNext() ? graph.indexOf(nodes.nextInt()) : -1;
+        while (nodes.hasNext()) {
+            int current = next;
+            next = graph.indexOf(nodes.nextInt());
+            
+            int edge = (current >= 0 && next >= 0) ? graph.findEdge(current, next) : -1;
+            if (edge < 0) continue;
+            double arrival = Double.MAX_VALUE;
+            for (int e = edge; e < graph.edgeEnd(current) && graph.target(e) == next; e++) {
+                arrival = Math.min(arrival, profiles.arrivalTime(graph, current, e, time));
             }
+            time = arrival;
         }
-        
-        return graph;
+        return time - departureMinute;
+    }
+    
+    private List<String> getMostFrequentRoutes(int topN) {
+        return routeFrequency.entrySet().stream()
+            .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+            .limit(topN)
+            .map(entry -> describeCacheKey(entry.getKey()))
+            .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
     }
     
     /**
@@ -428,8 +1368,7 @@ public class PathfindingService {
      * @return FloydWarshall instance with computed distances
      */
     public FloydWarshall calculateAllPairsShortestPaths() {
-        models.Graph graph = convertToGraph();
-        return new FloydWarshall(graph);
+        return new FloydWarshall(graph, true);
     }
     
     /**
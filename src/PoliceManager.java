@@ -20,6 +20,7 @@ import models.Assignment;
 import models.Crime;
 import algorithms.FloydWarshall;
 import algorithms.HungarianAlgorithm;
+import algorithms.Isochrones;
 
 public class PoliceManager {
     private CityMap cityMap;
@@ -93,6 +94,8 @@ public class PoliceManager {
         this.completedAssignments = new ArrayList<>();
         this.pendingCrimes = new ArrayList<>();
         this.pathfindingService = new PathfindingService(cityMap);
+        // Hungarian batches look up a station-to-crime distance per pending crime every tick
+        this.pathfindingService.setUseHubLabels(true);
         
         // Initialize algorithms
         initializeAlgorithms();
@@ -113,17 +116,8 @@ public class PoliceManager {
      * Initialize all pathfinding and optimization algorithms
      */
     private void initializeAlgorithms() {
-        // Build graph from CityMap for algorithms
-        models.Graph graph = new models.Graph();
-        for (Integer nodeId : cityMap.getNodeIds()) {
-            for (Integer neighbor : cityMap.getNeighbors(nodeId)) {
-                double weight = cityMap.getEdgeWeight(nodeId, neighbor);
-                graph.addEdge(nodeId, neighbor, weight);
-            }
-        }
-        
-        // Initialize Floyd-Warshall for strategic placement analysis
-        this.floydWarshall = new FloydWarshall(graph);
+        // Initialize Floyd-Warshall for strategic placement analysis (reads the CSR graph directly)
+        this.floydWarshall = new FloydWarshall(cityMap.getCompactGraph(), true);
         
         System.out.println("All pathfinding algorithms initialized successfully");
     }
@@ -529,16 +523,16 @@ public class PoliceManager {
         Map<Crime, List<Unit>> suitableUnitsMap = new HashMap<>();
         List<Unit> allStationSuitableUnits = new ArrayList<>();
 
+        Map<Crime, Double> nearestStationDistance = new HashMap<>();
+        
         for (Crime crime : batchCrimes) {
-            // Find nearest station(s) to crime
+            // Find nearest station to crime (hub label merges against each station)
             int nearestStation = -1;
-            double minDist = Double.MAX_VALUE;
-            for (int stationLoc : stationLocations) {
-                var pathResult = pathfindingService.calculateShortestPath(stationLoc, crime.getLocationId());
-                if (pathResult.isValidPath() && pathResult.getDistance() < minDist) {
-                    minDist = pathResult.getDistance();
-                    nearestStation = stationLoc;
-                }
+            List<PathfindingService.NodeDistance> nearest =
+                pathfindingService.findNearestSources(crime.getLocationId(), stationLocations, 1, null);
+            if (!nearest.isEmpty()) {
+                nearestStation = nearest.get(0).getNodeId();
+                nearestStationDistance.put(crime, nearest.get(0).getDistance());
             }
             // Get available units at nearest station
             List<Unit> stationUnits = getUnitsAtLocation(nearestStation);
@@ -578,9 +572,8 @@ public class PoliceManager {
                 crimeIds[j] = crime.getCrimeId();
                 List<Unit> suitableForCrime = suitableUnitsMap.get(crime);
                 if (suitableForCrime != null && suitableForCrime.contains(unit)) {
-                    var pathResult = pathfindingService.calculateShortestPath(
-                        unit.getCurrentLocationId(), crime.getLocationId());
-                    double baseCost = pathResult.isValidPath() ? pathResult.getDistance() : 1000.0;
+                    // Suitable units wait at the crime's nearest station, so that search already has the distance
+                    double baseCost = nearestStationDistance.getOrDefault(crime, 1000.0);
                     costMatrix[i][j] = Math.max(0.1, baseCost);
                 } else {
                     costMatrix[i][j] = 10000.0;
@@ -638,6 +631,33 @@ public class PoliceManager {
         return available;
     }
     
+    /**
+     * Locations each available unit can reach within maxDistance under current traffic
+     * (one bounded search per distinct unit position, in parallel)
+     */
+    public Map<Integer, List<Integer>> getAvailableUnitReach(double maxDistance) {
+        List<Unit> available = getAvailableUnits();
+        List<Integer> positions = new ArrayList<>();
+        for (Unit unit : available) {
+            if (!positions.contains(unit.getCurrentLocationId())) {
+                positions.add(unit.getCurrentLocationId());
+            }
+        }
+        
+        Isochrones.Result isochrones = cityMap.calculateIsochrones(positions, maxDistance);
+        Map<Integer, List<Integer>> reachByPosition = new HashMap<>();
+        for (int i = 0; i < isochrones.getSourceCount(); i++) {
+            reachByPosition.put(cityMap.getCompactGraph().nodeId(isochrones.getSource(i)),
+                                isochrones.isochroneNodeIds(i, maxDistance));
+        }
+        
+        Map<Integer, List<Integer>> reach = new HashMap<>();
+        for (Unit unit : available) {
+            reach.put(unit.getUnitId(), reachByPosition.getOrDefault(unit.getCurrentLocationId(), new ArrayList<>()));
+        }
+        return reach;
+    }
+    
     public List<Unit> getDispatchedUnits() {
         List<Unit> dispatched = new ArrayList<>();
         for (Unit unit : allUnits.values()) {
@@ -0,0 +1,117 @@
+// SearchAllocationBenchmark.java
+// Measures bytes allocated and throughput per point-to-point query for the
+// workspace-backed CSR searches, against a copy of the previous search that
+// allocated fresh arrays and a heap on every call. Allocation is read from
+// the JVM's per-thread allocation counter (com.sun.management.ThreadMXBean).
+// Usage: java -Xmx4g SearchAllocationBenchmark [nodes] [queries] [seed]
+
+import algorithms.AStar;
+import algorithms.Dijkstra;
+import models.CompactGraph;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+public class SearchAllocationBenchmark {
+
+    private interface Query {
+        double run(int source, int target);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 200_000);
+        int queryCount = BenchmarkSupport.intArg(args, 1, 200);
+        long seed = BenchmarkSupport.longArg(args, 2, 42);
+
+        BenchmarkSupport.printBanner("SEARCH ALLOCATION");
+
+        CompactGraph graph = BenchmarkSupport.syntheticCity(nodeCount, seed).getCompactGraph();
+        System.out.printf("Nodes: %d, edges: %d%n%n", graph.getNodeCount(), graph.getEdgeCount());
+
+        Random random = new Random(seed + 1);
+        int[] sources = new int[queryCount];
+        int[] targets = new int[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            sources[q] = random.nextInt(graph.getNodeCount());
+            targets[q] = random.nextInt(graph.getNodeCount());
+        }
+
+        Map<String, Query> queries = new LinkedHashMap<>();
+        queries.put("Dijkstra, per-query arrays", (s, t) ->
+            allocatingSearch(graph, s, t, AStar.ZERO_INDEX_HEURISTIC));
+        queries.put("Dijkstra.shortestDistance", (s, t) -> Dijkstra.shortestDistance(graph, s, t));
+        queries.put("A*, per-query arrays", (s, t) ->
+            allocatingSearch(graph, s, t, AStar.EUCLIDEAN_INDEX_HEURISTIC));
+        queries.put("AStar.shortestDistance", (s, t) ->
+            AStar.shortestDistance(graph, s, t, AStar.EUCLIDEAN_INDEX_HEURISTIC));
+        queries.put("AStar.findPath", (s, t) ->
+            AStar.findPath(graph, s, t, AStar.EUCLIDEAN_INDEX_HEURISTIC).getTotalDistance());
+        queries.put("AStar.findPathBidirectional", (s, t) ->
+            AStar.findPathBidirectional(graph, s, t, AStar.ZERO_INDEX_HEURISTIC).getTotalDistance());
+
+        // The new workspace search must agree with the old allocating one
+        int mismatches = 0;
+        for (int q = 0; q < queryCount; q++) {
+            double expected = allocatingSearch(graph, sources[q], targets[q], AStar.ZERO_INDEX_HEURISTIC);
+            if (Double.compare(expected, Dijkstra.shortestDistance(graph, sources[q], targets[q])) != 0) mismatches++;
+        }
+
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        System.out.printf("%-30s %14s %14s%n", "", "bytes/query", "queries/s");
+        for (int round = 0; round < 3; round++) {
+            boolean report = round == 2;
+            for (Map.Entry<String, Query> entry : queries.entrySet()) {
+                Query query = entry.getValue();
+                double checksum = 0;
+                long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+                long t0 = System.nanoTime();
+                for (int q = 0; q < queryCount; q++) {
+                    checksum += query.run(sources[q], targets[q]);
+                }
+                long nanos = System.nanoTime() - t0;
+                long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+                if (report) {
+                    System.out.printf("%-30s %14d %14.0f%s%n", entry.getKey(), bytes / queryCount,
+                        queryCount / (nanos / 1e9), checksum == 0 ? " (no paths?)" : "");
+                }
+            }
+        }
+        System.out.println(mismatches == 0 ? "\nPASS: workspace Dijkstra matches the per-query version"
+                                           : "\nFAIL: " + mismatches + " distances differ");
+    }
+
+    /**
+     * A* (Dijkstra with the zero heuristic) as it was before workspaces: fresh O(n) arrays and heap per call
+     */
+    private static double allocatingSearch(CompactGraph graph, int source, int target,
+                                           AStar.IndexHeuristic heuristic) {
+        int n = graph.getNodeCount();
+        double[] distances = new double[n];
+        boolean[] visited = new boolean[n];
+        int[] predecessors = new int[n];
+        Arrays.fill(distances, Double.MAX_VALUE);
+        Arrays.fill(predecessors, -1);
+        Dijkstra.IndexedDaryHeap heap = new Dijkstra.IndexedDaryHeap(n);
+
+        distances[source] = 0.0;
+        heap.insertOrDecrease(source, heuristic.estimate(graph, source, target));
+        while (!heap.isEmpty()) {
+            int current = heap.extractMin();
+            visited[current] = true;
+            if (current == target) break;
+            for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+                int neighbor = graph.target(e);
+                if (visited[neighbor]) continue;
+                double candidate = distances[current] + graph.dynamicWeight(current, e);
+                if (candidate < distances[neighbor]) {
+                    distances[neighbor] = candidate;
+                    predecessors[neighbor] = current;
+                    heap.insertOrDecrease(neighbor, candidate + heuristic.estimate(graph, neighbor, target));
+                }
+            }
+        }
+        return distances[target];
+    }
+}
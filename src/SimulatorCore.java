@@ -66,6 +66,7 @@ public class SimulatorCore {
     // Simulation parameters
     private static final int TICK_INTERVAL_MS = 1000; // 1 second per tick
     private static final int DEFAULT_MAX_TICKS = 1000; // 1000 ticks = ~16 minutes
+    private static final int STATIONS_CONSIDERED = 3; // nearest suitable stations per crime
     
     public SimulatorCore(CityMap cityMap, PoliceManager policeManager, 
                         CrimeGenerator crimeGenerator, PathfindingService pathfindingService) {
@@ -302,35 +303,32 @@ public class SimulatorCore {
     
     /**
      * Find nearest police stations that have appropriate units for a crime
-     * Uses Dijkstra to find distances to all stations, then checks unit availability
+     * One Dijkstra from the crime settles stations nearest first and stops once
+     * STATIONS_CONSIDERED stations with suitable units have been found
      */
     private List<StationWithUnits> findNearestStationsWithAppropriateUnits(Crime crime) {
         // Get all police station locations from cityMap
         List<Integer> stationLocations = getPoliceStationLocations();
         
-        List<StationWithUnits> suitableStations = new ArrayList<>();
-        
-        // Calculate distances to all stations using Dijkstra
-        for (Integer stationLocation : stationLocations) {
-            var pathResult = pathfindingService.calculateShortestPath(crime.getLocationId(), stationLocation);
-            
-            if (pathResult.isValidPath()) {
+        Map<Integer, List<Unit>> unitsByStation = new HashMap<>();
+        List<PathfindingService.NodeDistance> nearest = pathfindingService.findNearestTargets(
+            crime.getLocationId(), stationLocations, STATIONS_CONSIDERED, stationLocation -> {
                 // Check if this station has appropriate units for the crime
                 List<Unit> unitsAtStation = policeManager.getUnitsAtLocation(stationLocation);
                 List<Unit> suitableUnits = filterSuitableUnits(unitsAtStation, crime);
-                
-                if (!suitableUnits.isEmpty()) {
-                    suitableStations.add(new StationWithUnits(
-                        stationLocation, 
-                        pathResult.getDistance(), 
-                        suitableUnits
-                    ));
-                }
-            }
-        }
+                unitsByStation.put(stationLocation, suitableUnits);
+                return !suitableUnits.isEmpty();
+            });
         
-        // Sort stations by distance (nearest first)
-        suitableStations.sort(Comparator.comparingDouble(s -> s.distance));
+        // Already sorted by distance (nearest first)
+        List<StationWithUnits> suitableStations = new ArrayList<>();
+        for (PathfindingService.NodeDistance station : nearest) {
+            suitableStations.add(new StationWithUnits(
+                station.getNodeId(), 
+                station.getDistance(), 
+                unitsByStation.get(station.getNodeId())
+            ));
+        }
         
         logEvent("Crime " + crime.getCrimeId() + " (" + crime.getType() + "): Found " + 
                 suitableStations.size() + " stations with appropriate units");
@@ -415,7 +413,7 @@ public class SimulatorCore {
             Crime crime = assignment.crime;
             
             // Consider units from multiple stations (nearest first)
-            int stationsToConsider = Math.min(3, assignment.suitableStations.size());
+            int stationsToConsider = Math.min(STATIONS_CONSIDERED, assignment.suitableStations.size());
             
             for (int i = 0; i < stationsToConsider; i++) {
                 StationWithUnits station = assignment.suitableStations.get(i);
@@ -0,0 +1,152 @@
+// SpatialIndexBenchmark.java
+// Compares the grid spatial index against the old linear scan for
+// nearest-node, k-nearest and radius queries, and checks they agree.
+// Usage: java SpatialIndexBenchmark [nodeCount] [queryCount]
+
+import algorithms.SpatialGridIndex;
+import java.util.*;
+
+public class SpatialIndexBenchmark {
+
+    public static void main(String[] args) {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 200_000);
+        int queryCount = BenchmarkSupport.intArg(args, 1, 2_000);
+
+        BenchmarkSupport.printBanner("SPATIAL INDEX");
+        System.out.printf("Nodes: %d, queries: %d%n%n", nodeCount, queryCount);
+
+        // City-like layout: jittered grid plus a few dense districts
+        Random random = new Random(42);
+        int[] ids = new int[nodeCount];
+        double[] xs = new double[nodeCount];
+        double[] ys = new double[nodeCount];
+        int side = (int) Math.ceil(Math.sqrt(nodeCount));
+        for (int i = 0; i < nodeCount; i++) {
+            ids[i] = i;
+            if (i % 10 == 0) {
+                xs[i] = side * 0.3 + random.nextGaussian() * side * 0.05;
+                ys[i] = side * 0.6 + random.nextGaussian() * side * 0.05;
+            } else {
+                xs[i] = (i % side) + random.nextDouble() * 0.6;
+                ys[i] = (i / side) + random.nextDouble() * 0.6;
+            }
+        }
+
+        long buildStart = System.nanoTime();
+        SpatialGridIndex index = new SpatialGridIndex(ids, xs, ys);
+        System.out.printf("Grid build: %.1f ms%n", (System.nanoTime() - buildStart) / 1_000_000.0);
+
+        double[] qx = new double[queryCount];
+        double[] qy = new double[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            qx[q] = random.nextDouble() * side * 1.1 - side * 0.05;
+            qy[q] = random.nextDouble() * side * 1.1 - side * 0.05;
+        }
+
+        // Nearest node
+        int mismatches = 0;
+        long linearTime = 0, gridTime = 0;
+        for (int q = 0; q < queryCount; q++) {
+            long t0 = System.nanoTime();
+            int linear = linearNearest(ids, xs, ys, qx[q], qy[q]);
+            long t1 = System.nanoTime();
+            int grid = index.nearest(qx[q], qy[q]);
+            long t2 = System.nanoTime();
+            linearTime += t1 - t0;
+            gridTime += t2 - t1;
+
+            if (distance(xs[linear], ys[linear], qx[q], qy[q]) != distance(xs[grid], ys[grid], qx[q], qy[q])) {
+                mismatches++;
+            }
+        }
+        report("findClosestNode", linearTime, gridTime, queryCount, mismatches);
+
+        // k-nearest (k = 8)
+        mismatches = 0;
+        linearTime = 0;
+        gridTime = 0;
+        for (int q = 0; q < queryCount; q++) {
+            long t0 = System.nanoTime();
+            double[] linear = linearKNearestDistances(xs, ys, qx[q], qy[q], 8);
+            long t1 = System.nanoTime();
+            int[] grid = index.kNearest(qx[q], qy[q], 8);
+            long t2 = System.nanoTime();
+            linearTime += t1 - t0;
+            gridTime += t2 - t1;
+
+            for (int k = 0; k < grid.length; k++) {
+                if (distance(xs[grid[k]], ys[grid[k]], qx[q], qy[q]) != linear[k]) {
+                    mismatches++;
+                    break;
+                }
+            }
+        }
+        report("k-nearest (k=8)", linearTime, gridTime, queryCount, mismatches);
+
+        // Radius query
+        mismatches = 0;
+        linearTime = 0;
+        gridTime = 0;
+        double radius = 3.0;
+        for (int q = 0; q < queryCount; q++) {
+            long t0 = System.nanoTime();
+            List<Integer> linear = linearRadius(ids, xs, ys, qx[q], qy[q], radius);
+            long t1 = System.nanoTime();
+            int[] grid = index.withinRadius(qx[q], qy[q], radius);
+            long t2 = System.nanoTime();
+            linearTime += t1 - t0;
+            gridTime += t2 - t1;
+
+            if (linear.size() != grid.length) mismatches++;
+        }
+        report("getNodesInRadius (r=3)", linearTime, gridTime, queryCount, mismatches);
+
+        System.out.println("\n=== BENCHMARK COMPLETED ===");
+    }
+
+    private static void report(String name, long linearNanos, long gridNanos, int queries, int mismatches) {
+        System.out.printf("%-24s linear %9.2f us/query | grid %7.2f us/query | speedup %7.1fx | %s%n",
+            name, linearNanos / 1000.0 / queries, gridNanos / 1000.0 / queries,
+            (double) linearNanos / Math.max(1, gridNanos), mismatches == 0 ? "PASS" : mismatches + " mismatches");
+    }
+
+    // Previous CityMap implementations (linear scans)
+
+    private static int linearNearest(int[] ids, double[] xs, double[] ys, double x, double y) {
+        int closest = -1;
+        double minDistance = Double.MAX_VALUE;
+        for (int i = 0; i < ids.length; i++) {
+            double d = distance(xs[i], ys[i], x, y);
+            if (d < minDistance) {
+                minDistance = d;
+                closest = ids[i];
+            }
+        }
+        return closest;
+    }
+
+    private static double[] linearKNearestDistances(double[] xs, double[] ys, double x, double y, int k) {
+        double[] distances = new double[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            distances[i] = distance(xs[i], ys[i], x, y);
+        }
+        Arrays.sort(distances);
+        return Arrays.copyOf(distances, k);
+    }
+
+    private static List<Integer> linearRadius(int[] ids, double[] xs, double[] ys, double x, double y, double radius) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (distance(xs[i], ys[i], x, y) <= radius) {
+                result.add(ids[i]);
+            }
+        }
+        return result;
+    }
+
+    private static double distance(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
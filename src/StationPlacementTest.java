@@ -0,0 +1,49 @@
+// StationPlacementTest.java
+// Station placement must not depend on which all-pairs method runs: Floyd-Warshall
+// (small maps) and streamed all-pairs Dijkstra (large maps) both use base weights,
+// so they pick the same stations, and applying traffic changes neither.
+// Usage: java StationPlacementTest [map file]
+
+import java.util.*;
+
+public class StationPlacementTest {
+
+    public static void main(String[] args) {
+        String mapFile = args.length > 0 ? args[0] : "big_city_map.csv";
+        System.out.println("=== STATION PLACEMENT TEST ===\n");
+
+        CityMap cityMap = new CityMap(mapFile);
+        Map<Integer, List<Integer>> before = new HashMap<>();
+        for (int k = 1; k <= 5; k++) {
+            before.put(k, cityMap.findOptimalPoliceStationLocations(k, true));
+        }
+
+        // Heavy traffic on a third of the nodes
+        Random random = new Random(7);
+        Map<Integer, Double> traffic = new HashMap<>();
+        for (int nodeId : cityMap.getNodeIds()) {
+            if (random.nextInt(3) == 0) traffic.put(nodeId, 1.5 + 2.5 * random.nextDouble());
+        }
+        cityMap.updateTrafficConditions(traffic);
+
+        int failures = 0;
+        for (int k = 1; k <= 5; k++) {
+            List<Integer> floyd = cityMap.findOptimalPoliceStationLocations(k, true);
+            List<Integer> dijkstra = cityMap.findOptimalPoliceStationLocations(k, false);
+            boolean same = floyd.equals(dijkstra) && floyd.equals(before.get(k)) && floyd.size() == k;
+            System.out.printf("%d stations: Floyd-Warshall %s, all-pairs Dijkstra %s %s%n",
+                k, floyd, dijkstra, same ? "PASS" : "FAIL");
+            if (!same) failures++;
+        }
+
+        for (int k : new int[] {0, -1}) {
+            boolean empty = cityMap.findOptimalPoliceStationLocations(k, true).isEmpty()
+                            && cityMap.findOptimalPoliceStationLocations(k, false).isEmpty();
+            System.out.printf("%d stations: both empty %s%n", k, empty ? "PASS" : "FAIL");
+            if (!empty) failures++;
+        }
+
+        System.out.println(failures == 0 ? "\nPASS: both paths place the same stations under traffic"
+                                         : "\nFAIL: " + failures + " mismatches");
+    }
+}
@@ -0,0 +1,157 @@
+// TimeDependentBenchmark.java
+// Time-dependent routing with the rush-hour travel time profiles:
+//   - FIFO: arrival times never decrease with later departures, including on a
+//     deliberately steep profile where the plain formula breaks it for long edges
+//   - exactness: time-dependent Dijkstra and time-dependent ALT agree, and never
+//     lose to the static shortest route timed at the same departure
+//   - how much a profile-aware route saves over the static route at rush hour
+//   - path cache hit rate with time-bucketed keys over a day of departures
+// Usage: java -Xmx4g TimeDependentBenchmark [nodes] [queries] [seed]
+
+import algorithms.AStar;
+import algorithms.Dijkstra;
+import algorithms.LandmarkHeuristic;
+import models.CompactGraph;
+import models.TravelTimeProfiles;
+import java.util.*;
+
+public class TimeDependentBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = BenchmarkSupport.intArg(args, 0, 50_000);
+        int queryCount = BenchmarkSupport.intArg(args, 1, 100);
+        long seed = BenchmarkSupport.longArg(args, 2, 42);
+
+        BenchmarkSupport.printBanner("TIME-DEPENDENT ROUTING");
+
+        CityMap cityMap = BenchmarkSupport.syntheticCity(nodeCount, seed);
+        CompactGraph graph = cityMap.getCompactGraph();
+        int n = graph.getNodeCount();
+        TravelTimeProfiles profiles = TravelTimeProfiles.rushHour();
+        Random random = new Random(seed + 1);
+
+        // FIFO over every minute of the day, on real edges and on a steep profile
+        Map<String, double[]> steep = new HashMap<>();
+        double[] cliff = new double[TravelTimeProfiles.BREAKPOINTS];
+        Arrays.fill(cliff, 1.0);
+        cliff[8] = 6.0;   // 6x at 08:00, back to 1x at 09:00
+        for (String roadType : new String[] {"street", "highway", "arterial", "oneway", "alley"}) {
+            steep.put(roadType, cliff);
+        }
+        TravelTimeProfiles steepProfiles = new TravelTimeProfiles(steep);
+        int fifoViolations = 0;
+        int naiveViolations = 0;
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(n);
+            if (graph.degree(from) == 0) continue;
+            int edge = graph.edgeStart(from) + random.nextInt(graph.degree(from));
+            double previous = 0;
+            double previousSteep = 0;
+            double previousNaive = 0;
+            for (int minute = 0; minute < TravelTimeProfiles.MINUTES_PER_DAY; minute++) {
+                double arrival = profiles.arrivalTime(graph, from, edge, minute);
+                double arrivalSteep = steepProfiles.arrivalTime(graph, from, edge, minute);
+                // A 60-minute edge on the steep profile: the plain formula arrives sooner by leaving later
+                double naive = minute + 60 * steepProfiles.factor(graph.roadTypeCode(edge), minute);
+                if (minute > 0 && (arrival < previous - 1e-9 || arrivalSteep < previousSteep - 1e-9)) fifoViolations++;
+                if (minute > 0 && naive < previousNaive - 1e-9) naiveViolations++;
+                previous = arrival;
+                previousSteep = arrivalSteep;
+                previousNaive = naive;
+            }
+        }
+        System.out.printf("FIFO: %d violations over 200 edges x 1440 departures (plain formula on the steep profile: %d)%n",
+            fifoViolations, naiveViolations);
+
+        // Exactness and rush-hour savings
+        LandmarkHeuristic landmarks = LandmarkHeuristic.build(graph);
+        double[] departures = {3 * 60, 8 * 60, 12 * 60, 17.5 * 60};
+        int mismatches = 0;
+        int staticWins = 0;
+        double tdMillis = 0;
+        double staticMillis = 0;
+        System.out.printf("%n%-10s %16s %16s %10s%n", "departure", "static route min", "TD route min", "saved");
+        for (double departure : departures) {
+            double staticTotal = 0;
+            double tdTotal = 0;
+            int counted = 0;
+            for (int q = 0; q < queryCount; q++) {
+                int s = random.nextInt(n);
+                int t = random.nextInt(n);
+
+                long t0 = System.nanoTime();
+                AStar.AStarResult td = AStar.findPathTimeDependent(graph, s, t, departure, profiles,
+                                                                   AStar.ZERO_INDEX_HEURISTIC);
+                tdMillis += (System.nanoTime() - t0) / 1e6;
+                t0 = System.nanoTime();
+                List<Integer> staticPath = Dijkstra.findShortestPath(graph, s, t);
+                staticMillis += (System.nanoTime() - t0) / 1e6;
+                if (!td.isPathFound()) continue;
+
+                AStar.AStarResult alt = AStar.findPathTimeDependent(graph, s, t, departure, profiles,
+                                                                    landmarks.forQuery(s, t));
+                if (!BenchmarkSupport.sameDistance(td.getTotalDistance(), alt.getTotalDistance())
+                    || !BenchmarkSupport.sameDistance(td.getTotalDistance(),
+                                                      travelTime(graph, profiles, td.getPath(), departure))) {
+                    mismatches++;
+                }
+                double staticTime = travelTime(graph, profiles, staticPath, departure);
+                if (staticTime < td.getTotalDistance() - 1e-9) staticWins++;
+                staticTotal += staticTime;
+                tdTotal += td.getTotalDistance();
+                counted++;
+            }
+            int minute = (int) departure;
+            System.out.printf("%02d:%02d      %16.2f %16.2f %9.2f%%%n", minute / 60, minute % 60,
+                staticTotal / counted, tdTotal / counted, 100.0 * (staticTotal - tdTotal) / staticTotal);
+        }
+        System.out.printf("TD Dijkstra %.2f ms/query, static Dijkstra %.2f ms/query%n",
+            tdMillis / (departures.length * queryCount), staticMillis / (departures.length * queryCount));
+
+        // Time-bucketed cache: popular routes requested at random minutes through the day
+        PathfindingService service = new PathfindingService(cityMap);
+        service.setTravelTimeProfiles(profiles);
+        int[][] routes = new int[50][2];
+        for (int[] route : routes) {
+            route[0] = graph.nodeId(random.nextInt(n));
+            route[1] = graph.nodeId(random.nextInt(n));
+        }
+        int requests = 5_000;
+        long t0 = System.nanoTime();
+        int bucketErrors = 0;
+        for (int i = 0; i < requests; i++) {
+            int[] route = routes[random.nextInt(routes.length)];
+            double departure = random.nextInt(TravelTimeProfiles.MINUTES_PER_DAY);
+            PathfindingService.PathResult result = service.calculateTimeDependentPath(route[0], route[1], departure);
+            if (result.isValidPath()
+                && !BenchmarkSupport.sameDistance(result.getDistance(),
+                                                  travelTime(graph, profiles, result.getPath(), departure))) {
+                bucketErrors++;
+            }
+        }
+        double serviceMillis = (System.nanoTime() - t0) / 1e6 / requests;
+        PathfindingService.PathfindingStats stats = service.getPerformanceStats();
+        System.out.printf("%nCache, %d-minute buckets: %d requests, hit rate %.1f%%, %.3f ms/request%n",
+            PathfindingService.TIME_BUCKET_MINUTES, requests, stats.cacheHitRate * 100, serviceMillis);
+
+        boolean pass = fifoViolations == 0 && mismatches == 0 && staticWins == 0 && bucketErrors == 0;
+        System.out.println(pass ? "\nPASS: FIFO holds, TD Dijkstra and TD ALT agree and beat static routes"
+                                : "\nFAIL: fifo " + fifoViolations + ", mismatches " + mismatches
+                                  + ", static wins " + staticWins + ", bucket timing errors " + bucketErrors);
+    }
+
+    private static double travelTime(CompactGraph graph, TravelTimeProfiles profiles, List<Integer> path,
+                                     double departure) {
+        double time = departure;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            int from = graph.indexOf(path.get(i));
+            int to = graph.indexOf(path.get(i + 1));
+            double arrival = Double.MAX_VALUE;
+            for (int e = graph.edgeStart(from); e < graph.edgeEnd(from); e++) {
+                if (graph.target(e) == to) arrival = Math.min(arrival, profiles.arrivalTime(graph, from, e, time));
+            }
+            time = arrival;
+        }
+        return time - departure;
+    }
+}
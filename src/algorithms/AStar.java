@@ -1,6 +1,8 @@
 package algorithms;
 
 import models.CityMapNode;
+import models.CompactGraph;
+import models.TravelTimeProfiles;
 import java.util.*;
 
 public class AStar {
@@ -51,6 +53,21 @@ public class AStar {
      */
     public static final HeuristicFunction ZERO_HEURISTIC = (from, to) -> 0.0;
     
+    /**
+     * Heuristic over dense CompactGraph indices (primitive variant of HeuristicFunction)
+     */
+    public interface IndexHeuristic {
+        double estimate(CompactGraph graph, int fromIndex, int goalIndex);
+    }
+    
+    public static final IndexHeuristic EUCLIDEAN_INDEX_HEURISTIC = (graph, from, goal) ->
+        graph.euclideanDistance(from, goal);
+    
+    public static final IndexHeuristic MANHATTAN_INDEX_HEURISTIC = (graph, from, goal) ->
+        Math.abs(graph.x(from) - graph.x(goal)) + Math.abs(graph.y(from) - graph.y(goal));
+    
+    public static final IndexHeuristic ZERO_INDEX_HEURISTIC = (graph, from, goal) -> 0.0;
+    
     /**
      * A* pathfinding result
      */
@@ -142,6 +159,102 @@ public class AStar {
         return new AStarResult(new ArrayList<>(), Double.MAX_VALUE, nodesExplored);
     }
     
+    /**
+     * A* over a CompactGraph. Takes dense indices; the result path holds node IDs.
+     */
+    public static AStarResult findPath(CompactGraph graph, int startIndex, int goalIndex,
+                                     IndexHeuristic heuristic) {
+        int n = graph.getNodeCount();
+        if (startIndex < 0 || goalIndex < 0 || startIndex >= n || goalIndex >= n) {
+            return new AStarResult(new ArrayList<>(), Double.MAX_VALUE, 0);
+        }
+        
+        SearchWorkspace workspace = search(graph, startIndex, goalIndex, heuristic, null, 0.0);
+        if (!workspace.isSettled(goalIndex)) {
+            return new AStarResult(new ArrayList<>(), Double.MAX_VALUE, workspace.settledCount());
+        }
+        int[] path = workspace.pathTo(startIndex, goalIndex);
+        return new AStarResult(graph.toNodeIds(path), workspace.distance(goalIndex), workspace.settledCount());
+    }
+    
+    /**
+     * A* distance only (Double.MAX_VALUE if unreachable).
+     * Allocates nothing once this thread's workspace exists.
+     */
+    public static double shortestDistance(CompactGraph graph, int startIndex, int goalIndex,
+                                          IndexHeuristic heuristic) {
+        int n = graph.getNodeCount();
+        if (startIndex < 0 || goalIndex < 0 || startIndex >= n || goalIndex >= n) return Double.MAX_VALUE;
+        
+        SearchWorkspace workspace = search(graph, startIndex, goalIndex, heuristic, null, 0.0);
+        return workspace.isSettled(goalIndex) ? workspace.distance(goalIndex) : Double.MAX_VALUE;
+    }
+    
+    /**
+     * Time-dependent A* leaving startIndex at departureMinute: each edge costs its
+     * travel time when entered at the arrival time at its tail node. Profiles are
+     * FIFO, so the label-setting search stays exact. The result distance is the
+     * travel time in minutes. The heuristic bounds the static (traffic-adjusted)
+     * cost and is scaled by the profiles' smallest factor; ZERO_INDEX_HEURISTIC
+     * gives time-dependent Dijkstra.
+     */
+    public static AStarResult findPathTimeDependent(CompactGraph graph, int startIndex, int goalIndex,
+                                                    double departureMinute, TravelTimeProfiles profiles,
+                                                    IndexHeuristic heuristic) {
+        int n = graph.getNodeCount();
+        if (startIndex < 0 || goalIndex < 0 || startIndex >= n || goalIndex >= n) {
+            return new AStarResult(new ArrayList<>(), Double.MAX_VALUE, 0);
+        }
+        
+        double scale = profiles.getMinFactor();
+        IndexHeuristic bound = (g, from, goal) -> heuristic.estimate(g, from, goal) * scale;
+        SearchWorkspace workspace = search(graph, startIndex, goalIndex, bound, profiles, departureMinute);
+        if (!workspace.isSettled(goalIndex)) {
+            return new AStarResult(new ArrayList<>(), Double.MAX_VALUE, workspace.settledCount());
+        }
+        int[] path = workspace.pathTo(startIndex, goalIndex);
+        return new AStarResult(graph.toNodeIds(path), workspace.distance(goalIndex), workspace.settledCount());
+    }
+    
+    /**
+     * Core CSR A* loop on this thread's workspace; the goal is settled if it was reached.
+     * With profiles set, g-scores are minutes since departure and edge costs depend on them.
+     */
+    private static SearchWorkspace search(CompactGraph graph, int startIndex, int goalIndex,
+                                          IndexHeuristic heuristic, TravelTimeProfiles profiles,
+                                          double departure) {
+        SearchWorkspace workspace = SearchWorkspace.forward(graph);
+        
+        // Heap is keyed by f-score; g-scores are kept in the workspace
+        Dijkstra.IndexedDaryHeap openSet = workspace.heap();
+        workspace.label(startIndex, 0.0, -1);
+        openSet.insertOrDecrease(startIndex, heuristic.estimate(graph, startIndex, goalIndex));
+        
+        while (!openSet.isEmpty()) {
+            int current = openSet.extractMin();
+            workspace.settle(current);
+            
+            if (current == goalIndex) break;
+            
+            double currentG = workspace.distance(current);
+            
+            for (int e = graph.edgeStart(current), end = graph.edgeEnd(current); e < end; e++) {
+                int neighbor = graph.target(e);
+                if (workspace.isSettled(neighbor)) continue;
+                
+                double tentativeGScore = profiles == null
+                    ? currentG + graph.dynamicWeight(current, e)
+                    : profiles.arrivalTime(graph, current, e, departure + currentG) - departure;
+                if (tentativeGScore < workspace.distance(neighbor)) {
+                    workspace.label(neighbor, tentativeGScore, current);
+                    openSet.insertOrDecrease(neighbor,
+                        tentativeGScore + heuristic.estimate(graph, neighbor, goalIndex));
+                }
+            }
+        }
+        return workspace;
+    }
+    
     /**
      * A* with default Euclidean heuristic
      */
@@ -151,7 +264,11 @@ public class AStar {
     }
     
     /**
-     * Bidirectional A* for potentially faster pathfinding on large graphs
+     * Bidirectional A*. Both searches use the average potential
+     * p(v) = (h(v, goal) - h(v, start)) / 2, forward keys g + p and backward keys
+     * g - p, and stop once the two queue minima sum to at least the best meeting
+     * distance. Exact for consistent heuristics; ZERO_HEURISTIC gives
+     * bidirectional Dijkstra. Heuristics are assumed symmetric.
      */
     public static AStarResult findPathBidirectional(Map<Integer, CityMapNode> cityMap,
                                                    int startNode, int goalNode,
@@ -163,7 +280,7 @@ public class AStar {
         Map<Integer, Double> forwardG = new HashMap<>();
         Map<Integer, Integer> forwardPred = new HashMap<>();
         
-        // Backward search from goal
+        // Backward search from goal (predecessors point towards the goal)
         PriorityQueue<AStarNode> backwardOpen = new PriorityQueue<>();
         Set<Integer> backwardClosed = new HashSet<>();
         Map<Integer, Double> backwardG = new HashMap<>();
@@ -176,50 +293,78 @@ public class AStar {
             return new AStarResult(new ArrayList<>(), Double.MAX_VALUE, 0);
         }
         
+        Map<Integer, List<ReverseEdge>> incoming = reverseAdjacency(cityMap);
+        
         // Initialize both searches
-        forwardOpen.offer(new AStarNode(startNode, 0.0, heuristic.calculate(startCity, goalCity)));
+        forwardOpen.offer(new AStarNode(startNode, 0.0, potential(startCity, startCity, goalCity, heuristic)));
         forwardG.put(startNode, 0.0);
         
-        backwardOpen.offer(new AStarNode(goalNode, 0.0, heuristic.calculate(goalCity, startCity)));
+        backwardOpen.offer(new AStarNode(goalNode, 0.0, -potential(goalCity, startCity, goalCity, heuristic)));
         backwardG.put(goalNode, 0.0);
         
         int nodesExplored = 0;
-        double bestPath = Double.MAX_VALUE;
-        int meetingPoint = -1;
-        
-        while (!forwardOpen.isEmpty() && !backwardOpen.isEmpty()) {
-            // Alternate between forward and backward search
-            if (nodesExplored % 2 == 0) {
+        double bestPath = startNode == goalNode ? 0.0 : Double.MAX_VALUE;
+        int meetingPoint = startNode == goalNode ? startNode : -1;
+        
+        while (true) {
+            // Drop entries superseded by a shorter label (lazy deletion)
+            skipStale(forwardOpen, forwardClosed, forwardG);
+            skipStale(backwardOpen, backwardClosed, backwardG);
+            if (forwardOpen.isEmpty() || backwardOpen.isEmpty()) break;
+            if (forwardOpen.peek().fScore + backwardOpen.peek().fScore >= bestPath) break;
+            
+            // Expand the side with the smaller key
+            if (forwardOpen.peek().fScore <= backwardOpen.peek().fScore) {
                 AStarNode current = forwardOpen.poll();
+                forwardClosed.add(current.nodeId);
                 nodesExplored++;
                 
-                // Check if we've met the backward search
-                if (backwardG.containsKey(current.nodeId)) {
-                    double pathLength = current.gScore + backwardG.get(current.nodeId);
-                    if (pathLength < bestPath) {
-                        bestPath = pathLength;
-                        meetingPoint = current.nodeId;
+                CityMapNode currentCity = cityMap.get(current.nodeId);
+                if (currentCity == null) continue;
+                for (CityMapNode.Edge edge : currentCity.getAdjacentEdges()) {
+                    int neighbor = edge.getDestinationNode();
+                    CityMapNode neighborCity = cityMap.get(neighbor);
+                    if (neighborCity == null || forwardClosed.contains(neighbor)) continue;
+                    
+                    double tentative = current.gScore + edge.getDynamicWeight(currentCity.getTrafficMultiplier());
+                    if (tentative < forwardG.getOrDefault(neighbor, Double.MAX_VALUE)) {
+                        forwardG.put(neighbor, tentative);
+                        forwardPred.put(neighbor, current.nodeId);
+                        forwardOpen.offer(new AStarNode(neighbor, tentative,
+                            potential(neighborCity, startCity, goalCity, heuristic)));
+                        
+                        // Check if we've met the backward search
+                        Double other = backwardG.get(neighbor);
+                        if (other != null && tentative + other < bestPath) {
+                            bestPath = tentative + other;
+                            meetingPoint = neighbor;
+                        }
                     }
                 }
-                
-                forwardClosed.add(current.nodeId);
-                // Continue forward expansion...
-                
             } else {
                 AStarNode current = backwardOpen.poll();
+                backwardClosed.add(current.nodeId);
                 nodesExplored++;
                 
-                // Check if we've met the forward search
-                if (forwardG.containsKey(current.nodeId)) {
-                    double pathLength = current.gScore + forwardG.get(current.nodeId);
-                    if (pathLength < bestPath) {
-                        bestPath = pathLength;
-                        meetingPoint = current.nodeId;
+                for (ReverseEdge edge : incoming.getOrDefault(current.nodeId, Collections.emptyList())) {
+                    int neighbor = edge.source;
+                    if (backwardClosed.contains(neighbor)) continue;
+                    
+                    double tentative = current.gScore + edge.weight;
+                    if (tentative < backwardG.getOrDefault(neighbor, Double.MAX_VALUE)) {
+                        backwardG.put(neighbor, tentative);
+                        backwardPred.put(neighbor, current.nodeId);
+                        backwardOpen.offer(new AStarNode(neighbor, tentative,
+                            -potential(cityMap.get(neighbor), startCity, goalCity, heuristic)));
+                        
+                        // Check if we've met the forward search
+                        Double other = forwardG.get(neighbor);
+                        if (other != null && tentative + other < bestPath) {
+                            bestPath = tentative + other;
+                            meetingPoint = neighbor;
+                        }
                     }
                 }
-                
-                backwardClosed.add(current.nodeId);
-                // Continue backward expansion...
             }
         }
         
@@ -232,6 +377,133 @@ public class AStar {
         return new AStarResult(new ArrayList<>(), Double.MAX_VALUE, nodesExplored);
     }
     
+    /**
+     * Incoming edge with its traffic-adjusted weight
+     */
+    private static class ReverseEdge {
+        final int source;
+        final double weight;
+        
+        ReverseEdge(int source, double weight) {
+            this.source = source;
+            this.weight = weight;
+        }
+    }
+    
+    private static Map<Integer, List<ReverseEdge>> reverseAdjacency(Map<Integer, CityMapNode> cityMap) {
+        Map<Integer, List<ReverseEdge>> incoming = new HashMap<>();
+        for (CityMapNode node : cityMap.values()) {
+            for (CityMapNode.Edge edge : node.getAdjacentEdges()) {
+                incoming.computeIfAbsent(edge.getDestinationNode(), k -> new ArrayList<>())
+                        .add(new ReverseEdge(node.getNodeId(), edge.getDynamicWeight(node.getTrafficMultiplier())));
+            }
+        }
+        return incoming;
+    }
+    
+    private static double potential(CityMapNode node, CityMapNode startCity, CityMapNode goalCity,
+                                    HeuristicFunction heuristic) {
+        return (heuristic.calculate(node, goalCity) - heuristic.calculate(node, startCity)) / 2;
+    }
+    
+    private static void skipStale(PriorityQueue<AStarNode> open, Set<Integer> closed, Map<Integer, Double> gScores) {
+        while (!open.isEmpty()) {
+            AStarNode top = open.peek();
+            if (!closed.contains(top.nodeId) && top.gScore <= gScores.get(top.nodeId)) return;
+            open.poll();
+        }
+    }
+    
+    /**
+     * Bidirectional A* over a CompactGraph, with the same average potentials and
+     * stopping rule as the map version. The backward search walks the graph's
+     * reverse adjacency. Takes dense indices; the result path holds node IDs.
+     */
+    public static AStarResult findPathBidirectional(CompactGraph graph, int startIndex, int goalIndex,
+                                                   IndexHeuristic heuristic) {
+        int n = graph.getNodeCount();
+        if (startIndex < 0 || goalIndex < 0 || startIndex >= n || goalIndex >= n) {
+            return new AStarResult(new ArrayList<>(), Double.MAX_VALUE, 0);
+        }
+        
+        // Backward predecessors point to the next node towards the goal
+        SearchWorkspace forward = SearchWorkspace.forward(graph);
+        SearchWorkspace backward = SearchWorkspace.backward(graph);
+        Dijkstra.IndexedDaryHeap forwardOpen = forward.heap();
+        Dijkstra.IndexedDaryHeap backwardOpen = backward.heap();
+        forward.label(startIndex, 0.0, -1);
+        backward.label(goalIndex, 0.0, -1);
+        forwardOpen.insertOrDecrease(startIndex, potential(graph, startIndex, startIndex, goalIndex, heuristic));
+        backwardOpen.insertOrDecrease(goalIndex, -potential(graph, goalIndex, startIndex, goalIndex, heuristic));
+        
+        double best = startIndex == goalIndex ? 0.0 : Double.MAX_VALUE;
+        int meeting = startIndex == goalIndex ? startIndex : -1;
+        
+        while (!forwardOpen.isEmpty() && !backwardOpen.isEmpty()
+                && forwardOpen.minKey() + backwardOpen.minKey() < best) {
+            if (forwardOpen.minKey() <= backwardOpen.minKey()) {
+                int current = forwardOpen.extractMin();
+                forward.settle(current);
+                double currentG = forward.distance(current);
+                
+                for (int e = graph.edgeStart(current), end = graph.edgeEnd(current); e < end; e++) {
+                    int neighbor = graph.target(e);
+                    if (forward.isSettled(neighbor)) continue;
+                    
+                    double tentative = currentG + graph.dynamicWeight(current, e);
+                    if (tentative < forward.distance(neighbor)) {
+                        forward.label(neighbor, tentative, current);
+                        forwardOpen.insertOrDecrease(neighbor,
+                            tentative + potential(graph, neighbor, startIndex, goalIndex, heuristic));
+                        double other = backward.distance(neighbor);
+                        if (other < Double.MAX_VALUE && tentative + other < best) {
+                            best = tentative + other;
+                            meeting = neighbor;
+                        }
+                    }
+                }
+            } else {
+                int current = backwardOpen.extractMin();
+                backward.settle(current);
+                double currentG = backward.distance(current);
+                
+                for (int i = graph.inEdgeStart(current), end = graph.inEdgeEnd(current); i < end; i++) {
+                    int neighbor = graph.inSource(i);
+                    if (backward.isSettled(neighbor)) continue;
+                    
+                    double tentative = currentG + graph.dynamicWeight(neighbor, graph.inEdge(i));
+                    if (tentative < backward.distance(neighbor)) {
+                        backward.label(neighbor, tentative, current);
+                        backwardOpen.insertOrDecrease(neighbor,
+                            tentative - potential(graph, neighbor, startIndex, goalIndex, heuristic));
+                        double other = forward.distance(neighbor);
+                        if (other < Double.MAX_VALUE && tentative + other < best) {
+                            best = tentative + other;
+                            meeting = neighbor;
+                        }
+                    }
+                }
+            }
+        }
+        
+        int nodesExplored = forward.settledCount() + backward.settledCount();
+        if (meeting == -1) {
+            return new AStarResult(new ArrayList<>(), Double.MAX_VALUE, nodesExplored);
+        }
+        
+        // start -> meeting along forward predecessors, then meeting -> goal along backward ones
+        List<Integer> path = new ArrayList<>(graph.toNodeIds(forward.pathTo(startIndex, meeting)));
+        for (int v = backward.predecessor(meeting); v != -1; v = backward.predecessor(v)) {
+            path.add(graph.nodeId(v));
+        }
+        return new AStarResult(path, best, nodesExplored);
+    }
+    
+    private static double potential(CompactGraph graph, int index, int startIndex, int goalIndex,
+                                    IndexHeuristic heuristic) {
+        return (heuristic.estimate(graph, index, goalIndex) - heuristic.estimate(graph, startIndex, index)) / 2;
+    }
+    
     /**
      * Reconstruct path from predecessor map
      */
@@ -281,10 +553,12 @@ public class AStar {
     }
     
     /**
-     * Adaptive A* that learns from previous searches to improve heuristic
+     * Adaptive A* that learns from previous searches to improve heuristic.
+     * Learned values are remaining path distances, so they are only reused
+     * for searches towards the same goal.
      */
     public static class AdaptiveAStar {
-        private Map<Integer, Double> learnedHeuristics;
+        private Map<Integer, Map<Integer, Double>> learnedHeuristics; // goal -> node -> distance
         
         public AdaptiveAStar() {
             this.learnedHeuristics = new HashMap<>();
@@ -294,9 +568,10 @@ public class AStar {
                                           int startNode, int goalNode,
                                           HeuristicFunction baseHeuristic) {
             
+            Map<Integer, Double> learnedForGoal = learnedHeuristics.getOrDefault(goalNode, Collections.emptyMap());
             HeuristicFunction adaptiveHeuristic = (from, to) -> {
                 double baseH = baseHeuristic.calculate(from, to);
-                double learnedH = learnedHeuristics.getOrDefault(from.getNodeId(), 0.0);
+                double learnedH = learnedForGoal.getOrDefault(from.getNodeId(), 0.0);
                 return Math.max(baseH, learnedH);
             };
             
@@ -304,30 +579,42 @@ public class AStar {
             
             // Update learned heuristics based on result
             if (result.isPathFound()) {
-                updateLearnedHeuristics(result.getPath(), result.getTotalDistance(), cityMap);
+                updateLearnedHeuristics(result.getPath(), goalNode, cityMap);
             }
             
             return result;
         }
         
-        private void updateLearnedHeuristics(List<Integer> path, double totalDistance,
+        private void updateLearnedHeuristics(List<Integer> path, int goalNode,
                                            Map<Integer, CityMapNode> cityMap) {
-            // Update heuristics based on actual distances found
-            for (int i = 0; i < path.size() - 1; i++) {
-                int nodeId = path.get(i);
-                double remainingDistance = calculateRemainingDistance(path, i);
+            Map<Integer, Double> learnedForGoal = learnedHeuristics.computeIfAbsent(goalNode, k -> new HashMap<>());
+            
+            // Walk back from the goal, summing the weights actually traversed
+            double remainingDistance = 0.0;
+            for (int i = path.size() - 2; i >= 0; i--) {
+                remainingDistance += edgeWeight(cityMap, path.get(i), path.get(i + 1));
                 
-                Double currentHeuristic = learnedHeuristics.get(nodeId);
-                if (currentHeuristic == null || remainingDistance > currentHeuristic) {
-                    learnedHeuristics.put(nodeId, remainingDistance);
+                int nodeId = path.get(i);
+                Double currentHeuristic = learnedForGoal.get(nodeId);
+                // Keep the shortest observed remainder (a real path never undercuts the true distance)
+                if (currentHeuristic == null || remainingDistance < currentHeuristic) {
+                    learnedForGoal.put(nodeId, remainingDistance);
                 }
             }
         }
         
-        private double calculateRemainingDistance(List<Integer> path, int fromIndex) {
-            // Calculate actual remaining distance from this point in the path
-            // This is a simplified version - in practice you'd sum edge weights
-            return path.size() - fromIndex - 1;
+        /**
+         * Traffic-adjusted weight of the cheapest from -> to edge
+         */
+        private double edgeWeight(Map<Integer, CityMapNode> cityMap, int from, int to) {
+            CityMapNode fromNode = cityMap.get(from);
+            double best = Double.MAX_VALUE;
+            for (CityMapNode.Edge edge : fromNode.getAdjacentEdges()) {
+                if (edge.getDestinationNode() == to) {
+                    best = Math.min(best, edge.getDynamicWeight(fromNode.getTrafficMultiplier()));
+                }
+            }
+            return best == Double.MAX_VALUE ? 0.0 : best;
         }
     }
 }
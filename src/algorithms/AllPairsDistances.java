@@ -0,0 +1,123 @@
+package algorithms;
+
+import models.CompactGraph;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * All-pairs shortest distances as a stream of rows, one Dijkstra per source
+ *
+ * Each row is handed to a consumer as soon as it is computed and is never
+ * stored, so memory stays O(n) per worker instead of Floyd-Warshall's O(n^2)
+ * and runtime is O(n * m log n) instead of O(n^3). Sources are split across a
+ * ForkJoinPool. The consumer is called from several threads at once: writing
+ * into per-source slots needs no locking, anything shared must synchronize.
+ * Rows use the traffic-adjusted weights unless includeTraffic is false.
+ */
+public class AllPairsDistances {
+    private static final int SOURCES_PER_TASK = 16;
+
+    /**
+     * Receives one distance row; the array is reused after the call returns
+     */
+    public interface RowConsumer {
+        /**
+         * @param rootIndex The source (or, for reverse rows, the target) of this row
+         * @param distances Distance per dense index, Double.MAX_VALUE if unreachable
+         */
+        void accept(int rootIndex, double[] distances);
+    }
+
+    /**
+     * Stream d(source, v) for every source, using all available processors
+     */
+    public static void forEachRow(CompactGraph graph, RowConsumer consumer) {
+        forEachRow(graph, true, consumer);
+    }
+
+    public static void forEachRow(CompactGraph graph, boolean includeTraffic, RowConsumer consumer) {
+        int[] sources = new int[graph.getNodeCount()];
+        for (int i = 0; i < sources.length; i++) sources[i] = i;
+        forEachRow(graph, sources, false, includeTraffic, consumer);
+    }
+
+    /**
+     * Stream rows for the given roots; with reverse set, each row holds d(v, root)
+     */
+    public static void forEachRow(CompactGraph graph, int[] rootIndices, boolean reverse, RowConsumer consumer) {
+        forEachRow(graph, rootIndices, reverse, true, consumer);
+    }
+
+    public static void forEachRow(CompactGraph graph, int[] rootIndices, boolean reverse, boolean includeTraffic,
+                                  RowConsumer consumer) {
+        forEachRow(graph, rootIndices, reverse, includeTraffic, Runtime.getRuntime().availableProcessors(),
+                   consumer);
+    }
+
+    public static void forEachRow(CompactGraph graph, int[] rootIndices, boolean reverse, int parallelism,
+                                  RowConsumer consumer) {
+        forEachRow(graph, rootIndices, reverse, true, parallelism, consumer);
+    }
+
+    public static void forEachRow(CompactGraph graph, int[] rootIndices, boolean reverse, boolean includeTraffic,
+                                  int parallelism, RowConsumer consumer) {
+        if (parallelism <= 1 || rootIndices.length <= SOURCES_PER_TASK) {
+            streamRows(graph, rootIndices, reverse, includeTraffic, consumer, 0, rootIndices.length);
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RowTask(graph, rootIndices, reverse, includeTraffic, consumer, 0, rootIndices.length));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void streamRows(CompactGraph graph, int[] roots, boolean reverse, boolean includeTraffic,
+                                   RowConsumer consumer, int from, int to) {
+        double[] row = new double[graph.getNodeCount()];
+        for (int r = from; r < to; r++) {
+            Dijkstra.fillDistances(graph, roots[r], reverse, includeTraffic, row);
+            consumer.accept(roots[r], row);
+        }
+    }
+
+    /**
+     * A range of roots, split in halves until small; each leaf reuses one row buffer
+     */
+    private static class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CompactGraph graph;
+        private final int[] roots;
+        private final boolean reverse;
+        private final boolean includeTraffic;
+        private final RowConsumer consumer;
+        private final int from;
+        private final int to;
+
+        RowTask(CompactGraph graph, int[] roots, boolean reverse, boolean includeTraffic, RowConsumer consumer,
+                int from, int to) {
+            this.graph = graph;
+            this.roots = roots;
+            this.reverse = reverse;
+            this.includeTraffic = includeTraffic;
+            this.consumer = consumer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SOURCES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RowTask(graph, roots, reverse, includeTraffic, consumer, from, mid),
+                          new RowTask(graph, roots, reverse, includeTraffic, consumer, mid, to));
+                return;
+            }
+
+            streamRows(graph, roots, reverse, includeTraffic, consumer, from, to);
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package algorithms;
+
+import models.CompactGraph;
+import java.util.*;
+
+/**
+ * Alternative routes between two nodes, each limited in how much it shares with the others
+ *
+ * Three methods, cheapest first:
+ *   - plateaus: one forward tree from the source and one backward tree to the
+ *     target. A chain of edges on both trees (a plateau) yields the route
+ *     source ~> plateau ~> target; long plateaus make natural alternatives. Two
+ *     searches give every candidate, however many routes are asked for.
+ *   - penalty: repeat the search, multiplying the weight of edges on routes
+ *     found so far, until enough distinct routes appear
+ *   - yen: Yen's k shortest loopless paths, one spur search per node of each
+ *     route; exact, but the most expensive
+ *
+ * Routes are dense index paths costed with the graph's traffic-adjusted weights.
+ * A route is accepted only if the share of its cost on edges of any accepted
+ * route stays within maxOverlap; the first route is always the shortest.
+ */
+public class AlternativeRoutes {
+    public static final double DEFAULT_MAX_OVERLAP = 0.8;
+    public static final double MAX_STRETCH = 0.3;          // plateau routes: at most 30% over the shortest
+    public static final double MIN_PLATEAU = 0.1;          // plateau at least 10% of the shortest route's cost
+    public static final double DEFAULT_PENALTY = 0.5;      // penalty method: weight x (1 + 0.5) per reuse
+    private static final int CANDIDATES_PER_ROUTE = 10;    // yen/penalty give up after this many rejects per route
+
+    /**
+     * One route, its cost and its largest sharing with the routes accepted before it
+     */
+    public static class Route {
+        private final int[] path;
+        private final double cost;
+        private final double overlap;
+
+        Route(int[] path, double cost, double overlap) {
+            this.path = path;
+            this.cost = cost;
+            this.overlap = overlap;
+        }
+
+        public int[] getPath() { return path.clone(); }
+        public double getCost() { return cost; }
+        public double getOverlap() { return overlap; }
+        public int length() { return path.length; }
+    }
+
+    /**
+     * Accepted routes, shortest first, and the nodes settled finding them
+     */
+    public static class Result {
+        private final List<Route> routes;
+        private final int nodesSettled;
+
+        Result(List<Route> routes, int nodesSettled) {
+            this.routes = routes;
+            this.nodesSettled = nodesSettled;
+        }
+
+        public List<Route> getRoutes() { return Collections.unmodifiableList(routes); }
+        public int size() { return routes.size(); }
+        public Route get(int i) { return routes.get(i); }
+        public int getNodesSettled() { return nodesSettled; }
+    }
+
+    /**
+     * Routes through the plateaus of the forward and backward shortest-path trees
+     */
+    public static Result plateaus(CompactGraph graph, int source, int target, int k, double maxOverlap) {
+        Accepted accepted = new Accepted(graph, k, maxOverlap);
+        if (source < 0 || target < 0 || k <= 0) return accepted.result(0);
+
+        // Forward tree from the source, kept going past the target up to the stretch bound
+        SearchWorkspace forward = SearchWorkspace.forward(graph);
+        double best = grow(graph, forward, source, target);
+        if (best == Double.MAX_VALUE) return accepted.result(forward.settledCount());
+        double bound = best * (1 + MAX_STRETCH);
+        accepted.offer(forward.pathTo(source, target));
+
+        // Backward tree to the target, relaxing only nodes that can lie on a route within
+        // the bound (every node on such a route's backward part does); those are the candidates
+        SearchWorkspace backward = SearchWorkspace.backward(graph);
+        Dijkstra.IndexedDaryHeap minHeap = backward.heap();
+        backward.label(target, 0.0, -1);
+        minHeap.insertOrDecrease(target, 0.0);
+        int count = 0;
+        long[] candidates = new long[16];   // float cost bits (order-preserving for costs >= 0) << 32 | node
+        while (!minHeap.isEmpty()) {
+            int current = minHeap.extractMin();
+            double distance = backward.distance(current);
+            if (distance > bound) break;
+            backward.settle(current);
+            if (!forward.isSettled(current) || forward.distance(current) + distance > bound) continue;
+            if (count == candidates.length) candidates = Arrays.copyOf(candidates, count * 2);
+            float cost = (float) (forward.distance(current) + distance);
+            candidates[count++] = ((long) Float.floatToIntBits(cost) << 32) | current;
+
+            for (int i = graph.inEdgeStart(current), end = graph.inEdgeEnd(current); i < end; i++) {
+                int neighbor = graph.inSource(i);
+                if (backward.isSettled(neighbor)) continue;
+                double newDistance = distance + graph.dynamicWeight(neighbor, graph.inEdge(i));
+                if (newDistance < backward.distance(neighbor)) {
+                    backward.label(neighbor, newDistance, current);
+                    minHeap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+        }
+        int settled = forward.settledCount() + backward.settledCount();
+
+        // Via candidates, cheapest first; every node of a plateau gives the same route
+        Arrays.sort(candidates, 0, count);
+
+        for (int c = 0; c < count && !accepted.isFull(); c++) {
+            int v = (int) candidates[c];
+            if (forward.isMarked(v)) continue;
+
+            // Extend v both ways while the two trees agree
+            int first = v;
+            int p;
+            while ((p = forward.predecessor(first)) >= 0 && backward.predecessor(p) == first) first = p;
+            int last = v;
+            int q;
+            while ((q = backward.predecessor(last)) >= 0 && forward.predecessor(q) == last) last = q;
+            for (int x = last; x != first; x = forward.predecessor(x)) forward.mark(x);
+            forward.mark(first);
+
+            double plateau = forward.distance(last) - forward.distance(first);
+            if (plateau < MIN_PLATEAU * best) continue;
+
+            int[] head = forward.pathTo(source, last);
+            int tailLength = 0;
+            for (int x = last; x != target; x = backward.predecessor(x)) tailLength++;
+            int[] path = Arrays.copyOf(head, head.length + tailLength);
+            int i = head.length;
+            for (int x = backward.predecessor(last); i < path.length; x = backward.predecessor(x)) path[i++] = x;
+            accepted.offer(path);
+        }
+        return accepted.result(settled);
+    }
+
+    /**
+     * Repeated searches, each penalizing edges of the routes found so far
+     * @param penalty Edge weight grows by this fraction of itself per route that used it
+     */
+    public static Result penalty(CompactGraph graph, int source, int target, int k, double maxOverlap,
+                                 double penalty) {
+        Accepted accepted = new Accepted(graph, k, maxOverlap);
+        if (source < 0 || target < 0 || k <= 0) return accepted.result(0);
+
+        Map<Long, Double> factors = new HashMap<>();   // packed (from, to) -> weight factor
+        int settled = 0;
+        for (int attempt = 0; attempt < k * CANDIDATES_PER_ROUTE && !accepted.isFull(); attempt++) {
+            SearchWorkspace workspace = SearchWorkspace.forward(graph);
+            Dijkstra.IndexedDaryHeap minHeap = workspace.heap();
+            workspace.label(source, 0.0, -1);
+            minHeap.insertOrDecrease(source, 0.0);
+            while (!minHeap.isEmpty()) {
+                int current = minHeap.extractMin();
+                workspace.settle(current);
+                if (current == target) break;
+                double distance = workspace.distance(current);
+                for (int e = graph.edgeStart(current), end = graph.edgeEnd(current); e < end; e++) {
+                    int neighbor = graph.target(e);
+                    if (workspace.isSettled(neighbor)) continue;
+                    double weight = graph.dynamicWeight(current, e)
+                        * factors.getOrDefault(edgeKey(current, neighbor), 1.0);
+                    if (distance + weight < workspace.distance(neighbor)) {
+                        workspace.label(neighbor, distance + weight, current);
+                        minHeap.insertOrDecrease(neighbor, distance + weight);
+                    }
+                }
+            }
+            settled += workspace.settledCount();
+
+            int[] path = workspace.pathTo(source, target);
+            if (path.length == 0) break;
+            accepted.offer(path);
+            for (int i = 0; i + 1 < path.length; i++) {
+                factors.merge(edgeKey(path[i], path[i + 1]), 1 + penalty, (a, b) -> a * b);
+            }
+        }
+        return accepted.result(settled);
+    }
+
+    /**
+     * Yen's k shortest loopless paths, accepting those within the overlap limit in cost order.
+     * One reverse tree from the target gives exact lower bounds that guide every spur search.
+     */
+    public static Result yen(CompactGraph graph, int source, int target, int k, double maxOverlap) {
+        Accepted accepted = new Accepted(graph, k, maxOverlap);
+        if (source < 0 || target < 0 || k <= 0) return accepted.result(0);
+
+        double[] toTarget = new double[graph.getNodeCount()];
+        Dijkstra.fillDistances(graph, target, true, toTarget);
+        if (toTarget[source] == Double.MAX_VALUE) return accepted.result(0);
+        SearchWorkspace first = spurSearch(graph, source, target, toTarget, new int[0], 0, new int[0], 0);
+        int settled = first.settledCount();
+        int[] shortest = first.pathTo(source, target);
+
+        List<int[]> found = new ArrayList<>();                    // every path popped, in cost order
+        PriorityQueue<Route> candidates = new PriorityQueue<>(Comparator.comparingDouble(Route::getCost));
+        Set<List<Integer>> seen = new HashSet<>();
+        seen.add(toList(shortest));
+        candidates.add(new Route(shortest, pathCost(graph, shortest), 0));
+
+        int[] blockedNodes = new int[16];
+        int[] blockedTargets = new int[16];
+        while (!accepted.isFull() && !candidates.isEmpty() && found.size() < k * CANDIDATES_PER_ROUTE) {
+            int[] path = candidates.poll().path;
+            found.add(path);
+            accepted.offer(path);
+            if (accepted.isFull()) break;
+
+            // Spur from each node of the new path, off every known path sharing its root
+            double rootCost = 0;
+            for (int i = 0; i + 1 < path.length; i++) {
+                int spur = path[i];
+                int targetsBlocked = 0;
+                for (int[] known : found) {
+                    if (known.length > i + 1 && Arrays.equals(known, 0, i + 1, path, 0, i + 1)) {
+                        if (targetsBlocked == blockedTargets.length) {
+                            blockedTargets = Arrays.copyOf(blockedTargets, targetsBlocked * 2);
+                        }
+                        blockedTargets[targetsBlocked++] = known[i + 1];
+                    }
+                }
+                if (i >= blockedNodes.length) blockedNodes = Arrays.copyOf(blockedNodes, i * 2);
+                if (i > 0) blockedNodes[i - 1] = path[i - 1];
+
+                SearchWorkspace workspace = spurSearch(graph, spur, target, toTarget, blockedNodes, i,
+                                                       blockedTargets, targetsBlocked);
+                settled += workspace.settledCount();
+                int[] spurPath = workspace.pathTo(spur, target);
+                if (spurPath.length > 0) {
+                    int[] candidate = new int[i + spurPath.length];
+                    System.arraycopy(path, 0, candidate, 0, i);
+                    System.arraycopy(spurPath, 0, candidate, i, spurPath.length);
+                    if (seen.add(toList(candidate))) {
+                        candidates.add(new Route(candidate, rootCost + workspace.distance(target), 0));
+                    }
+                }
+                rootCost += edgeCost(graph, path[i], path[i + 1]);
+            }
+        }
+        return accepted.result(settled);
+    }
+
+    /**
+     * Routes of first, then of second, re-filtered together (e.g. plateaus topped up by yen)
+     */
+    public static Result combine(CompactGraph graph, Result first, Result second, int k, double maxOverlap) {
+        Accepted accepted = new Accepted(graph, k, maxOverlap);
+        for (Route route : first.routes) accepted.offer(route.path);
+        for (Route route : second.routes) accepted.offer(route.path);
+        return accepted.result(first.nodesSettled + second.nodesSettled);
+    }
+
+    /**
+     * A* from root to target under the exact unblocked distances to the target (a consistent
+     * lower bound once nodes are blocked); never enters blocked nodes, never takes root -> blocked target
+     */
+    private static SearchWorkspace spurSearch(CompactGraph graph, int root, int target, double[] toTarget,
+                                              int[] blockedNodes, int nodesBlocked,
+                                              int[] blockedTargets, int targetsBlocked) {
+        SearchWorkspace workspace = SearchWorkspace.forward(graph);
+        Dijkstra.IndexedDaryHeap minHeap = workspace.heap();
+        for (int i = 0; i < nodesBlocked; i++) workspace.mark(blockedNodes[i]);
+        workspace.label(root, 0.0, -1);
+        minHeap.insertOrDecrease(root, toTarget[root]);
+
+        while (!minHeap.isEmpty()) {
+            int current = minHeap.extractMin();
+            workspace.settle(current);
+            if (current == target) break;
+            double distance = workspace.distance(current);
+            edges:
+            for (int e = graph.edgeStart(current), end = graph.edgeEnd(current); e < end; e++) {
+                int neighbor = graph.target(e);
+                if (workspace.isSettled(neighbor) || workspace.isMarked(neighbor)
+                    || toTarget[neighbor] == Double.MAX_VALUE) {
+                    continue;
+                }
+                if (current == root) {
+                    for (int i = 0; i < targetsBlocked; i++) {
+                        if (blockedTargets[i] == neighbor) continue edges;
+                    }
+                }
+                double newDistance = distance + graph.dynamicWeight(current, e);
+                if (newDistance < workspace.distance(neighbor)) {
+                    workspace.label(neighbor, newDistance, current);
+                    minHeap.insertOrDecrease(neighbor, newDistance + toTarget[neighbor]);
+                }
+            }
+        }
+        return workspace;
+    }
+
+    /**
+     * Forward Dijkstra that runs past the target until MAX_STRETCH over its distance
+     * @return the target's distance, Double.MAX_VALUE if not reached
+     */
+    private static double grow(CompactGraph graph, SearchWorkspace workspace, int root, int target) {
+        Dijkstra.IndexedDaryHeap minHeap = workspace.heap();
+        workspace.label(root, 0.0, -1);
+        minHeap.insertOrDecrease(root, 0.0);
+        double targetDistance = Double.MAX_VALUE;
+        double bound = Double.MAX_VALUE;
+
+        while (!minHeap.isEmpty()) {
+            int current = minHeap.extractMin();
+            double distance = workspace.distance(current);
+            if (distance > bound) break;
+            workspace.settle(current);
+            if (current == target) {
+                targetDistance = distance;
+                bound = distance * (1 + MAX_STRETCH);
+            }
+            for (int e = graph.edgeStart(current), end = graph.edgeEnd(current); e < end; e++) {
+                int neighbor = graph.target(e);
+                if (workspace.isSettled(neighbor)) continue;
+                double newDistance = distance + graph.dynamicWeight(current, e);
+                if (newDistance < workspace.distance(neighbor)) {
+                    workspace.label(neighbor, newDistance, current);
+                    minHeap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+        }
+        return targetDistance;
+    }
+
+    /**
+     * Routes accepted so far: a new loopless path is kept if it is not a repeat and its
+     * sharing with every accepted route is within the limit
+     */
+    private static final class Accepted {
+        private final CompactGraph graph;
+        private final int k;
+        private final double maxOverlap;
+        private final List<Route> routes = new ArrayList<>();
+        private final List<Set<Long>> routeEdges = new ArrayList<>();
+
+        Accepted(CompactGraph graph, int k, double maxOverlap) {
+            this.graph = graph;
+            this.k = k;
+            this.maxOverlap = maxOverlap;
+        }
+
+        boolean isFull() {
+            return routes.size() >= k;
+        }
+
+        void offer(int[] path) {
+            if (isFull() || path.length == 0 || !isSimple(path)) return;
+            double cost = pathCost(graph, path);
+            double overlap = 0;
+            for (int r = 0; r < routes.size(); r++) {
+                if (Arrays.equals(path, routes.get(r).path)) return;
+                Set<Long> edges = routeEdges.get(r);
+                double shared = 0;
+                for (int i = 0; i + 1 < path.length; i++) {
+                    if (edges.contains(edgeKey(path[i], path[i + 1]))) shared += edgeCost(graph, path[i], path[i + 1]);
+                }
+                overlap = Math.max(overlap, cost > 0 ? shared / cost : 1.0);
+            }
+            if (overlap > maxOverlap) return;
+
+            Set<Long> edges = new HashSet<>();
+            for (int i = 0; i + 1 < path.length; i++) edges.add(edgeKey(path[i], path[i + 1]));
+            routes.add(new Route(path, cost, overlap));
+            routeEdges.add(edges);
+        }
+
+        Result result(int nodesSettled) {
+            return new Result(routes, nodesSettled);
+        }
+    }
+
+    /**
+     * Share of a path's cost on edges of another path
+     */
+    public static double overlap(CompactGraph graph, int[] path, int[] other) {
+        Set<Long> edges = new HashSet<>();
+        for (int i = 0; i + 1 < other.length; i++) edges.add(edgeKey(other[i], other[i + 1]));
+        double shared = 0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            if (edges.contains(edgeKey(path[i], path[i + 1]))) shared += edgeCost(graph, path[i], path[i + 1]);
+        }
+        double cost = pathCost(graph, path);
+        return cost > 0 ? shared / cost : 1.0;
+    }
+
+    public static double pathCost(CompactGraph graph, int[] path) {
+        double cost = 0;
+        for (int i = 0; i + 1 < path.length; i++) cost += edgeCost(graph, path[i], path[i + 1]);
+        return cost;
+    }
+
+    /**
+     * Cheapest of the (contiguous) parallel edges from -> to, Double.MAX_VALUE if there is none
+     */
+    private static double edgeCost(CompactGraph graph, int from, int to) {
+        double cost = Double.MAX_VALUE;
+        int e = graph.findEdge(from, to);
+        if (e < 0) return cost;
+        for (int end = graph.edgeEnd(from); e < end && graph.target(e) == to; e++) {
+            cost = Math.min(cost, graph.dynamicWeight(from, e));
+        }
+        return cost;
+    }
+
+    private static boolean isSimple(int[] path) {
+        Set<Integer> visited = new HashSet<>();
+        for (int v : path) {
+            if (!visited.add(v)) return false;
+        }
+        return true;
+    }
+
+    private static long edgeKey(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    private static List<Integer> toList(int[] path) {
+        List<Integer> list = new ArrayList<>(path.length);
+        for (int v : path) list.add(v);
+        return list;
+    }
+}
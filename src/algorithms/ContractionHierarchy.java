@@ -0,0 +1,691 @@
+package algorithms;
+
+import models.CompactGraph;
+import java.util.*;
+
+/**
+ * Contraction Hierarchies over a CompactGraph
+ *
+ * Preprocessing contracts nodes one at a time in order of priority
+ * (edge difference + contracted neighbors + hierarchy depth). Contracting v
+ * adds a shortcut u -> w for every pair of remaining neighbors whose shortest
+ * path runs through v; a bounded witness search skips shortcuts when another
+ * path is at least as short. Queries are a bidirectional Dijkstra that only
+ * relaxes edges towards higher-ranked nodes (with stall-on-demand), and
+ * shortcuts are unpacked recursively to recover the full node path.
+ *
+ * Weights are the graph's traffic-adjusted weights at build time; rebuild
+ * the hierarchy after traffic changes. Queries are thread-safe (each thread
+ * gets its own search workspace).
+ */
+public class ContractionHierarchy {
+    // Witness searches give up after settling this many nodes (a missed
+    // witness only costs an unnecessary shortcut, never a wrong answer)
+    private static final int CONTRACTION_SETTLE_LIMIT = 100;
+    private static final int ESTIMATE_SETTLE_LIMIT = 10;
+
+    private final CompactGraph graph;
+    private final int nodeCount;
+    private final int[] rank;           // contraction order of each dense index
+
+    // Edge store: original edges followed by shortcuts
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final int[] edgeFirst;      // first half of a shortcut, -1 for original edges
+    private final int[] edgeSecond;     // second half of a shortcut
+    private final int shortcutCount;
+
+    // Upward edges out of each node, and edges into each node from higher ranks (CSR,
+    // with the far endpoint and weight inline so queries don't chase edge IDs)
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upEdges;
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final double[] downWeights;
+    private final int[] downEdges;
+
+    private final long preprocessingNanos;
+    private final ThreadLocal<QueryWorkspace> workspaces;
+
+    /**
+     * Result of a hierarchy query (node IDs, like AStar.AStarResult)
+     */
+    public static class Result {
+        private final List<Integer> path;
+        private final double distance;
+        private final int nodesSettled;
+
+        public Result(List<Integer> path, double distance, int nodesSettled) {
+            this.path = path;
+            this.distance = distance;
+            this.nodesSettled = nodesSettled;
+        }
+
+        public List<Integer> getPath() { return path; }
+        public double getDistance() { return distance; }
+        public int getNodesSettled() { return nodesSettled; }
+        public boolean isPathFound() { return !path.isEmpty(); }
+    }
+
+    private ContractionHierarchy(CompactGraph graph, Contractor contractor, long preprocessingNanos) {
+        this.graph = graph;
+        this.nodeCount = graph.getNodeCount();
+        this.rank = contractor.rank;
+        this.edgeFrom = Arrays.copyOf(contractor.edgeFrom, contractor.edgeCount);
+        this.edgeTo = Arrays.copyOf(contractor.edgeTo, contractor.edgeCount);
+        this.edgeFirst = Arrays.copyOf(contractor.edgeFirst, contractor.edgeCount);
+        this.edgeSecond = Arrays.copyOf(contractor.edgeSecond, contractor.edgeCount);
+        this.shortcutCount = contractor.edgeCount - contractor.originalEdgeCount;
+        this.preprocessingNanos = preprocessingNanos;
+
+        // What a node still had when it was contracted connects it to higher ranks only
+        upOffsets = new int[nodeCount + 1];
+        downOffsets = new int[nodeCount + 1];
+        for (int v = 0; v < nodeCount; v++) {
+            upOffsets[v + 1] = upOffsets[v] + contractor.outSize[v];
+            downOffsets[v + 1] = downOffsets[v] + contractor.inSize[v];
+        }
+
+        upTargets = new int[upOffsets[nodeCount]];
+        upWeights = new double[upOffsets[nodeCount]];
+        upEdges = new int[upOffsets[nodeCount]];
+        downSources = new int[downOffsets[nodeCount]];
+        downWeights = new double[downOffsets[nodeCount]];
+        downEdges = new int[downOffsets[nodeCount]];
+        for (int v = 0; v < nodeCount; v++) {
+            System.arraycopy(contractor.outNode[v], 0, upTargets, upOffsets[v], contractor.outSize[v]);
+            System.arraycopy(contractor.outWeight[v], 0, upWeights, upOffsets[v], contractor.outSize[v]);
+            System.arraycopy(contractor.outEdge[v], 0, upEdges, upOffsets[v], contractor.outSize[v]);
+            System.arraycopy(contractor.inNode[v], 0, downSources, downOffsets[v], contractor.inSize[v]);
+            System.arraycopy(contractor.inWeight[v], 0, downWeights, downOffsets[v], contractor.inSize[v]);
+            System.arraycopy(contractor.inEdge[v], 0, downEdges, downOffsets[v], contractor.inSize[v]);
+        }
+
+        this.workspaces = ThreadLocal.withInitial(() -> new QueryWorkspace(nodeCount));
+    }
+
+    /**
+     * Contract every node of the graph (uses the current traffic-adjusted weights)
+     */
+    public static ContractionHierarchy build(CompactGraph graph) {
+        long startTime = System.nanoTime();
+        Contractor contractor = new Contractor(graph);
+        contractor.contractAll();
+        return new ContractionHierarchy(graph, contractor, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Shortest path between two dense indices
+     */
+    public Result findPath(int sourceIndex, int targetIndex) {
+        if (sourceIndex < 0 || targetIndex < 0 || sourceIndex >= nodeCount || targetIndex >= nodeCount) {
+            return new Result(new ArrayList<>(), Double.MAX_VALUE, 0);
+        }
+
+        QueryWorkspace ws = workspaces.get();
+        int meet = search(ws, sourceIndex, targetIndex);
+        if (meet < 0) {
+            return new Result(new ArrayList<>(), Double.MAX_VALUE, ws.settled);
+        }
+        return new Result(graph.toNodeIds(unpack(ws, sourceIndex, meet)), ws.bestDistance, ws.settled);
+    }
+
+    /**
+     * Shortest path distance only (no unpacking), Double.MAX_VALUE if unreachable
+     */
+    public double distance(int sourceIndex, int targetIndex) {
+        if (sourceIndex < 0 || targetIndex < 0 || sourceIndex >= nodeCount || targetIndex >= nodeCount) {
+            return Double.MAX_VALUE;
+        }
+        QueryWorkspace ws = workspaces.get();
+        return search(ws, sourceIndex, targetIndex) < 0 ? Double.MAX_VALUE : ws.bestDistance;
+    }
+
+    /**
+     * Bidirectional upward search; returns the meeting node or -1
+     */
+    private int search(QueryWorkspace ws, int source, int target) {
+        ws.reset();
+        ws.setForward(source, 0.0, -1);
+        ws.setBackward(target, 0.0, -1);
+        ws.forwardHeap.insertOrDecrease(source, 0.0);
+        ws.backwardHeap.insertOrDecrease(target, 0.0);
+
+        while (true) {
+            double forwardMin = ws.forwardHeap.isEmpty() ? Double.MAX_VALUE : ws.forwardHeap.minKey();
+            double backwardMin = ws.backwardHeap.isEmpty() ? Double.MAX_VALUE : ws.backwardHeap.minKey();
+            if (Math.min(forwardMin, backwardMin) >= ws.bestDistance) break;
+
+            if (forwardMin <= backwardMin) {
+                settleForward(ws, ws.forwardHeap.extractMin(), forwardMin);
+            } else {
+                settleBackward(ws, ws.backwardHeap.extractMin(), backwardMin);
+            }
+        }
+        return ws.meetingNode;
+    }
+
+    private void settleForward(QueryWorkspace ws, int v, double distance) {
+        ws.settled++;
+        if (ws.hasBackward(v) && distance + ws.backwardDistance[v] < ws.bestDistance) {
+            ws.bestDistance = distance + ws.backwardDistance[v];
+            ws.meetingNode = v;
+        }
+
+        // Stall-on-demand: a higher node already offers a shorter way into v
+        for (int i = downOffsets[v]; i < downOffsets[v + 1]; i++) {
+            int u = downSources[i];
+            if (ws.hasForward(u) && ws.forwardDistance[u] + downWeights[i] < distance) return;
+        }
+
+        for (int i = upOffsets[v]; i < upOffsets[v + 1]; i++) {
+            int w = upTargets[i];
+            double candidate = distance + upWeights[i];
+            if (!ws.hasForward(w) || candidate < ws.forwardDistance[w]) {
+                ws.setForward(w, candidate, upEdges[i]);
+                ws.forwardHeap.insertOrDecrease(w, candidate);
+            }
+        }
+    }
+
+    private void settleBackward(QueryWorkspace ws, int v, double distance) {
+        ws.settled++;
+        if (ws.hasForward(v) && distance + ws.forwardDistance[v] < ws.bestDistance) {
+            ws.bestDistance = distance + ws.forwardDistance[v];
+            ws.meetingNode = v;
+        }
+
+        for (int i = upOffsets[v]; i < upOffsets[v + 1]; i++) {
+            int w = upTargets[i];
+            if (ws.hasBackward(w) && ws.backwardDistance[w] + upWeights[i] < distance) return;
+        }
+
+        for (int i = downOffsets[v]; i < downOffsets[v + 1]; i++) {
+            int u = downSources[i];
+            double candidate = distance + downWeights[i];
+            if (!ws.hasBackward(u) || candidate < ws.backwardDistance[u]) {
+                ws.setBackward(u, candidate, downEdges[i]);
+                ws.backwardHeap.insertOrDecrease(u, candidate);
+            }
+        }
+    }
+
+    /**
+     * Full dense-index path source -> meet -> target with all shortcuts expanded
+     */
+    private int[] unpack(QueryWorkspace ws, int source, int meet) {
+        // Hierarchy edges in path order
+        List<Integer> edges = new ArrayList<>();
+        for (int v = meet; ws.forwardEdge[v] >= 0; v = edgeFrom[ws.forwardEdge[v]]) {
+            edges.add(ws.forwardEdge[v]);
+        }
+        Collections.reverse(edges);
+        for (int v = meet; ws.backwardEdge[v] >= 0; v = edgeTo[ws.backwardEdge[v]]) {
+            edges.add(ws.backwardEdge[v]);
+        }
+
+        int[] path = new int[16];
+        int length = 0;
+        path[length++] = source;
+        int[] stack = new int[32];
+        for (int edge : edges) {
+            int top = 0;
+            stack[top++] = edge;
+            while (top > 0) {
+                int e = stack[--top];
+                if (edgeFirst[e] < 0) {
+                    if (length == path.length) path = Arrays.copyOf(path, length * 2);
+                    path[length++] = edgeTo[e];
+                } else {
+                    if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                    stack[top++] = edgeSecond[e];
+                    stack[top++] = edgeFirst[e];
+                }
+            }
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    public CompactGraph getGraph() { return graph; }
+    public int getNodeCount() { return nodeCount; }
+    public int getShortcutCount() { return shortcutCount; }
+    public long getPreprocessingNanos() { return preprocessingNanos; }
+    public int rank(int index) { return rank[index]; }
+
+    /**
+     * Per-thread query state; generation stamps avoid clearing O(n) arrays per query
+     */
+    private static class QueryWorkspace {
+        final double[] forwardDistance;
+        final double[] backwardDistance;
+        final int[] forwardEdge;
+        final int[] backwardEdge;
+        final int[] forwardStamp;
+        final int[] backwardStamp;
+        final Dijkstra.IndexedDaryHeap forwardHeap;
+        final Dijkstra.IndexedDaryHeap backwardHeap;
+        int generation;
+        double bestDistance;
+        int meetingNode;
+        int settled;
+
+        QueryWorkspace(int n) {
+            forwardDistance = new double[n];
+            backwardDistance = new double[n];
+            forwardEdge = new int[n];
+            backwardEdge = new int[n];
+            forwardStamp = new int[n];
+            backwardStamp = new int[n];
+            forwardHeap = new Dijkstra.IndexedDaryHeap(n);
+            backwardHeap = new Dijkstra.IndexedDaryHeap(n);
+        }
+
+        void reset() {
+            if (++generation == 0) {
+                Arrays.fill(forwardStamp, 0);
+                Arrays.fill(backwardStamp, 0);
+                generation = 1;
+            }
+            forwardHeap.clear();
+            backwardHeap.clear();
+            bestDistance = Double.MAX_VALUE;
+            meetingNode = -1;
+            settled = 0;
+        }
+
+        boolean hasForward(int v) { return forwardStamp[v] == generation; }
+        boolean hasBackward(int v) { return backwardStamp[v] == generation; }
+
+        void setForward(int v, double distance, int edge) {
+            forwardStamp[v] = generation;
+            forwardDistance[v] = distance;
+            forwardEdge[v] = edge;
+        }
+
+        void setBackward(int v, double distance, int edge) {
+            backwardStamp[v] = generation;
+            backwardDistance[v] = distance;
+            backwardEdge[v] = edge;
+        }
+    }
+
+    /**
+     * Mutable preprocessing state
+     */
+    private static class Contractor {
+        final int n;
+        final int[] rank;
+        final boolean[] contracted;
+        final int[] contractedNeighbors;
+        final int[] level;              // depth of the hierarchy below each node
+
+        // Edge store
+        int[] edgeFrom, edgeTo, edgeFirst, edgeSecond;
+        double[] edgeWeight;
+        int edgeCount;
+        final int originalEdgeCount;
+
+        // Adjacency among uncontracted nodes (edge ID, far endpoint, weight). A contracted
+        // node is detached from its neighbors but keeps its own lists: those are exactly
+        // its edges to higher ranks.
+        final int[][] outEdge, outNode, inEdge, inNode;
+        final double[][] outWeight, inWeight;
+        final int[] outSize, inSize;
+
+        // Witness search state
+        final double[] witnessDistance;
+        final int[] witnessStamp;
+        int witnessGeneration;
+        double[] heapKeys = new double[64];     // witness queue: binary heap with lazy deletion
+        int[] heapNodes = new int[64];
+        int heapSize;
+
+        // Neighbors of the node being processed, one entry (cheapest edge) per node
+        final int[] neighborMark;
+        int markGeneration;
+        int[] inNodes = new int[16], inEdges = new int[16];
+        int[] outNodes = new int[16], outEdges = new int[16];
+        int inCount, outCount;
+
+        Contractor(CompactGraph graph) {
+            n = graph.getNodeCount();
+            rank = new int[n];
+            contracted = new boolean[n];
+            contractedNeighbors = new int[n];
+            level = new int[n];
+
+            int capacity = Math.max(16, graph.getEdgeCount() * 2);
+            edgeFrom = new int[capacity];
+            edgeTo = new int[capacity];
+            edgeFirst = new int[capacity];
+            edgeSecond = new int[capacity];
+            edgeWeight = new double[capacity];
+
+            outEdge = new int[n][];
+            outNode = new int[n][];
+            outWeight = new double[n][];
+            inEdge = new int[n][];
+            inNode = new int[n][];
+            inWeight = new double[n][];
+            outSize = new int[n];
+            inSize = new int[n];
+            for (int v = 0; v < n; v++) {
+                int capacityOut = Math.max(2, graph.degree(v));
+                outEdge[v] = new int[capacityOut];
+                outNode[v] = new int[capacityOut];
+                outWeight[v] = new double[capacityOut];
+                inEdge[v] = new int[4];
+                inNode[v] = new int[4];
+                inWeight[v] = new double[4];
+            }
+
+            for (int u = 0; u < n; u++) {
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                    int w = graph.target(e);
+                    if (w != u) addEdge(u, w, graph.dynamicWeight(u, e), -1, -1);
+                }
+            }
+            originalEdgeCount = edgeCount;
+
+            witnessDistance = new double[n];
+            witnessStamp = new int[n];
+            neighborMark = new int[n];
+        }
+
+        void contractAll() {
+            Dijkstra.IndexedDaryHeap queue = new Dijkstra.IndexedDaryHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.insertOrDecrease(v, priority(v));
+            }
+
+            int order = 0;
+            int[] touched = new int[16];
+            while (!queue.isEmpty()) {
+                int v = queue.extractMin();
+
+                // Lazy update: re-evaluate and requeue if v is no longer the best choice
+                double current = priority(v);
+                if (!queue.isEmpty() && current > queue.minKey()) {
+                    queue.insertOrDecrease(v, current);
+                    continue;
+                }
+
+                processNode(v, true, CONTRACTION_SETTLE_LIMIT);
+                contracted[v] = true;
+                rank[v] = order++;
+                detach(v);
+
+                // Neighbors lost an edge and gained shortcuts: refresh their priorities
+                int touchedCount = 0;
+                markGeneration++;
+                if (touched.length < inCount + outCount) touched = new int[(inCount + outCount) * 2];
+                for (int i = 0; i < inCount; i++) {
+                    neighborMark[inNodes[i]] = markGeneration;
+                    touched[touchedCount++] = inNodes[i];
+                }
+                for (int i = 0; i < outCount; i++) {
+                    if (neighborMark[outNodes[i]] != markGeneration) touched[touchedCount++] = outNodes[i];
+                }
+                for (int i = 0; i < touchedCount; i++) {
+                    int u = touched[i];
+                    contractedNeighbors[u]++;
+                    level[u] = Math.max(level[u], level[v] + 1);
+                }
+                for (int i = 0; i < touchedCount; i++) {
+                    queue.update(touched[i], priority(touched[i]));
+                }
+            }
+        }
+
+        /**
+         * Edge difference (shortcuts added - edges removed) plus contracted neighbors and depth
+         */
+        double priority(int v) {
+            int shortcuts = processNode(v, false, ESTIMATE_SETTLE_LIMIT);
+            return shortcuts - (inCount + outCount) + contractedNeighbors[v] + level[v];
+        }
+
+        /**
+         * Count (and if apply, add) the shortcuts needed to contract v
+         */
+        int processNode(int v, boolean apply, int settleLimit) {
+            gatherNeighbors(v);
+            int shortcuts = 0;
+
+            double maxOut = 0;
+            for (int j = 0; j < outCount; j++) maxOut = Math.max(maxOut, edgeWeight[outEdges[j]]);
+
+            for (int i = 0; i < inCount; i++) {
+                int u = inNodes[i];
+                double viaWeight = edgeWeight[inEdges[i]];
+                int targets = neighborMark[u] == markGeneration ? outCount - 1 : outCount;
+                if (targets == 0) continue;
+                witnessSearch(u, v, viaWeight + maxOut, targets, settleLimit);
+
+                for (int j = 0; j < outCount; j++) {
+                    int w = outNodes[j];
+                    if (w == u) continue;
+
+                    double shortcutWeight = viaWeight + edgeWeight[outEdges[j]];
+                    boolean witnessed = witnessStamp[w] == witnessGeneration && witnessDistance[w] <= shortcutWeight;
+                    if (!witnessed) {
+                        shortcuts++;
+                        if (apply) addShortcut(u, w, shortcutWeight, inEdges[i], outEdges[j]);
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Fill inNodes/outNodes with v's neighbors; afterwards neighborMark
+         * flags the out-neighbors with the current markGeneration
+         */
+        private void gatherNeighbors(int v) {
+            inCount = 0;
+            markGeneration++;
+            for (int i = 0; i < inSize[v]; i++) {
+                int u = inNode[v][i];
+                int e = inEdge[v][i];
+                if (neighborMark[u] == markGeneration) {
+                    for (int k = 0; k < inCount; k++) {
+                        if (inNodes[k] == u && edgeWeight[e] < edgeWeight[inEdges[k]]) inEdges[k] = e;
+                    }
+                    continue;
+                }
+                neighborMark[u] = markGeneration;
+                if (inCount == inNodes.length) {
+                    inNodes = Arrays.copyOf(inNodes, inCount * 2);
+                    inEdges = Arrays.copyOf(inEdges, inCount * 2);
+                }
+                inNodes[inCount] = u;
+                inEdges[inCount++] = e;
+            }
+
+            outCount = 0;
+            markGeneration++;
+            for (int i = 0; i < outSize[v]; i++) {
+                int w = outNode[v][i];
+                int e = outEdge[v][i];
+                if (neighborMark[w] == markGeneration) {
+                    for (int k = 0; k < outCount; k++) {
+                        if (outNodes[k] == w && edgeWeight[e] < edgeWeight[outEdges[k]]) outEdges[k] = e;
+                    }
+                    continue;
+                }
+                neighborMark[w] = markGeneration;
+                if (outCount == outNodes.length) {
+                    outNodes = Arrays.copyOf(outNodes, outCount * 2);
+                    outEdges = Arrays.copyOf(outEdges, outCount * 2);
+                }
+                outNodes[outCount] = w;
+                outEdges[outCount++] = e;
+            }
+        }
+
+        /**
+         * Bounded Dijkstra from u over uncontracted nodes, never passing through v.
+         * Stops early once all of v's out-neighbors are settled.
+         */
+        private void witnessSearch(int u, int v, double limit, int targets, int settleLimit) {
+            witnessGeneration++;
+            heapSize = 0;
+            witnessStamp[u] = witnessGeneration;
+            witnessDistance[u] = 0.0;
+            push(u, 0.0);
+
+            int settled = 0;
+            while (heapSize > 0 && settled < settleLimit) {
+                double distance = heapKeys[0];
+                if (distance > limit) break;
+                int x = pop();
+                if (distance > witnessDistance[x]) continue;  // stale entry
+                settled++;
+                if (neighborMark[x] == markGeneration && x != u && --targets == 0) break;
+
+                int[] nodes = outNode[x];
+                double[] weights = outWeight[x];
+                for (int i = 0; i < outSize[x]; i++) {
+                    int y = nodes[i];
+                    if (y == v) continue;
+
+                    double candidate = distance + weights[i];
+                    if (witnessStamp[y] != witnessGeneration || candidate < witnessDistance[y]) {
+                        witnessStamp[y] = witnessGeneration;
+                        witnessDistance[y] = candidate;
+                        push(y, candidate);
+                    }
+                }
+            }
+        }
+
+        private void push(int node, double key) {
+            if (heapSize == heapKeys.length) {
+                heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+                heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapKeys[parent] <= key) break;
+                heapKeys[i] = heapKeys[parent];
+                heapNodes[i] = heapNodes[parent];
+                i = parent;
+            }
+            heapKeys[i] = key;
+            heapNodes[i] = node;
+        }
+
+        private int pop() {
+            int min = heapNodes[0];
+            double key = heapKeys[--heapSize];
+            int node = heapNodes[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) break;
+                if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) child++;
+                if (heapKeys[child] >= key) break;
+                heapKeys[i] = heapKeys[child];
+                heapNodes[i] = heapNodes[child];
+                i = child;
+            }
+            heapKeys[i] = key;
+            heapNodes[i] = node;
+            return min;
+        }
+
+        /**
+         * Add u -> w, replacing an existing u -> w edge only if the shortcut is cheaper
+         */
+        private void addShortcut(int u, int w, double weight, int first, int second) {
+            for (int i = 0; i < outSize[u]; i++) {
+                if (outNode[u][i] != w) continue;
+                if (outWeight[u][i] <= weight) return;
+
+                int old = outEdge[u][i];
+                int shortcut = newEdge(u, w, weight, first, second);
+                outEdge[u][i] = shortcut;
+                outWeight[u][i] = weight;
+                for (int k = 0; k < inSize[w]; k++) {
+                    if (inEdge[w][k] == old) {
+                        inEdge[w][k] = shortcut;
+                        inWeight[w][k] = weight;
+                        break;
+                    }
+                }
+                return;
+            }
+            addEdge(u, w, weight, first, second);
+        }
+
+        private void addEdge(int u, int w, double weight, int first, int second) {
+            int e = newEdge(u, w, weight, first, second);
+
+            if (outSize[u] == outEdge[u].length) {
+                int capacity = outSize[u] * 2;
+                outEdge[u] = Arrays.copyOf(outEdge[u], capacity);
+                outNode[u] = Arrays.copyOf(outNode[u], capacity);
+                outWeight[u] = Arrays.copyOf(outWeight[u], capacity);
+            }
+            outEdge[u][outSize[u]] = e;
+            outNode[u][outSize[u]] = w;
+            outWeight[u][outSize[u]++] = weight;
+
+            if (inSize[w] == inEdge[w].length) {
+                int capacity = inSize[w] * 2;
+                inEdge[w] = Arrays.copyOf(inEdge[w], capacity);
+                inNode[w] = Arrays.copyOf(inNode[w], capacity);
+                inWeight[w] = Arrays.copyOf(inWeight[w], capacity);
+            }
+            inEdge[w][inSize[w]] = e;
+            inNode[w][inSize[w]] = u;
+            inWeight[w][inSize[w]++] = weight;
+        }
+
+        private int newEdge(int u, int w, double weight, int first, int second) {
+            if (edgeCount == edgeFrom.length) {
+                int capacity = edgeCount * 2;
+                edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+                edgeTo = Arrays.copyOf(edgeTo, capacity);
+                edgeFirst = Arrays.copyOf(edgeFirst, capacity);
+                edgeSecond = Arrays.copyOf(edgeSecond, capacity);
+                edgeWeight = Arrays.copyOf(edgeWeight, capacity);
+            }
+            edgeFrom[edgeCount] = u;
+            edgeTo[edgeCount] = w;
+            edgeWeight[edgeCount] = weight;
+            edgeFirst[edgeCount] = first;
+            edgeSecond[edgeCount] = second;
+            return edgeCount++;
+        }
+
+        /**
+         * Remove v's edges from its neighbors' lists
+         */
+        private void detach(int v) {
+            for (int i = 0; i < inSize[v]; i++) {
+                int u = inNode[v][i];
+                removeEntry(outEdge[u], outNode[u], outWeight[u], outSize, u, inEdge[v][i]);
+            }
+            for (int i = 0; i < outSize[v]; i++) {
+                int w = outNode[v][i];
+                removeEntry(inEdge[w], inNode[w], inWeight[w], inSize, w, outEdge[v][i]);
+            }
+        }
+
+        private static void removeEntry(int[] edges, int[] nodes, double[] weights, int[] sizes, int owner, int edge) {
+            for (int i = 0; i < sizes[owner]; i++) {
+                if (edges[i] == edge) {
+                    int last = --sizes[owner];
+                    edges[i] = edges[last];
+                    nodes[i] = nodes[last];
+                    weights[i] = weights[last];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package algorithms;
 
 import models.CityMapNode;
+import models.CompactGraph;
 import java.util.*;
+import java.util.function.IntPredicate;
 
 public class Dijkstra {
     
@@ -118,6 +120,131 @@ public class Dijkstra {
         }
     }
     
+    /**
+     * Indexed 4-ary min-heap over dense node indices (for CompactGraph searches).
+     * Keys live in a primitive array and positions are tracked per index, so
+     * decrease-key needs no boxing or map lookups. A shallower tree than a binary
+     * heap means fewer sift-up levels on decrease-key, the common operation in
+     * road-network searches; sift-down compares four children that sit next to
+     * each other in memory.
+     */
+    public static class IndexedDaryHeap {
+        private static final int ARITY = 4;
+        
+        private final int[] heap;
+        private final int[] position; // -1 if not in heap
+        private final double[] keys;
+        private int size;
+        
+        public IndexedDaryHeap(int capacity) {
+            this.heap = new int[capacity];
+            this.position = new int[capacity];
+            this.keys = new double[capacity];
+            Arrays.fill(position, -1);
+        }
+        
+        /**
+         * Insert a node, or lower its key if it is already queued
+         */
+        public void insertOrDecrease(int node, double key) {
+            int index = position[node];
+            if (index < 0) {
+                index = size++;
+                heap[index] = node;
+                position[node] = index;
+                keys[node] = key;
+                siftUp(index);
+            } else if (key < keys[node]) {
+                keys[node] = key;
+                siftUp(index);
+            }
+        }
+        
+        public int extractMin() {
+            int min = heap[0];
+            int last = heap[--size];
+            position[min] = -1;
+            if (size > 0) {
+                heap[0] = last;
+                position[last] = 0;
+                siftDown(0);
+            }
+            return min;
+        }
+        
+        /**
+         * Set a queued node's key to any value (moves it up or down), or insert it
+         */
+        public void update(int node, double key) {
+            int index = position[node];
+            if (index < 0) {
+                insertOrDecrease(node, key);
+            } else if (key < keys[node]) {
+                keys[node] = key;
+                siftUp(index);
+            } else {
+                keys[node] = key;
+                siftDown(index);
+            }
+        }
+        
+        /**
+         * Empty the heap in O(size) so it can be reused for another search
+         */
+        public void clear() {
+            for (int i = 0; i < size; i++) {
+                position[heap[i]] = -1;
+            }
+            size = 0;
+        }
+        
+        public double minKey() { return keys[heap[0]]; }
+        public int peekMin() { return heap[0]; }
+        public boolean isEmpty() { return size == 0; }
+        public int size() { return size; }
+        public boolean contains(int node) { return position[node] >= 0; }
+        
+        private void siftUp(int index) {
+            int node = heap[index];
+            double key = keys[node];
+            while (index > 0) {
+                int parent = (index - 1) / ARITY;
+                int parentNode = heap[parent];
+                if (keys[parentNode] <= key) break;
+                heap[index] = parentNode;
+                position[parentNode] = index;
+                index = parent;
+            }
+            heap[index] = node;
+            position[node] = index;
+        }
+        
+        private void siftDown(int index) {
+            int node = heap[index];
+            double key = keys[node];
+            while (true) {
+                int first = ARITY * index + 1;
+                if (first >= size) break;
+                int child = first;
+                double childKey = keys[heap[first]];
+                for (int c = first + 1, end = Math.min(first + ARITY, size); c < end; c++) {
+                    double k = keys[heap[c]];
+                    if (k < childKey) {
+                        child = c;
+                        childKey = k;
+                    }
+                }
+                if (childKey >= key) break;
+                int childNode = heap[child];
+                heap[index] = childNode;
+                position[childNode] = index;
+                index = child;
+            }
+            heap[index] = node;
+            position[node] = index;
+        }
+    }
+    
     /**
      * Dijkstra's algorithm result container
      */
@@ -269,4 +396,305 @@ public class Dijkstra {
         
         return path.size() > 1 ? path : new ArrayList<>();
     }
+    
+    /**
+     * Single-source result over dense CompactGraph indices
+     */
+    public static class CompactResult {
+        private final double[] distances;
+        private final int[] predecessors;
+        private final int sourceIndex;
+        
+        public CompactResult(int sourceIndex, double[] distances, int[] predecessors) {
+            this.sourceIndex = sourceIndex;
+            this.distances = distances;
+            this.predecessors = predecessors;
+        }
+        
+        public double getDistance(int index) {
+            return distances[index];
+        }
+        
+        /**
+         * Path of dense indices from the source, empty if unreachable
+         */
+        public int[] getPath(int targetIndex) {
+            return reconstructPath(predecessors, sourceIndex, targetIndex);
+        }
+        
+        public int getSourceIndex() { return sourceIndex; }
+    }
+    
+    /**
+     * Single-source shortest paths over a CompactGraph (dense node indices)
+     */
+    public static CompactResult findShortestPaths(CompactGraph graph, int sourceIndex) {
+        int n = graph.getNodeCount();
+        SearchWorkspace workspace = search(graph, sourceIndex, -1);
+        
+        // The result outlives the workspace, so copy the labels out
+        double[] distances = new double[n];
+        int[] predecessors = new int[n];
+        for (int v = 0; v < n; v++) {
+            distances[v] = workspace.distance(v);
+            predecessors[v] = workspace.predecessor(v);
+        }
+        return new CompactResult(sourceIndex, distances, predecessors);
+    }
+    
+    /**
+     * Single target shortest path over a CompactGraph.
+     * Takes dense indices and returns node IDs, like the map-based version.
+     */
+    public static List<Integer> findShortestPath(CompactGraph graph, int sourceIndex, int targetIndex) {
+        int[] path = search(graph, sourceIndex, targetIndex).pathTo(sourceIndex, targetIndex);
+        return path.length > 1 ? graph.toNodeIds(path) : new ArrayList<>();
+    }
+    
+    /**
+     * Shortest distance between two dense indices (Double.MAX_VALUE if unreachable).
+     * Allocates nothing once this thread's workspace exists.
+     */
+    public static double shortestDistance(CompactGraph graph, int sourceIndex, int targetIndex) {
+        return search(graph, sourceIndex, targetIndex).distance(targetIndex);
+    }
+    
+    /**
+     * Shortest paths from one source to several targets with one search that stops once
+     * every target is settled. Dense index paths and distances go into caller-owned arrays
+     * (an empty path and Double.MAX_VALUE if unreachable); returns the number of nodes settled.
+     */
+    public static int findShortestPaths(CompactGraph graph, int sourceIndex, int[] targetIndices,
+                                        int[][] paths, double[] distances) {
+        SearchWorkspace workspace = SearchWorkspace.forward(graph);
+        IndexedDaryHeap minHeap = workspace.heap();
+        
+        int remaining = 0;
+        for (int target : targetIndices) {
+            if (target >= 0 && !workspace.isMarked(target)) {
+                workspace.mark(target);
+                remaining++;
+            }
+        }
+        workspace.label(sourceIndex, 0.0, -1);
+        minHeap.insertOrDecrease(sourceIndex, 0.0);
+        
+        while (remaining > 0 && !minHeap.isEmpty()) {
+            int current = minHeap.extractMin();
+            workspace.settle(current);
+            if (workspace.isMarked(current)) remaining--;
+            relaxEdges(graph, workspace, current, workspace.distance(current), false);
+        }
+        
+        for (int i = 0; i < targetIndices.length; i++) {
+            int target = targetIndices[i];
+            boolean reached = target >= 0 && workspace.isSettled(target);
+            paths[i] = reached ? workspace.pathTo(sourceIndex, target) : new int[0];
+            distances[i] = reached ? workspace.distance(target) : Double.MAX_VALUE;
+        }
+        return workspace.settledCount();
+    }
+    
+    /**
+     * Targets settled by a one-to-many search, nearest first (dense indices)
+     */
+    public static class TargetResult {
+        private final int[] targets;
+        private final double[] distances;
+        private final int nodesSettled;
+        
+        public TargetResult(int[] targets, double[] distances, int nodesSettled) {
+            this.targets = targets;
+            this.distances = distances;
+            this.nodesSettled = nodesSettled;
+        }
+        
+        public int size() { return targets.length; }
+        public int getTarget(int i) { return targets[i]; }
+        public double getDistance(int i) { return distances[i]; }
+        public int getNodesSettled() { return nodesSettled; }
+    }
+    
+    /**
+     * One search from sourceIndex towards a set of targets. Stops once k targets
+     * accepted by the filter are settled, or every target is settled; rejected
+     * and unreachable targets are left out. A null filter accepts every target.
+     */
+    public static TargetResult findNearestTargets(CompactGraph graph, int sourceIndex, int[] targetIndices,
+                                                  int k, IntPredicate accept) {
+        return searchTargets(graph, sourceIndex, targetIndices, k, accept, false);
+    }
+    
+    /**
+     * Like findNearestTargets, but searches incoming edges, so the distances run
+     * from each source to targetIndex (e.g. stations to a crime scene)
+     */
+    public static TargetResult findNearestSources(CompactGraph graph, int targetIndex, int[] sourceIndices,
+                                                  int k, IntPredicate accept) {
+        return searchTargets(graph, targetIndex, sourceIndices, k, accept, true);
+    }
+    
+    private static TargetResult searchTargets(CompactGraph graph, int rootIndex, int[] targetIndices,
+                                              int k, IntPredicate accept, boolean reverse) {
+        SearchWorkspace workspace = SearchWorkspace.forward(graph);
+        IndexedDaryHeap minHeap = workspace.heap();
+        
+        int remaining = 0;
+        for (int target : targetIndices) {
+            if (target >= 0 && !workspace.isMarked(target)) {
+                workspace.mark(target);
+                remaining++;
+            }
+        }
+        int limit = Math.max(0, Math.min(k, remaining));
+        int[] found = new int[limit];
+        double[] foundDistances = new double[limit];
+        int count = 0;
+        
+        if (rootIndex >= 0 && limit > 0) {
+            workspace.label(rootIndex, 0.0, -1);
+            minHeap.insertOrDecrease(rootIndex, 0.0);
+        }
+        
+        while (count < limit && remaining > 0 && !minHeap.isEmpty()) {
+            int current = minHeap.extractMin();
+            workspace.settle(current);
+            double currentDistance = workspace.distance(current);
+            
+            if (workspace.isMarked(current)) {
+                remaining--;
+                if (accept == null || accept.test(current)) {
+                    found[count] = current;
+                    foundDistances[count] = currentDistance;
+                    count++;
+                }
+            }
+            
+            relaxEdges(graph, workspace, current, currentDistance, reverse);
+        }
+        
+        return new TargetResult(Arrays.copyOf(found, count), Arrays.copyOf(foundDistances, count),
+                                workspace.settledCount());
+    }
+    
+    /**
+     * Full single-source search written into a caller-owned row (Double.MAX_VALUE if unreachable).
+     * With reverse set, row[v] is the distance from v to rootIndex instead.
+     * Allocates nothing once this thread's workspace exists.
+     */
+    public static void fillDistances(CompactGraph graph, int rootIndex, boolean reverse, double[] row) {
+        fillDistances(graph, rootIndex, reverse, true, row);
+    }
+    
+    /**
+     * @param includeTraffic Use traffic-adjusted weights, or the base weights (as FloydWarshall does without traffic)
+     */
+    public static void fillDistances(CompactGraph graph, int rootIndex, boolean reverse, boolean includeTraffic,
+                                     double[] row) {
+        SearchWorkspace workspace = SearchWorkspace.forward(graph);
+        IndexedDaryHeap minHeap = workspace.heap();
+        
+        workspace.label(rootIndex, 0.0, -1);
+        minHeap.insertOrDecrease(rootIndex, 0.0);
+        
+        while (!minHeap.isEmpty()) {
+            int current = minHeap.extractMin();
+            workspace.settle(current);
+            relaxEdges(graph, workspace, current, workspace.distance(current), reverse, includeTraffic);
+        }
+        
+        for (int v = 0, n = graph.getNodeCount(); v < n; v++) {
+            row[v] = workspace.distance(v);
+        }
+    }
+    
+    /**
+     * Relax the outgoing (or, with reverse, incoming) edges of a settled node
+     */
+    private static void relaxEdges(CompactGraph graph, SearchWorkspace workspace, int current,
+                                   double currentDistance, boolean reverse) {
+        relaxEdges(graph, workspace, current, currentDistance, reverse, true);
+    }
+    
+    /**
+     * @param includeTraffic Relax with traffic-adjusted weights, or with the base weights
+     */
+    private static void relaxEdges(CompactGraph graph, SearchWorkspace workspace, int current,
+                                   double currentDistance, boolean reverse, boolean includeTraffic) {
+        IndexedDaryHeap minHeap = workspace.heap();
+        if (reverse) {
+            for (int i = graph.inEdgeStart(current), end = graph.inEdgeEnd(current); i < end; i++) {
+                int neighbor = graph.inSource(i);
+                if (workspace.isSettled(neighbor)) continue;
+                
+                int edge = graph.inEdge(i);
+                double weight = includeTraffic ? graph.dynamicWeight(neighbor, edge) : graph.baseWeight(edge);
+                double newDistance = currentDistance + weight;
+                if (newDistance < workspace.distance(neighbor)) {
+                    workspace.label(neighbor, newDistance, current);
+                    minHeap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+        } else {
+            for (int e = graph.edgeStart(current), end = graph.edgeEnd(current); e < end; e++) {
+                int neighbor = graph.target(e);
+                if (workspace.isSettled(neighbor)) continue;
+                
+                double weight = includeTraffic ? graph.dynamicWeight(current, e) : graph.baseWeight(e);
+                double newDistance = currentDistance + weight;
+                if (newDistance < workspace.distance(neighbor)) {
+                    workspace.label(neighbor, newDistance, current);
+                    minHeap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Core CSR search loop on this thread's workspace; stops early once targetIndex is settled (-1 for none)
+     */
+    private static SearchWorkspace search(CompactGraph graph, int sourceIndex, int targetIndex) {
+        SearchWorkspace workspace = SearchWorkspace.forward(graph);
+        IndexedDaryHeap minHeap = workspace.heap();
+        
+        workspace.label(sourceIndex, 0.0, -1);
+        minHeap.insertOrDecrease(sourceIndex, 0.0);
+        
+        while (!minHeap.isEmpty()) {
+            int current = minHeap.extractMin();
+            workspace.settle(current);
+            
+            if (current == targetIndex) break;
+            
+            double currentDistance = workspace.distance(current);
+            for (int e = graph.edgeStart(current), end = graph.edgeEnd(current); e < end; e++) {
+                int neighbor = graph.target(e);
+                if (workspace.isSettled(neighbor)) continue;
+                
+                double newDistance = currentDistance + graph.dynamicWeight(current, e);
+                if (newDistance < workspace.distance(neighbor)) {
+                    workspace.label(neighbor, newDistance, current);
+                    minHeap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+        }
+        return workspace;
+    }
+    
+    /**
+     * Walk the predecessor array back from target; empty if target was not reached
+     */
+    static int[] reconstructPath(int[] predecessors, int sourceIndex, int targetIndex) {
+        int length = 1;
+        for (int v = targetIndex; v != sourceIndex; v = predecessors[v]) {
+            if (predecessors[v] < 0) return new int[0];
+            length++;
+        }
+        
+        int[] path = new int[length];
+        for (int v = targetIndex, i = length - 1; i >= 0; v = predecessors[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
 }
@@ -1,20 +1,39 @@
 package algorithms;
 
+import models.CompactGraph;
 import models.Graph;
 import models.Edge;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Floyd-Warshall algorithm implementation for finding shortest paths between all pairs of nodes
  * Time complexity: O(V^3)
  * Space complexity: O(V^2)
+ *
+ * Distances live in one flat row-major array and are computed in square tiles:
+ * for each diagonal tile, that tile first, then the rest of its tile row and
+ * column, then every remaining tile (the last two phases in parallel). The
+ * successor matrix for path reconstruction is only built when a path is
+ * first requested.
  */
 public class FloydWarshall {
-    private double[][] distances;
-    private int[][] next;
+    static final int TILE_SIZE = 64; // 64 x 64 doubles = 32 KB per tile
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    
+    private double[] distances;          // distances[from * nodeCount + to]
+    private volatile int[] next;         // successor matrix, same layout, built on demand
     private int nodeCount;
-    private Map<Integer, Integer> nodeToIndex;
-    private Map<Integer, Integer> indexToNode;
+    private int[] indexToNode;
+    private int[] nodeIndexTable;        // nodeId - minNodeId -> matrix index, -1 if absent
+    private int minNodeId;
+    private Map<Integer, Integer> sparseNodeIndex; // used instead of the table when IDs are spread out
+    
+    // Direct edges (cheapest per pair) over matrix indices, kept for successor reconstruction
+    private int[] edgeOffsets;
+    private int[] edgeTargets;
+    private double[] edgeWeights;
     
     /**
      * Constructor that initializes the Floyd-Warshall algorithm
@@ -26,7 +45,71 @@ public class FloydWarshall {
     }
     
     /**
-     * Initialize distance and next matrices from the graph
+     * Constructor that reads the CSR graph directly (no models.Graph copy).
+     * Edges keep their direction; parallel edges use the cheapest one.
+     * @param graph The compact graph to process
+     * @param includeTraffic Use traffic-adjusted weights instead of base weights
+     */
+    public FloydWarshall(CompactGraph graph, boolean includeTraffic) {
+        initializeMatrices(graph, includeTraffic);
+        computeShortestPaths();
+    }
+    
+    /**
+     * Initialize the distance matrix from the compact graph (matrix index = dense index)
+     */
+    private void initializeMatrices(CompactGraph graph, boolean includeTraffic) {
+        int[] nodeIds = new int[graph.getNodeCount()];
+        for (int i = 0; i < nodeIds.length; i++) {
+            nodeIds[i] = graph.nodeId(i);
+        }
+        allocateMatrices(nodeIds);
+        
+        for (int from = 0; from < nodeCount; from++) {
+            for (int e = graph.edgeStart(from); e < graph.edgeEnd(from); e++) {
+                double weight = includeTraffic ? graph.dynamicWeight(from, e) : graph.baseWeight(e);
+                addEdge(from, graph.target(e), weight);
+            }
+        }
+        collectEdges();
+    }
+    
+    /**
+     * Allocate the distance matrix (0 on the diagonal, infinity elsewhere) and the node index table
+     */
+    private void allocateMatrices(int[] nodeIds) {
+        nodeCount = nodeIds.length;
+        indexToNode = nodeIds;
+        distances = new double[nodeCount * nodeCount];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < nodeCount; i++) {
+            distances[i * nodeCount + i] = 0;
+        }
+        
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int nodeId : nodeIds) {
+            min = Math.min(min, nodeId);
+            max = Math.max(max, nodeId);
+        }
+        long range = nodeCount == 0 ? 0 : (long) max - min + 1;
+        if (range <= 4L * nodeCount + 1024) {
+            minNodeId = min;
+            nodeIndexTable = new int[(int) range];
+            Arrays.fill(nodeIndexTable, -1);
+            for (int i = 0; i < nodeCount; i++) {
+                nodeIndexTable[nodeIds[i] - min] = i;
+            }
+        } else {
+            sparseNodeIndex = new HashMap<>();
+            for (int i = 0; i < nodeCount; i++) {
+                sparseNodeIndex.put(nodeIds[i], i);
+            }
+        }
+    }
+    
+    /**
+     * Initialize the distance matrix from the graph
      */
     private void initializeMatrices(Graph graph) {
         // Get all nodes from the graph
@@ -37,66 +120,178 @@ public class FloydWarshall {
             }
         }
         
-        nodeCount = allNodes.size();
-        distances = new double[nodeCount][nodeCount];
-        next = new int[nodeCount][nodeCount];
-        nodeToIndex = new HashMap<>();
-        indexToNode = new HashMap<>();
-        
-        // Create mapping between node IDs and matrix indices
+        int[] nodeIds = new int[allNodes.size()];
         int index = 0;
         for (Integer nodeId : allNodes) {
-            nodeToIndex.put(nodeId, index);
-            indexToNode.put(index, nodeId);
-            index++;
+            nodeIds[index++] = nodeId;
         }
+        allocateMatrices(nodeIds);
         
-        // Initialize distance matrix with infinity
+        // Fill in direct edges
+        for (Map.Entry<Integer, List<Edge>> entry : graph.getAllEdges().entrySet()) {
+            int fromIndex = indexOf(entry.getKey());
+            for (Edge edge : entry.getValue()) {
+                addEdge(fromIndex, indexOf(edge.getDestination()), edge.getWeight());
+            }
+        }
+        collectEdges();
+    }
+    
+    private void addEdge(int from, int to, double weight) {
+        int cell = from * nodeCount + to;
+        if (from != to && weight < distances[cell]) {
+            distances[cell] = weight;
+        }
+    }
+    
+    /**
+     * Copy the direct edges out of the matrix before it is overwritten with path distances
+     */
+    private void collectEdges() {
+        edgeOffsets = new int[nodeCount + 1];
         for (int i = 0; i < nodeCount; i++) {
+            int row = i * nodeCount;
+            int count = 0;
             for (int j = 0; j < nodeCount; j++) {
-                if (i == j) {
-                    distances[i][j] = 0;
-                    next[i][j] = i;
-                } else {
-                    distances[i][j] = Double.POSITIVE_INFINITY;
-                    next[i][j] = -1;
+                if (j != i && distances[row + j] < Double.POSITIVE_INFINITY) count++;
+            }
+            edgeOffsets[i + 1] = edgeOffsets[i] + count;
+        }
+        
+        edgeTargets = new int[edgeOffsets[nodeCount]];
+        edgeWeights = new double[edgeOffsets[nodeCount]];
+        for (int i = 0, slot = 0; i < nodeCount; i++) {
+            int row = i * nodeCount;
+            for (int j = 0; j < nodeCount; j++) {
+                if (j != i && distances[row + j] < Double.POSITIVE_INFINITY) {
+                    edgeTargets[slot] = j;
+                    edgeWeights[slot] = distances[row + j];
+                    slot++;
                 }
             }
         }
+    }
+    
+    /**
+     * Compute shortest paths using the tiled Floyd-Warshall algorithm
+     */
+    private void computeShortestPaths() {
+        int tiles = (nodeCount + TILE_SIZE - 1) / TILE_SIZE;
+        ForkJoinPool pool = tiles > 1 && PARALLELISM > 1 ? new ForkJoinPool(PARALLELISM) : null;
+        
+        try {
+            for (int kt = 0; kt < tiles; kt++) {
+                // Phase 1: the diagonal tile only depends on itself
+                relaxTile(kt, kt, kt);
+                if (tiles == 1) break;
+                
+                // Phase 2: the rest of tile row and column kt, which only need the diagonal tile
+                runTiles(pool, new TileTask(kt, tiles, true, 0, 2 * (tiles - 1)));
+                
+                // Phase 3: every other tile, which only needs its row and column tile from phase 2
+                runTiles(pool, new TileTask(kt, tiles, false, 0, (tiles - 1) * (tiles - 1)));
+            }
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+    }
+    
+    private static void runTiles(ForkJoinPool pool, TileTask task) {
+        if (pool != null) {
+            pool.invoke(task);
+        } else {
+            task.compute();
+        }
+    }
+    
+    /**
+     * A range of tiles from phase 2 or phase 3 of one round, split in halves until small
+     */
+    private class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int TILES_PER_TASK = 4;
         
-        // Fill in direct edges
-        for (Map.Entry<Integer, List<Edge>> entry : graph.getAllEdges().entrySet()) {
-            int fromNode = entry.getKey();
-            int fromIndex = nodeToIndex.get(fromNode);
+        private final int kt;
+        private final int tiles;
+        private final boolean crossPhase;
+        private final int from;
+        private final int to;
+        
+        TileTask(int kt, int tiles, boolean crossPhase, int from, int to) {
+            this.kt = kt;
+            this.tiles = tiles;
+            this.crossPhase = crossPhase;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from > TILES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new TileTask(kt, tiles, crossPhase, from, mid),
+                          new TileTask(kt, tiles, crossPhase, mid, to));
+                return;
+            }
             
-            for (Edge edge : entry.getValue()) {
-                int toNode = edge.getDestination();
-                int toIndex = nodeToIndex.get(toNode);
-                double weight = edge.getWeight();
-                
-                distances[fromIndex][toIndex] = weight;
-                next[fromIndex][toIndex] = toIndex;
+            int others = tiles - 1;
+            for (int t = from; t < to; t++) {
+                if (crossPhase) {
+                    // First half: tiles in row kt; second half: tiles in column kt
+                    int other = skipDiagonal(t % others);
+                    if (t < others) {
+                        relaxTile(kt, other, kt);
+                    } else {
+                        relaxTile(other, kt, kt);
+                    }
+                } else {
+                    relaxTile(skipDiagonal(t / others), skipDiagonal(t % others), kt);
+                }
             }
         }
+        
+        private int skipDiagonal(int tile) {
+            return tile < kt ? tile : tile + 1;
+        }
     }
     
     /**
-     * Compute shortest paths using Floyd-Warshall algorithm
+     * Relax tile (it, jt) through every intermediate node of tile kt
      */
-    private void computeShortestPaths() {
-        // Floyd-Warshall main algorithm
-        for (int k = 0; k < nodeCount; k++) {
-            for (int i = 0; i < nodeCount; i++) {
-                for (int j = 0; j < nodeCount; j++) {
-                    if (distances[i][k] + distances[k][j] < distances[i][j]) {
-                        distances[i][j] = distances[i][k] + distances[k][j];
-                        next[i][j] = next[i][k];
+    private void relaxTile(int it, int jt, int kt) {
+        int n = nodeCount;
+        double[] d = distances;
+        int i0 = it * TILE_SIZE, i1 = Math.min(n, i0 + TILE_SIZE);
+        int j0 = jt * TILE_SIZE, j1 = Math.min(n, j0 + TILE_SIZE);
+        int k0 = kt * TILE_SIZE, k1 = Math.min(n, k0 + TILE_SIZE);
+        
+        for (int k = k0; k < k1; k++) {
+            int kRow = k * n;
+            for (int i = i0; i < i1; i++) {
+                int iRow = i * n;
+                double dik = d[iRow + k];
+                if (dik == Double.POSITIVE_INFINITY) continue;
+                for (int j = j0; j < j1; j++) {
+                    double candidate = dik + d[kRow + j];
+                    if (candidate < d[iRow + j]) {
+                        d[iRow + j] = candidate;
                     }
                 }
             }
         }
     }
     
+    /**
+     * Matrix index of a node ID, -1 if the node is not in the matrix
+     */
+    private int indexOf(int nodeId) {
+        if (sparseNodeIndex != null) {
+            return sparseNodeIndex.getOrDefault(nodeId, -1);
+        }
+        long offset = (long) nodeId - minNodeId;
+        return offset >= 0 && offset < nodeIndexTable.length ? nodeIndexTable[(int) offset] : -1;
+    }
+    
     /**
      * Get shortest distance between two nodes
      * @param from Source node ID
@@ -104,13 +299,12 @@ public class FloydWarshall {
      * @return Shortest distance, or Double.POSITIVE_INFINITY if no path exists
      */
     public double getShortestDistance(int from, int to) {
-        if (!nodeToIndex.containsKey(from) || !nodeToIndex.containsKey(to)) {
+        int fromIndex = indexOf(from);
+        int toIndex = indexOf(to);
+        if (fromIndex < 0 || toIndex < 0) {
             return Double.POSITIVE_INFINITY;
         }
-        
-        int fromIndex = nodeToIndex.get(from);
-        int toIndex = nodeToIndex.get(to);
-        return distances[fromIndex][toIndex];
+        return distances[fromIndex * nodeCount + toIndex];
     }
     
     /**
@@ -120,34 +314,63 @@ public class FloydWarshall {
      * @return List of node IDs representing the path, empty if no path exists
      */
     public List<Integer> getShortestPath(int from, int to) {
-        if (!nodeToIndex.containsKey(from) || !nodeToIndex.containsKey(to)) {
+        int fromIndex = indexOf(from);
+        int toIndex = indexOf(to);
+        if (fromIndex < 0 || toIndex < 0) {
             return new ArrayList<>();
         }
         
-        int fromIndex = nodeToIndex.get(from);
-        int toIndex = nodeToIndex.get(to);
-        
-        if (distances[fromIndex][toIndex] == Double.POSITIVE_INFINITY) {
+        if (distances[fromIndex * nodeCount + toIndex] == Double.POSITIVE_INFINITY) {
             return new ArrayList<>(); // No path exists
         }
         
+        int[] successors = successors();
         List<Integer> path = new ArrayList<>();
-        reconstructPath(fromIndex, toIndex, path);
+        path.add(indexToNode[fromIndex]);
+        for (int current = fromIndex; current != toIndex; ) {
+            current = successors[current * nodeCount + toIndex];
+            if (current < 0 || path.size() > nodeCount) {
+                return new ArrayList<>(); // Zero-weight cycle or rounding left no consistent successor
+            }
+            path.add(indexToNode[current]);
+        }
         return path;
     }
     
     /**
-     * Reconstruct path from next matrix
+     * Successor matrix: next[i][j] is the neighbor v of i minimizing w(i, v) + d(v, j)
      */
-    private void reconstructPath(int fromIndex, int toIndex, List<Integer> path) {
-        if (next[fromIndex][toIndex] == -1) {
-            return; // No path
-        }
+    private int[] successors() {
+        int[] result = next;
+        return result != null ? result : buildSuccessors();
+    }
+    
+    private synchronized int[] buildSuccessors() {
+        if (next != null) return next;
         
-        path.add(indexToNode.get(fromIndex));
-        if (fromIndex != toIndex) {
-            reconstructPath(next[fromIndex][toIndex], toIndex, path);
+        int n = nodeCount;
+        int[] successors = new int[n * n];
+        Arrays.fill(successors, -1);
+        for (int i = 0; i < n; i++) {
+            int iRow = i * n;
+            successors[iRow + i] = i;
+            double[] best = new double[n];
+            Arrays.fill(best, Double.POSITIVE_INFINITY);
+            for (int e = edgeOffsets[i]; e < edgeOffsets[i + 1]; e++) {
+                int v = edgeTargets[e];
+                int vRow = v * n;
+                double weight = edgeWeights[e];
+                for (int j = 0; j < n; j++) {
+                    double candidate = weight + distances[vRow + j];
+                    if (j != i && candidate < best[j]) {
+                        best[j] = candidate;
+                        successors[iRow + j] = v;
+                    }
+                }
+            }
         }
+        next = successors;
+        return successors;
     }
     
     /**
@@ -155,7 +378,11 @@ public class FloydWarshall {
      * @return 2D array of distances
      */
     public double[][] getAllDistances() {
-        return distances.clone();
+        double[][] matrix = new double[nodeCount][];
+        for (int i = 0; i < nodeCount; i++) {
+            matrix[i] = Arrays.copyOfRange(distances, i * nodeCount, (i + 1) * nodeCount);
+        }
+        return matrix;
     }
     
     /**
@@ -173,6 +400,10 @@ public class FloydWarshall {
      * @return Map from node ID to matrix index
      */
     public Map<Integer, Integer> getNodeMapping() {
-        return new HashMap<>(nodeToIndex);
+        Map<Integer, Integer> mapping = new HashMap<>();
+        for (int i = 0; i < nodeCount; i++) {
+            mapping.put(indexToNode[i], i);
+        }
+        return mapping;
     }
 }
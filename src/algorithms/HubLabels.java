@@ -0,0 +1,387 @@
+package algorithms;
+
+import models.CompactGraph;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Hub labeling distance oracle (pruned landmark labeling) over a CompactGraph
+ *
+ * Every node v keeps an out-label of (hub, dist(v, hub)) pairs and an in-label
+ * of (hub, dist(hub, v)) pairs such that some hub on a shortest s-t path is in
+ * both out(s) and in(t). A query is then one merge of two sorted labels, with
+ * no graph access. Hubs are taken in contraction hierarchy order (most
+ * important first); each runs a forward and a backward Dijkstra that stops
+ * expanding any node the labels built so far already cover.
+ *
+ * Labels are stored CSR-style in primitive arrays, hubs as their position in
+ * the order, so each label is sorted by construction. Weights are the graph's
+ * traffic-adjusted weights at build time; rebuild after traffic changes. The
+ * index is immutable, so queries are thread-safe.
+ *
+ * Index file layout (big-endian):
+ *   header  : magic, version, graph fingerprint, payload length + CRC32C
+ *   payload : node count, out/in entry counts, out offsets, hubs and distances,
+ *             in offsets, hubs and distances
+ */
+public class HubLabels {
+    public static final int MAGIC = 0x50484C42; // "PHLB"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 8 + 4;
+
+    private final int nodeCount;
+    private final int[] outOffsets;
+    private final int[] outHubs;
+    private final double[] outDistances;
+    private final int[] inOffsets;
+    private final int[] inHubs;
+    private final double[] inDistances;
+    private final long graphFingerprint;
+    private final long preprocessingNanos;
+
+    private HubLabels(int nodeCount, int[] outOffsets, int[] outHubs, double[] outDistances,
+                      int[] inOffsets, int[] inHubs, double[] inDistances,
+                      long graphFingerprint, long preprocessingNanos) {
+        this.nodeCount = nodeCount;
+        this.outOffsets = outOffsets;
+        this.outHubs = outHubs;
+        this.outDistances = outDistances;
+        this.inOffsets = inOffsets;
+        this.inHubs = inHubs;
+        this.inDistances = inDistances;
+        this.graphFingerprint = graphFingerprint;
+        this.preprocessingNanos = preprocessingNanos;
+    }
+
+    /**
+     * Label every node, ordering hubs by a fresh contraction hierarchy
+     */
+    public static HubLabels build(CompactGraph graph) {
+        return build(graph, ContractionHierarchy.build(graph));
+    }
+
+    /**
+     * Label every node, ordering hubs by an existing hierarchy's contraction rank
+     * (it must have been built on the same weights)
+     */
+    public static HubLabels build(CompactGraph graph, ContractionHierarchy hierarchy) {
+        int n = graph.getNodeCount();
+        Integer[] byRank = new Integer[n];
+        for (int v = 0; v < n; v++) byRank[v] = v;
+        Arrays.sort(byRank, (a, b) -> Integer.compare(hierarchy.rank(b), hierarchy.rank(a)));
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = byRank[i];
+        return build(graph, order);
+    }
+
+    /**
+     * Label every node with hubs taken in the given order (dense indices, most important first)
+     */
+    public static HubLabels build(CompactGraph graph, int[] order) {
+        long startTime = System.nanoTime();
+        int n = graph.getNodeCount();
+        if (order.length != n) {
+            throw new IllegalArgumentException("Hub order has " + order.length + " nodes, graph has " + n);
+        }
+        Labeler labeler = new Labeler(n);
+        double[] hubDistances = new double[n];
+        Arrays.fill(hubDistances, Double.MAX_VALUE);
+
+        for (int hub = 0; hub < n; hub++) {
+            int root = order[hub];
+            labeler.prunedSearch(graph, root, hub, false, hubDistances);
+            labeler.prunedSearch(graph, root, hub, true, hubDistances);
+        }
+
+        int[] outOffsets = new int[n + 1];
+        int[] inOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            outOffsets[v + 1] = outOffsets[v] + labeler.outSize[v];
+            inOffsets[v + 1] = inOffsets[v] + labeler.inSize[v];
+        }
+        int[] outHubs = new int[outOffsets[n]];
+        double[] outDistances = new double[outOffsets[n]];
+        int[] inHubs = new int[inOffsets[n]];
+        double[] inDistances = new double[inOffsets[n]];
+        for (int v = 0; v < n; v++) {
+            System.arraycopy(labeler.outHub[v], 0, outHubs, outOffsets[v], labeler.outSize[v]);
+            System.arraycopy(labeler.outDist[v], 0, outDistances, outOffsets[v], labeler.outSize[v]);
+            System.arraycopy(labeler.inHub[v], 0, inHubs, inOffsets[v], labeler.inSize[v]);
+            System.arraycopy(labeler.inDist[v], 0, inDistances, inOffsets[v], labeler.inSize[v]);
+        }
+        return new HubLabels(n, outOffsets, outHubs, outDistances, inOffsets, inHubs, inDistances,
+                             fingerprint(graph), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Growable per-node labels while hubs are added
+     */
+    private static final class Labeler {
+        final int[][] outHub;
+        final double[][] outDist;
+        final int[] outSize;
+        final int[][] inHub;
+        final double[][] inDist;
+        final int[] inSize;
+
+        Labeler(int n) {
+            outHub = new int[n][];
+            outDist = new double[n][];
+            outSize = new int[n];
+            inHub = new int[n][];
+            inDist = new double[n][];
+            inSize = new int[n];
+            for (int v = 0; v < n; v++) {
+                outHub[v] = new int[4];
+                outDist[v] = new double[4];
+                inHub[v] = new int[4];
+                inDist[v] = new double[4];
+            }
+        }
+
+        /**
+         * Dijkstra from root (over incoming edges when reverse is set) that labels
+         * each settled node with hub unless the existing labels already give a
+         * distance at least as short, in which case the node is not expanded
+         */
+        void prunedSearch(CompactGraph graph, int root, int hub, boolean reverse, double[] hubDistances) {
+            // Scatter the root's own label so each pruning test is one pass over the other label
+            int[] rootHubs = reverse ? inHub[root] : outHub[root];
+            double[] rootDists = reverse ? inDist[root] : outDist[root];
+            int rootSize = reverse ? inSize[root] : outSize[root];
+            for (int i = 0; i < rootSize; i++) hubDistances[rootHubs[i]] = rootDists[i];
+
+            SearchWorkspace workspace = SearchWorkspace.forward(graph);
+            Dijkstra.IndexedDaryHeap minHeap = workspace.heap();
+            workspace.label(root, 0.0, -1);
+            minHeap.insertOrDecrease(root, 0.0);
+
+            while (!minHeap.isEmpty()) {
+                int current = minHeap.extractMin();
+                workspace.settle(current);
+                double distance = workspace.distance(current);
+
+                int[] hubs = reverse ? outHub[current] : inHub[current];
+                double[] dists = reverse ? outDist[current] : inDist[current];
+                int size = reverse ? outSize[current] : inSize[current];
+                boolean covered = false;
+                for (int i = 0; i < size && !covered; i++) {
+                    double via = hubDistances[hubs[i]];
+                    covered = via != Double.MAX_VALUE && via + dists[i] <= distance;
+                }
+                if (covered) continue;
+
+                if (reverse) {
+                    add(outHub, outDist, outSize, current, hub, distance);
+                    for (int i = graph.inEdgeStart(current), end = graph.inEdgeEnd(current); i < end; i++) {
+                        int neighbor = graph.inSource(i);
+                        if (workspace.isSettled(neighbor)) continue;
+                        double newDistance = distance + graph.dynamicWeight(neighbor, graph.inEdge(i));
+                        if (newDistance < workspace.distance(neighbor)) {
+                            workspace.label(neighbor, newDistance, current);
+                            minHeap.insertOrDecrease(neighbor, newDistance);
+                        }
+                    }
+                } else {
+                    add(inHub, inDist, inSize, current, hub, distance);
+                    for (int e = graph.edgeStart(current), end = graph.edgeEnd(current); e < end; e++) {
+                        int neighbor = graph.target(e);
+                        if (workspace.isSettled(neighbor)) continue;
+                        double newDistance = distance + graph.dynamicWeight(current, e);
+                        if (newDistance < workspace.distance(neighbor)) {
+                            workspace.label(neighbor, newDistance, current);
+                            minHeap.insertOrDecrease(neighbor, newDistance);
+                        }
+                    }
+                }
+            }
+
+            rootHubs = reverse ? inHub[root] : outHub[root];
+            rootSize = reverse ? inSize[root] : outSize[root];
+            for (int i = 0; i < rootSize; i++) hubDistances[rootHubs[i]] = Double.MAX_VALUE;
+        }
+
+        private static void add(int[][] hubs, double[][] dists, int[] sizes, int v, int hub, double distance) {
+            int size = sizes[v];
+            if (size == hubs[v].length) {
+                hubs[v] = Arrays.copyOf(hubs[v], size * 2);
+                dists[v] = Arrays.copyOf(dists[v], size * 2);
+            }
+            hubs[v][size] = hub;
+            dists[v][size] = distance;
+            sizes[v] = size + 1;
+        }
+    }
+
+    /**
+     * Shortest distance between two dense indices (Double.MAX_VALUE if unreachable)
+     */
+    public double distance(int sourceIndex, int targetIndex) {
+        if (sourceIndex < 0 || targetIndex < 0 || sourceIndex >= nodeCount || targetIndex >= nodeCount) {
+            return Double.MAX_VALUE;
+        }
+        int i = outOffsets[sourceIndex];
+        int iEnd = outOffsets[sourceIndex + 1];
+        int j = inOffsets[targetIndex];
+        int jEnd = inOffsets[targetIndex + 1];
+        double best = Double.MAX_VALUE;
+        while (i < iEnd && j < jEnd) {
+            int a = outHubs[i];
+            int b = inHubs[j];
+            if (a == b) {
+                best = Math.min(best, outDistances[i++] + inDistances[j++]);
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Fingerprint of a graph's structure and current traffic-adjusted weights
+     */
+    public static long fingerprint(CompactGraph graph) {
+        int n = graph.getNodeCount();
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        buffer.putInt(n);
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                if (buffer.remaining() < 16) {
+                    buffer.flip();
+                    crc.update(buffer);
+                    buffer.clear();
+                }
+                buffer.putInt(v).putInt(graph.target(e)).putDouble(graph.dynamicWeight(v, e));
+            }
+        }
+        buffer.flip();
+        crc.update(buffer);
+        return ((long) graph.getEdgeCount() << 32) ^ crc.getValue();
+    }
+
+    /**
+     * Whether this index was built on the graph as it is now
+     */
+    public boolean matches(CompactGraph graph) {
+        return graph.getNodeCount() == nodeCount && fingerprint(graph) == graphFingerprint;
+    }
+
+    /**
+     * Write the index atomically (temp file + move)
+     */
+    public void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_BYTES);
+            CRC32C crc = new CRC32C();
+            CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc);
+            DataOutputStream out = new DataOutputStream(checked);
+
+            out.writeInt(nodeCount);
+            out.writeInt(outHubs.length);
+            out.writeInt(inHubs.length);
+            for (int offset : outOffsets) out.writeInt(offset);
+            for (int hub : outHubs) out.writeInt(hub);
+            for (double distance : outDistances) out.writeDouble(distance);
+            for (int offset : inOffsets) out.writeInt(offset);
+            for (int hub : inHubs) out.writeInt(hub);
+            for (double distance : inDistances) out.writeDouble(distance);
+            out.flush();
+            long payloadLength = channel.position() - HEADER_BYTES;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(graphFingerprint).putInt(0)
+                  .putLong(payloadLength).putInt((int) crc.getValue());
+            header.flip();
+            channel.write(header, 0);
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Open an index through a memory-mapped channel
+     * @return the index, or null if it is missing, corrupt, from another version,
+     *         or built on a different graph or traffic state
+     */
+    public static HubLabels read(Path file, CompactGraph graph) throws IOException {
+        if (!Files.isRegularFile(file)) return null;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) return null;
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+            long graphFingerprint = buffer.getLong();
+            if (graphFingerprint != fingerprint(graph)) return null;
+            buffer.getInt(); // reserved
+            long payloadLength = buffer.getLong();
+            int payloadChecksum = buffer.getInt();
+            if (payloadLength != size - HEADER_BYTES) return null;
+
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != payloadChecksum) return null;
+
+            int nodeCount = buffer.getInt();
+            if (nodeCount != graph.getNodeCount()) return null;
+            int outEntries = buffer.getInt();
+            int inEntries = buffer.getInt();
+            int[] outOffsets = readInts(buffer, new int[nodeCount + 1]);
+            int[] outHubs = readInts(buffer, new int[outEntries]);
+            double[] outDistances = readDoubles(buffer, new double[outEntries]);
+            int[] inOffsets = readInts(buffer, new int[nodeCount + 1]);
+            int[] inHubs = readInts(buffer, new int[inEntries]);
+            double[] inDistances = readDoubles(buffer, new double[inEntries]);
+            return new HubLabels(nodeCount, outOffsets, outHubs, outDistances, inOffsets, inHubs, inDistances,
+                                 graphFingerprint, 0);
+        }
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 4);
+        return values;
+    }
+
+    private static double[] readDoubles(ByteBuffer buffer, double[] values) {
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 8);
+        return values;
+    }
+
+    public int getNodeCount() { return nodeCount; }
+    public long getPreprocessingNanos() { return preprocessingNanos; }
+    public int outLabelSize(int index) { return outOffsets[index + 1] - outOffsets[index]; }
+    public int inLabelSize(int index) { return inOffsets[index + 1] - inOffsets[index]; }
+    public long getTotalLabelEntries() { return (long) outHubs.length + inHubs.length; }
+
+    /**
+     * Average number of (hub, distance) pairs per node label
+     */
+    public double getAverageLabelSize() {
+        return nodeCount == 0 ? 0 : (double) getTotalLabelEntries() / (2.0 * nodeCount);
+    }
+
+    /**
+     * Bytes held by the label arrays
+     */
+    public long getMemoryBytes() {
+        return 4L * (outOffsets.length + inOffsets.length) + 12L * getTotalLabelEntries();
+    }
+}
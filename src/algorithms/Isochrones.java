@@ -0,0 +1,324 @@
+package algorithms;
+
+import models.CompactGraph;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Bounded-radius reachability from a set of sources (stations, unit positions)
+ *
+ * Every search stops at the radius, so a 10-minute isochrone touches only the
+ * nodes within 10 minutes instead of the whole map. Two modes share one result
+ * type:
+ *   - nearest(): a single multi-source Dijkstra labels each node with its
+ *     nearest source and that distance (Voronoi cells cut at the radius)
+ *   - compute(): one bounded search per source, split across a ForkJoinPool,
+ *     keeps each source's full isochrone (overlapping node sets, nearest first)
+ *     and merges the nearest-source labels from the same searches
+ *
+ * Distances use the graph's current traffic-adjusted weights. With reverse set,
+ * distances run from each node to the sources (incoming edges) instead.
+ */
+public class Isochrones {
+    private static final int SOURCES_PER_TASK = 4;
+
+    /**
+     * Per-node nearest source and distance, plus per-source isochrones when computed
+     */
+    public static class Result {
+        private final CompactGraph graph;
+        private final int[] sources;
+        private final double radius;
+        private final int[] nearest;          // position in sources, -1 beyond the radius
+        private final double[] distances;     // Double.MAX_VALUE beyond the radius
+        private final int[][] reached;        // per source: nodes within the radius, nearest first (or null)
+        private final double[][] reachedDistances;
+
+        Result(CompactGraph graph, int[] sources, double radius, int[] nearest, double[] distances,
+               int[][] reached, double[][] reachedDistances) {
+            this.graph = graph;
+            this.sources = sources;
+            this.radius = radius;
+            this.nearest = nearest;
+            this.distances = distances;
+            this.reached = reached;
+            this.reachedDistances = reachedDistances;
+        }
+
+        public int getSourceCount() { return sources.length; }
+        public int getSource(int position) { return sources[position]; }
+        public double getRadius() { return radius; }
+        public boolean hasIsochrones() { return reached != null; }
+
+        /**
+         * Position (in the source array) of the node's nearest source, -1 if none is within the radius
+         */
+        public int nearestSource(int index) { return nearest[index]; }
+        public double distance(int index) { return distances[index]; }
+        public boolean isCovered(int index) { return nearest[index] >= 0; }
+
+        public int getCoveredCount() {
+            int covered = 0;
+            for (int source : nearest) {
+                if (source >= 0) covered++;
+            }
+            return covered;
+        }
+
+        /**
+         * Dense indices within maxDistance of a source, nearest first (maxDistance at most the radius)
+         */
+        public int[] isochrone(int position, double maxDistance) {
+            if (reached == null) throw new IllegalStateException("Isochrones were not kept; use Isochrones.compute");
+            double[] reachedDistance = reachedDistances[position];
+            int end = 0;
+            while (end < reachedDistance.length && reachedDistance[end] <= maxDistance) end++;
+            return Arrays.copyOf(reached[position], end);
+        }
+
+        public int[] isochrone(int position) {
+            return isochrone(position, radius);
+        }
+
+        /**
+         * Node IDs within maxDistance of a source, nearest first
+         */
+        public List<Integer> isochroneNodeIds(int position, double maxDistance) {
+            int[] indices = isochrone(position, maxDistance);
+            List<Integer> nodeIds = new ArrayList<>(indices.length);
+            for (int index : indices) nodeIds.add(graph.nodeId(index));
+            return nodeIds;
+        }
+
+        /**
+         * Nodes whose nearest source is within each band [i * width, (i + 1) * width);
+         * nodes beyond the radius are not counted
+         */
+        public int[] coverageHistogram(double bucketWidth) {
+            double max = 0;
+            for (int v = 0; v < nearest.length; v++) {
+                if (nearest[v] >= 0) max = Math.max(max, distances[v]);
+            }
+            int[] histogram = new int[(int) (max / bucketWidth) + 1];
+            for (int v = 0; v < nearest.length; v++) {
+                if (nearest[v] >= 0) histogram[(int) (distances[v] / bucketWidth)]++;
+            }
+            return histogram;
+        }
+
+        /**
+         * Nodes served by each source (the source is their nearest within the radius)
+         */
+        public int[] nodesPerSource() {
+            int[] counts = new int[sources.length];
+            for (int source : nearest) {
+                if (source >= 0) counts[source]++;
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * One multi-source Dijkstra: nearest source and distance for every node within radius
+     */
+    public static Result nearest(CompactGraph graph, int[] sourceIndices, double radius, boolean reverse) {
+        int n = graph.getNodeCount();
+        int[] nearest = new int[n];
+        double[] distances = new double[n];
+        Arrays.fill(nearest, -1);
+        Arrays.fill(distances, Double.MAX_VALUE);
+
+        SearchWorkspace workspace = SearchWorkspace.forward(graph);
+        Dijkstra.IndexedDaryHeap minHeap = workspace.heap();
+        for (int position = 0; position < sourceIndices.length; position++) {
+            int source = sourceIndices[position];
+            if (source >= 0 && !workspace.isLabeled(source)) {
+                workspace.label(source, 0.0, position);   // predecessor slot carries the source position
+                minHeap.insertOrDecrease(source, 0.0);
+            }
+        }
+
+        while (!minHeap.isEmpty()) {
+            int current = minHeap.extractMin();
+            double distance = workspace.distance(current);
+            if (distance > radius) break;
+            workspace.settle(current);
+            int owner = workspace.predecessor(current);
+            nearest[current] = owner;
+            distances[current] = distance;
+            relax(graph, workspace, current, distance, owner, reverse);
+        }
+        return new Result(graph, sourceIndices.clone(), radius, nearest, distances, null, null);
+    }
+
+    /**
+     * One bounded search per source, using all available processors; keeps every isochrone
+     */
+    public static Result compute(CompactGraph graph, int[] sourceIndices, double radius, boolean reverse) {
+        return compute(graph, sourceIndices, radius, reverse, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static Result compute(CompactGraph graph, int[] sourceIndices, double radius, boolean reverse,
+                                 int parallelism) {
+        int[] sources = sourceIndices.clone();
+        int[][] reached = new int[sources.length][];
+        double[][] reachedDistances = new double[sources.length][];
+
+        // Each source writes only its own slots; partial nearest labels are merged below
+        Partial merged;
+        if (parallelism <= 1 || sources.length <= SOURCES_PER_TASK) {
+            merged = searchRange(graph, sources, radius, reverse, reached, reachedDistances, 0, sources.length);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                merged = pool.invoke(new SourceTask(graph, sources, radius, reverse, reached, reachedDistances,
+                                                    0, sources.length));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return new Result(graph, sources, radius, merged.nearest, merged.distances, reached, reachedDistances);
+    }
+
+    /**
+     * Nearest-source labels over a range of sources
+     */
+    private static final class Partial {
+        final int[] nearest;
+        final double[] distances;
+
+        Partial(int n) {
+            nearest = new int[n];
+            distances = new double[n];
+            Arrays.fill(nearest, -1);
+            Arrays.fill(distances, Double.MAX_VALUE);
+        }
+
+        /**
+         * Keep the nearer label; ties go to the earlier source so the split never changes the answer
+         */
+        void offer(int v, int source, double distance) {
+            if (distance < distances[v] || (distance == distances[v] && source < nearest[v])) {
+                nearest[v] = source;
+                distances[v] = distance;
+            }
+        }
+
+        Partial merge(Partial other) {
+            for (int v = 0; v < nearest.length; v++) {
+                if (other.nearest[v] >= 0) offer(v, other.nearest[v], other.distances[v]);
+            }
+            return this;
+        }
+    }
+
+    private static Partial searchRange(CompactGraph graph, int[] sources, double radius, boolean reverse,
+                                       int[][] reached, double[][] reachedDistances, int from, int to) {
+        Partial partial = new Partial(graph.getNodeCount());
+        for (int position = from; position < to; position++) {
+            int source = sources[position];
+            if (source < 0) {
+                reached[position] = new int[0];
+                reachedDistances[position] = new double[0];
+                continue;
+            }
+
+            SearchWorkspace workspace = SearchWorkspace.forward(graph);
+            Dijkstra.IndexedDaryHeap minHeap = workspace.heap();
+            workspace.label(source, 0.0, -1);
+            minHeap.insertOrDecrease(source, 0.0);
+            int[] nodes = new int[16];
+            double[] nodeDistances = new double[16];
+            int count = 0;
+
+            while (!minHeap.isEmpty()) {
+                int current = minHeap.extractMin();
+                double distance = workspace.distance(current);
+                if (distance > radius) break;
+                workspace.settle(current);
+                if (count == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, count * 2);
+                    nodeDistances = Arrays.copyOf(nodeDistances, count * 2);
+                }
+                nodes[count] = current;
+                nodeDistances[count++] = distance;
+                partial.offer(current, position, distance);
+                relax(graph, workspace, current, distance, current, reverse);
+            }
+            reached[position] = Arrays.copyOf(nodes, count);
+            reachedDistances[position] = Arrays.copyOf(nodeDistances, count);
+        }
+        return partial;
+    }
+
+    /**
+     * Relax the outgoing (or, with reverse, incoming) edges of a settled node, labeling with pred
+     */
+    private static void relax(CompactGraph graph, SearchWorkspace workspace, int current, double distance,
+                              int pred, boolean reverse) {
+        Dijkstra.IndexedDaryHeap minHeap = workspace.heap();
+        if (reverse) {
+            for (int i = graph.inEdgeStart(current), end = graph.inEdgeEnd(current); i < end; i++) {
+                int neighbor = graph.inSource(i);
+                if (workspace.isSettled(neighbor)) continue;
+                double newDistance = distance + graph.dynamicWeight(neighbor, graph.inEdge(i));
+                if (newDistance < workspace.distance(neighbor)) {
+                    workspace.label(neighbor, newDistance, pred);
+                    minHeap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+        } else {
+            for (int e = graph.edgeStart(current), end = graph.edgeEnd(current); e < end; e++) {
+                int neighbor = graph.target(e);
+                if (workspace.isSettled(neighbor)) continue;
+                double newDistance = distance + graph.dynamicWeight(current, e);
+                if (newDistance < workspace.distance(neighbor)) {
+                    workspace.label(neighbor, newDistance, pred);
+                    minHeap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+        }
+    }
+
+    /**
+     * A range of sources, split in halves until small; partial labels merge on the way up
+     */
+    private static class SourceTask extends RecursiveTask<Partial> {
+        private static final long serialVersionUID = 1L;
+
+        private final CompactGraph graph;
+        private final int[] sources;
+        private final double radius;
+        private final boolean reverse;
+        private final int[][] reached;
+        private final double[][] reachedDistances;
+        private final int from;
+        private final int to;
+
+        SourceTask(CompactGraph graph, int[] sources, double radius, boolean reverse,
+                   int[][] reached, double[][] reachedDistances, int from, int to) {
+            this.graph = graph;
+            this.sources = sources;
+            this.radius = radius;
+            this.reverse = reverse;
+            this.reached = reached;
+            this.reachedDistances = reachedDistances;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from > SOURCES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                SourceTask left = new SourceTask(graph, sources, radius, reverse, reached, reachedDistances, from, mid);
+                SourceTask right = new SourceTask(graph, sources, radius, reverse, reached, reachedDistances, mid, to);
+                left.fork();
+                Partial rightPartial = right.compute();
+                return left.join().merge(rightPartial);
+            }
+            return searchRange(graph, sources, radius, reverse, reached, reachedDistances, from, to);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package algorithms;
+
+import models.CompactGraph;
+import java.util.*;
+
+/**
+ * ALT heuristic (A*, Landmarks, Triangle inequality) for CompactGraph searches
+ *
+ * A handful of landmarks are picked by farthest-point selection, and exact
+ * distances to and from every node are precomputed with Dijkstra. For a
+ * directed graph the triangle inequality gives two lower bounds on d(v, t)
+ * per landmark L:
+ *   d(L, t) - d(L, v)   and   d(v, L) - d(t, L)
+ * The estimate is the largest of these over the active landmarks, and never
+ * less than the Euclidean distance times the cheapest weight per unit length.
+ *
+ * Distances use base weights, so traffic never has to trigger a rebuild: the
+ * estimate is scaled by the smallest traffic multiplier (capped at 1), which
+ * keeps it admissible under any traffic. Call refreshTrafficFloor() after
+ * traffic changes.
+ */
+public class LandmarkHeuristic implements AStar.IndexHeuristic {
+    public static final int DEFAULT_LANDMARKS = 8;
+    public static final int DEFAULT_ACTIVE_LANDMARKS = 4;
+
+    private final CompactGraph graph;
+    private final int[] landmarks;          // dense indices
+    private final double[][] fromLandmark;  // fromLandmark[l][v] = d(landmark l, v)
+    private final double[][] toLandmark;    // toLandmark[l][v] = d(v, landmark l)
+    private final double weightPerDistance; // cheapest base weight per unit of Euclidean length
+    private final long preprocessingNanos;
+    private volatile double trafficFloor;
+
+    private LandmarkHeuristic(CompactGraph graph, int[] landmarks, double[][] fromLandmark,
+                              double[][] toLandmark, double weightPerDistance, long preprocessingNanos) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+        this.weightPerDistance = weightPerDistance;
+        this.preprocessingNanos = preprocessingNanos;
+        refreshTrafficFloor();
+    }
+
+    public static LandmarkHeuristic build(CompactGraph graph) {
+        return build(graph, DEFAULT_LANDMARKS);
+    }
+
+    /**
+     * Select landmarks by farthest-point and precompute their distance arrays
+     */
+    public static LandmarkHeuristic build(CompactGraph graph, int landmarkCount) {
+        long startTime = System.nanoTime();
+        int n = graph.getNodeCount();
+        int count = Math.min(landmarkCount, n);
+
+        // Forward and reverse CSR over base weights
+        int m = graph.getEdgeCount();
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        int[] reverseOffsets = new int[n + 1];
+        int[] reverseTargets = new int[m];
+        double[] reverseWeights = new double[m];
+        double weightPerDistance = Double.MAX_VALUE;
+
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = graph.edgeEnd(v);
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                int w = graph.target(e);
+                targets[e] = w;
+                weights[e] = graph.baseWeight(e);
+                reverseOffsets[w + 1]++;
+
+                double length = graph.euclideanDistance(v, w);
+                if (length > 0) weightPerDistance = Math.min(weightPerDistance, weights[e] / length);
+            }
+        }
+        for (int v = 0; v < n; v++) reverseOffsets[v + 1] += reverseOffsets[v];
+        int[] fill = Arrays.copyOf(reverseOffsets, n);
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int slot = fill[targets[e]]++;
+                reverseTargets[slot] = v;
+                reverseWeights[slot] = weights[e];
+            }
+        }
+        if (weightPerDistance == Double.MAX_VALUE) weightPerDistance = 0.0;
+
+        int[] landmarks = new int[count];
+        double[][] fromLandmark = new double[count][];
+        double[][] toLandmark = new double[count][];
+        Dijkstra.IndexedDaryHeap heap = new Dijkstra.IndexedDaryHeap(Math.max(1, n));
+
+        // Farthest-point selection: start from the node farthest from an arbitrary one,
+        // then repeatedly take the node farthest from all landmarks chosen so far
+        double[] nearest = new double[n];
+        if (count > 0) {
+            double[] seedDistances = new double[n];
+            shortestDistances(offsets, targets, weights, 0, seedDistances, heap);
+            landmarks[0] = farthest(seedDistances);
+        }
+        Arrays.fill(nearest, Double.MAX_VALUE);
+        for (int l = 0; l < count; l++) {
+            if (l > 0) landmarks[l] = farthest(nearest);
+            fromLandmark[l] = new double[n];
+            toLandmark[l] = new double[n];
+            shortestDistances(offsets, targets, weights, landmarks[l], fromLandmark[l], heap);
+            shortestDistances(reverseOffsets, reverseTargets, reverseWeights, landmarks[l], toLandmark[l], heap);
+
+            for (int v = 0; v < n; v++) {
+                double d = fromLandmark[l][v];
+                if (d < Double.MAX_VALUE && toLandmark[l][v] < Double.MAX_VALUE) d += toLandmark[l][v];
+                nearest[v] = Math.min(nearest[v], d);
+            }
+            nearest[landmarks[l]] = 0.0;
+        }
+
+        return new LandmarkHeuristic(graph, landmarks, fromLandmark, toLandmark, weightPerDistance,
+                                     System.nanoTime() - startTime);
+    }
+
+    /**
+     * Node with the largest finite distance (unreachable nodes can't guide a search)
+     */
+    private static int farthest(double[] distances) {
+        int best = 0;
+        double bestDistance = -1;
+        for (int v = 0; v < distances.length; v++) {
+            if (distances[v] < Double.MAX_VALUE && distances[v] > bestDistance) {
+                bestDistance = distances[v];
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    private static void shortestDistances(int[] offsets, int[] targets, double[] weights, int source,
+                                          double[] distances, Dijkstra.IndexedDaryHeap heap) {
+        Arrays.fill(distances, Double.MAX_VALUE);
+        heap.clear();
+        distances[source] = 0.0;
+        heap.insertOrDecrease(source, 0.0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.extractMin();
+            double du = distances[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                double candidate = du + weights[e];
+                if (candidate < distances[v]) {
+                    distances[v] = candidate;
+                    heap.insertOrDecrease(v, candidate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recompute the traffic scale factor from the graph's current multipliers
+     */
+    public void refreshTrafficFloor() {
+        double floor = 1.0;
+        for (int v = 0; v < graph.getNodeCount(); v++) {
+            floor = Math.min(floor, graph.trafficMultiplier(v));
+        }
+        trafficFloor = Math.max(0.0, floor);
+    }
+
+    /**
+     * Lower bound using every landmark
+     */
+    @Override
+    public double estimate(CompactGraph g, int fromIndex, int goalIndex) {
+        double bound = euclideanBound(fromIndex, goalIndex);
+        for (int l = 0; l < landmarks.length; l++) {
+            bound = Math.max(bound, landmarkBound(l, fromIndex, goalIndex));
+        }
+        return bound * trafficFloor;
+    }
+
+    /**
+     * Heuristic restricted to the landmarks that give the best bound for source -> goal
+     */
+    public AStar.IndexHeuristic forQuery(int sourceIndex, int goalIndex) {
+        return forQuery(sourceIndex, goalIndex, DEFAULT_ACTIVE_LANDMARKS);
+    }
+
+    public AStar.IndexHeuristic forQuery(int sourceIndex, int goalIndex, int activeCount) {
+        if (activeCount >= landmarks.length) return this;
+
+        Integer[] order = new Integer[landmarks.length];
+        double[] bounds = new double[landmarks.length];
+        for (int l = 0; l < landmarks.length; l++) {
+            order[l] = l;
+            bounds[l] = landmarkBound(l, sourceIndex, goalIndex);
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(bounds[b], bounds[a]));
+
+        int[] active = new int[Math.max(1, activeCount)];
+        for (int i = 0; i < active.length; i++) active[i] = order[i];
+        double floor = trafficFloor;
+
+        return (g, fromIndex, goal) -> {
+            double bound = euclideanBound(fromIndex, goal);
+            for (int l : active) {
+                bound = Math.max(bound, landmarkBound(l, fromIndex, goal));
+            }
+            return bound * floor;
+        };
+    }
+
+    private double landmarkBound(int l, int v, int t) {
+        double bound = 0.0;
+        double[] from = fromLandmark[l];
+        double[] to = toLandmark[l];
+        if (from[t] < Double.MAX_VALUE && from[v] < Double.MAX_VALUE) bound = from[t] - from[v];
+        if (to[v] < Double.MAX_VALUE && to[t] < Double.MAX_VALUE) bound = Math.max(bound, to[v] - to[t]);
+        return bound;
+    }
+
+    private double euclideanBound(int v, int t) {
+        return weightPerDistance > 0 ? graph.euclideanDistance(v, t) * weightPerDistance : 0.0;
+    }
+
+    public CompactGraph getGraph() { return graph; }
+    public int getLandmarkCount() { return landmarks.length; }
+    public long getPreprocessingNanos() { return preprocessingNanos; }
+
+    /**
+     * Cheapest weight per unit of Euclidean length, scaled by the current traffic floor:
+     * the straight-line distance times this never overestimates a route's cost
+     */
+    public double getWeightPerDistance() {
+        return weightPerDistance * trafficFloor;
+    }
+
+    /**
+     * Landmark node IDs in selection order
+     */
+    public List<Integer> getLandmarkNodeIds() {
+        List<Integer> ids = new ArrayList<>();
+        for (int landmark : landmarks) ids.add(graph.nodeId(landmark));
+        return ids;
+    }
+}
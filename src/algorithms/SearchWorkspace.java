@@ -0,0 +1,114 @@
+package algorithms;
+
+import models.CompactGraph;
+import java.util.*;
+
+/**
+ * Reusable per-thread state for CompactGraph searches
+ *
+ * Distances, predecessors and a 4-ary indexed heap are sized to the graph once
+ * and kept in a ThreadLocal. Labels are generation-stamped, so starting a new
+ * search is O(1) instead of refilling O(n) arrays, and a steady-state query
+ * allocates nothing. Each thread has two slots (forward and backward) so a
+ * bidirectional search can hold both sides at once. A workspace must not be
+ * used by two searches at the same time, so heuristics must not start searches
+ * of their own.
+ */
+public final class SearchWorkspace {
+    private static final ThreadLocal<SearchWorkspace[]> WORKSPACES =
+        ThreadLocal.withInitial(() -> new SearchWorkspace[2]);
+
+    private final double[] distance;
+    private final int[] predecessor;
+    private final int[] stamp;          // generation: labeled, generation + 1: settled
+    private final int[] marks;          // generation: marked (e.g. a search target)
+    private final Dijkstra.IndexedDaryHeap heap;
+    private int generation;
+    private int settledCount;
+
+    private SearchWorkspace(int capacity) {
+        distance = new double[capacity];
+        predecessor = new int[capacity];
+        stamp = new int[capacity];
+        marks = new int[capacity];
+        heap = new Dijkstra.IndexedDaryHeap(capacity);
+    }
+
+    /**
+     * This thread's forward workspace, reset and large enough for the graph
+     */
+    public static SearchWorkspace forward(CompactGraph graph) {
+        return acquire(graph, 0);
+    }
+
+    /**
+     * This thread's second workspace (the backward side of bidirectional searches)
+     */
+    public static SearchWorkspace backward(CompactGraph graph) {
+        return acquire(graph, 1);
+    }
+
+    private static SearchWorkspace acquire(CompactGraph graph, int slot) {
+        SearchWorkspace[] slots = WORKSPACES.get();
+        SearchWorkspace workspace = slots[slot];
+        if (workspace == null || workspace.stamp.length < graph.getNodeCount()) {
+            workspace = new SearchWorkspace(Math.max(1, graph.getNodeCount()));
+            slots[slot] = workspace;
+        }
+        workspace.reset();
+        return workspace;
+    }
+
+    private void reset() {
+        generation += 2;
+        if (generation < 0) {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(marks, 0);
+            generation = 2;
+        }
+        heap.clear();
+        settledCount = 0;
+    }
+
+    public boolean isLabeled(int v) { return stamp[v] >= generation; }
+    public boolean isSettled(int v) { return stamp[v] == generation + 1; }
+    public double distance(int v) { return stamp[v] >= generation ? distance[v] : Double.MAX_VALUE; }
+    public int predecessor(int v) { return stamp[v] >= generation ? predecessor[v] : -1; }
+    public boolean isMarked(int v) { return marks[v] == generation; }
+    public void mark(int v) { marks[v] = generation; }
+    public int settledCount() { return settledCount; }
+    public Dijkstra.IndexedDaryHeap heap() { return heap; }
+
+    /**
+     * Record a tentative distance (does not touch the heap)
+     */
+    public void label(int v, double dist, int pred) {
+        if (stamp[v] < generation) stamp[v] = generation;
+        distance[v] = dist;
+        predecessor[v] = pred;
+    }
+
+    public void settle(int v) {
+        stamp[v] = generation + 1;
+        settledCount++;
+    }
+
+    /**
+     * Dense index path from source to target along the predecessors; empty if target is unlabeled
+     */
+    public int[] pathTo(int sourceIndex, int targetIndex) {
+        if (!isLabeled(targetIndex)) return new int[0];
+
+        int length = 1;
+        for (int v = targetIndex; v != sourceIndex; v = predecessor(v)) {
+            if (predecessor(v) < 0) return new int[0];
+            length++;
+        }
+
+        int[] path = new int[length];
+        for (int v = targetIndex, i = length - 1; i >= 0; v = predecessor(v), i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+}
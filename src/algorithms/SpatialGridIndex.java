@@ -0,0 +1,313 @@
+package algorithms;
+
+import java.util.*;
+
+/**
+ * Uniform grid spatial index over 2D node coordinates
+ *
+ * Cells are sized from the node density (about two nodes per cell) so
+ * nearest, k-nearest and radius queries only look at a few cells around the
+ * query point instead of scanning every node. Supports incremental inserts
+ * and removals (used by the map editor); the grid is rebuilt with wider
+ * bounds or finer cells when it grows past its original size.
+ *
+ * Ties between equally distant nodes are broken by the smaller node ID.
+ */
+public class SpatialGridIndex {
+    private static final double TARGET_NODES_PER_CELL = 2.0;
+    private static final int MAX_CELLS = 1 << 24;
+
+    // Node storage by slot
+    private int[] ids = new int[16];
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private int size;
+    private final Map<Integer, Integer> slotOf = new HashMap<>();
+
+    // Grid geometry
+    private double minX, minY, cellSize;
+    private int columns, rows;
+    private int[][] cells;      // slots per cell
+    private int[] cellCounts;
+    private int builtSize;
+
+    public SpatialGridIndex() {
+        rebuild();
+    }
+
+    /**
+     * Bulk-load nodes and build the grid once
+     */
+    public SpatialGridIndex(int[] nodeIds, double[] x, double[] y) {
+        for (int i = 0; i < nodeIds.length; i++) {
+            store(nodeIds[i], x[i], y[i]);
+        }
+        rebuild();
+    }
+
+    /**
+     * Insert a node, or move it if the ID is already indexed
+     */
+    public void insert(int nodeId, double x, double y) {
+        if (slotOf.containsKey(nodeId)) remove(nodeId);
+
+        int slot = store(nodeId, x, y);
+        if (size > 2 * Math.max(8, builtSize) || !insideBounds(x, y)) {
+            rebuild();
+        } else {
+            addToCell(cellOf(x, y), slot);
+        }
+    }
+
+    /**
+     * Remove a node; returns false if it was not indexed
+     */
+    public boolean remove(int nodeId) {
+        Integer slot = slotOf.remove(nodeId);
+        if (slot == null) return false;
+
+        removeFromCell(cellOf(xs[slot], ys[slot]), slot);
+
+        // Move the last slot into the hole
+        int last = --size;
+        if (slot != last) {
+            int cell = cellOf(xs[last], ys[last]);
+            removeFromCell(cell, last);
+            ids[slot] = ids[last];
+            xs[slot] = xs[last];
+            ys[slot] = ys[last];
+            slotOf.put(ids[slot], slot);
+            addToCell(cell, slot);
+        }
+        return true;
+    }
+
+    public int size() { return size; }
+    public boolean contains(int nodeId) { return slotOf.containsKey(nodeId); }
+
+    /**
+     * Closest node to (x, y), or -1 if the index is empty
+     */
+    public int nearest(double x, double y) {
+        int[] result = kNearest(x, y, 1);
+        return result.length > 0 ? result[0] : -1;
+    }
+
+    /**
+     * The k closest nodes to (x, y), nearest first
+     */
+    public int[] kNearest(double x, double y, int k) {
+        k = Math.min(k, size);
+        if (k <= 0) return new int[0];
+
+        // Bounded max-heap of the best k candidates (by distance, then ID)
+        int[] bestSlots = new int[k];
+        double[] bestDistances = new double[k];
+        int found = 0;
+
+        int centerColumn = clampColumn(x);
+        int centerRow = clampRow(y);
+        int maxRing = Math.max(Math.max(centerColumn, columns - 1 - centerColumn),
+                               Math.max(centerRow, rows - 1 - centerRow));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Every point in this ring is at least (ring - 1) cells away from the query
+            if (found == k && (ring - 1) * cellSize > Math.sqrt(bestDistances[0])) break;
+
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                if (row < 0 || row >= rows) continue;
+                boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+
+                for (int column = centerColumn - ring; column <= centerColumn + ring; column += step) {
+                    if (column < 0 || column >= columns) continue;
+
+                    int cell = row * columns + column;
+                    for (int c = 0; c < cellCounts[cell]; c++) {
+                        int slot = cells[cell][c];
+                        double d = squaredDistance(slot, x, y);
+
+                        if (found < k) {
+                            bestSlots[found] = slot;
+                            bestDistances[found] = d;
+                            siftUp(bestSlots, bestDistances, found++);
+                        } else if (isCloser(d, slot, bestDistances[0], bestSlots[0])) {
+                            bestSlots[0] = slot;
+                            bestDistances[0] = d;
+                            siftDown(bestSlots, bestDistances, found);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Drain the max-heap from the back to get nearest-first order
+        int[] result = new int[found];
+        for (int i = found - 1; i >= 0; i--) {
+            result[i] = ids[bestSlots[0]];
+            bestSlots[0] = bestSlots[i];
+            bestDistances[0] = bestDistances[i];
+            siftDown(bestSlots, bestDistances, i);
+        }
+        return result;
+    }
+
+    /**
+     * All nodes within radius of (x, y), in ascending ID order
+     */
+    public int[] withinRadius(double x, double y, double radius) {
+        if (size == 0 || radius < 0) return new int[0];
+
+        int firstColumn = clampColumn(x - radius), lastColumn = clampColumn(x + radius);
+        int firstRow = clampRow(y - radius), lastRow = clampRow(y + radius);
+        double radiusSquared = radius * radius;
+
+        int[] result = new int[16];
+        int count = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                for (int c = 0; c < cellCounts[cell]; c++) {
+                    int slot = cells[cell][c];
+                    if (squaredDistance(slot, x, y) <= radiusSquared) {
+                        if (count == result.length) result = Arrays.copyOf(result, count * 2);
+                        result[count++] = ids[slot];
+                    }
+                }
+            }
+        }
+
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Recompute bounds and cell size from the current nodes and re-bucket them
+     */
+    private void rebuild() {
+        double maxX, maxY;
+        if (size == 0) {
+            minX = minY = 0;
+            maxX = maxY = 1;
+        } else {
+            minX = maxX = xs[0];
+            minY = maxY = ys[0];
+            for (int i = 1; i < size; i++) {
+                minX = Math.min(minX, xs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                maxY = Math.max(maxY, ys[i]);
+            }
+        }
+
+        // Pad the bounds so nearby editor inserts do not force another rebuild
+        double width = Math.max(maxX - minX, 1e-9);
+        double height = Math.max(maxY - minY, 1e-9);
+        minX -= width * 0.25;
+        minY -= height * 0.25;
+        width *= 1.5;
+        height *= 1.5;
+
+        int targetCells = (int) Math.min(MAX_CELLS, Math.max(1, size / TARGET_NODES_PER_CELL));
+        // Long thin maps fall back to strips so neither dimension explodes
+        cellSize = Math.max(Math.sqrt(width * height / targetCells), Math.max(width, height) / targetCells);
+        columns = (int) Math.max(1, Math.ceil(width / cellSize));
+        rows = (int) Math.max(1, Math.ceil(height / cellSize));
+
+        cells = new int[columns * rows][];
+        cellCounts = new int[columns * rows];
+        for (int slot = 0; slot < size; slot++) {
+            addToCell(cellOf(xs[slot], ys[slot]), slot);
+        }
+        builtSize = size;
+    }
+
+    private int store(int nodeId, double x, double y) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+        }
+        ids[size] = nodeId;
+        xs[size] = x;
+        ys[size] = y;
+        slotOf.put(nodeId, size);
+        return size++;
+    }
+
+    private boolean insideBounds(double x, double y) {
+        return x >= minX && y >= minY && x < minX + columns * cellSize && y < minY + rows * cellSize;
+    }
+
+    private int clampColumn(double x) {
+        return (int) Math.max(0, Math.min(columns - 1, Math.floor((x - minX) / cellSize)));
+    }
+
+    private int clampRow(double y) {
+        return (int) Math.max(0, Math.min(rows - 1, Math.floor((y - minY) / cellSize)));
+    }
+
+    private int cellOf(double x, double y) {
+        return clampRow(y) * columns + clampColumn(x);
+    }
+
+    private void addToCell(int cell, int slot) {
+        int[] bucket = cells[cell];
+        if (bucket == null) {
+            bucket = cells[cell] = new int[4];
+        } else if (cellCounts[cell] == bucket.length) {
+            bucket = cells[cell] = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+        bucket[cellCounts[cell]++] = slot;
+    }
+
+    private void removeFromCell(int cell, int slot) {
+        int[] bucket = cells[cell];
+        for (int c = 0; c < cellCounts[cell]; c++) {
+            if (bucket[c] == slot) {
+                bucket[c] = bucket[--cellCounts[cell]];
+                return;
+            }
+        }
+    }
+
+    private double squaredDistance(int slot, double x, double y) {
+        double dx = xs[slot] - x;
+        double dy = ys[slot] - y;
+        return dx * dx + dy * dy;
+    }
+
+    private boolean isCloser(double d1, int slot1, double d2, int slot2) {
+        return d1 < d2 || (d1 == d2 && ids[slot1] < ids[slot2]);
+    }
+
+    // Max-heap helpers for kNearest (root = current worst candidate)
+    private void siftUp(int[] slots, double[] distances, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isCloser(distances[parent], slots[parent], distances[index], slots[index])) break;
+            swap(slots, distances, index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] slots, double[] distances, int heapSize) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1, right = left + 1;
+            if (left < heapSize && isCloser(distances[worst], slots[worst], distances[left], slots[left])) worst = left;
+            if (right < heapSize && isCloser(distances[worst], slots[worst], distances[right], slots[right])) worst = right;
+            if (worst == index) return;
+            swap(slots, distances, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] slots, double[] distances, int i, int j) {
+        int slot = slots[i]; slots[i] = slots[j]; slots[j] = slot;
+        double d = distances[i]; distances[i] = distances[j]; distances[j] = d;
+    }
+}
@@ -0,0 +1,90 @@
+package algorithms;
+
+import java.util.*;
+
+/**
+ * Disjoint-set forest over node IDs for incremental connectivity tracking
+ *
+ * Union by size with path halving, so adding nodes and edges is effectively
+ * O(1) amortized. Component count and largest component size are kept as
+ * running values. Edge direction is ignored (weak connectivity), and
+ * removals are not supported; rebuild from scratch after deleting edges.
+ */
+public class UnionFind {
+    private final Map<Integer, Integer> elementOf = new HashMap<>();
+    private int[] parent = new int[16];
+    private int[] componentSize = new int[16];
+    private int size;
+    private int componentCount;
+    private int largestComponentSize;
+
+    /**
+     * Register a node as its own component; returns false if it is already known
+     */
+    public boolean add(int nodeId) {
+        if (elementOf.containsKey(nodeId)) return false;
+
+        if (size == parent.length) {
+            parent = Arrays.copyOf(parent, size * 2);
+            componentSize = Arrays.copyOf(componentSize, size * 2);
+        }
+        elementOf.put(nodeId, size);
+        parent[size] = size;
+        componentSize[size] = 1;
+        size++;
+
+        componentCount++;
+        largestComponentSize = Math.max(largestComponentSize, 1);
+        return true;
+    }
+
+    /**
+     * Merge the components of two nodes (registering them if needed)
+     * @return true if two different components were joined
+     */
+    public boolean union(int nodeId1, int nodeId2) {
+        add(nodeId1);
+        add(nodeId2);
+
+        int root1 = root(elementOf.get(nodeId1));
+        int root2 = root(elementOf.get(nodeId2));
+        if (root1 == root2) return false;
+
+        if (componentSize[root1] < componentSize[root2]) {
+            int swap = root1; root1 = root2; root2 = swap;
+        }
+        parent[root2] = root1;
+        componentSize[root1] += componentSize[root2];
+
+        componentCount--;
+        largestComponentSize = Math.max(largestComponentSize, componentSize[root1]);
+        return true;
+    }
+
+    public boolean connected(int nodeId1, int nodeId2) {
+        Integer element1 = elementOf.get(nodeId1);
+        Integer element2 = elementOf.get(nodeId2);
+        if (element1 == null || element2 == null) return false;
+        return root(element1) == root(element2);
+    }
+
+    /**
+     * Number of nodes in the component containing nodeId (0 if unknown)
+     */
+    public int componentSizeOf(int nodeId) {
+        Integer element = elementOf.get(nodeId);
+        return element == null ? 0 : componentSize[root(element)];
+    }
+
+    public int size() { return size; }
+    public int getComponentCount() { return componentCount; }
+    public int getLargestComponentSize() { return largestComponentSize; }
+
+    private int root(int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+}
@@ -9,12 +9,50 @@ import java.sql.*;
  * Works with CityMapNode model to build the graph structure
  */
 public class CityMapDAO {
+    public static final int DEFAULT_FETCH_SIZE = 10_000;
+    public static final int DEFAULT_BATCH_SIZE = 5_000;
+    
+    // Node IDs per "WHERE node_id IN (...)" query in getNeighborsBulk
+    private static final int IN_CLAUSE_CHUNK = 500;
+    
+    private static final String INSERT_EDGE_SQL =
+        "INSERT INTO CityMap (node_id, x_coord, y_coord, connected_to, travel_time, road_type) VALUES (?, ?, ?, ?, ?, ?)";
+    
     private Connection connection;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int batchSize = DEFAULT_BATCH_SIZE;
 
     public CityMapDAO(Connection connection) {
         this.connection = connection;
     }
     
+    /**
+     * Receives CityMap rows as they are read from the result set
+     */
+    public interface EdgeRowHandler {
+        void onRow(int nodeId, double x, double y, int connectedTo, double travelTime, String roadType);
+    }
+    
+    /**
+     * Rows fetched per round trip when streaming (a hint; some drivers need
+     * auto-commit off before they honour it)
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 0) throw new IllegalArgumentException("fetchSize must be >= 0");
+        this.fetchSize = fetchSize;
+    }
+    
+    /**
+     * Rows per executeBatch() call when inserting
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be >= 1");
+        this.batchSize = batchSize;
+    }
+    
+    public int getFetchSize() { return fetchSize; }
+    public int getBatchSize() { return batchSize; }
+    
     /**
      * Load all nodes from database and build node map
      * @return Map of nodeId to CityMapNode objects
@@ -22,33 +60,44 @@ public class CityMapDAO {
     public Map<Integer, CityMapNode> loadNodesFromDatabase() throws SQLException {
         Map<Integer, CityMapNode> nodes = new HashMap<>();
         
-        String query = "SELECT node_id, x_coord, y_coord, connected_to, travel_time, road_type FROM CityMap";
-        Statement stmt = connection.createStatement();
-        ResultSet rs = stmt.executeQuery(query);
-
-        while (rs.next()) {
-            int nodeId = rs.getInt("node_id");
-            double x = rs.getDouble("x_coord");
-            double y = rs.getDouble("y_coord");
-            int connectedTo = rs.getInt("connected_to");
-            double travelTime = rs.getDouble("travel_time");
-            String roadType = rs.getString("road_type");
-
+        streamEdges((nodeId, x, y, connectedTo, travelTime, roadType) -> {
             // Create or get the source node
             CityMapNode node = nodes.computeIfAbsent(nodeId, 
                 id -> new CityMapNode(id, x, y));
             
             // Add edge to connected node
             if (connectedTo != nodeId) { // Avoid self-loops
-                node.addEdge(connectedTo, travelTime, roadType != null ? roadType : "street");
+                node.addEdge(connectedTo, travelTime, roadType);
             }
-        }
-
-        rs.close();
-        stmt.close();
+        });
+        
         return nodes;
     }
     
+    /**
+     * Stream every CityMap row to the handler with a forward-only, read-only
+     * cursor and the configured fetch size, so the full table never has to
+     * sit in the driver's buffers. A null road type is reported as "street".
+     * @return number of rows read
+     */
+    public long streamEdges(EdgeRowHandler handler) throws SQLException {
+        String query = "SELECT node_id, x_coord, y_coord, connected_to, travel_time, road_type FROM CityMap";
+        long rows = 0;
+        
+        try (Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(fetchSize);
+            try (ResultSet rs = stmt.executeQuery(query)) {
+                while (rs.next()) {
+                    String roadType = rs.getString(6);
+                    handler.onRow(rs.getInt(1), rs.getDouble(2), rs.getDouble(3),
+                                  rs.getInt(4), rs.getDouble(5), roadType != null ? roadType : "street");
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+    
     /**
      * Get all unique node IDs from database
      */
@@ -91,14 +140,55 @@ public class CityMapDAO {
         return neighbors;
     }
     
+    /**
+     * Fetch the neighbors of many nodes with one query per IN_CLAUSE_CHUNK IDs
+     * instead of one round trip per node. Rows are mapped the same way as getNeighbors.
+     * @return node ID -> neighbors (nodes without rows map to an empty list)
+     */
+    public Map<Integer, List<CityMapNode>> getNeighborsBulk(Collection<Integer> nodeIds) throws SQLException {
+        Map<Integer, List<CityMapNode>> neighbors = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(nodeIds);
+        for (int id : ids) {
+            neighbors.put(id, new ArrayList<>());
+        }
+        
+        for (int start = 0; start < ids.size(); start += IN_CLAUSE_CHUNK) {
+            List<Integer> chunk = ids.subList(start, Math.min(ids.size(), start + IN_CLAUSE_CHUNK));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            String query = "SELECT node_id, connected_to, x_coord, y_coord FROM CityMap WHERE node_id IN (" + placeholders + ")";
+            
+            try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+                pstmt.setFetchSize(fetchSize);
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        neighbors.get(rs.getInt(1)).add(new CityMapNode(rs.getInt(2), rs.getDouble(3), rs.getDouble(4)));
+                    }
+                }
+            }
+        }
+        return neighbors;
+    }
+    
+    /**
+     * Neighbor IDs of every node in the table, read in a single streamed query
+     */
+    public Map<Integer, List<Integer>> getAllNeighborIds() throws SQLException {
+        Map<Integer, List<Integer>> neighbors = new HashMap<>();
+        streamEdges((nodeId, x, y, connectedTo, travelTime, roadType) ->
+            neighbors.computeIfAbsent(nodeId, id -> new ArrayList<>()).add(connectedTo));
+        return neighbors;
+    }
+    
     /**
      * Insert a new edge into the database
      */
     public void insertEdge(int fromNode, double fromX, double fromY, 
                           int toNode, double toX, double toY, 
                           double travelTime, String roadType) throws SQLException {
-        String query = "INSERT INTO CityMap (node_id, x_coord, y_coord, connected_to, travel_time, road_type) VALUES (?, ?, ?, ?, ?, ?)";
-        PreparedStatement pstmt = connection.prepareStatement(query);
+        PreparedStatement pstmt = connection.prepareStatement(INSERT_EDGE_SQL);
         
         pstmt.setInt(1, fromNode);
         pstmt.setDouble(2, fromX);
@@ -111,6 +201,87 @@ public class CityMapDAO {
         pstmt.close();
     }
     
+    /**
+     * Insert every directed edge of the node map (one row per edge) using a
+     * single reused PreparedStatement, addBatch() and one transaction.
+     * @return number of rows inserted
+     */
+    public long insertEdges(Map<Integer, CityMapNode> nodes) throws SQLException {
+        try (EdgeBatchWriter writer = openEdgeBatch()) {
+            for (CityMapNode node : nodes.values()) {
+                for (CityMapNode.Edge edge : node.getAdjacentEdges()) {
+                    writer.add(node.getNodeId(), node.getX(), node.getY(),
+                               edge.getDestinationNode(), edge.getBaseWeight(), edge.getRoadType());
+                }
+            }
+            writer.commit();
+            return writer.getRowCount();
+        }
+    }
+    
+    /**
+     * Start a batched insert. Rows are sent every batchSize rows; commit() makes
+     * them durable, and closing without commit() rolls back the open transaction.
+     */
+    public EdgeBatchWriter openEdgeBatch() throws SQLException {
+        return new EdgeBatchWriter();
+    }
+    
+    /**
+     * Batched edge inserter around one reused PreparedStatement
+     */
+    public class EdgeBatchWriter implements AutoCloseable {
+        private final PreparedStatement pstmt;
+        private final boolean previousAutoCommit;
+        private int pending;
+        private long rowCount;
+        private boolean committed;
+        
+        private EdgeBatchWriter() throws SQLException {
+            previousAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            pstmt = connection.prepareStatement(INSERT_EDGE_SQL);
+        }
+        
+        public void add(int fromNode, double fromX, double fromY, int toNode,
+                        double travelTime, String roadType) throws SQLException {
+            pstmt.setInt(1, fromNode);
+            pstmt.setDouble(2, fromX);
+            pstmt.setDouble(3, fromY);
+            pstmt.setInt(4, toNode);
+            pstmt.setDouble(5, travelTime);
+            pstmt.setString(6, roadType);
+            pstmt.addBatch();
+            rowCount++;
+            
+            if (++pending >= batchSize) flush();
+        }
+        
+        public void flush() throws SQLException {
+            if (pending == 0) return;
+            pstmt.executeBatch();
+            pending = 0;
+        }
+        
+        public void commit() throws SQLException {
+            flush();
+            connection.commit();
+            committed = true;
+        }
+        
+        public long getRowCount() { return rowCount; }
+        
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (!committed) connection.rollback();
+                pstmt.close();
+            } finally {
+                connection.setAutoCommit(previousAutoCommit);
+            }
+        }
+    }
+    
     /**
      * Close database connection
      */
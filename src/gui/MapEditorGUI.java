@@ -7,6 +7,8 @@ import java.io.*;
 import java.util.*;
 import java.util.List;
 import models.*;
+import algorithms.SpatialGridIndex;
+import algorithms.UnionFind;
 
 /**
  * Map Editor GUI for creating and editing city maps
@@ -277,6 +279,7 @@ public class MapEditorGUI extends JFrame {
                         currentGraph.addEdge(from, to, weight);
                         mapCanvas.addNodeIfNotExists(from);
                         mapCanvas.addNodeIfNotExists(to);
+                        mapCanvas.connectNodes(from, to);
                     }
                 }
             }
@@ -311,6 +314,8 @@ public class MapEditorGUI extends JFrame {
     // Inner class for the map drawing canvas
     private class MapCanvas extends JPanel {
         private Map<Integer, Point> nodePositions;
+        private SpatialGridIndex nodeIndex; // mirrors nodePositions for click lookups
+        private UnionFind connectivity;     // components of the edited graph
         private Integer selectedNode;
         private Integer firstSelectedNode; // For edge creation
         private double zoomFactor = 1.0;
@@ -318,6 +323,8 @@ public class MapEditorGUI extends JFrame {
         
         public MapCanvas() {
             nodePositions = new HashMap<>();
+            nodeIndex = new SpatialGridIndex();
+            connectivity = new UnionFind();
             
             addMouseListener(new MouseAdapter() {
                 @Override
@@ -366,7 +373,9 @@ public class MapEditorGUI extends JFrame {
                 }
                 
                 nodePositions.put(nodeId, point);
-                updateStatus("Added node " + nodeId);
+                nodeIndex.insert(nodeId, point.x, point.y);
+                connectivity.add(nodeId);
+                updateStatus("Added node " + nodeId + componentSummary());
                 
                 // Auto-increment node ID
                 nodeIdField.setText(String.valueOf(nodeId + 1));
@@ -410,7 +419,9 @@ public class MapEditorGUI extends JFrame {
             try {
                 double weight = Double.parseDouble(edgeWeightField.getText());
                 currentGraph.addEdge(from, to, weight);
-                updateStatus("Created edge from " + from + " to " + to + " (weight: " + weight + ")");
+                connectivity.union(from, to);
+                updateStatus("Created edge from " + from + " to " + to + " (weight: " + weight + ")"
+                             + componentSummary());
                 repaint();
             } catch (NumberFormatException ex) {
                 updateStatus("Invalid edge weight");
@@ -421,19 +432,22 @@ public class MapEditorGUI extends JFrame {
             Integer nodeToDelete = findNodeAtPoint(point);
             if (nodeToDelete != null) {
                 nodePositions.remove(nodeToDelete);
+                nodeIndex.remove(nodeToDelete);
                 // Note: We can't easily remove from Graph, so just remove visually
                 updateStatus("Deleted node " + nodeToDelete + " (visual only)");
                 repaint();
             }
         }
         
+        private String componentSummary() {
+            return " - " + connectivity.getComponentCount() + " component(s), largest "
+                   + connectivity.getLargestComponentSize();
+        }
+        
         private Integer findNodeAtPoint(Point point) {
-            for (Map.Entry<Integer, Point> entry : nodePositions.entrySet()) {
-                Point nodePos = entry.getValue();
-                double distance = point.distance(nodePos);
-                if (distance <= NODE_RADIUS) {
-                    return entry.getKey();
-                }
+            int nearest = nodeIndex.nearest(point.x, point.y);
+            if (nearest >= 0 && point.distance(nodePositions.get(nearest)) <= NODE_RADIUS) {
+                return nearest;
             }
             return null;
         }
@@ -531,11 +545,19 @@ public class MapEditorGUI extends JFrame {
                 int x = 50 + rand.nextInt(Math.max(1, getWidth() - 100));
                 int y = 50 + rand.nextInt(Math.max(1, getHeight() - 100));
                 nodePositions.put(nodeId, new Point(x, y));
+                nodeIndex.insert(nodeId, x, y);
+                connectivity.add(nodeId);
             }
         }
         
+        public void connectNodes(int from, int to) {
+            connectivity.union(from, to);
+        }
+        
         public void clearNodes() {
             nodePositions.clear();
+            nodeIndex = new SpatialGridIndex();
+            connectivity = new UnionFind();
             selectedNode = null;
             firstSelectedNode = null;
         }
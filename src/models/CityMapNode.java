@@ -17,15 +17,23 @@ public class CityMapNode {
         this.trafficMultiplier = 1.0; // Default no traffic
     }
     
+    /**
+     * Directed edge. Road type, speed limit and lanes are packed into one int
+     * (see RoadTypes); the road type name is only looked up in getRoadType().
+     */
     public static class Edge {
         private int destinationNode;
         private double baseWeight;
-        private String roadType; // highway, street, alley
+        private int attributes;
         
         public Edge(int destinationNode, double baseWeight, String roadType) {
+            this(destinationNode, baseWeight, RoadTypes.defaultAttributes(roadType));
+        }
+        
+        public Edge(int destinationNode, double baseWeight, int attributes) {
             this.destinationNode = destinationNode;
             this.baseWeight = baseWeight;
-            this.roadType = roadType;
+            this.attributes = attributes;
         }
         
         public double getDynamicWeight(double trafficMultiplier) {
@@ -35,7 +43,11 @@ public class CityMapNode {
         // Getters and setters
         public int getDestinationNode() { return destinationNode; }
         public double getBaseWeight() { return baseWeight; }
-        public String getRoadType() { return roadType; }
+        public String getRoadType() { return RoadTypes.roadTypeName(attributes); } // highway, street, alley, ...
+        public int getRoadTypeCode() { return RoadTypes.roadTypeCode(attributes); }
+        public int getSpeedLimit() { return RoadTypes.speedLimit(attributes); }
+        public int getLanes() { return RoadTypes.lanes(attributes); }
+        public int getAttributes() { return attributes; }
         public void setBaseWeight(double baseWeight) { this.baseWeight = baseWeight; }
     }
     
@@ -43,6 +55,13 @@ public class CityMapNode {
         adjacentEdges.add(new Edge(destinationNode, weight, roadType));
     }
     
+    /**
+     * Add an edge with packed attributes (see RoadTypes.pack)
+     */
+    public void addEdge(int destinationNode, double weight, int attributes) {
+        adjacentEdges.add(new Edge(destinationNode, weight, attributes));
+    }
+    
     public double getEuclideanDistance(CityMapNode other) {
         return Math.sqrt(Math.pow(this.x - other.x, 2) + Math.pow(this.y - other.y, 2));
     }
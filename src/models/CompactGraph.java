@@ -0,0 +1,359 @@
+package models;
+
+import java.util.*;
+
+/**
+ * Immutable compressed sparse row (CSR) view of the city road network.
+ * Node IDs are remapped to dense indices 0..n-1 so that searches can run on
+ * primitive arrays instead of Map<Integer, CityMapNode> lookups.
+ *
+ * The outgoing edges of node i occupy [edgeStart(i), edgeEnd(i)) in the
+ * target/weight arrays. Topology and base weights never change after
+ * construction; only the per-node traffic multipliers are mutable.
+ *
+ * Dense indices are internal: callers translate with indexOf()/nodeId(), so
+ * the index order can be chosen for cache locality (see NodeOrder).
+ */
+public class CompactGraph {
+    /**
+     * How node IDs are assigned to dense indices
+     */
+    public enum NodeOrder {
+        ID,      // ascending node ID
+        HILBERT  // along a Hilbert curve over x/y, so nearby intersections get nearby indices
+    }
+
+    // Hilbert curve resolution per axis (2^16 x 2^16 cells over the bounding box)
+    private static final int HILBERT_BITS = 16;
+
+    private final int nodeCount;
+    private final int edgeCount;
+
+    // Dense index <-> external node ID mapping
+    private final int[] nodeIds;        // index -> node ID
+    private final int[] idTableKeys;    // open-addressing node ID -> index table
+    private final int[] idTableValues;  // -1 marks an empty slot
+    private final int idTableMask;
+
+    // Node attributes
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] trafficMultipliers;
+
+    // CSR adjacency
+    private final int[] offsets;        // length nodeCount + 1
+    private final int[] targets;        // dense index of each edge's destination
+    private final double[] weights;     // base weight of each edge
+    private final int[] attributes;     // packed road type / speed limit / lanes (see RoadTypes)
+
+    // Reverse adjacency, built on first use: the incoming edges of node i occupy
+    // [inEdgeStart(i), inEdgeEnd(i)) and name the forward edge and its source
+    private volatile int[] reverseOffsets;
+    private int[] reverseEdges;
+    private int[] reverseSources;
+
+    private CompactGraph(int[] nodeIds, double[] xs, double[] ys, double[] trafficMultipliers,
+                         int[] offsets, int[] targets, double[] weights, int[] attributes) {
+        this.nodeCount = nodeIds.length;
+        this.edgeCount = targets.length;
+        this.nodeIds = nodeIds;
+        this.xs = xs;
+        this.ys = ys;
+        this.trafficMultipliers = trafficMultipliers;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.attributes = attributes;
+
+        // Sort each neighbor range by target so findEdge() can binary search
+        for (int i = 0; i < nodeCount; i++) {
+            sortEdgeRange(offsets[i], offsets[i + 1]);
+        }
+
+        // Open-addressing table (load factor <= 0.5) used by indexOf()
+        int capacity = Integer.highestOneBit(Math.max(2, nodeCount * 2 - 1)) << 1;
+        this.idTableKeys = new int[capacity];
+        this.idTableValues = new int[capacity];
+        this.idTableMask = capacity - 1;
+        Arrays.fill(idTableValues, -1);
+        for (int i = 0; i < nodeCount; i++) {
+            int slot = hashSlot(nodeIds[i]);
+            while (idTableValues[slot] >= 0) slot = (slot + 1) & idTableMask;
+            idTableKeys[slot] = nodeIds[i];
+            idTableValues[slot] = i;
+        }
+    }
+
+    /**
+     * Stable insertion sort of one adjacency range by target index.
+     * Duplicate edges keep their load order, so findEdge() returns the
+     * first one loaded, like the old linear scan did.
+     */
+    private void sortEdgeRange(int from, int to) {
+        for (int e = from + 1; e < to; e++) {
+            int target = targets[e];
+            if (targets[e - 1] <= target) continue;
+
+            double weight = weights[e];
+            int attribute = attributes[e];
+            int j = e - 1;
+            while (j >= from && targets[j] > target) {
+                targets[j + 1] = targets[j];
+                weights[j + 1] = weights[j];
+                attributes[j + 1] = attributes[j];
+                j--;
+            }
+            targets[j + 1] = target;
+            weights[j + 1] = weight;
+            attributes[j + 1] = attribute;
+        }
+    }
+
+    private int hashSlot(int nodeId) {
+        return (nodeId * 0x9E3779B9 >>> 16 ^ nodeId * 0x9E3779B9) & idTableMask;
+    }
+
+    /**
+     * Build a compact graph from the object node map.
+     * Nodes are indexed in ascending ID order; edges pointing at unknown
+     * nodes are dropped.
+     */
+    public static CompactGraph fromNodes(Map<Integer, CityMapNode> nodes) {
+        return fromNodes(nodes, NodeOrder.ID);
+    }
+
+    /**
+     * Build a compact graph with the given dense index order.
+     * Edges pointing at unknown nodes are dropped.
+     */
+    public static CompactGraph fromNodes(Map<Integer, CityMapNode> nodes, NodeOrder order) {
+        int n = nodes.size();
+        int[] sortedIds = new int[n];
+        int k = 0;
+        for (int id : nodes.keySet()) sortedIds[k++] = id;
+        Arrays.sort(sortedIds);
+
+        // rank[p] = dense index of the node at position p in sortedIds
+        int[] ids = sortedIds;
+        int[] rank;
+        if (order == NodeOrder.HILBERT) {
+            rank = hilbertRank(nodes, sortedIds);
+            ids = new int[n];
+            for (int p = 0; p < n; p++) ids[rank[p]] = sortedIds[p];
+        } else {
+            rank = new int[n];
+            for (int p = 0; p < n; p++) rank[p] = p;
+        }
+
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        double[] traffic = new double[n];
+        int[] offsets = new int[n + 1];
+
+        // First pass: coordinates and out-degrees
+        for (int i = 0; i < n; i++) {
+            CityMapNode node = nodes.get(ids[i]);
+            xs[i] = node.getX();
+            ys[i] = node.getY();
+            traffic[i] = node.getTrafficMultiplier();
+
+            int degree = 0;
+            for (CityMapNode.Edge edge : node.getAdjacentEdges()) {
+                if (nodes.containsKey(edge.getDestinationNode())) degree++;
+            }
+            offsets[i + 1] = offsets[i] + degree;
+        }
+
+        int m = offsets[n];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        int[] attributes = new int[m];
+
+        // Second pass: fill edge arrays
+        for (int i = 0; i < n; i++) {
+            int e = offsets[i];
+            for (CityMapNode.Edge edge : nodes.get(ids[i]).getAdjacentEdges()) {
+                int position = Arrays.binarySearch(sortedIds, edge.getDestinationNode());
+                if (position < 0) continue;
+
+                targets[e] = rank[position];
+                weights[e] = edge.getBaseWeight();
+                attributes[e] = edge.getAttributes();
+                e++;
+            }
+        }
+
+        return new CompactGraph(ids, xs, ys, traffic, offsets, targets, weights, attributes);
+    }
+
+    /**
+     * Rank of each node (by position in sortedIds) along a Hilbert curve over
+     * the bounding box; ties keep ascending ID order
+     */
+    private static int[] hilbertRank(Map<Integer, CityMapNode> nodes, int[] sortedIds) {
+        int n = sortedIds.length;
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (CityMapNode node : nodes.values()) {
+            minX = Math.min(minX, node.getX());
+            maxX = Math.max(maxX, node.getX());
+            minY = Math.min(minY, node.getY());
+            maxY = Math.max(maxY, node.getY());
+        }
+
+        int cells = 1 << HILBERT_BITS;
+        double scale = (cells - 1) / Math.max(Math.max(maxX - minX, maxY - minY), 1e-9);
+
+        // Sort (curve position << 32 | position in sortedIds) as primitive longs
+        long[] keys = new long[n];
+        for (int p = 0; p < n; p++) {
+            CityMapNode node = nodes.get(sortedIds[p]);
+            int hx = (int) ((node.getX() - minX) * scale);
+            int hy = (int) ((node.getY() - minY) * scale);
+            keys[p] = hilbertIndex(hx, hy) << 32 | p;
+        }
+        Arrays.sort(keys);
+
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[(int) keys[i]] = i;
+        }
+        return rank;
+    }
+
+    /**
+     * Distance of cell (x, y) along the Hilbert curve filling a 2^HILBERT_BITS square
+     */
+    static long hilbertIndex(int x, int y) {
+        int n = 1 << HILBERT_BITS;
+        long d = 0;
+        for (int s = n >> 1; s > 0; s >>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+
+            // Rotate the quadrant so the curve stays continuous
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = n - 1 - x;
+                    y = n - 1 - y;
+                }
+                int t = x; x = y; y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Dense index of a node ID, or -1 if the node is not in the graph
+     */
+    public int indexOf(int nodeId) {
+        for (int slot = hashSlot(nodeId); idTableValues[slot] >= 0; slot = (slot + 1) & idTableMask) {
+            if (idTableKeys[slot] == nodeId) return idTableValues[slot];
+        }
+        return -1;
+    }
+
+    /**
+     * Position of the edge from -> to (dense indices), or -1 if there is none.
+     * Binary search over the sorted neighbor range: O(log degree).
+     */
+    public int findEdge(int from, int to) {
+        int low = offsets[from];
+        int high = offsets[from + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (targets[mid] < to) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low < offsets[from + 1] && targets[low] == to ? low : -1;
+    }
+
+    /**
+     * Convert a path of dense indices back to external node IDs
+     */
+    public List<Integer> toNodeIds(int[] indexPath) {
+        List<Integer> path = new ArrayList<>(indexPath.length);
+        for (int index : indexPath) {
+            path.add(nodeIds[index]);
+        }
+        return path;
+    }
+
+    /**
+     * Edge weight from node index {@code from} including its current traffic multiplier
+     */
+    public double dynamicWeight(int from, int edge) {
+        return weights[edge] * trafficMultipliers[from];
+    }
+
+    public double euclideanDistance(int a, int b) {
+        double dx = xs[a] - xs[b];
+        double dy = ys[a] - ys[b];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // Node accessors
+    public int getNodeCount() { return nodeCount; }
+    public int getEdgeCount() { return edgeCount; }
+    public int nodeId(int index) { return nodeIds[index]; }
+    public double x(int index) { return xs[index]; }
+    public double y(int index) { return ys[index]; }
+    public double trafficMultiplier(int index) { return trafficMultipliers[index]; }
+    public void setTrafficMultiplier(int index, double multiplier) { trafficMultipliers[index] = multiplier; }
+
+    // Edge accessors
+    public int edgeStart(int index) { return offsets[index]; }
+    public int edgeEnd(int index) { return offsets[index + 1]; }
+    public int degree(int index) { return offsets[index + 1] - offsets[index]; }
+    public int target(int edge) { return targets[edge]; }
+    public double baseWeight(int edge) { return weights[edge]; }
+    public String roadType(int edge) { return RoadTypes.roadTypeName(attributes[edge]); }
+    public int roadTypeCode(int edge) { return RoadTypes.roadTypeCode(attributes[edge]); }
+    public int speedLimit(int edge) { return RoadTypes.speedLimit(attributes[edge]); }
+    public int lanes(int edge) { return RoadTypes.lanes(attributes[edge]); }
+    public int attributes(int edge) { return attributes[edge]; }
+
+    // Reverse edge accessors (slots in [inEdgeStart, inEdgeEnd) are not forward edge positions)
+    public int inEdgeStart(int index) { return reverseOffsets()[index]; }
+    public int inEdgeEnd(int index) { return reverseOffsets()[index + 1]; }
+    public int inEdge(int slot) { return reverseEdges[slot]; }
+    public int inSource(int slot) { return reverseSources[slot]; }
+
+    private int[] reverseOffsets() {
+        int[] result = reverseOffsets;
+        return result != null ? result : buildReverse();
+    }
+
+    private synchronized int[] buildReverse() {
+        if (reverseOffsets != null) return reverseOffsets;
+
+        int[] counts = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            counts[targets[e] + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            counts[i + 1] += counts[i];
+        }
+
+        int[] edges = new int[edgeCount];
+        int[] sources = new int[edgeCount];
+        int[] fill = Arrays.copyOf(counts, nodeCount);
+        for (int from = 0; from < nodeCount; from++) {
+            for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+                int slot = fill[targets[e]]++;
+                edges[slot] = e;
+                sources[slot] = from;
+            }
+        }
+
+        // Publish the slot arrays before the offsets that make them reachable
+        reverseEdges = edges;
+        reverseSources = sources;
+        reverseOffsets = counts;
+        return counts;
+    }
+}
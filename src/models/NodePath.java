@@ -0,0 +1,221 @@
+package models;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An immutable route as a sequence of node IDs, stored plain or delta-compressed
+ *
+ * A plain path holds one int[] (4 bytes per node, nothing boxed). compress()
+ * re-encodes the differences between consecutive nodes as zigzag varints, one
+ * or two bytes per node where neighbouring intersections have nearby IDs, and
+ * samples the node and byte offset every SAMPLE_INTERVAL nodes so nodeAt()
+ * decodes at most that many. Sequential reads (iterator, stream, the List view's
+ * iterator) decode in one pass. Neither form ever copies on read.
+ */
+public final class NodePath {
+    public static final int SAMPLE_INTERVAL = 32;
+    private static final int SAMPLE_SHIFT = 5;
+    public static final NodePath EMPTY = new NodePath(new int[0]);
+
+    private final int length;
+    private final int[] nodes;      // plain form, null when compressed
+    private final byte[] packed;    // compressed: zigzag varint deltas for nodes 1..length-1
+    private final int[] samples;    // compressed: [2j] node j * SAMPLE_INTERVAL, [2j + 1] offset of the next delta
+
+    private NodePath(int[] nodes) {
+        this.length = nodes.length;
+        this.nodes = nodes;
+        this.packed = null;
+        this.samples = null;
+    }
+
+    private NodePath(int length, byte[] packed, int[] samples) {
+        this.length = length;
+        this.nodes = null;
+        this.packed = packed;
+        this.samples = samples;
+    }
+
+    public static NodePath of(int[] nodeIds) {
+        return nodeIds.length == 0 ? EMPTY : new NodePath(nodeIds.clone());
+    }
+
+    public static NodePath of(List<Integer> nodeIds) {
+        if (nodeIds.isEmpty()) return EMPTY;
+        int[] nodes = new int[nodeIds.size()];
+        int i = 0;
+        for (int nodeId : nodeIds) nodes[i++] = nodeId;
+        return new NodePath(nodes);
+    }
+
+    /**
+     * Node IDs of a dense index path
+     */
+    public static NodePath ofIndices(CompactGraph graph, int[] indexPath) {
+        if (indexPath.length == 0) return EMPTY;
+        int[] nodes = new int[indexPath.length];
+        for (int i = 0; i < nodes.length; i++) nodes[i] = graph.nodeId(indexPath[i]);
+        return new NodePath(nodes);
+    }
+
+    public int length() { return length; }
+    public boolean isEmpty() { return length == 0; }
+    public boolean isCompressed() { return nodes == null; }
+
+    public int nodeAt(int i) {
+        if (i < 0 || i >= length) throw new IndexOutOfBoundsException("Node " + i + " of " + length);
+        if (nodes != null) return nodes[i];
+
+        int sample = i >>> SAMPLE_SHIFT;
+        int node = samples[2 * sample];
+        int offset = samples[2 * sample + 1];
+        for (int k = sample << SAMPLE_SHIFT; k < i; k++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = packed[offset++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            node += (delta >>> 1) ^ -(delta & 1);
+        }
+        return node;
+    }
+
+    public int first() { return nodeAt(0); }
+    public int last() { return nodeAt(length - 1); }
+
+    /**
+     * Nodes in order, decoded on the fly
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        if (nodes != null) return Arrays.stream(nodes).iterator();
+        return new PrimitiveIterator.OfInt() {
+            private int index;
+            private int node;
+            private int offset;
+
+            @Override
+            public boolean hasNext() { return index < length; }
+
+            @Override
+            public int nextInt() {
+                if (index >= length) throw new NoSuchElementException();
+                if (index == 0) {
+                    node = samples[0];
+                    offset = samples[1];
+                } else {
+                    int delta = 0;
+                    int shift = 0;
+                    byte b;
+                    do {
+                        b = packed[offset++];
+                        delta |= (b & 0x7F) << shift;
+                        shift += 7;
+                    } while (b < 0);
+                    node += (delta >>> 1) ^ -(delta & 1);
+                }
+                index++;
+                return node;
+            }
+        };
+    }
+
+    public IntStream stream() {
+        if (nodes != null) return Arrays.stream(nodes);
+        Spliterator.OfInt spliterator = Spliterators.spliterator(iterator(), length,
+            Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+        return StreamSupport.intStream(spliterator, false);
+    }
+
+    public int[] toArray() {
+        if (nodes != null) return nodes.clone();
+        int[] array = new int[length];
+        PrimitiveIterator.OfInt it = iterator();
+        for (int i = 0; i < length; i++) array[i] = it.nextInt();
+        return array;
+    }
+
+    /**
+     * Unmodifiable List view (boxes each node as it is read)
+     */
+    public List<Integer> asList() {
+        return new ListView();
+    }
+
+    /**
+     * The delta-compressed form of this path; itself if already compressed or empty
+     */
+    public NodePath compress() {
+        if (nodes == null || length == 0) return this;
+        byte[] buffer = new byte[length * 5];
+        int[] sampled = new int[2 * (((length - 1) >>> SAMPLE_SHIFT) + 1)];
+        int offset = 0;
+        for (int i = 0; i < length; i++) {
+            if ((i & (SAMPLE_INTERVAL - 1)) == 0) {
+                sampled[2 * (i >>> SAMPLE_SHIFT)] = nodes[i];
+                sampled[2 * (i >>> SAMPLE_SHIFT) + 1] = offset;
+            }
+            if (i + 1 < length) {
+                int delta = nodes[i + 1] - nodes[i];
+                int zigzag = (delta << 1) ^ (delta >> 31);
+                while ((zigzag & ~0x7F) != 0) {
+                    buffer[offset++] = (byte) ((zigzag & 0x7F) | 0x80);
+                    zigzag >>>= 7;
+                }
+                buffer[offset++] = (byte) zigzag;
+            }
+        }
+        return new NodePath(length, Arrays.copyOf(buffer, offset), sampled);
+    }
+
+    /**
+     * Approximate heap footprint, headers included
+     */
+    public long getMemoryBytes() {
+        long bytes = 32;
+        if (nodes != null) return bytes + 16 + 4L * nodes.length;
+        return bytes + 16 + packed.length + 16 + 4L * samples.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NodePath)) return false;
+        NodePath other = (NodePath) o;
+        if (length != other.length) return false;
+        if (nodes != null && other.nodes != null) return Arrays.equals(nodes, other.nodes);
+        PrimitiveIterator.OfInt a = iterator();
+        PrimitiveIterator.OfInt b = other.iterator();
+        while (a.hasNext()) {
+            if (a.nextInt() != b.nextInt()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (PrimitiveIterator.OfInt it = iterator(); it.hasNext(); ) hash = 31 * hash + it.nextInt();
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return asList().toString();
+    }
+
+    private final class ListView extends AbstractList<Integer> implements RandomAccess {
+        @Override
+        public Integer get(int index) { return nodeAt(index); }
+
+        @Override
+        public int size() { return length; }
+
+        @Override
+        public Iterator<Integer> iterator() { return NodePath.this.iterator(); }
+    }
+}
@@ -0,0 +1,119 @@
+package models;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned road type codes and packed per-edge attributes
+ *
+ * Road types are stored as one-byte codes instead of a String per edge. The
+ * known types have fixed codes; any other name read from a map file is
+ * registered on first use. Codes run 0-255; the last one is "other", shared by
+ * every name registered after the first 255, so loading never fails on a map
+ * with too many types. Names are only produced again at the API boundary
+ * (getRoadType / roadType accessors).
+ *
+ * Edge attributes are packed into one int:
+ *   bits  0-7  road type code
+ *   bits  8-15 speed limit (km/h, 0-255)
+ *   bits 16-19 lanes per direction (0-15)
+ */
+public final class RoadTypes {
+    public static final int STREET = 0;
+    public static final int HIGHWAY = 1;
+    public static final int ALLEY = 2;
+    public static final int ONEWAY = 3;
+    public static final int ARTERIAL = 4;
+    public static final int OTHER = 255;
+    public static final String OTHER_NAME = "other";
+
+    // Registry (code -> name, default speed limit, default lanes). Registration is
+    // synchronized and copies the arrays, so readers never need the lock.
+    private static final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[0];
+    private static volatile int[] defaultSpeedLimits = new int[0];
+    private static volatile int[] defaultLanes = new int[0];
+
+    static {
+        register("street", 50, 1);
+        register("highway", 100, 3);
+        register("alley", 20, 1);
+        register("oneway", 50, 2);
+        register("arterial", 70, 2);
+    }
+
+    private RoadTypes() {}
+
+    private static synchronized int register(String name, int speedLimit, int lanes) {
+        Integer existing = codes.get(name);
+        if (existing != null) return existing;
+        if (names.length > OTHER) {
+            codes.put(name, OTHER);
+            return OTHER;
+        }
+
+        int code = names.length;
+        String registered = code == OTHER ? OTHER_NAME : name;
+        String[] newNames = Arrays.copyOf(names, code + 1);
+        int[] newSpeedLimits = Arrays.copyOf(defaultSpeedLimits, code + 1);
+        int[] newLanes = Arrays.copyOf(defaultLanes, code + 1);
+        newNames[code] = registered.intern();
+        newSpeedLimits[code] = speedLimit;
+        newLanes[code] = lanes;
+
+        // Publish the attribute arrays before the names that make the code visible
+        defaultSpeedLimits = newSpeedLimits;
+        defaultLanes = newLanes;
+        names = newNames;
+        codes.putIfAbsent(newNames[code], code);
+        codes.put(name, code);
+        return code;
+    }
+
+    /**
+     * Code for a road type name, registering unknown names with street defaults.
+     * Null maps to "street". Always in 0-255.
+     */
+    public static int codeOf(String name) {
+        if (name == null) return STREET;
+        Integer code = codes.get(name);
+        return code != null ? code : register(name, defaultSpeedLimits[STREET], defaultLanes[STREET]);
+    }
+
+    public static String nameOf(int code) {
+        return names[code & 0xFF];
+    }
+
+    public static int count() {
+        return names.length;
+    }
+
+    public static int defaultSpeedLimit(int code) {
+        return defaultSpeedLimits[code & 0xFF];
+    }
+
+    public static int defaultLanes(int code) {
+        return defaultLanes[code & 0xFF];
+    }
+
+    // Packed edge attributes
+
+    public static int pack(int roadTypeCode, int speedLimit, int lanes) {
+        if (speedLimit < 0 || speedLimit > 255) throw new IllegalArgumentException("speedLimit out of range: " + speedLimit);
+        if (lanes < 0 || lanes > 15) throw new IllegalArgumentException("lanes out of range: " + lanes);
+        return (roadTypeCode & 0xFF) | speedLimit << 8 | lanes << 16;
+    }
+
+    /**
+     * Attributes for a road type with its default speed limit and lanes
+     */
+    public static int defaultAttributes(String roadType) {
+        int code = codeOf(roadType);
+        return pack(code, defaultSpeedLimit(code), defaultLanes(code));
+    }
+
+    public static int roadTypeCode(int attributes) { return attributes & 0xFF; }
+    public static int speedLimit(int attributes) { return attributes >>> 8 & 0xFF; }
+    public static int lanes(int attributes) { return attributes >>> 16 & 0xF; }
+    public static String roadTypeName(int attributes) { return nameOf(attributes & 0xFF); }
+}
@@ -0,0 +1,150 @@
+package models;
+
+import java.util.*;
+
+/**
+ * Time-of-day travel time factors per road type, piecewise linear between hourly breakpoints
+ *
+ * An edge entered at minute t of the day takes its traffic-adjusted weight
+ * (CompactGraph.dynamicWeight, read as minutes) times its road type's factor at
+ * t. Factors are stored as one float per road type and hour, interpolated
+ * linearly and wrapping around midnight. Road types without a profile keep
+ * factor 1. Instances are immutable.
+ *
+ * Arrivals are FIFO: entering an edge later never gets you out sooner. A factor
+ * that falls faster than time passes would break this on long edges, so
+ * arrivalTime() returns the earliest arrival over all departures at or after t
+ * (waiting at the node is allowed), which never decreases as t grows.
+ */
+public final class TravelTimeProfiles {
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_BREAKPOINT = 60;
+    public static final int BREAKPOINTS = MINUTES_PER_DAY / MINUTES_PER_BREAKPOINT;
+
+    private final float[] factors;            // [roadTypeCode * BREAKPOINTS + hour]
+    private final float[] maxFallPerMinute;   // per road type: steepest factor decrease per minute
+    private final int typeCount;
+    private final double minFactor;
+
+    /**
+     * @param hourlyFactorsByRoadType Road type name -> BREAKPOINTS factors, the first at midnight
+     */
+    public TravelTimeProfiles(Map<String, double[]> hourlyFactorsByRoadType) {
+        int types = 0;
+        for (String roadType : hourlyFactorsByRoadType.keySet()) {
+            types = Math.max(types, RoadTypes.codeOf(roadType) + 1);
+        }
+        this.typeCount = types;
+        this.factors = new float[types * BREAKPOINTS];
+        this.maxFallPerMinute = new float[types];
+        Arrays.fill(factors, 1.0f);
+
+        double min = 1.0;
+        for (Map.Entry<String, double[]> entry : hourlyFactorsByRoadType.entrySet()) {
+            double[] hourly = entry.getValue();
+            if (hourly.length != BREAKPOINTS) {
+                throw new IllegalArgumentException("Profile for " + entry.getKey() + " needs " + BREAKPOINTS
+                                                   + " hourly factors, got " + hourly.length);
+            }
+            int base = RoadTypes.codeOf(entry.getKey()) * BREAKPOINTS;
+            for (int hour = 0; hour < BREAKPOINTS; hour++) {
+                if (!(hourly[hour] > 0)) {
+                    throw new IllegalArgumentException("Factors must be positive: " + entry.getKey() + " hour " + hour);
+                }
+                factors[base + hour] = (float) hourly[hour];
+            }
+        }
+        for (int type = 0; type < types; type++) {
+            int base = type * BREAKPOINTS;
+            for (int hour = 0; hour < BREAKPOINTS; hour++) {
+                float fall = factors[base + hour] - factors[base + (hour + 1) % BREAKPOINTS];
+                maxFallPerMinute[type] = Math.max(maxFallPerMinute[type], fall / MINUTES_PER_BREAKPOINT);
+                min = Math.min(min, factors[base + hour]);
+            }
+        }
+        this.minFactor = min;
+    }
+
+    /**
+     * Factor 1 at all times: time-dependent searches give static results
+     */
+    public static TravelTimeProfiles flat() {
+        return new TravelTimeProfiles(new HashMap<>());
+    }
+
+    /**
+     * Morning (7-9) and evening (17-19) peaks, strongest on highways and
+     * arterials, with lighter traffic at night
+     */
+    public static TravelTimeProfiles rushHour() {
+        Map<String, double[]> profiles = new HashMap<>();
+        profiles.put("highway", dailyProfile(0.85, 1.10, 2.00, 2.20));
+        profiles.put("arterial", dailyProfile(0.90, 1.15, 1.70, 1.80));
+        profiles.put("street", dailyProfile(0.95, 1.05, 1.30, 1.35));
+        profiles.put("oneway", dailyProfile(0.95, 1.10, 1.40, 1.45));
+        profiles.put("alley", dailyProfile(1.00, 1.00, 1.10, 1.10));
+        return new TravelTimeProfiles(profiles);
+    }
+
+    private static double[] dailyProfile(double night, double day, double morningPeak, double eveningPeak) {
+        double[] hourly = new double[BREAKPOINTS];
+        for (int hour = 0; hour < BREAKPOINTS; hour++) {
+            hourly[hour] = hour < 6 || hour >= 22 ? night : day;
+        }
+        hourly[6] = (night + morningPeak) / 2;
+        hourly[7] = morningPeak;
+        hourly[8] = morningPeak;
+        hourly[9] = (day + morningPeak) / 2;
+        hourly[16] = (day + eveningPeak) / 2;
+        hourly[17] = eveningPeak;
+        hourly[18] = eveningPeak;
+        hourly[19] = (day + eveningPeak) / 2;
+        return hourly;
+    }
+
+    /**
+     * Factor for a road type at a time of day (minutes, any value; wraps every 24h)
+     */
+    public double factor(int roadTypeCode, double minute) {
+        if (roadTypeCode >= typeCount) return 1.0;
+        double position = minuteOfDay(minute) / MINUTES_PER_BREAKPOINT;
+        int hour = Math.min((int) position, BREAKPOINTS - 1);
+        int base = roadTypeCode * BREAKPOINTS;
+        float from = factors[base + hour];
+        float to = factors[base + (hour + 1) % BREAKPOINTS];
+        return from + (to - from) * (position - hour);
+    }
+
+    /**
+     * Earliest arrival at the edge's target when ready to enter it at departure (minutes)
+     */
+    public double arrivalTime(CompactGraph graph, int from, int edge, double departure) {
+        double cost = graph.dynamicWeight(from, edge);
+        int type = graph.roadTypeCode(edge);
+        double arrival = departure + cost * factor(type, departure);
+        if (type >= typeCount || cost * maxFallPerMinute[type] <= 1.0) return arrival;
+
+        // Leaving at a later breakpoint can arrive sooner; one day of breakpoints covers every option
+        double breakpoint = (Math.floor(departure / MINUTES_PER_BREAKPOINT) + 1) * MINUTES_PER_BREAKPOINT;
+        for (int k = 0; k < BREAKPOINTS && breakpoint < arrival; k++, breakpoint += MINUTES_PER_BREAKPOINT) {
+            arrival = Math.min(arrival, breakpoint + cost * factor(type, breakpoint));
+        }
+        return arrival;
+    }
+
+    public double travelTime(CompactGraph graph, int from, int edge, double departure) {
+        return arrivalTime(graph, from, edge, departure) - departure;
+    }
+
+    /**
+     * Smallest factor of any road type; static lower bounds times this stay lower bounds
+     */
+    public double getMinFactor() {
+        return minFactor;
+    }
+
+    public static double minuteOfDay(double minute) {
+        double wrapped = minute % MINUTES_PER_DAY;
+        return wrapped < 0 ? wrapped + MINUTES_PER_DAY : wrapped;
+    }
+}
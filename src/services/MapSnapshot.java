@@ -0,0 +1,218 @@
+package services;
+
+import models.RoadTypes;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Versioned binary snapshot of a loaded city map
+ *
+ * Layout (big-endian):
+ *   header  : magic, version, source CSV length + CRC32C, payload length + CRC32C
+ *   payload : road type table, node IDs and coordinates,
+ *             adjacency offsets, edge targets (node IDs), weights and packed edge
+ *             attributes (road type code in the low byte indexes the road type table)
+ *
+ * Snapshots are opened through a memory-mapped FileChannel and bulk-copied into
+ * primitive arrays. A snapshot whose source hash no longer matches the CSV, whose
+ * payload checksum fails, or whose version differs is treated as stale. Degree
+ * and connectivity statistics are not stored; loading rebuilds them from the edges.
+ */
+public class MapSnapshot {
+
+    public static final int MAGIC = 0x50534D53; // "PSMS"
+    public static final int VERSION = 3;
+    public static final String FILE_EXTENSION = ".snap";
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 8 + 4;
+
+    // Graph structure (edge targets are external node IDs)
+    private final int[] nodeIds;
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final int[] attributes;        // road type code indexes roadTypeTable
+    private final String[] roadTypeTable;
+    private final int[] registryCodes;     // roadTypeTable index -> RoadTypes code
+
+    public MapSnapshot(int[] nodeIds, double[] xs, double[] ys, int[] offsets, int[] targets,
+                       double[] weights, int[] attributes, String[] roadTypeTable) {
+        this.nodeIds = nodeIds;
+        this.xs = xs;
+        this.ys = ys;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.attributes = attributes;
+        this.roadTypeTable = roadTypeTable;
+        this.registryCodes = new int[roadTypeTable.length];
+        for (int t = 0; t < roadTypeTable.length; t++) {
+            registryCodes[t] = RoadTypes.codeOf(roadTypeTable[t]);
+        }
+    }
+
+    /**
+     * Default snapshot location for a CSV map file
+     */
+    public static Path snapshotPathFor(String csvFile) {
+        return Paths.get(csvFile + FILE_EXTENSION);
+    }
+
+    /**
+     * Hash of the source CSV: length in the high bits, CRC32C of the content in the low bits
+     */
+    public static long hashSource(Path csvFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            CRC32C crc = new CRC32C();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(size - position, 1L << 30);
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                position += length;
+            }
+            return (size << 32) ^ crc.getValue();
+        }
+    }
+
+    /**
+     * Write the snapshot atomically (temp file + move)
+     */
+    public void write(Path file, long sourceHash) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_BYTES);
+            CRC32C crc = new CRC32C();
+            CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc);
+            DataOutputStream out = new DataOutputStream(checked);
+
+            writePayload(out);
+            out.flush();
+            long payloadLength = channel.position() - HEADER_BYTES;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(sourceHash).putInt(0)
+                  .putLong(payloadLength).putInt((int) crc.getValue());
+            header.flip();
+            channel.write(header, 0);
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writePayload(DataOutputStream out) throws IOException {
+        out.writeInt(roadTypeTable.length);
+        for (String roadType : roadTypeTable) {
+            byte[] bytes = roadType.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+
+        out.writeInt(nodeIds.length);
+        out.writeInt(targets.length);
+        for (int id : nodeIds) out.writeInt(id);
+        for (double x : xs) out.writeDouble(x);
+        for (double y : ys) out.writeDouble(y);
+        for (int offset : offsets) out.writeInt(offset);
+        for (int target : targets) out.writeInt(target);
+        for (double weight : weights) out.writeDouble(weight);
+        for (int attribute : attributes) out.writeInt(attribute);
+    }
+
+    /**
+     * Open a snapshot through a memory-mapped channel
+     * @return the snapshot, or null if it is missing, stale, corrupt or from another version
+     */
+    public static MapSnapshot read(Path file, long expectedSourceHash) throws IOException {
+        if (!Files.isRegularFile(file)) return null;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) return null;
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+            if (buffer.getLong() != expectedSourceHash) return null;
+            buffer.getInt(); // reserved
+            long payloadLength = buffer.getLong();
+            int payloadChecksum = buffer.getInt();
+            if (payloadLength != size - HEADER_BYTES) return null;
+
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != payloadChecksum) return null;
+
+            return readPayload(buffer);
+        }
+    }
+
+    private static MapSnapshot readPayload(ByteBuffer buffer) {
+        String[] roadTypeTable = new String[buffer.getInt()];
+        for (int t = 0; t < roadTypeTable.length; t++) {
+            byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(bytes);
+            roadTypeTable[t] = new String(bytes, StandardCharsets.UTF_8).intern();
+        }
+
+        int nodeCount = buffer.getInt();
+        int edgeCount = buffer.getInt();
+        int[] nodeIds = new int[nodeCount];
+        double[] xs = new double[nodeCount];
+        double[] ys = new double[nodeCount];
+        int[] offsets = new int[nodeCount + 1];
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+        int[] attributes = new int[edgeCount];
+
+        readInts(buffer, nodeIds);
+        readDoubles(buffer, xs);
+        readDoubles(buffer, ys);
+        readInts(buffer, offsets);
+        readInts(buffer, targets);
+        readDoubles(buffer, weights);
+        readInts(buffer, attributes);
+
+        return new MapSnapshot(nodeIds, xs, ys, offsets, targets, weights, attributes, roadTypeTable);
+    }
+
+    private static void readInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 4);
+    }
+
+    private static void readDoubles(ByteBuffer buffer, double[] values) {
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 8);
+    }
+
+    // Getters
+    public int getNodeCount() { return nodeIds.length; }
+    public int nodeId(int index) { return nodeIds[index]; }
+    public double x(int index) { return xs[index]; }
+    public double y(int index) { return ys[index]; }
+    public int edgeStart(int index) { return offsets[index]; }
+    public int edgeEnd(int index) { return offsets[index + 1]; }
+    public int target(int edge) { return targets[edge]; }
+    public double weight(int edge) { return weights[edge]; }
+    public String roadType(int edge) { return roadTypeTable[RoadTypes.roadTypeCode(attributes[edge])]; }
+
+    /**
+     * Packed attributes of an edge, re-coded for this process's RoadTypes registry
+     */
+    public int attributes(int edge) {
+        int attribute = attributes[edge];
+        return attribute & ~0xFF | registryCodes[RoadTypes.roadTypeCode(attribute)];
+    }
+}
@@ -0,0 +1,414 @@
+package services;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * High-throughput loader for city map CSV files
+ * Expected format: nodeId1,x1,y1,nodeId2,x2,y2,weight,roadType
+ *
+ * The file is split into line-aligned chunks that are memory-mapped and
+ * parsed in parallel straight from the bytes (no per-row Strings). Parsed
+ * chunks are then handed to the caller in file order, so the resulting
+ * node table is identical to a sequential BufferedReader load.
+ */
+public class MappedMapLoader {
+
+    // Chunks are kept well below the 2GB MappedByteBuffer limit
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    private static final long MAX_CHUNK_BYTES = 1L << 28;
+    private static final String DEFAULT_ROAD_TYPE = "street";
+
+    /**
+     * Receives parsed rows in file order
+     */
+    public interface RowSink {
+        void accept(int nodeId1, double x1, double y1, int nodeId2, double x2, double y2,
+                    double weight, String roadType);
+    }
+
+    /**
+     * Load statistics for a single file
+     */
+    public static class LoadReport {
+        private final long rows;
+        private final long rejectedRows;
+        private final long bytes;
+        private final int chunks;
+        private final long elapsedNanos;
+
+        public LoadReport(long rows, long rejectedRows, long bytes, int chunks, long elapsedNanos) {
+            this.rows = rows;
+            this.rejectedRows = rejectedRows;
+            this.bytes = bytes;
+            this.chunks = chunks;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getRows() { return rows; }
+        public long getRejectedRows() { return rejectedRows; }
+        public long getBytes() { return bytes; }
+        public int getChunks() { return chunks; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos > 0 ? rows * 1_000_000_000.0 / elapsedNanos : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows (%d rejected) from %d bytes in %d chunks, %.1f ms, %.0f rows/sec",
+                rows, rejectedRows, bytes, chunks, elapsedNanos / 1_000_000.0, getRowsPerSecond());
+        }
+    }
+
+    /**
+     * Parsed rows of one chunk, stored column-wise in primitive arrays
+     */
+    private static class ParsedChunk {
+        int size;
+        int rejected;
+        int[] nodeIds1 = new int[1024];
+        int[] nodeIds2 = new int[1024];
+        double[] values = new double[1024 * 5]; // x1, y1, x2, y2, weight
+        String[] roadTypes = new String[1024];
+
+        void add(int id1, int id2, double x1, double y1, double x2, double y2, double weight, String roadType) {
+            if (size == nodeIds1.length) {
+                int capacity = size * 2;
+                nodeIds1 = Arrays.copyOf(nodeIds1, capacity);
+                nodeIds2 = Arrays.copyOf(nodeIds2, capacity);
+                values = Arrays.copyOf(values, capacity * 5);
+                roadTypes = Arrays.copyOf(roadTypes, capacity);
+            }
+            nodeIds1[size] = id1;
+            nodeIds2[size] = id2;
+            int v = size * 5;
+            values[v] = x1;
+            values[v + 1] = y1;
+            values[v + 2] = x2;
+            values[v + 3] = y2;
+            values[v + 4] = weight;
+            roadTypes[size] = roadType;
+            size++;
+        }
+    }
+
+    /**
+     * Load a map file using all available processors
+     */
+    public static LoadReport load(String filename, RowSink sink) throws IOException {
+        return load(filename, Runtime.getRuntime().availableProcessors(), sink);
+    }
+
+    /**
+     * Load a map file, parsing chunks on the given number of threads
+     */
+    public static LoadReport load(String filename, int parallelism, RowSink sink) throws IOException {
+        long startTime = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long[] boundaries = computeChunkBoundaries(channel, fileSize, parallelism);
+            int chunkCount = boundaries.length - 1;
+
+            List<Future<ParsedChunk>> futures = new ArrayList<>(chunkCount);
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+            try {
+                for (int c = 0; c < chunkCount; c++) {
+                    long from = boundaries[c];
+                    long to = boundaries[c + 1];
+                    futures.add(pool.submit(() -> parseChunk(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from))));
+                }
+
+                // Merge in file order so node creation order matches a sequential load
+                long rows = 0;
+                long rejected = 0;
+                for (Future<ParsedChunk> future : futures) {
+                    ParsedChunk chunk = future.get();
+                    for (int r = 0; r < chunk.size; r++) {
+                        int v = r * 5;
+                        sink.accept(chunk.nodeIds1[r], chunk.values[v], chunk.values[v + 1],
+                                    chunk.nodeIds2[r], chunk.values[v + 2], chunk.values[v + 3],
+                                    chunk.values[v + 4], chunk.roadTypes[r]);
+                    }
+                    rows += chunk.size;
+                    rejected += chunk.rejected;
+                }
+
+                return new LoadReport(rows, rejected, fileSize, chunkCount, System.nanoTime() - startTime);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + filename, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                throw new IOException("Failed to parse " + filename, cause);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Split the file into chunks that each start at the beginning of a line
+     */
+    private static long[] computeChunkBoundaries(FileChannel channel, long fileSize, int parallelism) throws IOException {
+        long target = fileSize / Math.max(1, parallelism * 4L);
+        long chunkSize = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, target));
+
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = chunkSize;
+        while (position < fileSize) {
+            // Advance to the byte after the next newline
+            long lineStart = -1;
+            long scan = position;
+            while (lineStart < 0 && scan < fileSize) {
+                probe.clear();
+                int read = channel.read(probe, scan);
+                if (read <= 0) break;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        lineStart = scan + i + 1;
+                        break;
+                    }
+                }
+                scan += read;
+            }
+
+            if (lineStart < 0 || lineStart >= fileSize) break;
+            boundaries.add(lineStart);
+            position = lineStart + chunkSize;
+        }
+
+        boundaries.add(fileSize);
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) result[i] = boundaries.get(i);
+        return result;
+    }
+
+    /**
+     * Parse every line of a mapped chunk
+     */
+    private static ParsedChunk parseChunk(MappedByteBuffer buffer) {
+        ParsedChunk chunk = new ParsedChunk();
+        RoadTypeTable roadTypes = new RoadTypeTable();
+        int[] fieldStart = new int[8];
+        int[] fieldEnd = new int[8];
+        double[] numbers = new double[5];
+
+        int limit = buffer.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') lineEnd++;
+
+            parseLine(buffer, lineStart, lineEnd, chunk, roadTypes, fieldStart, fieldEnd, numbers);
+            lineStart = lineEnd + 1;
+        }
+
+        return chunk;
+    }
+
+    /**
+     * Parse one line with the same acceptance rules as CityMap's sequential loader:
+     * blank and '#' lines are skipped, rows need at least 7 fields.
+     */
+    private static void parseLine(MappedByteBuffer buffer, int start, int end, ParsedChunk chunk,
+                                  RoadTypeTable roadTypes, int[] fieldStart, int[] fieldEnd, double[] numbers) {
+        // readLine() strips the '\r' of CRLF line endings
+        if (end > start && buffer.get(end - 1) == '\r') end--;
+        if (start < end && buffer.get(start) == '#') return;
+        int contentStart = trimStart(buffer, start, end);
+        if (trimEnd(buffer, contentStart, end) == contentStart) return;
+
+        // Split on commas; split(",") semantics drop trailing empty fields
+        int fields = 0;
+        int nonEmptyFields = 0;
+        int fieldBegin = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || buffer.get(i) == ',') {
+                if (fields < 8) {
+                    fieldStart[fields] = fieldBegin;
+                    fieldEnd[fields] = i;
+                }
+                fields++;
+                if (i > fieldBegin) nonEmptyFields = fields;
+                fieldBegin = i + 1;
+            }
+        }
+
+        if (nonEmptyFields < 7) {
+            chunk.rejected++;
+            return;
+        }
+
+        long id1 = parseInt(buffer, fieldStart[0], fieldEnd[0]);
+        long id2 = parseInt(buffer, fieldStart[3], fieldEnd[3]);
+        if (id1 == Long.MIN_VALUE || id2 == Long.MIN_VALUE) {
+            chunk.rejected++;
+            return;
+        }
+
+        int[] numberFields = {1, 2, 4, 5, 6};
+        for (int k = 0; k < numberFields.length; k++) {
+            int f = numberFields[k];
+            double value = parseDouble(buffer, fieldStart[f], fieldEnd[f]);
+            if (Double.isNaN(value) && !isLiteralNaN(buffer, fieldStart[f], fieldEnd[f])) {
+                chunk.rejected++;
+                return;
+            }
+            numbers[k] = value;
+        }
+
+        String roadType = DEFAULT_ROAD_TYPE;
+        if (nonEmptyFields > 7) {
+            int typeStart = trimStart(buffer, fieldStart[7], fieldEnd[7]);
+            roadType = roadTypes.intern(buffer, typeStart, trimEnd(buffer, typeStart, fieldEnd[7]));
+        }
+
+        chunk.add((int) id1, (int) id2, numbers[0], numbers[1], numbers[2], numbers[3], numbers[4], roadType);
+    }
+
+    private static int trimStart(MappedByteBuffer buffer, int start, int end) {
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') start++;
+        return start;
+    }
+
+    private static int trimEnd(MappedByteBuffer buffer, int start, int end) {
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') end--;
+        return end;
+    }
+
+    /**
+     * Parse a trimmed decimal int; returns Long.MIN_VALUE when invalid or out of range
+     */
+    private static long parseInt(MappedByteBuffer buffer, int start, int end) {
+        start = trimStart(buffer, start, end);
+        end = trimEnd(buffer, start, end);
+        if (start == end) return Long.MIN_VALUE;
+
+        boolean negative = false;
+        byte first = buffer.get(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++start == end) return Long.MIN_VALUE;
+        }
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return Long.MIN_VALUE;
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) return Long.MIN_VALUE;
+        }
+
+        value = negative ? -value : value;
+        return (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) ? Long.MIN_VALUE : value;
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Parse a trimmed decimal double without allocating; returns NaN when invalid.
+     * Plain decimals with at most 15 significant digits are converted exactly
+     * (mantissa and power of ten are both exact doubles); anything else falls
+     * back to Double.parseDouble so results always match the standard loader.
+     */
+    private static double parseDouble(MappedByteBuffer buffer, int start, int end) {
+        start = trimStart(buffer, start, end);
+        end = trimEnd(buffer, start, end);
+        if (start == end) return Double.NaN;
+
+        int i = start;
+        boolean negative = false;
+        byte first = buffer.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        boolean anyDigit = false;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        boolean fastPath = i < end;
+
+        for (; i < end && fastPath; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                anyDigit = true;
+                if (mantissa != 0 || b != '0') digits++;
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenDot) fractionDigits++;
+            } else if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                fastPath = false;
+            }
+        }
+
+        if (fastPath && anyDigit && digits <= 15 && fractionDigits < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+
+        // Rare forms (exponents, long mantissas, hex, etc.)
+        byte[] bytes = new byte[end - start];
+        for (int k = 0; k < bytes.length; k++) bytes[k] = buffer.get(start + k);
+        try {
+            return Double.parseDouble(new String(bytes, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static boolean isLiteralNaN(MappedByteBuffer buffer, int start, int end) {
+        start = trimStart(buffer, start, end);
+        end = trimEnd(buffer, start, end);
+        if (start < end && (buffer.get(start) == '+' || buffer.get(start) == '-')) start++;
+        return end - start == 3 && buffer.get(start) == 'N' && buffer.get(start + 1) == 'a' && buffer.get(start + 2) == 'N';
+    }
+
+    /**
+     * Per-chunk road type table; each distinct road type becomes one String
+     */
+    private static class RoadTypeTable {
+        private final List<byte[]> keys = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+
+        String intern(MappedByteBuffer buffer, int start, int end) {
+            int length = end - start;
+            for (int t = 0; t < keys.size(); t++) {
+                byte[] key = keys.get(t);
+                if (key.length != length) continue;
+                boolean match = true;
+                for (int k = 0; k < length && match; k++) {
+                    match = key[k] == buffer.get(start + k);
+                }
+                if (match) return names.get(t);
+            }
+
+            byte[] key = new byte[length];
+            for (int k = 0; k < length; k++) key[k] = buffer.get(start + k);
+            String name = new String(key, StandardCharsets.UTF_8).intern();
+            keys.add(key);
+            names.add(name);
+            return name;
+        }
+    }
+}
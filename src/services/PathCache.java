@@ -0,0 +1,572 @@
+package services;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongFunction;
+
+/**
+ * Concurrent cache keyed by a packed long and bounded by total entry weight
+ *
+ * Keys are spread over segments, each with its own lock, an open-addressed
+ * long -> entry table and a W-TinyLFU policy. New entries enter a small LRU
+ * window. An entry leaving the window competes with the eldest entry of the
+ * main region's probation queue, and a count-min sketch of recent accesses
+ * decides which one stays, so a burst of one-off keys cannot flush popular
+ * ones. A hit in probation promotes the entry to the protected queue. Every
+ * operation takes one segment lock and does O(1) work.
+ *
+ * get(key, loader) is single-flight: concurrent misses on one key wait for a
+ * single load, which runs outside the lock. Loads cancelled by invalidate(),
+ * clear() or discardPendingLoads() still return their value to the waiting
+ * callers but are not cached. An insertion listener hears about every value
+ * that is actually stored, so a caller's side index can follow the cache exactly.
+ */
+public class PathCache<V> {
+    private static final long MIN_SEGMENT_WEIGHT = 256;
+    private static final long SPREAD = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Weight of a value, counted against the cache's bound
+     */
+    public interface Weigher<V> {
+        int weigh(V value);
+    }
+
+    /**
+     * Called with each entry evicted to stay within the bound. Runs under the
+     * segment lock, so it must not call back into the cache.
+     */
+    public interface EvictionListener<V> {
+        void onEviction(long key, V value);
+    }
+
+    /**
+     * Called with each value the cache stores, new or replacing the key's value,
+     * before any eviction it causes. Not called for values the cache declines
+     * (cancelled loads, entries heavier than a segment). Runs under the segment
+     * lock, so it must not call back into the cache.
+     */
+    public interface InsertionListener<V> {
+        void onInsertion(long key, V value);
+    }
+
+    private final Segment<V>[] segments;
+    private final int segmentShift;
+    private final Weigher<V> weigher;
+    private final InsertionListener<V> insertionListener;
+    private final EvictionListener<V> evictionListener;
+
+    public PathCache(long maxWeight, int concurrencyLevel, Weigher<V> weigher, EvictionListener<V> evictionListener) {
+        this(maxWeight, concurrencyLevel, weigher, null, evictionListener);
+    }
+
+    /**
+     * @param maxWeight Bound on the summed weight of all entries
+     * @param concurrencyLevel Expected number of threads using the cache at once
+     * @param insertionListener May be null
+     * @param evictionListener May be null
+     */
+    @SuppressWarnings("unchecked")
+    public PathCache(long maxWeight, int concurrencyLevel, Weigher<V> weigher,
+                     InsertionListener<V> insertionListener, EvictionListener<V> evictionListener) {
+        int segmentCount = 1;
+        while (segmentCount < concurrencyLevel && maxWeight / (segmentCount * 2L) >= MIN_SEGMENT_WEIGHT) {
+            segmentCount <<= 1;
+        }
+        this.segments = (Segment<V>[]) new Segment<?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(Math.max(1, maxWeight / segmentCount));
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+        this.weigher = weigher;
+        this.insertionListener = insertionListener;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Cached value for the key, or null; counts as an access
+     */
+    public V getIfPresent(long key) {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * Cached value for the key, loading it on a miss. Concurrent misses on the
+     * same key run the loader once; loader exceptions reach every waiting caller.
+     * A null result is returned but not cached.
+     */
+    public V get(long key, LongFunction<V> loader) {
+        Segment<V> segment = segmentFor(key);
+        CompletableFuture<V> load;
+        boolean owner = false;
+        synchronized (segment) {
+            V cached = segment.get(key);
+            if (cached != null) return cached;
+            load = segment.loads.get(key);
+            if (load != null) {
+                segment.sharedLoads++;
+            } else {
+                segment.loads.put(key, load = new CompletableFuture<>());
+                segment.loadCount++;
+                owner = true;
+            }
+        }
+        if (!owner) return await(load);
+
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            synchronized (segment) {
+                segment.loads.remove(key, load);
+            }
+            load.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (segment) {
+            if (segment.loads.remove(key, load) && value != null) {
+                segment.put(key, value, weigher.weigh(value), insertionListener, evictionListener);
+            }
+        }
+        load.complete(value);
+        return value;
+    }
+
+    /**
+     * @return Whether the value was stored (false if it is heavier than a segment holds)
+     */
+    public boolean put(long key, V value) {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.loads.remove(key);
+            return segment.put(key, value, weigher.weigh(value), insertionListener, evictionListener);
+        }
+    }
+
+    /**
+     * Remove the entry and cancel any load in flight for it
+     * @return The removed value, or null if the key was not cached
+     */
+    public V invalidate(long key) {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.loads.remove(key);
+            return segment.remove(key);
+        }
+    }
+
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Loads already running will not be cached (their inputs may have changed)
+     */
+    public void discardPendingLoads() {
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                segment.loads.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.count;
+            }
+        }
+        return size;
+    }
+
+    public long weight() {
+        long weight = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                weight += segment.windowWeight + segment.probationWeight + segment.protectedWeight;
+            }
+        }
+        return weight;
+    }
+
+    public long evictionCount() {
+        long evictions = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                evictions += segment.evictionCount;
+            }
+        }
+        return evictions;
+    }
+
+    /**
+     * Loader calls, one per distinct concurrent miss
+     */
+    public long loadCount() {
+        long loads = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                loads += segment.loadCount;
+            }
+        }
+        return loads;
+    }
+
+    /**
+     * Misses that waited for another caller's load instead of running the loader
+     */
+    public long sharedLoadCount() {
+        long shared = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                shared += segment.sharedLoads;
+            }
+        }
+        return shared;
+    }
+
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    private static <V> V await(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private Segment<V> segmentFor(long key) {
+        return segments.length == 1 ? segments[0] : segments[(int) ((key * SPREAD) >>> segmentShift)];
+    }
+
+    private static int hash(long key) {
+        long h = key * SPREAD;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Entry, linked into one of the segment's three queues
+     */
+    private static final class Node<V> {
+        static final int WINDOW = 0;
+        static final int PROBATION = 1;
+        static final int PROTECTED = 2;
+
+        final long key;
+        V value;
+        int weight;
+        int queue;
+        Node<V> prev;
+        Node<V> next;
+
+        Node(long key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * One lock's worth of the cache: table, policy queues and frequency sketch
+     */
+    private static final class Segment<V> {
+        private final long maxWeight;
+        private final long windowMax;
+        private final long protectedMax;
+        private final Node<V> window = sentinel();       // LRU order, eldest first
+        private final Node<V> probation = sentinel();
+        private final Node<V> protectedQueue = sentinel();
+        private final FrequencySketch sketch = new FrequencySketch();
+        final Map<Long, CompletableFuture<V>> loads = new HashMap<>();
+
+        private long[] keys = new long[16];
+        private Node<V>[] nodes = newTable(16);
+        private int count;
+        private long windowWeight;
+        private long probationWeight;
+        private long protectedWeight;
+        private long evictionCount;
+        private long loadCount;
+        private long sharedLoads;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+            this.windowMax = Math.max(1, maxWeight / 100);
+            this.protectedMax = (maxWeight - windowMax) * 4 / 5;
+        }
+
+        V get(long key) {
+            Node<V> node = find(key);
+            if (node == null) return null;
+            sketch.increment(key);
+            onAccess(node);
+            return node.value;
+        }
+
+        boolean put(long key, V value, int weight, InsertionListener<V> inserted, EvictionListener<V> evicted) {
+            Node<V> node = find(key);
+            if (node != null) {
+                adjustWeight(node.queue, weight - node.weight);
+                node.value = value;
+                node.weight = weight;
+                onAccess(node);
+            } else {
+                if (weight > maxWeight) return false;
+                node = new Node<>(key, value, weight);
+                insert(node);
+                sketch.ensureCapacity(count);
+                sketch.increment(key);
+                node.queue = Node.WINDOW;
+                append(window, node);
+                windowWeight += weight;
+            }
+            if (inserted != null) inserted.onInsertion(key, value);
+            evict(evicted);
+            return true;
+        }
+
+        V remove(long key) {
+            Node<V> node = find(key);
+            if (node == null) return null;
+            delete(node);
+            return node.value;
+        }
+
+        void clear() {
+            keys = new long[16];
+            nodes = newTable(16);
+            count = 0;
+            window.prev = window.next = window;
+            probation.prev = probation.next = probation;
+            protectedQueue.prev = protectedQueue.next = protectedQueue;
+            windowWeight = probationWeight = protectedWeight = 0;
+            loads.clear();
+        }
+
+        private void onAccess(Node<V> node) {
+            switch (node.queue) {
+                case Node.WINDOW:
+                    unlink(node);
+                    append(window, node);
+                    break;
+                case Node.PROBATION:
+                    unlink(node);
+                    probationWeight -= node.weight;
+                    node.queue = Node.PROTECTED;
+                    append(protectedQueue, node);
+                    protectedWeight += node.weight;
+                    // Protected overflow goes back to probation, still ahead of eviction
+                    while (protectedWeight > protectedMax && protectedQueue.next != node) {
+                        Node<V> demoted = protectedQueue.next;
+                        unlink(demoted);
+                        protectedWeight -= demoted.weight;
+                        demoted.queue = Node.PROBATION;
+                        append(probation, demoted);
+                        probationWeight += demoted.weight;
+                    }
+                    break;
+                default:
+                    unlink(node);
+                    append(protectedQueue, node);
+            }
+        }
+
+        /**
+         * Move window overflow to the probation tail as candidates, then evict the
+         * less frequent of the eldest candidate and the eldest probation entry
+         * until the segment is within its bound
+         */
+        private void evict(EvictionListener<V> listener) {
+            Node<V> candidate = null;
+            while (windowWeight > windowMax && window.next != window) {
+                Node<V> node = window.next;
+                unlink(node);
+                windowWeight -= node.weight;
+                node.queue = Node.PROBATION;
+                append(probation, node);
+                probationWeight += node.weight;
+                if (candidate == null) candidate = node;
+            }
+
+            while (windowWeight + probationWeight + protectedWeight > maxWeight) {
+                Node<V> victim = probation.next;
+                Node<V> evicted;
+                if (victim == probation) {
+                    // Probation is empty: take from protected, then the window
+                    evicted = protectedQueue.next != protectedQueue ? protectedQueue.next : window.next;
+                } else if (candidate == null || candidate == victim) {
+                    evicted = victim;
+                } else {
+                    evicted = sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+                }
+                if (evicted == candidate) candidate = candidate.next != probation ? candidate.next : null;
+                delete(evicted);
+                evictionCount++;
+                if (listener != null) listener.onEviction(evicted.key, evicted.value);
+            }
+        }
+
+        private void delete(Node<V> node) {
+            unlink(node);
+            adjustWeight(node.queue, -node.weight);
+            removeFromTable(node.key);
+        }
+
+        private void adjustWeight(int queue, long delta) {
+            if (queue == Node.WINDOW) windowWeight += delta;
+            else if (queue == Node.PROBATION) probationWeight += delta;
+            else protectedWeight += delta;
+        }
+
+        // Open-addressed table with linear probing and backward-shift deletion
+
+        private Node<V> find(long key) {
+            int mask = nodes.length - 1;
+            for (int i = hash(key) & mask; nodes[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) return nodes[i];
+            }
+            return null;
+        }
+
+        private void insert(Node<V> node) {
+            if ((count + 1) * 2 > nodes.length) resize(nodes.length * 2);
+            int mask = nodes.length - 1;
+            int i = hash(node.key) & mask;
+            while (nodes[i] != null) i = (i + 1) & mask;
+            keys[i] = node.key;
+            nodes[i] = node;
+            count++;
+        }
+
+        private void removeFromTable(long key) {
+            int mask = nodes.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != key || nodes[i] == null) i = (i + 1) & mask;
+            nodes[i] = null;
+            count--;
+            for (int j = (i + 1) & mask; nodes[j] != null; j = (j + 1) & mask) {
+                int home = hash(keys[j]) & mask;
+                boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!stays) {
+                    keys[i] = keys[j];
+                    nodes[i] = nodes[j];
+                    nodes[j] = null;
+                    i = j;
+                }
+            }
+        }
+
+        private void resize(int capacity) {
+            Node<V>[] old = nodes;
+            keys = new long[capacity];
+            nodes = newTable(capacity);
+            count = 0;
+            for (Node<V> node : old) {
+                if (node != null) insert(node);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] newTable(int capacity) {
+            return (Node<V>[]) new Node<?>[capacity];
+        }
+
+        private static <V> Node<V> sentinel() {
+            Node<V> head = new Node<>(0, null, 0);
+            head.prev = head.next = head;
+            return head;
+        }
+
+        private static <V> void append(Node<V> head, Node<V> node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+        }
+
+        private static <V> void unlink(Node<V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = node.next = null;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters, 16 per long, four rows; all counters
+     * are halved every 10 increments per counter slot so old popularity decays
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+            0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+        };
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private long[] table = new long[16];
+        private int additions;
+
+        void ensureCapacity(int entries) {
+            if (entries > table.length) {
+                table = new long[Integer.highestOneBit(entries - 1) << 1];
+                additions = 0;
+            }
+        }
+
+        int frequency(long key) {
+            int min = 15;
+            for (int row = 0; row < 4; row++) {
+                long h = rowHash(key, row);
+                min = Math.min(min, (int) ((table[index(h)] >>> offset(h, row)) & 0xF));
+            }
+            return min;
+        }
+
+        void increment(long key) {
+            boolean added = false;
+            for (int row = 0; row < 4; row++) {
+                long h = rowHash(key, row);
+                int index = index(h);
+                int offset = offset(h, row);
+                if (((table[index] >>> offset) & 0xF) != 0xF) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= 10 * table.length) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions /= 2;
+            }
+        }
+
+        private static long rowHash(long key, int row) {
+            long h = (key + SEEDS[row]) * SEEDS[row];
+            return h ^ (h >>> 29);
+        }
+
+        private int index(long h) {
+            return (int) h & (table.length - 1);
+        }
+
+        /**
+         * Bit offset of this row's counter: row picks a group of four counters, the hash one of them
+         */
+        private static int offset(long h, int row) {
+            return ((row << 2) + (int) ((h >>> 40) & 3)) << 2;
+        }
+    }
+}
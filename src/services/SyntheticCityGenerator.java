@@ -0,0 +1,312 @@
+package services;
+
+import java.io.*;
+import java.util.BitSet;
+
+/**
+ * Generates large synthetic road networks for scale and regression testing
+ * Output format (same as the bundled maps): nodeId1,x1,y1,nodeId2,x2,y2,weight,roadType
+ *
+ * The network is a perturbed street grid with
+ *   - arterial roads every few blocks (faster than streets),
+ *   - concentric ring highways linking grid intersections,
+ *   - one-way street pairs (roadType "oneway", alternating direction by row/column),
+ *   - missing blocks and occasional diagonals for a realistic degree spread,
+ *   - cul-de-sacs: short dead-end spurs of "alley" nodes.
+ *
+ * Rows are written as they are generated; every coordinate and random choice
+ * comes from a hash of (seed, position), so the only state kept is one bit per
+ * node ID written and the same seed always produces the same file.
+ */
+public class SyntheticCityGenerator {
+
+    private static final double BLOCK_SIZE = 10.0;
+    private static final double JITTER = 0.35;           // fraction of a block
+    private static final int ARTERIAL_SPACING = 8;        // blocks between arterials
+    private static final int RING_COUNT = 3;
+
+    // Per-edge probabilities
+    private static final double MISSING_BLOCK_RATE = 0.06;
+    private static final double DIAGONAL_RATE = 0.04;
+    private static final double ONE_WAY_RATE = 0.12;
+    private static final double CUL_DE_SAC_RATE = 0.03;
+
+    // Relative speeds (weight = length / speed)
+    private static final double STREET_SPEED = 1.0;
+    private static final double ONE_WAY_SPEED = 1.1;
+    private static final double ALLEY_SPEED = 0.6;
+    private static final double ARTERIAL_SPEED = 1.6;
+    private static final double HIGHWAY_SPEED = 2.5;
+
+    private final int rows;
+    private final int columns;
+    private final long seed;
+
+    /**
+     * Summary of a generated map
+     */
+    public static class GenerationStats {
+        public final long nodes;        // distinct node IDs that appear in at least one row
+        public final long rows;
+        public final long elapsedMillis;
+
+        public GenerationStats(long nodes, long rows, long elapsedMillis) {
+            this.nodes = nodes;
+            this.rows = rows;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d nodes, %d rows in %d ms", nodes, rows, elapsedMillis);
+        }
+    }
+
+    /**
+     * @param targetNodes approximate number of grid intersections (cul-de-sac nodes come on top)
+     * @param seed        random seed; equal seeds give byte-identical output
+     */
+    public SyntheticCityGenerator(int targetNodes, long seed) {
+        if (targetNodes < 4) {
+            throw new IllegalArgumentException("targetNodes must be at least 4");
+        }
+        this.columns = (int) Math.ceil(Math.sqrt(targetNodes));
+        this.rows = (int) Math.ceil((double) targetNodes / columns);
+        this.seed = seed;
+    }
+
+    public GenerationStats generate(String filePath) throws IOException {
+        try (Writer writer = new BufferedWriter(new FileWriter(filePath), 1 << 20)) {
+            return generate(writer);
+        }
+    }
+
+    /**
+     * Stream the whole map to the writer
+     */
+    public GenerationStats generate(Writer writer) throws IOException {
+        long startTime = System.currentTimeMillis();
+        RowWriter out = new RowWriter(writer);
+
+        out.comment("Synthetic city map: " + rows + "x" + columns + " grid, seed " + seed);
+        out.comment("Format: nodeId1,x1,y1,nodeId2,x2,y2,weight,roadType");
+
+        long nextSpurId = (long) rows * columns;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                writeGridEdges(out, r, c);
+                nextSpurId = writeCulDeSac(out, r, c, nextSpurId);
+            }
+        }
+
+        writeRingHighways(out);
+        writer.flush();
+
+        return new GenerationStats(out.nodes.cardinality(), out.rows, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * East, south and occasional diagonal edges of one intersection
+     */
+    private void writeGridEdges(RowWriter out, int r, int c) throws IOException {
+        int node = nodeId(r, c);
+
+        // East edge (horizontal street)
+        if (c + 1 < columns && !isMissing(r, c, 0)) {
+            boolean arterial = r % ARTERIAL_SPACING == 0;
+            boolean oneWay = !arterial && random(r, c, 1) < ONE_WAY_RATE;
+            int east = nodeId(r, c + 1);
+            if (oneWay && r % 2 == 1) {
+                writeRoad(out, east, node, "oneway", ONE_WAY_SPEED);   // westbound pair
+            } else {
+                writeRoad(out, node, east, arterial ? "arterial" : oneWay ? "oneway" : "street",
+                          arterial ? ARTERIAL_SPEED : oneWay ? ONE_WAY_SPEED : STREET_SPEED);
+            }
+        }
+
+        // South edge (vertical street)
+        if (r + 1 < rows && !isMissing(r, c, 2)) {
+            boolean arterial = c % ARTERIAL_SPACING == 0;
+            boolean oneWay = !arterial && random(r, c, 3) < ONE_WAY_RATE;
+            int south = nodeId(r + 1, c);
+            if (oneWay && c % 2 == 1) {
+                writeRoad(out, south, node, "oneway", ONE_WAY_SPEED);  // northbound pair
+            } else {
+                writeRoad(out, node, south, arterial ? "arterial" : oneWay ? "oneway" : "street",
+                          arterial ? ARTERIAL_SPEED : oneWay ? ONE_WAY_SPEED : STREET_SPEED);
+            }
+        }
+
+        // Diagonal shortcut through the block
+        if (r + 1 < rows && c + 1 < columns && random(r, c, 4) < DIAGONAL_RATE) {
+            writeRoad(out, node, nodeId(r + 1, c + 1), "street", STREET_SPEED);
+        }
+    }
+
+    /**
+     * Occasionally hang a dead-end spur of 1-3 alley nodes off an intersection
+     */
+    private long writeCulDeSac(RowWriter out, int r, int c, long nextSpurId) throws IOException {
+        if (random(r, c, 5) >= CUL_DE_SAC_RATE) return nextSpurId;
+
+        int length = 1 + (int) (random(r, c, 6) * 3);
+        double angle = random(r, c, 7) * 2 * Math.PI;
+        double step = BLOCK_SIZE * 0.3;
+
+        int previous = nodeId(r, c);
+        double px = x(r, c), py = y(r, c);
+        for (int k = 1; k <= length; k++) {
+            int spur = toNodeId(nextSpurId++);
+            double sx = x(r, c) + Math.cos(angle) * step * k;
+            double sy = y(r, c) + Math.sin(angle) * step * k;
+            out.row(previous, px, py, spur, sx, sy, step / ALLEY_SPEED, "alley");
+            previous = spur;
+            px = sx;
+            py = sy;
+        }
+        return nextSpurId;
+    }
+
+    /**
+     * Concentric ring highways through the grid intersections closest to each circle
+     */
+    private void writeRingHighways(RowWriter out) throws IOException {
+        double centerRow = (rows - 1) / 2.0;
+        double centerColumn = (columns - 1) / 2.0;
+        double maxRadius = Math.min(rows, columns) / 2.0 - 1;
+        if (maxRadius < 2) return;
+
+        for (int ring = 1; ring <= RING_COUNT; ring++) {
+            double radius = maxRadius * ring / (RING_COUNT + 0.5);
+            int segments = Math.max(8, (int) (2 * Math.PI * radius / 4)); // one exit every ~4 blocks
+
+            int first = -1, previous = -1;
+            for (int s = 0; s <= segments; s++) {
+                double angle = 2 * Math.PI * s / segments;
+                int r = (int) Math.round(centerRow + radius * Math.sin(angle));
+                int c = (int) Math.round(centerColumn + radius * Math.cos(angle));
+                int node = s == segments ? first : nodeId(r, c);
+
+                if (previous >= 0 && node != previous) {
+                    writeRoad(out, previous, node, "highway", HIGHWAY_SPEED);
+                }
+                if (first < 0) first = node;
+                previous = node;
+            }
+        }
+    }
+
+    private void writeRoad(RowWriter out, int from, int to, String roadType, double speed) throws IOException {
+        int r1 = from / columns, c1 = from % columns;
+        int r2 = to / columns, c2 = to % columns;
+        double x1 = x(r1, c1), y1 = y(r1, c1);
+        double x2 = x(r2, c2), y2 = y(r2, c2);
+        double length = Math.sqrt((x2 - x1) * (x2 - x1) + (y2 - y1) * (y2 - y1));
+        out.row(from, x1, y1, to, x2, y2, length / speed, roadType);
+    }
+
+    private boolean isMissing(int r, int c, int salt) {
+        // Arterial rows/columns are never broken
+        boolean arterial = salt == 0 ? r % ARTERIAL_SPACING == 0 : c % ARTERIAL_SPACING == 0;
+        return !arterial && random(r, c, salt + 16) < MISSING_BLOCK_RATE;
+    }
+
+    private int nodeId(int r, int c) {
+        return r * columns + c;
+    }
+
+    private static int toNodeId(long id) {
+        if (id > Integer.MAX_VALUE) throw new IllegalStateException("Node ID overflow");
+        return (int) id;
+    }
+
+    private double x(int r, int c) {
+        return c * BLOCK_SIZE + (random(r, c, 8) - 0.5) * 2 * JITTER * BLOCK_SIZE;
+    }
+
+    private double y(int r, int c) {
+        return r * BLOCK_SIZE + (random(r, c, 9) - 0.5) * 2 * JITTER * BLOCK_SIZE;
+    }
+
+    /**
+     * Deterministic uniform value in [0, 1) for (seed, r, c, salt)
+     */
+    private double random(int r, int c, int salt) {
+        long h = seed * 0x9E3779B97F4A7C15L + r;
+        h = mix(h) + c;
+        h = mix(h) + salt;
+        return (mix(h) >>> 11) * 0x1.0p-53;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Formats rows without String.format (two decimals for coordinates, three for weights)
+     * and records which node IDs have been written; grid cells cut off by missing
+     * blocks never appear in a row, so they are not counted
+     */
+    private static class RowWriter {
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder(96);
+        final BitSet nodes = new BitSet();
+        long rows;
+
+        RowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        void comment(String text) throws IOException {
+            writer.write("# " + text + "\n");
+        }
+
+        void row(int id1, double x1, double y1, int id2, double x2, double y2,
+                 double weight, String roadType) throws IOException {
+            line.setLength(0);
+            line.append(id1).append(',');
+            appendFixed(x1, 100).append(',');
+            appendFixed(y1, 100).append(',');
+            line.append(id2).append(',');
+            appendFixed(x2, 100).append(',');
+            appendFixed(y2, 100).append(',');
+            appendFixed(weight, 1000).append(',');
+            line.append(roadType).append('\n');
+            writer.append(line);
+            nodes.set(id1);
+            nodes.set(id2);
+            rows++;
+        }
+
+        private StringBuilder appendFixed(double value, int scale) {
+            long scaled = Math.round(value * scale);
+            if (scaled < 0) {
+                line.append('-');
+                scaled = -scaled;
+            }
+            line.append(scaled / scale).append('.');
+            String fraction = Long.toString(scaled % scale);
+            for (int pad = Integer.toString(scale).length() - 1 - fraction.length(); pad > 0; pad--) {
+                line.append('0');
+            }
+            return line.append(fraction);
+        }
+    }
+
+    /**
+     * Usage: java services.SyntheticCityGenerator <nodes> <seed> <output.csv>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: java services.SyntheticCityGenerator <nodes> <seed> <output.csv>");
+            return;
+        }
+
+        int nodes = Integer.parseInt(args[0]);
+        long seed = Long.parseLong(args[1]);
+        GenerationStats stats = new SyntheticCityGenerator(nodes, seed).generate(args[2]);
+        System.out.println("Generated " + args[2] + ": " + stats);
+    }
+}